@@ -0,0 +1,33 @@
+package com.github.clescot.kafka.connect.http;
+
+import com.github.clescot.kafka.connect.http.benchmarks.BenchmarkFixtures;
+import org.apache.kafka.connect.data.Struct;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU and allocation cost of the HttpExchange conversion to a Kafka Connect Struct.
+ * <p>
+ * run with : java -jar target/benchmarks.jar HttpExchangeBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpExchangeBenchmark {
+
+    private HttpExchange httpExchange;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        httpExchange = BenchmarkFixtures.httpExchange();
+    }
+
+    @Benchmark
+    public Struct toStruct() {
+        return httpExchange.toStruct();
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.clescot.kafka.connect.http.benchmarks;
+
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.sink.SinkTaskContext;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * minimal sink task context, to run a sink task outside of a Kafka Connect worker.
+ * no Dead Letter Queue is configured.
+ */
+public class BenchmarkSinkTaskContext implements SinkTaskContext {
+
+    private final Map<String, String> configs;
+    private final Set<TopicPartition> assignment;
+
+    public BenchmarkSinkTaskContext(Map<String, String> configs, Set<TopicPartition> assignment) {
+        this.configs = configs;
+        this.assignment = assignment;
+    }
+
+    @Override
+    public Map<String, String> configs() {
+        return configs;
+    }
+
+    @Override
+    public void offset(Map<TopicPartition, Long> offsets) {
+        //no-op
+    }
+
+    @Override
+    public void offset(TopicPartition tp, long offset) {
+        //no-op
+    }
+
+    @Override
+    public void timeout(long timeoutMs) {
+        //no-op
+    }
+
+    @Override
+    public Set<TopicPartition> assignment() {
+        return assignment;
+    }
+
+    @Override
+    public void pause(TopicPartition... partitions) {
+        //no-op
+    }
+
+    @Override
+    public void resume(TopicPartition... partitions) {
+        //no-op
+    }
+
+    @Override
+    public void requestCommit() {
+        //no-op
+    }
+}
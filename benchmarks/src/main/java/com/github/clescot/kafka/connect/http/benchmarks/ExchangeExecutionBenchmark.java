@@ -0,0 +1,124 @@
+package com.github.clescot.kafka.connect.http.benchmarks;
+
+import com.github.clescot.kafka.connect.http.sink.ExchangeExecution;
+import com.github.clescot.kafka.connect.http.sink.HttpSinkTask;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.github.clescot.kafka.connect.http.sink.HttpSinkConfigDefinition.*;
+import static com.github.clescot.kafka.connect.http.sink.client.ahc.AHCHttpClientFactory.*;
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+/**
+ * compare the async exchange executions (non-blocking chain, virtual threads, platform threads pool)
+ * against a local WireMock stub answering with an injected latency.
+ * virtual threads are only used on JDK 21+ : on older JVMs, 'VIRTUAL_THREADS' falls back to 'PLATFORM_THREADS'.
+ * <p>
+ * run with : java -jar target/benchmarks.jar ExchangeExecutionBenchmark
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@OperationsPerInvocation(ExchangeExecutionBenchmark.BATCH_SIZE)
+public class ExchangeExecutionBenchmark {
+
+    public static final int BATCH_SIZE = 1000;
+    private static final String TOPIC = "benchmark";
+    private static final String PATH = "/ping";
+    private static final TopicPartition TOPIC_PARTITION = new TopicPartition(TOPIC, 0);
+
+    @Param({"NON_BLOCKING", "VIRTUAL_THREADS", "PLATFORM_THREADS"})
+    public ExchangeExecution exchangeExecution;
+
+    @Param({"50"})
+    public int latencyInMs;
+
+    @Param({"200", "1000"})
+    public int maxInFlightRequests;
+
+    private WireMockServer wireMockServer;
+    private HttpSinkTask httpSinkTask;
+    private String httpRequestAsJson;
+    private long nextOffset;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        //delayed responses are sent asynchronously by WireMock : they don't hold any server thread.
+        //the request journal is disabled : it serializes requests on a SecureRandom lock.
+        wireMockServer = new WireMockServer(wireMockConfig()
+                .dynamicPort()
+                .disableRequestJournal()
+                .containerThreads(200)
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(50));
+        wireMockServer.start();
+        wireMockServer.stubFor(post(urlEqualTo(PATH))
+                .willReturn(aResponse()
+                        .withStatus(200)
+                        .withFixedDelay(latencyInMs)
+                        .withBody("OK")));
+        httpRequestAsJson = "{\n" +
+                "  \"url\": \"" + wireMockServer.baseUrl() + PATH + "\",\n" +
+                "  \"headers\": {\"Content-Type\": [\"application/json\"]},\n" +
+                "  \"method\": \"POST\",\n" +
+                "  \"bodyAsString\": \"{\\\"ping\\\":true}\",\n" +
+                "  \"bodyType\": \"STRING\"\n" +
+                "}";
+
+        Map<String, String> settings = Maps.newHashMap();
+        settings.put("name", "exchange-execution-benchmark");
+        settings.put(ASYNC_MODE, "true");
+        settings.put(ASYNC_EXCHANGE_EXECUTION, exchangeExecution.name());
+        settings.put(ASYNC_MAX_IN_FLIGHT_REQUESTS, String.valueOf(maxInFlightRequests));
+        settings.put(DEFAULT_RATE_LIMITER_MAX_EXECUTIONS, "1000000");
+        settings.put(DEFAULT_RETRIES, "0");
+        //AHC throttling defaults (3 connections, 3 calls per second) would hide the execution differences
+        settings.put(HTTP_MAX_CONNECTIONS, String.valueOf(maxInFlightRequests));
+        settings.put(HTTP_RATE_LIMIT_PER_SECOND, "1000000");
+        settings.put(HTTP_MAX_WAIT_MS, "60000");
+        httpSinkTask = new HttpSinkTask();
+        httpSinkTask.initialize(new BenchmarkSinkTaskContext(settings, Set.of(TOPIC_PARTITION)));
+        httpSinkTask.start(settings);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        httpSinkTask.stop();
+        wireMockServer.stop();
+    }
+
+    /**
+     * send a batch of records, and wait until all HTTP exchanges are finished.
+     */
+    @Benchmark
+    public void put() {
+        List<SinkRecord> records = Lists.newArrayListWithCapacity(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            records.add(new SinkRecord(TOPIC, 0, Schema.STRING_SCHEMA, null, Schema.STRING_SCHEMA, httpRequestAsJson, nextOffset++));
+        }
+        httpSinkTask.put(records);
+        Map<TopicPartition, OffsetAndMetadata> currentOffsets = Map.of(TOPIC_PARTITION, new OffsetAndMetadata(nextOffset));
+        OffsetAndMetadata expected = new OffsetAndMetadata(nextOffset);
+        while (!expected.equals(httpSinkTask.preCommit(currentOffsets).get(TOPIC_PARTITION))) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.clescot.kafka.connect.http.benchmarks.loadtest;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+import com.google.common.collect.Maps;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.github.clescot.kafka.connect.http.benchmarks.loadtest.LoadTestOptions.*;
+import static com.github.clescot.kafka.connect.http.sink.HttpSinkConfigDefinition.*;
+import static com.github.clescot.kafka.connect.http.sink.client.ahc.AHCHttpClientFactory.*;
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.wireMockConfig;
+
+/**
+ * end-to-end throughput and latency load test, against a local WireMock server.
+ * <p>
+ * run with : java -cp target/benchmarks.jar com.github.clescot.kafka.connect.http.benchmarks.loadtest.LoadTest [key=value...]
+ * <p>
+ * each connector setting set with comma separated values is swept : one scenario is run for each combination.
+ */
+public class LoadTest {
+
+    private static final String PATH = "/loadtest";
+    private static final String FIXED = "fixed";
+    private static final String UNIFORM = "uniform";
+    private static final String LOGNORMAL = "lognormal";
+    private static final String ROW_FORMAT = "%-60s %12s %10s %10s %10s %10s %14s%n";
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        LoadTestOptions options = new LoadTestOptions(defaults(), args);
+        WireMockServer wireMockServer = startWireMockServer(options);
+        try {
+            String httpRequestAsJson = "{\n" +
+                    "  \"url\": \"" + wireMockServer.baseUrl() + PATH + "\",\n" +
+                    "  \"headers\": {\"Content-Type\": [\"application/json\"]},\n" +
+                    "  \"method\": \"POST\",\n" +
+                    "  \"bodyAsString\": \"{\\\"load\\\":\\\"test\\\"}\",\n" +
+                    "  \"bodyType\": \"STRING\"\n" +
+                    "}";
+            List<String> sweptSettings = options.getSweptSettings();
+            System.out.printf(Locale.ROOT, ROW_FORMAT, "scenario", "records/s", "p50 (ms)", "p99 (ms)", "p999 (ms)", "success", "alloc (B/rec)");
+            PrintWriter report = options.getString(REPORT_FILE) != null
+                    ? new PrintWriter(Files.newBufferedWriter(Paths.get(options.getString(REPORT_FILE)), StandardCharsets.UTF_8))
+                    : null;
+            if (report != null) {
+                report.println(String.join(",", sweptSettings) + (sweptSettings.isEmpty() ? "" : ",") + "records_per_second,p50_ms,p99_ms,p999_ms,success_rate,allocated_bytes_per_record");
+            }
+            for (Map<String, String> scenarioSettings : options.getScenarios()) {
+                LoadTestScenario scenario = new LoadTestScenario(scenarioSettings, httpRequestAsJson, options.getInt(BATCH_SIZE), options.getInt(PARTITIONS));
+                LoadTestResult result = scenario.run(options.getInt(WARMUP_RECORDS), options.getInt(RECORDS));
+                String scenarioName = sweptSettings.stream().map(key -> key + "=" + scenarioSettings.get(key)).collect(Collectors.joining(" "));
+                System.out.printf(Locale.ROOT, ROW_FORMAT,
+                        scenarioName.isEmpty() ? "default" : scenarioName,
+                        String.format(Locale.ROOT, "%.1f", result.getRecordsPerSecond()),
+                        String.format(Locale.ROOT, "%.2f", result.getLatencyInMs(50)),
+                        String.format(Locale.ROOT, "%.2f", result.getLatencyInMs(99)),
+                        String.format(Locale.ROOT, "%.2f", result.getLatencyInMs(99.9)),
+                        String.format(Locale.ROOT, "%.1f%%", result.getSuccessRate() * 100),
+                        String.format(Locale.ROOT, "%.0f", result.getAllocatedBytesPerRecord()));
+                if (report != null) {
+                    String values = sweptSettings.stream().map(scenarioSettings::get).collect(Collectors.joining(","));
+                    report.printf(Locale.ROOT, "%s%s%.1f,%.3f,%.3f,%.3f,%.4f,%.0f%n", values, values.isEmpty() ? "" : ",",
+                            result.getRecordsPerSecond(), result.getLatencyInMs(50), result.getLatencyInMs(99), result.getLatencyInMs(99.9),
+                            result.getSuccessRate(), result.getAllocatedBytesPerRecord());
+                    report.flush();
+                }
+            }
+            if (report != null) {
+                report.close();
+            }
+        } finally {
+            wireMockServer.stop();
+        }
+        //AsyncHttpClient instances are shared and never closed by the connector
+        System.exit(0);
+    }
+
+    private static Map<String, String> defaults() {
+        Map<String, String> defaults = Maps.newLinkedHashMap();
+        defaults.put(RECORDS, "20000");
+        defaults.put(WARMUP_RECORDS, "2000");
+        defaults.put(BATCH_SIZE, "500");
+        defaults.put(PARTITIONS, "4");
+        defaults.put(LATENCY_DISTRIBUTION, LOGNORMAL);
+        defaults.put(LATENCY_MEDIAN_IN_MS, "20");
+        defaults.put(LATENCY_SIGMA, "0.5");
+        defaults.put(LATENCY_MAX_IN_MS, "100");
+        defaults.put(ERROR_RATE, "0.01");
+        //connector settings
+        defaults.put(ASYNC_MODE, "true");
+        defaults.put(ASYNC_MAX_IN_FLIGHT_REQUESTS, "200");
+        defaults.put(HTTP_MAX_CONNECTIONS, "10,50,200");
+        defaults.put(HTTP_RATE_LIMIT_PER_SECOND, "1000000");
+        defaults.put(HTTP_MAX_WAIT_MS, "60000");
+        defaults.put(DEFAULT_RATE_LIMITER_MAX_EXECUTIONS, "1000000");
+        defaults.put(DEFAULT_RETRIES, "2");
+        defaults.put(DEFAULT_RETRY_DELAY_IN_MS, "50");
+        defaults.put(DEFAULT_RETRY_MAX_DELAY_IN_MS, "500");
+        defaults.put(DEFAULT_RETRY_JITTER_IN_MS, "10");
+        defaults.put(WAIT_TIME_REGISTRATION_QUEUE_CONSUMER_IN_MS, "1000");
+        return defaults;
+    }
+
+    private static WireMockServer startWireMockServer(LoadTestOptions options) {
+        //delayed responses are sent asynchronously by WireMock : they don't hold any server thread.
+        //the request journal is disabled : it serializes requests on a SecureRandom lock.
+        WireMockServer wireMockServer = new WireMockServer(wireMockConfig()
+                .dynamicPort()
+                .disableRequestJournal()
+                .containerThreads(200)
+                .asynchronousResponseEnabled(true)
+                .asynchronousResponseThreads(50)
+                .extensions(new RandomErrorTransformer()));
+        wireMockServer.start();
+        ResponseDefinitionBuilder response = aResponse()
+                .withStatus(200)
+                .withBody("OK")
+                .withTransformers(RandomErrorTransformer.NAME)
+                .withTransformerParameter(RandomErrorTransformer.ERROR_RATE, options.getDouble(ERROR_RATE));
+        int median = options.getInt(LATENCY_MEDIAN_IN_MS);
+        String distribution = options.getString(LATENCY_DISTRIBUTION);
+        switch (distribution) {
+            case FIXED:
+                response.withFixedDelay(median);
+                break;
+            case UNIFORM:
+                response.withUniformRandomDelay(0, options.getInt(LATENCY_MAX_IN_MS));
+                break;
+            case LOGNORMAL:
+                response.withLogNormalRandomDelay(median, options.getDouble(LATENCY_SIGMA));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown latency distribution '" + distribution + "'. supported distributions are '" + FIXED + "', '" + UNIFORM + "' and '" + LOGNORMAL + "'");
+        }
+        wireMockServer.stubFor(post(urlEqualTo(PATH)).willReturn(response));
+        return wireMockServer;
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.clescot.kafka.connect.http.benchmarks.loadtest;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * load test options, parsed from 'key=value' arguments.
+ * Keys not owned by the load test are connector settings : a comma separated list of values is swept,
+ * each combination of the swept settings being run as a scenario.
+ */
+public class LoadTestOptions {
+
+    public static final String RECORDS = "records";
+    public static final String WARMUP_RECORDS = "warmup.records";
+    public static final String BATCH_SIZE = "batch.size";
+    public static final String PARTITIONS = "partitions";
+    public static final String LATENCY_DISTRIBUTION = "latency.distribution";
+    public static final String LATENCY_MEDIAN_IN_MS = "latency.median.ms";
+    public static final String LATENCY_SIGMA = "latency.sigma";
+    public static final String LATENCY_MAX_IN_MS = "latency.max.ms";
+    public static final String ERROR_RATE = "error.rate";
+    public static final String REPORT_FILE = "report.file";
+    private static final Set<String> LOAD_TEST_KEYS = Set.of(RECORDS, WARMUP_RECORDS, BATCH_SIZE, PARTITIONS, LATENCY_DISTRIBUTION,
+            LATENCY_MEDIAN_IN_MS, LATENCY_SIGMA, LATENCY_MAX_IN_MS, ERROR_RATE, REPORT_FILE);
+    private static final String SWEEP_SEPARATOR = ",";
+
+    private final Map<String, String> loadTestSettings = Maps.newHashMap();
+    //insertion order is kept, to print scenarios in a stable order
+    private final Map<String, List<String>> connectorSettings = new LinkedHashMap<>();
+
+    public LoadTestOptions(Map<String, String> defaults, String... args) {
+        Map<String, String> options = new LinkedHashMap<>(defaults);
+        for (String arg : args) {
+            int separatorIndex = arg.indexOf('=');
+            Preconditions.checkArgument(separatorIndex > 0, "argument '" + arg + "' is not formatted as 'key=value'");
+            options.put(arg.substring(0, separatorIndex), arg.substring(separatorIndex + 1));
+        }
+        options.forEach((key, value) -> {
+            if (LOAD_TEST_KEYS.contains(key)) {
+                loadTestSettings.put(key, value);
+            } else {
+                connectorSettings.put(key, Lists.newArrayList(value.split(SWEEP_SEPARATOR)));
+            }
+        });
+    }
+
+    public int getInt(String key) {
+        return Integer.parseInt(loadTestSettings.get(key));
+    }
+
+    public double getDouble(String key) {
+        return Double.parseDouble(loadTestSettings.get(key));
+    }
+
+    public String getString(String key) {
+        return loadTestSettings.get(key);
+    }
+
+    /**
+     * @return connector settings with more than one value.
+     */
+    public List<String> getSweptSettings() {
+        List<String> sweptSettings = Lists.newArrayList();
+        connectorSettings.forEach((key, values) -> {
+            if (values.size() > 1) {
+                sweptSettings.add(key);
+            }
+        });
+        return sweptSettings;
+    }
+
+    /**
+     * @return connector settings of each scenario : the cartesian product of the swept settings values.
+     */
+    public List<Map<String, String>> getScenarios() {
+        List<Map<String, String>> scenarios = Lists.newArrayList();
+        scenarios.add(Maps.newLinkedHashMap());
+        for (Map.Entry<String, List<String>> entry : connectorSettings.entrySet()) {
+            List<Map<String, String>> combinations = Lists.newArrayList();
+            for (Map<String, String> scenario : scenarios) {
+                for (String value : entry.getValue()) {
+                    Map<String, String> combination = Maps.newLinkedHashMap(scenario);
+                    combination.put(entry.getKey(), value);
+                    combinations.add(combination);
+                }
+            }
+            scenarios = combinations;
+        }
+        return scenarios;
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.clescot.kafka.connect.http.benchmarks.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * measures of a load test scenario.
+ */
+public class LoadTestResult {
+
+    private final int records;
+    private final int successfulRecords;
+    private final long durationInNanos;
+    //sorted end-to-end latencies
+    private final long[] latenciesInNanos;
+    private final long allocatedBytes;
+
+    public LoadTestResult(int records, int successfulRecords, long durationInNanos, long[] latenciesInNanos, long allocatedBytes) {
+        this.records = records;
+        this.successfulRecords = successfulRecords;
+        this.durationInNanos = durationInNanos;
+        this.latenciesInNanos = latenciesInNanos.clone();
+        Arrays.sort(this.latenciesInNanos);
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public double getRecordsPerSecond() {
+        return records / (durationInNanos / 1_000_000_000d);
+    }
+
+    public double getSuccessRate() {
+        return successfulRecords / (double) records;
+    }
+
+    /**
+     * @param percentile between 0 and 100.
+     */
+    public double getLatencyInMs(double percentile) {
+        int index = (int) Math.ceil(percentile / 100d * latenciesInNanos.length) - 1;
+        return latenciesInNanos[Math.max(0, Math.min(index, latenciesInNanos.length - 1))] / 1_000_000d;
+    }
+
+    public double getAllocatedBytesPerRecord() {
+        return allocatedBytes / (double) records;
+    }
+}
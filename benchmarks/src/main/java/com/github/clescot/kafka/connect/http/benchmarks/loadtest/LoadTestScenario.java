@@ -0,0 +1,199 @@
+package com.github.clescot.kafka.connect.http.benchmarks.loadtest;
+
+import com.github.clescot.kafka.connect.http.ConfigConstants;
+import com.github.clescot.kafka.connect.http.benchmarks.BenchmarkSinkTaskContext;
+import com.github.clescot.kafka.connect.http.sink.HttpSinkTask;
+import com.github.clescot.kafka.connect.http.source.HttpSourceConfigDefinition;
+import com.github.clescot.kafka.connect.http.source.HttpSourceTask;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.source.SourceRecord;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.clescot.kafka.connect.http.sink.HttpSinkConfigDefinition.*;
+
+/**
+ * run records through an HttpSinkTask, and back through the in memory queue to an HttpSourceTask.
+ * The end-to-end latency of a record is measured from the 'put' call to the last HTTP exchange of this record polled by the source task
+ * (an exchange is published for each attempt : the last one is the successful one, or the last retry).
+ */
+public class LoadTestScenario {
+
+    private static final String TOPIC = "loadtest";
+    private static final String SUCCESS_TOPIC = "http-success";
+    private static final String ERROR_TOPIC = "http-errors";
+    //allocations are only measured on threads running the connector code, not the mock server ones
+    private static final List<String> MEASURED_THREAD_PREFIXES = List.of("main", "loadtest-", "AsyncHttpClient", "http-sink-");
+    private static final AtomicInteger SCENARIO_COUNTER = new AtomicInteger();
+
+    private final Map<String, String> connectorSettings;
+    private final String httpRequestAsJson;
+    private final int batchSize;
+    private final int partitions;
+
+    public LoadTestScenario(Map<String, String> connectorSettings, String httpRequestAsJson, int batchSize, int partitions) {
+        this.connectorSettings = connectorSettings;
+        this.httpRequestAsJson = httpRequestAsJson;
+        this.batchSize = batchSize;
+        this.partitions = partitions;
+    }
+
+    public LoadTestResult run(int warmupRecords, int records) throws InterruptedException {
+        //each scenario uses its own in memory queue
+        String queueName = "loadtest-" + SCENARIO_COUNTER.incrementAndGet();
+        Map<String, String> sinkSettings = Maps.newHashMap(connectorSettings);
+        sinkSettings.put("name", queueName);
+        sinkSettings.put(ConfigConstants.QUEUE_NAME, queueName);
+        sinkSettings.put(PUBLISH_TO_IN_MEMORY_QUEUE, "true");
+        Map<String, String> sourceSettings = Maps.newHashMap();
+        sourceSettings.put(ConfigConstants.QUEUE_NAME, queueName);
+        sourceSettings.put(HttpSourceConfigDefinition.SUCCESS_TOPIC, SUCCESS_TOPIC);
+        sourceSettings.put(HttpSourceConfigDefinition.ERROR_TOPIC, ERROR_TOPIC);
+
+        Set<TopicPartition> topicPartitions = IntStream.range(0, partitions)
+                .mapToObj(partition -> new TopicPartition(TOPIC, partition))
+                .collect(Collectors.toSet());
+        HttpSourceTask httpSourceTask = new HttpSourceTask();
+        httpSourceTask.start(sourceSettings);
+        HttpSinkTask httpSinkTask = new HttpSinkTask();
+        httpSinkTask.initialize(new BenchmarkSinkTaskContext(sinkSettings, topicPartitions));
+        httpSinkTask.start(sinkSettings);
+        //offsets of the measured records follow the warmup ones, as in a partition consumed by the sink task
+        long[] nextOffsets = new long[partitions];
+        try {
+            send(httpSinkTask, httpSourceTask, topicPartitions, nextOffsets, 0, warmupRecords);
+            return send(httpSinkTask, httpSourceTask, topicPartitions, nextOffsets, warmupRecords, records);
+        } finally {
+            httpSinkTask.stop();
+            httpSourceTask.stop();
+        }
+    }
+
+    private LoadTestResult send(HttpSinkTask httpSinkTask, HttpSourceTask httpSourceTask, Set<TopicPartition> topicPartitions,
+                          long[] nextOffsets, int firstRecord, int records) throws InterruptedException {
+        long[] sentAt = new long[records];
+        long[] lastPolledAt = new long[records];
+        boolean[] successful = new boolean[records];
+        AtomicInteger polledRecords = new AtomicInteger();
+        AtomicBoolean sinkCompleted = new AtomicBoolean();
+        CountDownLatch drained = new CountDownLatch(1);
+        Map<Long, Long> allocatedBytesBefore = allocatedBytesPerThread();
+        long start = System.nanoTime();
+        //the sink side is finished when all records have an HTTP exchange finished.
+        //the queue is only polled by this thread : the exchanges polled elsewhere would be lost for the measures
+        Thread consumer = new Thread(() -> {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<SourceRecord> sourceRecords = httpSourceTask.poll();
+                if (sourceRecords.isEmpty()) {
+                    //the last exchange of each record is published before its offset is committable
+                    if (sinkCompleted.get() && polledRecords.get() >= records) {
+                        drained.countDown();
+                    }
+                    LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(100));
+                    continue;
+                }
+                long now = System.nanoTime();
+                for (SourceRecord sourceRecord : sourceRecords) {
+                    int index = (int) ((Long) sourceRecord.key() - firstRecord);
+                    if (lastPolledAt[index] == 0) {
+                        polledRecords.incrementAndGet();
+                    }
+                    lastPolledAt[index] = now;
+                    successful[index] = SUCCESS_TOPIC.equals(sourceRecord.topic());
+                }
+            }
+        }, "loadtest-consumer");
+        consumer.start();
+
+        for (int batchStart = 0; batchStart < records; batchStart += batchSize) {
+            int batchEnd = Math.min(batchStart + batchSize, records);
+            List<SinkRecord> batch = Lists.newArrayListWithCapacity(batchEnd - batchStart);
+            for (int i = batchStart; i < batchEnd; i++) {
+                long key = (long) firstRecord + i;
+                int partition = (int) (key % partitions);
+                batch.add(new SinkRecord(TOPIC, partition, Schema.INT64_SCHEMA, key, Schema.STRING_SCHEMA, httpRequestAsJson, nextOffsets[partition]++));
+            }
+            long now = System.nanoTime();
+            for (int i = batchStart; i < batchEnd; i++) {
+                sentAt[i] = now;
+            }
+            httpSinkTask.put(batch);
+        }
+        awaitSinkCompletion(httpSinkTask, topicPartitions, nextOffsets);
+        sinkCompleted.set(true);
+        drained.await();
+        long duration = System.nanoTime() - start;
+        //the consumer thread is measured before its end
+        long allocatedBytes = allocatedBytesSince(allocatedBytesBefore);
+        consumer.interrupt();
+        consumer.join();
+
+        long[] latencies = new long[records];
+        int successfulRecords = 0;
+        for (int i = 0; i < records; i++) {
+            latencies[i] = lastPolledAt[i] - sentAt[i];
+            if (successful[i]) {
+                successfulRecords++;
+            }
+        }
+        return new LoadTestResult(records, successfulRecords, duration, latencies, allocatedBytes);
+    }
+
+    private void awaitSinkCompletion(HttpSinkTask httpSinkTask, Set<TopicPartition> topicPartitions, long[] nextOffsets) {
+        Map<TopicPartition, OffsetAndMetadata> currentOffsets = Maps.newHashMap();
+        topicPartitions.forEach(topicPartition -> currentOffsets.put(topicPartition, new OffsetAndMetadata(nextOffsets[topicPartition.partition()])));
+        //in sync mode, put returns when all exchanges are finished : committable offsets are the current ones
+        while (!isCommittable(currentOffsets, httpSinkTask.preCommit(currentOffsets))) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * @return true if the offsets of all the records put are committable : partitions without any record have no committable offset.
+     */
+    private boolean isCommittable(Map<TopicPartition, OffsetAndMetadata> currentOffsets, Map<TopicPartition, OffsetAndMetadata> committableOffsets) {
+        for (Map.Entry<TopicPartition, OffsetAndMetadata> entry : currentOffsets.entrySet()) {
+            long nextOffset = entry.getValue().offset();
+            OffsetAndMetadata committableOffset = committableOffsets.get(entry.getKey());
+            if (nextOffset > 0 && (committableOffset == null || committableOffset.offset() < nextOffset)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Map<Long, Long> allocatedBytesPerThread() {
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Map<Long, Long> allocatedBytes = Maps.newHashMap();
+        Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> MEASURED_THREAD_PREFIXES.stream().anyMatch(prefix -> thread.getName().startsWith(prefix)))
+                .forEach(thread -> allocatedBytes.put(thread.getId(), threadMXBean.getThreadAllocatedBytes(thread.getId())));
+        return allocatedBytes;
+    }
+
+    private long allocatedBytesSince(Map<Long, Long> allocatedBytesBefore) {
+        Map<Long, Long> allocatedBytesAfter = allocatedBytesPerThread();
+        long allocatedBytes = 0;
+        for (Map.Entry<Long, Long> entry : allocatedBytesAfter.entrySet()) {
+            if (entry.getValue() > 0) {
+                allocatedBytes += entry.getValue() - allocatedBytesBefore.getOrDefault(entry.getKey(), 0L);
+            }
+        }
+        return allocatedBytes;
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.clescot.kafka.connect.http.benchmarks.loadtest;
+
+import com.github.tomakehurst.wiremock.common.FileSource;
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseDefinitionTransformer;
+import com.github.tomakehurst.wiremock.http.Request;
+import com.github.tomakehurst.wiremock.http.ResponseDefinition;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder.like;
+
+/**
+ * turn a stub response into a server error, with the probability set by the 'errorRate' transformer parameter.
+ * the response delay is kept.
+ */
+public class RandomErrorTransformer extends ResponseDefinitionTransformer {
+
+    public static final String NAME = "random-errors";
+    public static final String ERROR_RATE = "errorRate";
+    private static final int SERVER_ERROR_STATUS_CODE = 500;
+
+    @Override
+    public ResponseDefinition transform(Request request, ResponseDefinition responseDefinition, FileSource files, Parameters parameters) {
+        Object errorRateParameter = parameters.get(ERROR_RATE);
+        double errorRate = errorRateParameter != null ? Double.parseDouble(errorRateParameter.toString()) : 0d;
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            return like(responseDefinition)
+                    .withStatus(SERVER_ERROR_STATUS_CODE)
+                    .withBody("injected error")
+                    .build();
+        }
+        return responseDefinition;
+    }
+
+    @Override
+    public boolean applyGlobally() {
+        return false;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.github.clescot.kafka.connect.http.HttpRequest;
+import com.google.common.collect.Lists;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * resolution of the destination (limiter and policy) of an HTTP request, with `destinations` configured destinations,
+ * one per host, plus a few destinations matched by path prefix and method.
+ * The score must not depend much on the number of destinations : they are indexed by host.
+ * <p>
+ * run with : java -jar target/benchmarks.jar DestinationLimitersBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DestinationLimitersBenchmark {
+
+    @Param({"10", "500"})
+    private int destinations;
+
+    private DestinationLimiters destinationLimiters;
+    private HttpRequest httpRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        DestinationSettings defaultSettings = new DestinationSettings(DestinationLimiters.DEFAULT_DESTINATION, null, null, 1_000_000, 1000, 0, 0);
+        List<DestinationSettings> destinationSettings = Lists.newArrayList();
+        for (int i = 0; i < destinations; i++) {
+            destinationSettings.add(DestinationSettings.of("partner" + i, Map.of(DestinationSettings.HOST, "api.partner" + i + ".com"), defaultSettings));
+        }
+        destinationSettings.add(DestinationSettings.of("deletions", Map.of(DestinationSettings.METHOD, "DELETE"), defaultSettings));
+        destinationSettings.add(DestinationSettings.of("health", Map.of(DestinationSettings.PATH_PREFIX, "/health"), defaultSettings));
+        destinationLimiters = new DestinationLimiters(destinationSettings, defaultSettings, false, 10_000);
+        httpRequest = new HttpRequest("https://api.partner" + (destinations - 1) + ".com/orders/123?expand=lines", "POST", "STRING", "stuff", null, null);
+    }
+
+    @Benchmark
+    public DestinationLimiter get() {
+        return destinationLimiters.get(httpRequest);
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.github.clescot.kafka.connect.http.HttpRequest;
+import com.github.clescot.kafka.connect.http.benchmarks.BenchmarkFixtures;
+import com.github.clescot.kafka.connect.http.benchmarks.BenchmarkSinkTaskContext;
+import com.google.common.collect.Maps;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU and allocation cost of the HttpRequest building from a sink record, for each supported value type.
+ * <p>
+ * run with : java -jar target/benchmarks.jar HttpSinkTaskBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpSinkTaskBenchmark {
+
+    private static final String TOPIC = "benchmark";
+
+    private HttpSinkTask httpSinkTask;
+    private SinkRecord structSinkRecord;
+    private SinkRecord stringSinkRecord;
+    private SinkRecord byteArraySinkRecord;
+    private String httpRequestAsJson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, String> settings = Maps.newHashMap();
+        settings.put("name", "http-sink-task-benchmark");
+        httpSinkTask = new HttpSinkTask();
+        httpSinkTask.initialize(new BenchmarkSinkTaskContext(settings, Set.of()));
+        httpSinkTask.start(settings);
+
+        httpRequestAsJson = BenchmarkFixtures.httpRequestAsJson();
+        Struct struct = BenchmarkFixtures.httpRequest().toStruct();
+        structSinkRecord = new SinkRecord(TOPIC, 0, Schema.STRING_SCHEMA, "key", struct.schema(), struct, 0);
+        stringSinkRecord = new SinkRecord(TOPIC, 0, Schema.STRING_SCHEMA, "key", Schema.STRING_SCHEMA, httpRequestAsJson, 0);
+        byteArraySinkRecord = new SinkRecord(TOPIC, 0, Schema.STRING_SCHEMA, "key", Schema.BYTES_SCHEMA, httpRequestAsJson.getBytes(StandardCharsets.UTF_8), 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        httpSinkTask.stop();
+    }
+
+    @Benchmark
+    public HttpRequest buildHttpRequestFromStruct() {
+        return httpSinkTask.buildHttpRequest(structSinkRecord);
+    }
+
+    @Benchmark
+    public HttpRequest buildHttpRequestFromString() {
+        return httpSinkTask.buildHttpRequest(stringSinkRecord);
+    }
+
+    @Benchmark
+    public HttpRequest buildHttpRequestFromByteArray() {
+        return httpSinkTask.buildHttpRequest(byteArraySinkRecord);
+    }
+
+    /**
+     * JSON parsing alone, part of the String and byte[] values handling.
+     */
+    @Benchmark
+    public HttpRequest readHttpRequestFromJson() throws Exception {
+        return BenchmarkFixtures.OBJECT_MAPPER.readValue(httpRequestAsJson, HttpRequest.class);
+    }
+}
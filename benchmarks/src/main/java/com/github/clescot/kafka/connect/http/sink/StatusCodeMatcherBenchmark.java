@@ -0,0 +1,49 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * classification of a response status code : lookup in the table precomputed by {@link StatusCodeMatcher} (`lookup`),
+ * compared with the status code converted to a String and matched against the regex for each response (`regex`).
+ * <p>
+ * run with : java -jar target/benchmarks.jar StatusCodeMatcherBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatusCodeMatcherBenchmark {
+    private static final String SUCCESS_REGEX = "^[1-2][0-9][0-9]$";
+    private static final int[] STATUS_CODES = {200, 201, 204, 301, 400, 404, 429, 500, 502, 503};
+
+    private StatusCodeMatcher statusCodeMatcher;
+    private Pattern pattern;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        statusCodeMatcher = StatusCodeMatcher.fromRegex(SUCCESS_REGEX);
+        pattern = Pattern.compile(SUCCESS_REGEX);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void lookup(Blackhole blackhole) {
+        for (int statusCode : STATUS_CODES) {
+            blackhole.consume(statusCodeMatcher.matches(statusCode));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(10)
+    public void regex(Blackhole blackhole) {
+        for (int statusCode : STATUS_CODES) {
+            blackhole.consume(pattern.matcher("" + statusCode).matches());
+        }
+    }
+}
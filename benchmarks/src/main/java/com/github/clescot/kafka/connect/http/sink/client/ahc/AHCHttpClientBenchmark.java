@@ -0,0 +1,70 @@
+package com.github.clescot.kafka.connect.http.sink.client.ahc;
+
+import com.github.clescot.kafka.connect.http.HttpRequest;
+import com.github.clescot.kafka.connect.http.HttpResponse;
+import com.github.clescot.kafka.connect.http.benchmarks.BenchmarkFixtures;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.DefaultHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
+import org.asynchttpclient.Request;
+import org.asynchttpclient.Response;
+import org.asynchttpclient.netty.EagerResponseBodyPart;
+import org.asynchttpclient.netty.NettyResponseStatus;
+import org.asynchttpclient.uri.Uri;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU and allocation cost of the conversions between the connector model and the AsyncHttpClient model.
+ * <p>
+ * run with : java -jar target/benchmarks.jar AHCHttpClientBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AHCHttpClientBenchmark {
+
+    private AHCHttpClient httpClient;
+    private HttpRequest httpRequest;
+    private Response response;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        //the AsyncHttpClient instance is not used to build requests and responses
+        httpClient = new AHCHttpClient(null);
+        httpRequest = BenchmarkFixtures.httpRequest();
+
+        DefaultHttpResponse nettyResponse = new DefaultHttpResponse(HttpVersion.HTTP_1_1, HttpResponseStatus.OK);
+        HttpHeaders headers = new DefaultHttpHeaders()
+                .add("Content-Type", "application/json")
+                .add("Date", "Thu, 01 Dec 2022 16:00:00 GMT")
+                .add("X-Request-ID", "e3b0c442-98fc-4c14-9afb-f4c8996fb924")
+                .add("Cache-Control", "no-cache")
+                .add("Set-Cookie", "session=abc; Path=/; HttpOnly")
+                .add("Set-Cookie", "lang=fr; Path=/");
+        byte[] body = BenchmarkFixtures.BODY.getBytes(StandardCharsets.UTF_8);
+        Response.ResponseBuilder responseBuilder = new Response.ResponseBuilder();
+        responseBuilder.accumulate(new NettyResponseStatus(Uri.create(BenchmarkFixtures.URL), nettyResponse, null));
+        responseBuilder.accumulate(headers);
+        responseBuilder.accumulate(new EagerResponseBodyPart(Unpooled.wrappedBuffer(body), true));
+        response = responseBuilder.build();
+    }
+
+    @Benchmark
+    public Request buildRequest() {
+        return httpClient.buildRequest(httpRequest);
+    }
+
+    @Benchmark
+    public HttpResponse buildResponse() {
+        return httpClient.buildResponse(response);
+    }
+}
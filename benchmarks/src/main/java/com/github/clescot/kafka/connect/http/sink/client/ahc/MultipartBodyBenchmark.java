@@ -0,0 +1,103 @@
+package com.github.clescot.kafka.connect.http.sink.client.ahc;
+
+import com.github.clescot.kafka.connect.http.HttpRequest;
+import com.github.clescot.kafka.connect.http.benchmarks.BenchmarkFixtures;
+import com.google.common.collect.Lists;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.asynchttpclient.Request;
+import org.asynchttpclient.request.body.Body;
+import org.asynchttpclient.request.body.multipart.MultipartBody;
+import org.asynchttpclient.request.body.multipart.MultipartUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * memory cost of a large MULTIPART body : parts written chunk by chunk to the connection,
+ * as AsyncHttpClient does with the part API, compared with the whole body buffered before being sent.
+ * The allocated bytes per operation ({@code gc.alloc.rate.norm}) are the relevant score : streamed parts
+ * only allocate the request, whatever the size of the parts.
+ * <p>
+ * run with : java -jar target/benchmarks.jar MultipartBodyBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class MultipartBodyBenchmark {
+    //default chunk size of the netty ChunkedWriteHandler, used by AsyncHttpClient to write multipart bodies
+    private static final int CHUNK_SIZE = 8192;
+
+    @Param({"64", "1024", "16384"})
+    private int partSizeInKb;
+
+    @Param({"4"})
+    private int parts;
+
+    private AHCHttpClient httpClient;
+    private HttpRequest httpRequest;
+    private ByteBuf chunk;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        //the AsyncHttpClient instance is not used to build requests
+        httpClient = new AHCHttpClient(null);
+        Random random = new Random(42);
+        List<byte[]> multipart = Lists.newArrayListWithCapacity(parts);
+        List<Map<String, String>> multipartAttributes = Lists.newArrayListWithCapacity(parts);
+        for (int i = 0; i < parts; i++) {
+            byte[] part = new byte[partSizeInKb * 1024];
+            random.nextBytes(part);
+            multipart.add(part);
+            multipartAttributes.add(Map.of(
+                    HttpRequest.PART_NAME, "document" + i,
+                    HttpRequest.PART_CONTENT_TYPE, "application/pdf",
+                    HttpRequest.PART_FILE_NAME, "document" + i + ".pdf"));
+        }
+        httpRequest = new HttpRequest(BenchmarkFixtures.URL, BenchmarkFixtures.METHOD, HttpRequest.BodyType.MULTIPART.name(), "", null, multipart, multipartAttributes);
+        httpRequest.setHeaders(BenchmarkFixtures.requestHeaders());
+        httpRequest.getHeaders().remove("Content-Type");
+        chunk = Unpooled.buffer(CHUNK_SIZE);
+    }
+
+    /**
+     * parts are written into a reused chunk, like the netty channel pipeline does.
+     */
+    @Benchmark
+    public long streamedParts() throws IOException {
+        Request request = httpClient.buildRequest(httpRequest);
+        long written = 0;
+        try (MultipartBody body = MultipartUtils.newMultipartBody(request.getBodyParts(), request.getHeaders())) {
+            Body.BodyState state;
+            do {
+                chunk.clear();
+                state = body.transferTo(chunk);
+                written += chunk.readableBytes();
+            } while (state != Body.BodyState.STOP);
+        }
+        return written;
+    }
+
+    /**
+     * baseline : the whole multipart body is encoded into a single buffer, before being sent as a byte array body.
+     */
+    @Benchmark
+    public ByteBuf bufferedBody() throws IOException {
+        Request request = httpClient.buildRequest(httpRequest);
+        try (MultipartBody body = MultipartUtils.newMultipartBody(request.getBodyParts(), request.getHeaders())) {
+            ByteBuf buffer = Unpooled.buffer((int) body.getContentLength());
+            Body.BodyState state;
+            do {
+                state = body.transferTo(buffer);
+            } while (state != Body.BodyState.STOP && buffer.isWritable());
+            return buffer;
+        }
+    }
+}
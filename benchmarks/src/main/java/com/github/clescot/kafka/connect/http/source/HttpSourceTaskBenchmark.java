@@ -0,0 +1,51 @@
+package com.github.clescot.kafka.connect.http.source;
+
+import com.github.clescot.kafka.connect.http.KafkaRecord;
+import com.github.clescot.kafka.connect.http.benchmarks.BenchmarkFixtures;
+import com.google.common.collect.Maps;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CPU and allocation cost of the source record building, from an HTTP exchange received through the in memory queue.
+ * <p>
+ * run with : java -jar target/benchmarks.jar HttpSourceTaskBenchmark -prof gc
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HttpSourceTaskBenchmark {
+
+    private HttpSourceTask httpSourceTask;
+    private KafkaRecord kafkaRecord;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, String> settings = Maps.newHashMap();
+        settings.put(HttpSourceConfigDefinition.SUCCESS_TOPIC, "http-success");
+        settings.put(HttpSourceConfigDefinition.ERROR_TOPIC, "http-errors");
+        httpSourceTask = new HttpSourceTask();
+        httpSourceTask.start(settings);
+        ConnectHeaders headers = new ConnectHeaders();
+        headers.addString("X-Correlation-ID", "5a4d9d1e-6b0c-4f7e-9c1a-2b7c6f1e9d3a");
+        kafkaRecord = new KafkaRecord(headers, Schema.STRING_SCHEMA, "key", BenchmarkFixtures.httpExchange());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        httpSourceTask.stop();
+    }
+
+    @Benchmark
+    public SourceRecord toSourceRecord() {
+        return httpSourceTask.toSourceRecord(kafkaRecord);
+    }
+}
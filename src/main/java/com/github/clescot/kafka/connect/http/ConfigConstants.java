@@ -9,6 +9,30 @@ public class ConfigConstants {
     //common parameters
     public static final String QUEUE_NAME = "queue.name";
     public static final String QUEUE_NAME_DOC = "queue name in the in memory map.";
+    public static final String QUEUE_CAPACITY = "queue.capacity";
+    public static final String QUEUE_CAPACITY_DOC = "max number of HTTP exchanges in the in memory queue (rounded up to the next power of two). with multiple shards, it is the capacity of each shard. the queue is created with the settings of the first connector (sink or source) using it.";
+    public static final String QUEUE_OVERFLOW_POLICY = "queue.overflow.policy";
+    public static final String QUEUE_OVERFLOW_POLICY_DOC = "behaviour when the in memory queue is full. 'BLOCK' makes the sink wait for the source to consume HTTP exchanges, 'DROP_OLDEST' removes the oldest HTTP exchange from the queue to add the new one, 'SPILL' writes HTTP exchanges into segment files on disk until the source has consumed them.";
+    public static final String QUEUE_SPILL_DIRECTORY = "queue.spill.directory";
+    public static final String QUEUE_SPILL_DIRECTORY_DOC = "directory of the memory mapped segment files, holding HTTP exchanges spilled to disk with the 'SPILL' overflow policy. segment files are deleted when the queue is created.";
+    public static final String QUEUE_SPILL_SEGMENT_SIZE_IN_BYTES = "queue.spill.segment.size.in.bytes";
+    public static final String QUEUE_SPILL_SEGMENT_SIZE_IN_BYTES_DOC = "size of each segment file, with the 'SPILL' overflow policy. drained segment files are recycled.";
+    public static final String QUEUE_SPILL_MAX_SIZE_IN_BYTES = "queue.spill.max.size.in.bytes";
+    public static final String QUEUE_SPILL_MAX_SIZE_IN_BYTES_DOC = "max size of the segment files of each queue shard, with the 'SPILL' overflow policy. the sink waits for the source to consume HTTP exchanges above it.";
+    public static final String QUEUE_JOURNAL_ENABLED = "queue.journal.enabled";
+    public static final String QUEUE_JOURNAL_ENABLED_DOC = "when 'true', HTTP exchanges published into the in memory queue are written into a write-ahead journal, before the sink commits the offsets of their records. on startup, the source replays the HTTP exchanges of the journal which have not been acknowledged. the journal position is the source offset. it cannot be used with the 'DROP_OLDEST' overflow policy.";
+    public static final String QUEUE_JOURNAL_DIRECTORY = "queue.journal.directory";
+    public static final String QUEUE_JOURNAL_DIRECTORY_DOC = "directory of the journal segment files, when '"+QUEUE_JOURNAL_ENABLED+"' is 'true'. it must be on a persistent volume, to survive a worker restart.";
+    public static final String QUEUE_JOURNAL_SEGMENT_SIZE_IN_BYTES = "queue.journal.segment.size.in.bytes";
+    public static final String QUEUE_JOURNAL_SEGMENT_SIZE_IN_BYTES_DOC = "size above which a new journal segment file is written. a segment file is deleted when all its HTTP exchanges are acknowledged by the source.";
+    public static final String QUEUE_TRANSPORT = "queue.transport";
+    public static final String QUEUE_TRANSPORT_DOC = "how HTTP exchanges published by the sink reach the queue consumed by the source. 'IN_MEMORY' shares a queue of the JVM : sink and source tasks must run in the same worker. 'SOCKET' sends HTTP exchanges over TCP connections to the worker running the source tasks, which listens on the 'queue.transport.address' port.";
+    public static final String QUEUE_TRANSPORT_ADDRESS = "queue.transport.address";
+    public static final String QUEUE_TRANSPORT_ADDRESS_DOC = "'host:port' address of the worker running the source tasks, with the 'SOCKET' transport. the source listens on its port, on all network interfaces.";
+    public static final String QUEUE_SHARDS = "queue.shards";
+    public static final String QUEUE_SHARDS_DOC = "number of independent shards of the in memory queue. sink tasks publish an HTTP exchange into the shard matching its partition or key, and each source task consumes a subset of the shards : set it to the source 'tasks.max' value, to not serialize source tasks on a single queue.";
+    public static final String TASK_ID = "task.id";
+    public static final String TASK_ID_DOC = "index of a task in its connector, tagging the metrics of the task. set by the connector for each task.";
 
 
     //source parameters
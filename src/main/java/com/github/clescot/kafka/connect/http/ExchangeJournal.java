@@ -0,0 +1,354 @@
+package com.github.clescot.kafka.connect.http;
+
+import com.github.clescot.kafka.connect.http.queue.JournalSettings;
+import com.github.clescot.kafka.connect.http.queue.QueueJournal;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+/**
+ * crash-safe write-ahead journal of the HTTP exchanges published into a queue shard.
+ * Each HTTP exchange gets the next position of the journal, and is written into append-only segment files as
+ * its position, length, CRC32 checksum and serialized bytes. Segment files are named after their first position.
+ * Writes are not forced to disk one by one : {@link #sync()} forces all of them, before the sink commits its offsets.
+ * When the journal is opened, a partially written entry at the end of the last segment file is truncated.
+ * Segment files are deleted by {@link #truncate(long)}, once all their entries are acknowledged by the source.
+ */
+public class ExchangeJournal implements QueueJournal<KafkaRecord> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExchangeJournal.class);
+    private static final String SEGMENT_FILE_EXTENSION = ".journal";
+    //position, length and checksum
+    private static final int ENTRY_HEADER_SIZE = Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    private final String name;
+    private final Path directory;
+    private final int segmentSizeInBytes;
+    private final KafkaRecordSerde serde = new KafkaRecordSerde();
+    //the queue holds the journal monitor while adding an element : writes use their own lock, not to wait for a full queue
+    private final Object writeLock = new Object();
+    //segment files by first position, the last segment file is written
+    private final ConcurrentSkipListMap<Long, Path> segments = new ConcurrentSkipListMap<>();
+    private FileChannel channel;
+    private long segmentSize;
+    private long nextPosition;
+    private boolean unsynced;
+
+    /**
+     * open the journal, recovering the segment files of a previous run.
+     * @param name prefix of the segment files.
+     * @throws UncheckedIOException if the segment files cannot be read or created.
+     */
+    public ExchangeJournal(String name, JournalSettings journalSettings) {
+        Preconditions.checkNotNull(name, "journal name cannot be null");
+        Preconditions.checkNotNull(journalSettings, "journal settings cannot be null");
+        this.name = name;
+        this.directory = Paths.get(journalSettings.getDirectory());
+        this.segmentSizeInBytes = journalSettings.getSegmentSizeInBytes();
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot open the '" + name + "' journal in the '" + directory + "' directory", e);
+        }
+    }
+
+    private void recover() throws IOException {
+        Pattern segmentFilePattern = Pattern.compile(Pattern.quote(name) + "\\.(\\d+)" + Pattern.quote(SEGMENT_FILE_EXTENSION));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Matcher matcher = segmentFilePattern.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.put(Long.parseLong(matcher.group(1)), file);
+                }
+            }
+        }
+        if (segments.isEmpty()) {
+            openSegment(0);
+            return;
+        }
+        Map.Entry<Long, Path> lastSegment = segments.lastEntry();
+        long validSize = 0;
+        long position = lastSegment.getKey();
+        long fileSize = Files.size(lastSegment.getValue());
+        try (DataInputStream input = open(lastSegment.getValue())) {
+            Entry entry;
+            while ((entry = readEntry(input, fileSize - validSize - ENTRY_HEADER_SIZE)) != null && entry.position == position) {
+                validSize += ENTRY_HEADER_SIZE + entry.bytes.length;
+                position++;
+            }
+        }
+        this.channel = FileChannel.open(lastSegment.getValue(), StandardOpenOption.WRITE);
+        if (validSize < fileSize) {
+            LOGGER.warn("truncating the '{}' segment file from {} to {} bytes : its last entry is partially written", lastSegment.getValue(), fileSize, validSize);
+            channel.truncate(validSize);
+            channel.force(false);
+        }
+        channel.position(validSize);
+        this.segmentSize = validSize;
+        this.nextPosition = position;
+        LOGGER.info("'{}' journal opened with {} segment file(s), from the {} position to the {} position", name, segments.size(), segments.firstKey(), nextPosition - 1);
+    }
+
+    private void openSegment(long firstPosition) throws IOException {
+        Path file = directory.resolve(String.format("%s.%020d%s", name, firstPosition, SEGMENT_FILE_EXTENSION));
+        LOGGER.debug("creating the '{}' segment file", file);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.segmentSize = 0;
+        this.nextPosition = firstPosition;
+        segments.put(firstPosition, file);
+    }
+
+    /**
+     * write the HTTP exchange at the next position of the journal, and set this position on the record.
+     * @throws UncheckedIOException if the HTTP exchange cannot be written.
+     */
+    @Override
+    public void append(KafkaRecord kafkaRecord) {
+        byte[] bytes = serde.serialize(kafkaRecord);
+        ByteBuffer buffer = ByteBuffer.allocate(ENTRY_HEADER_SIZE + bytes.length);
+        synchronized (writeLock) {
+            long position = nextPosition;
+            buffer.putLong(position).putInt(bytes.length).putInt(checksum(bytes)).put(bytes).flip();
+            try {
+                if (segmentSize > 0 && segmentSize + buffer.remaining() > segmentSizeInBytes) {
+                    //a closed segment file must be on disk before the next sync
+                    channel.force(false);
+                    channel.close();
+                    openSegment(position);
+                }
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("cannot write the " + position + " position of the '" + name + "' journal", e);
+            }
+            segmentSize += ENTRY_HEADER_SIZE + bytes.length;
+            nextPosition = position + 1;
+            unsynced = true;
+            kafkaRecord.setJournalPosition(name, position);
+        }
+    }
+
+    /**
+     * force the written HTTP exchanges to disk.
+     * @throws UncheckedIOException if the segment file cannot be forced.
+     */
+    public void sync() {
+        synchronized (writeLock) {
+            if (!unsynced) {
+                return;
+            }
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException("cannot sync the '" + name + "' journal", e);
+            }
+            unsynced = false;
+        }
+    }
+
+    /**
+     * delete the segment files holding only acknowledged positions. the last segment file is kept.
+     * @param acknowledgedPosition last position acknowledged by the source.
+     */
+    public void truncate(long acknowledgedPosition) {
+        synchronized (writeLock) {
+            Map.Entry<Long, Path> firstSegment = segments.firstEntry();
+            Long nextSegmentPosition = segments.higherKey(firstSegment.getKey());
+            while (nextSegmentPosition != null && nextSegmentPosition - 1 <= acknowledgedPosition) {
+                LOGGER.debug("deleting the '{}' segment file : its HTTP exchanges are acknowledged", firstSegment.getValue());
+                try {
+                    Files.deleteIfExists(firstSegment.getValue());
+                } catch (IOException e) {
+                    LOGGER.warn("cannot delete the '{}' segment file", firstSegment.getValue(), e);
+                    return;
+                }
+                segments.remove(firstSegment.getKey());
+                firstSegment = segments.firstEntry();
+                nextSegmentPosition = segments.higherKey(firstSegment.getKey());
+            }
+        }
+    }
+
+    /**
+     * force the written HTTP exchanges to disk, and close the last segment file : the journal cannot be written anymore.
+     */
+    public void close() {
+        synchronized (writeLock) {
+            try {
+                if (unsynced) {
+                    channel.force(false);
+                    unsynced = false;
+                }
+                channel.close();
+            } catch (IOException e) {
+                LOGGER.warn("cannot close the '{}' journal", name, e);
+            }
+        }
+    }
+
+    /**
+     * @return the position of the last written HTTP exchange, or -1 if the journal has never been written.
+     */
+    public long lastPosition() {
+        synchronized (writeLock) {
+            return nextPosition - 1;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return a reader of the HTTP exchanges written from the 'fromPosition' position to the 'untilPosition' position, included.
+     */
+    public Reader reader(long fromPosition, long untilPosition) {
+        Preconditions.checkArgument(untilPosition <= lastPosition(), "cannot read the " + untilPosition + " position of the '" + name + "' journal : it is not written yet");
+        return new Reader(fromPosition, untilPosition);
+    }
+
+    private static DataInputStream open(Path file) throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+    }
+
+    /**
+     * @param maxLength max length of the entry bytes, to not allocate a corrupted length.
+     * @return the next entry, or null at the end of the segment file or on a partially written entry.
+     */
+    private static Entry readEntry(DataInputStream input, long maxLength) throws IOException {
+        try {
+            long position = input.readLong();
+            int length = input.readInt();
+            int checksum = input.readInt();
+            if (length < 0 || length > maxLength) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            input.readFully(bytes);
+            return checksum(bytes) == checksum ? new Entry(position, bytes) : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static int checksum(byte[] bytes) {
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes);
+        return (int) crc32.getValue();
+    }
+
+    private static class Entry {
+        private final long position;
+        private final byte[] bytes;
+
+        private Entry(long position, byte[] bytes) {
+            this.position = position;
+            this.bytes = bytes;
+        }
+    }
+
+    /**
+     * sequential reader of the journal, used to replay HTTP exchanges not acknowledged by the source.
+     * It is not thread safe.
+     */
+    public class Reader implements Closeable {
+        private final long untilPosition;
+        private long nextReadPosition;
+        private Long segmentPosition;
+        private DataInputStream input;
+
+        private Reader(long fromPosition, long untilPosition) {
+            this.nextReadPosition = fromPosition;
+            this.untilPosition = untilPosition;
+        }
+
+        /**
+         * @return up to 'maxRecords' HTTP exchanges, in the journal order.
+         * @throws UncheckedIOException if a segment file cannot be read.
+         */
+        public List<KafkaRecord> read(int maxRecords) {
+            List<KafkaRecord> kafkaRecords = Lists.newArrayList();
+            try {
+                while (kafkaRecords.size() < maxRecords && !isDone()) {
+                    if (input == null && !openNextSegment()) {
+                        LOGGER.warn("the '{}' journal ends before the {} position : {} HTTP exchange(s) cannot be replayed", name, nextReadPosition, untilPosition - nextReadPosition + 1);
+                        nextReadPosition = untilPosition + 1;
+                        break;
+                    }
+                    Entry entry = readEntry(input, Integer.MAX_VALUE);
+                    if (entry == null) {
+                        input.close();
+                        input = null;
+                    } else if (entry.position >= nextReadPosition) {
+                        KafkaRecord kafkaRecord = serde.deserialize(entry.bytes);
+                        kafkaRecord.setJournalPosition(name, entry.position);
+                        kafkaRecords.add(kafkaRecord);
+                        nextReadPosition = entry.position + 1;
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("cannot read the " + nextReadPosition + " position of the '" + name + "' journal", e);
+            }
+            return kafkaRecords;
+        }
+
+        private boolean openNextSegment() throws IOException {
+            if (segmentPosition == null) {
+                segmentPosition = segments.floorKey(nextReadPosition);
+                if (segmentPosition == null) {
+                    //acknowledged segment files have been deleted
+                    segmentPosition = segments.isEmpty() ? null : segments.firstKey();
+                }
+            } else {
+                segmentPosition = segments.higherKey(segmentPosition);
+            }
+            Path file = segmentPosition != null ? segments.get(segmentPosition) : null;
+            if (file == null) {
+                return false;
+            }
+            input = open(file);
+            return true;
+        }
+
+        /**
+         * @return true when all the HTTP exchanges until the 'untilPosition' position are read.
+         */
+        public boolean isDone() {
+            return nextReadPosition > untilPosition;
+        }
+
+        @Override
+        public void close() {
+            if (input != null) {
+                try {
+                    input.close();
+                } catch (IOException e) {
+                    LOGGER.warn("cannot close a segment file of the '{}' journal", name, e);
+                }
+                input = null;
+            }
+        }
+    }
+}
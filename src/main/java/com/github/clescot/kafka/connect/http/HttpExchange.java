@@ -9,7 +9,8 @@ import java.time.format.DateTimeFormatter;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class HttpExchange {
-    public static final int HTTP_EXCHANGE_VERSION = 1;
+    //2 : multipart attributes of the HTTP request
+    public static final int HTTP_EXCHANGE_VERSION = 2;
     public static final String DURATION_IN_MILLIS = "durationInMillis";
     public static final String MOMENT = "moment";
     public static final String ATTEMPTS = "attempts";
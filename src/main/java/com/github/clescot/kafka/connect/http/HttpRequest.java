@@ -51,6 +51,16 @@ import java.util.*;
         "            \"type\": \"string\"\n" +
         "          }\n" +
         "    },\n" +
+        "    \"multipartAttributes\": {\n" +
+        "          \"type\": \"array\",\n" +
+        "          \"items\": {\n" +
+        "            \"type\": \"object\",\n" +
+        "            \"connect.type\": \"map\",\n" +
+        "            \"additionalProperties\": {\n" +
+        "              \"type\": \"string\"\n" +
+        "            }\n" +
+        "          }\n" +
+        "    },\n" +
         "    \"bodyType\": {\n" +
         "      \"type\": \"string\",\n" +
         "      \"enum\": [\n" +
@@ -79,7 +89,15 @@ public class HttpRequest {
     public static final String BODY_AS_STRING = "bodyAsString";
     public static final String BODY_AS_BYTE_ARRAY = "bodyAsByteArray";
     public static final String BODY_AS_MULTIPART = "bodyAsMultipart";
-    public static final int VERSION = 1;
+    //optional attributes of each multipart part, by part index
+    public static final String MULTIPART_ATTRIBUTES = "multipartAttributes";
+    public static final String PART_NAME = "name";
+    public static final String PART_CONTENT_TYPE = "contentType";
+    public static final String PART_FILE_NAME = "fileName";
+    public static final String DEFAULT_PART_NAME_PREFIX = "part";
+    public static final String DEFAULT_PART_CONTENT_TYPE = "application/octet-stream";
+    //2 : multipart attributes
+    public static final int VERSION = 2;
 
     private final static Logger LOGGER = LoggerFactory.getLogger(HttpRequest.class);
 
@@ -93,10 +111,13 @@ public class HttpRequest {
     private String method;
     @JsonProperty
     private String bodyAsString = "";
+    //raw bytes : Base64 is only used in JSON and in the struct
     @JsonProperty
-    private String bodyAsByteArray = "";
+    private byte[] bodyAsByteArray = new byte[0];
     @JsonProperty
-    private List<String> bodyAsMultipart = Lists.newArrayList();
+    private List<byte[]> bodyAsMultipart = Lists.newArrayList();
+    @JsonProperty
+    private List<Map<String, String>> multipartAttributes = Lists.newArrayList();
     @JsonProperty
     private BodyType bodyType;
 
@@ -112,7 +133,8 @@ public class HttpRequest {
             .field(BODY_TYPE, Schema.STRING_SCHEMA)
             .field(BODY_AS_STRING, Schema.OPTIONAL_STRING_SCHEMA)
             .field(BODY_AS_BYTE_ARRAY, Schema.OPTIONAL_STRING_SCHEMA)
-            .field(BODY_AS_MULTIPART, SchemaBuilder.array(Schema.OPTIONAL_STRING_SCHEMA));
+            .field(BODY_AS_MULTIPART, SchemaBuilder.array(Schema.OPTIONAL_STRING_SCHEMA))
+            .field(MULTIPART_ATTRIBUTES, SchemaBuilder.array(SchemaBuilder.map(Schema.STRING_SCHEMA, Schema.STRING_SCHEMA).build()).optional().build());
 
     public HttpRequest(String url,
                        String method,
@@ -120,34 +142,51 @@ public class HttpRequest {
                        @Nullable String bodyAsString,
                        @Nullable byte[] bodyAsByteArray,
                        @Nullable List<byte[]> bodyAsMultipart) {
+        this(url, method, bodyType, bodyAsString, bodyAsByteArray, bodyAsMultipart, null);
+    }
+
+    /**
+     * @param multipartAttributes name ({@link #PART_NAME}), content type ({@link #PART_CONTENT_TYPE}) and file name ({@link #PART_FILE_NAME})
+     *                            of each multipart part, by part index. A missing attribute gets a default value.
+     */
+    public HttpRequest(String url,
+                       String method,
+                       String bodyType,
+                       @Nullable String bodyAsString,
+                       @Nullable byte[] bodyAsByteArray,
+                       @Nullable List<byte[]> bodyAsMultipart,
+                       @Nullable List<Map<String, String>> multipartAttributes) {
         Preconditions.checkNotNull(url, "url is required");
         Preconditions.checkNotNull(bodyType, "bodyType is required");
         this.url = url;
         this.method = method;
         this.bodyType = BodyType.valueOf(bodyType);
         this.bodyAsString = bodyAsString;
-        this.bodyAsByteArray = bodyAsByteArray != null ? Base64.getEncoder().encodeToString(bodyAsByteArray) : this.bodyAsByteArray;
-        this.bodyAsMultipart = bodyAsMultipart != null ? convertMultipart(bodyAsMultipart) : this.bodyAsMultipart;
+        //body bytes are not copied
+        this.bodyAsByteArray = bodyAsByteArray != null ? bodyAsByteArray : this.bodyAsByteArray;
+        this.bodyAsMultipart = bodyAsMultipart != null ? bodyAsMultipart : this.bodyAsMultipart;
+        this.multipartAttributes = multipartAttributes != null ? multipartAttributes : this.multipartAttributes;
+        Preconditions.checkArgument(this.multipartAttributes.size() <= this.bodyAsMultipart.size(), "'multipartAttributes' cannot describe more parts than 'bodyAsMultipart'");
 
         if (BodyType.STRING == this.bodyType) {
             if (bodyAsString == null) {
                 bodyAsString = "";
             }
-            if (this.bodyAsByteArray.isEmpty() && this.bodyAsMultipart.isEmpty()) {
+            if (this.bodyAsByteArray.length == 0 && this.bodyAsMultipart.isEmpty()) {
                 LOGGER.trace("bodyType 'STRING' is accurate against bodyAsString,bodyAsByteArray and bodyAsMultipart fields");
             } else {
                 LOGGER.error("bodyType is set to {}. bodyAsString:{},bodyAsByteArray:{},bodyAsMultipart:{}", bodyType, bodyAsString, bodyAsByteArray, bodyAsMultipart);
                 throw new IllegalArgumentException("when bodyType is set to 'STRING', the 'bodyAsString' field must be non null ; 'bodyAsByteArray' and 'bodyAsMultipart' fields must be null ");
             }
         } else if (BodyType.BYTE_ARRAY.equals(this.bodyType)) {
-            if (!this.bodyAsByteArray.isEmpty() && this.bodyAsMultipart.isEmpty()) {
+            if (this.bodyAsByteArray.length > 0 && this.bodyAsMultipart.isEmpty()) {
                 LOGGER.trace("bodyType 'BYTE_ARRAY' is accurate against bodyAsString,bodyAsByteArray and bodyAsMultipart fields");
             } else {
                 LOGGER.error("bodyType is set to {}. bodyAsString:{},bodyAsByteArray:{},bodyAsMultipart:{}", bodyType, bodyAsString, bodyAsByteArray, bodyAsMultipart);
                 throw new IllegalArgumentException("when bodyType is set to 'BYTE_ARRAY', the 'bodyAsString' and 'bodyAsMultipart' fields must be null ; 'bodyAsByteArray'  must be non-null");
             }
         } else if (BodyType.MULTIPART.equals(this.bodyType)) {
-            if (bodyAsString.isEmpty() && this.bodyAsByteArray.isEmpty()) {
+            if (bodyAsString.isEmpty() && this.bodyAsByteArray.length == 0) {
                 LOGGER.trace("bodyType 'MULTIPART' is accurate against bodyAsString,bodyAsByteArray and bodyAsMultipart fields");
             } else {
                 LOGGER.error("bodyType is set to {}. bodyAsString:{},bodyAsByteArray:{},bodyAsMultipart:{}", bodyType, bodyAsString, bodyAsByteArray, bodyAsMultipart);
@@ -159,14 +198,22 @@ public class HttpRequest {
         }
     }
 
-    private List<String> convertMultipart(List<byte[]> bodyAsMultipart) {
-        List<String> results = Lists.newArrayList();
+    private static List<String> encodeMultipart(List<byte[]> bodyAsMultipart) {
+        List<String> results = Lists.newArrayListWithCapacity(bodyAsMultipart.size());
         for (byte[] bytes : bodyAsMultipart) {
             results.add(Base64.getEncoder().encodeToString(bytes));
         }
         return results;
     }
 
+    private static List<byte[]> decodeMultipart(List<String> bodyAsMultipart) {
+        List<byte[]> results = Lists.newArrayListWithCapacity(bodyAsMultipart.size());
+        for (String encodedPart : bodyAsMultipart) {
+            results.add(Base64.getDecoder().decode(encodedPart));
+        }
+        return results;
+    }
+
 
     /**
      * only for json deserialization
@@ -194,16 +241,54 @@ public class HttpRequest {
         return bodyAsString;
     }
 
+    /**
+     * @return the body bytes, not copied : they must not be modified.
+     */
     public byte[] getBodyAsByteArray() {
-        return this.bodyAsByteArray != null ? Base64.getDecoder().decode(bodyAsByteArray) : new byte[0];
+        return this.bodyAsByteArray != null ? bodyAsByteArray : new byte[0];
     }
 
+    /**
+     * @return the bytes of each part, not copied : they must not be modified.
+     */
     public List<byte[]> getBodyAsMultipart() {
-        List<byte[]> multipart = Lists.newArrayList();
-        for (String encodedPart : this.bodyAsMultipart) {
-            multipart.add(Base64.getDecoder().decode(encodedPart));
+        return this.bodyAsMultipart != null ? bodyAsMultipart : Lists.newArrayList();
+    }
+
+    /**
+     * @return the attributes of each part, by part index : the list can be shorter than the parts list.
+     */
+    public List<Map<String, String>> getMultipartAttributes() {
+        return this.multipartAttributes != null ? multipartAttributes : Lists.newArrayList();
+    }
+
+    /**
+     * @return the name of the part, or 'part' followed by the part index if not set.
+     */
+    public String getPartName(int partIndex) {
+        return getPartAttribute(partIndex, PART_NAME, DEFAULT_PART_NAME_PREFIX + partIndex);
+    }
+
+    /**
+     * @return the content type of the part, or 'application/octet-stream' if not set.
+     */
+    public String getPartContentType(int partIndex) {
+        return getPartAttribute(partIndex, PART_CONTENT_TYPE, DEFAULT_PART_CONTENT_TYPE);
+    }
+
+    /**
+     * @return the file name of the part, or null if not set.
+     */
+    public String getPartFileName(int partIndex) {
+        return getPartAttribute(partIndex, PART_FILE_NAME, null);
+    }
+
+    private String getPartAttribute(int partIndex, String attribute, String defaultValue) {
+        List<Map<String, String>> attributes = getMultipartAttributes();
+        if (partIndex >= attributes.size() || attributes.get(partIndex) == null) {
+            return defaultValue;
         }
-        return multipart;
+        return attributes.get(partIndex).getOrDefault(attribute, defaultValue);
     }
 
     public BodyType getBodyType() {
@@ -219,12 +304,34 @@ public class HttpRequest {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         HttpRequest that = (HttpRequest) o;
-        return url.equals(that.url) && Objects.equals(headers, that.headers) && method.equals(that.method) && Objects.equals(bodyAsString, that.bodyAsString) && Objects.equals(bodyAsByteArray, that.bodyAsByteArray) && Objects.equals(bodyAsMultipart, that.bodyAsMultipart) && bodyType == that.bodyType;
+        return url.equals(that.url) && Objects.equals(headers, that.headers) && method.equals(that.method) && Objects.equals(bodyAsString, that.bodyAsString) && Arrays.equals(bodyAsByteArray, that.bodyAsByteArray) && multipartEquals(bodyAsMultipart, that.bodyAsMultipart) && Objects.equals(multipartAttributes, that.multipartAttributes) && bodyType == that.bodyType;
+    }
+
+    private static boolean multipartEquals(List<byte[]> multipart, List<byte[]> otherMultipart) {
+        if (multipart == null || otherMultipart == null) {
+            return multipart == otherMultipart;
+        }
+        if (multipart.size() != otherMultipart.size()) {
+            return false;
+        }
+        for (int i = 0; i < multipart.size(); i++) {
+            if (!Arrays.equals(multipart.get(i), otherMultipart.get(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(url, headers, method, bodyAsString, bodyAsByteArray, bodyAsMultipart, bodyType);
+        int result = Objects.hash(url, headers, method, bodyAsString, multipartAttributes, bodyType);
+        result = 31 * result + Arrays.hashCode(bodyAsByteArray);
+        if (bodyAsMultipart != null) {
+            for (byte[] part : bodyAsMultipart) {
+                result = 31 * result + Arrays.hashCode(part);
+            }
+        }
+        return result;
     }
 
     @Override
@@ -234,8 +341,9 @@ public class HttpRequest {
                 ", headers=" + headers +
                 ", method='" + method + '\'' +
                 ", bodyAsString='" + bodyAsString + '\'' +
-                ", bodyAsByteArray='" + bodyAsByteArray + '\'' +
-                ", bodyAsMultipart=" + bodyAsMultipart +
+                ", bodyAsByteArray=" + (bodyAsByteArray != null ? bodyAsByteArray.length : 0) + " bytes" +
+                ", bodyAsMultipart=" + (bodyAsMultipart != null ? bodyAsMultipart.size() : 0) + " parts" +
+                ", multipartAttributes=" + multipartAttributes +
                 ", bodyType=" + bodyType +
                 '}';
     }
@@ -247,8 +355,9 @@ public class HttpRequest {
                 .put(METHOD, method)
                 .put(BODY_TYPE, bodyType.name())
                 .put(BODY_AS_STRING, bodyAsString)
-                .put(BODY_AS_BYTE_ARRAY, bodyAsByteArray)
-                .put(BODY_AS_MULTIPART, bodyAsMultipart);
+                .put(BODY_AS_BYTE_ARRAY, Base64.getEncoder().encodeToString(getBodyAsByteArray()))
+                .put(BODY_AS_MULTIPART, encodeMultipart(getBodyAsMultipart()))
+                .put(MULTIPART_ATTRIBUTES, getMultipartAttributes());
     }
 
 
@@ -261,6 +370,7 @@ public class HttpRequest {
         private String stringBody;
         private byte[] byteArrayBody;
         private List<byte[]> multipartBody;
+        private List<Map<String, String>> multipartAttributes;
         private Map<String, List<String>> headers;
 
         private Builder() {
@@ -283,7 +393,12 @@ public class HttpRequest {
             Preconditions.checkNotNull(method, "'bodyType' is required");
             this.stringBody = struct.getString(BODY_AS_STRING);
             this.byteArrayBody = Base64.getDecoder().decode(Optional.ofNullable(struct.getString(BODY_AS_BYTE_ARRAY)).orElse(""));
-            this.multipartBody = struct.getArray(BODY_AS_MULTIPART);
+            List<String> encodedMultipart = struct.getArray(BODY_AS_MULTIPART);
+            this.multipartBody = encodedMultipart != null ? decodeMultipart(encodedMultipart) : null;
+            //structs of a previous schema version have no multipart attributes
+            if (struct.schema().field(MULTIPART_ATTRIBUTES) != null) {
+                this.multipartAttributes = struct.getArray(MULTIPART_ATTRIBUTES);
+            }
 
             return this;
         }
@@ -298,7 +413,8 @@ public class HttpRequest {
                     bodyType,
                     stringBody,
                     byteArrayBody,
-                    multipartBody
+                    multipartBody,
+                    multipartAttributes
             );
 
             httpRequest.setHeaders(headers);
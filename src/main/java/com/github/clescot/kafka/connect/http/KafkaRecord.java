@@ -9,6 +9,9 @@ public class KafkaRecord {
     private Schema schemaKey;
     private Object key;
     private HttpExchange httpExchange;
+    //set when the record is appended to an exchange journal
+    private String journal;
+    private long journalPosition = -1;
 
     public KafkaRecord(Iterable<Header> headers,
                        Schema schemaKey,
@@ -35,4 +38,23 @@ public class KafkaRecord {
     public HttpExchange getHttpExchange() {
         return httpExchange;
     }
+
+    /**
+     * @return the name of the journal holding this record, or null if it is not journaled.
+     */
+    public String getJournal() {
+        return journal;
+    }
+
+    /**
+     * @return the position of this record in its journal, or -1 if it is not journaled.
+     */
+    public long getJournalPosition() {
+        return journalPosition;
+    }
+
+    public void setJournalPosition(String journal, long journalPosition) {
+        this.journal = journal;
+        this.journalPosition = journalPosition;
+    }
 }
@@ -0,0 +1,679 @@
+package com.github.clescot.kafka.connect.http;
+
+import com.github.clescot.kafka.connect.http.queue.SpillSerde;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.header.Header;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * compact binary form of a {@link KafkaRecord}, to spill it to disk : no field names, and variable length fields prefixed by their length.
+ * Key and headers are written with their Connect schema, if any. Schemaless values are written with a type tag.
+ */
+public class KafkaRecordSerde implements SpillSerde<KafkaRecord> {
+    //version 2 adds the multipart attributes of HTTP requests
+    private static final byte VERSION = 2;
+    private static final byte VERSION_WITHOUT_MULTIPART_ATTRIBUTES = 1;
+    private static final int NULL_LENGTH = -1;
+    //type tags of schemaless values
+    private static final byte BOOLEAN_TAG = 0;
+    private static final byte INT8_TAG = 1;
+    private static final byte INT16_TAG = 2;
+    private static final byte INT32_TAG = 3;
+    private static final byte INT64_TAG = 4;
+    private static final byte FLOAT32_TAG = 5;
+    private static final byte FLOAT64_TAG = 6;
+    private static final byte STRING_TAG = 7;
+    private static final byte BYTES_TAG = 8;
+    private static final byte ARRAY_TAG = 9;
+    private static final byte MAP_TAG = 10;
+    private static final byte STRUCT_TAG = 11;
+    private static final byte DECIMAL_TAG = 12;
+    private static final byte DATE_TAG = 13;
+
+    @Override
+    public byte[] serialize(KafkaRecord kafkaRecord) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            writeHeaders(out, kafkaRecord.getHeaders());
+            writeSchema(out, kafkaRecord.getSchemaKey());
+            writeValue(out, kafkaRecord.getSchemaKey(), kafkaRecord.getKey());
+            writeHttpExchange(out, kafkaRecord.getHttpExchange());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public KafkaRecord deserialize(byte[] bytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            byte version = in.readByte();
+            if (version != VERSION && version != VERSION_WITHOUT_MULTIPART_ATTRIBUTES) {
+                throw new IllegalArgumentException("unsupported serialized kafka record version : " + version);
+            }
+            Iterable<Header> headers = readHeaders(in);
+            Schema schemaKey = readSchema(in);
+            Object key = readValue(in, schemaKey);
+            HttpExchange httpExchange = readHttpExchange(in, version);
+            return new KafkaRecord(headers, schemaKey, key, httpExchange);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeHeaders(DataOutputStream out, Iterable<Header> headers) throws IOException {
+        if (headers == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        List<Header> headerList = Lists.newArrayList(headers);
+        out.writeInt(headerList.size());
+        for (Header header : headerList) {
+            writeString(out, header.key());
+            writeSchema(out, header.schema());
+            writeValue(out, header.schema(), header.value());
+        }
+    }
+
+    private Iterable<Header> readHeaders(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count == NULL_LENGTH) {
+            return null;
+        }
+        ConnectHeaders headers = new ConnectHeaders();
+        for (int i = 0; i < count; i++) {
+            String key = readString(in);
+            Schema schema = readSchema(in);
+            headers.add(key, readValue(in, schema), schema);
+        }
+        return headers;
+    }
+
+    private void writeSchema(DataOutputStream out, Schema schema) throws IOException {
+        out.writeBoolean(schema != null);
+        if (schema == null) {
+            return;
+        }
+        out.writeByte(schema.type().ordinal());
+        out.writeBoolean(schema.isOptional());
+        writeString(out, schema.name());
+        out.writeInt(schema.version() != null ? schema.version() : NULL_LENGTH);
+        writeStringMap(out, schema.parameters());
+        switch (schema.type()) {
+            case STRUCT:
+                out.writeInt(schema.fields().size());
+                for (Field field : schema.fields()) {
+                    writeString(out, field.name());
+                    writeSchema(out, field.schema());
+                }
+                break;
+            case ARRAY:
+                writeSchema(out, schema.valueSchema());
+                break;
+            case MAP:
+                writeSchema(out, schema.keySchema());
+                writeSchema(out, schema.valueSchema());
+                break;
+            default:
+                break;
+        }
+    }
+
+    private Schema readSchema(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        Schema.Type type = Schema.Type.values()[in.readByte()];
+        boolean optional = in.readBoolean();
+        String name = readString(in);
+        int version = in.readInt();
+        Map<String, String> parameters = readStringMap(in);
+        SchemaBuilder builder;
+        switch (type) {
+            case STRUCT:
+                builder = SchemaBuilder.struct();
+                int fields = in.readInt();
+                for (int i = 0; i < fields; i++) {
+                    String fieldName = readString(in);
+                    builder.field(fieldName, readSchema(in));
+                }
+                break;
+            case ARRAY:
+                builder = SchemaBuilder.array(readSchema(in));
+                break;
+            case MAP:
+                Schema keySchema = readSchema(in);
+                builder = SchemaBuilder.map(keySchema, readSchema(in));
+                break;
+            default:
+                builder = SchemaBuilder.type(type);
+                break;
+        }
+        if (optional) {
+            builder.optional();
+        }
+        if (name != null) {
+            builder.name(name);
+        }
+        if (version != NULL_LENGTH) {
+            builder.version(version);
+        }
+        if (parameters != null) {
+            builder.parameters(parameters);
+        }
+        return builder.build();
+    }
+
+    private void writeValue(DataOutputStream out, Schema schema, Object value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value == null) {
+            return;
+        }
+        if (schema == null) {
+            writeSchemalessValue(out, value);
+            return;
+        }
+        Object rawValue = fromLogical(schema, value);
+        switch (schema.type()) {
+            case INT8:
+                out.writeByte((Byte) rawValue);
+                break;
+            case INT16:
+                out.writeShort((Short) rawValue);
+                break;
+            case INT32:
+                out.writeInt((Integer) rawValue);
+                break;
+            case INT64:
+                out.writeLong((Long) rawValue);
+                break;
+            case FLOAT32:
+                out.writeFloat((Float) rawValue);
+                break;
+            case FLOAT64:
+                out.writeDouble((Double) rawValue);
+                break;
+            case BOOLEAN:
+                out.writeBoolean((Boolean) rawValue);
+                break;
+            case STRING:
+                writeString(out, (String) rawValue);
+                break;
+            case BYTES:
+                writeBytes(out, toByteArray(rawValue));
+                break;
+            case ARRAY:
+                List<?> list = (List<?>) rawValue;
+                out.writeInt(list.size());
+                for (Object item : list) {
+                    writeValue(out, schema.valueSchema(), item);
+                }
+                break;
+            case MAP:
+                Map<?, ?> map = (Map<?, ?>) rawValue;
+                out.writeInt(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writeValue(out, schema.keySchema(), entry.getKey());
+                    writeValue(out, schema.valueSchema(), entry.getValue());
+                }
+                break;
+            case STRUCT:
+                Struct struct = (Struct) rawValue;
+                for (Field field : schema.fields()) {
+                    writeValue(out, field.schema(), struct.get(field));
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported schema type : " + schema.type());
+        }
+    }
+
+    private Object readValue(DataInputStream in, Schema schema) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        if (schema == null) {
+            return readSchemalessValue(in);
+        }
+        Object rawValue;
+        switch (schema.type()) {
+            case INT8:
+                rawValue = in.readByte();
+                break;
+            case INT16:
+                rawValue = in.readShort();
+                break;
+            case INT32:
+                rawValue = in.readInt();
+                break;
+            case INT64:
+                rawValue = in.readLong();
+                break;
+            case FLOAT32:
+                rawValue = in.readFloat();
+                break;
+            case FLOAT64:
+                rawValue = in.readDouble();
+                break;
+            case BOOLEAN:
+                rawValue = in.readBoolean();
+                break;
+            case STRING:
+                rawValue = readString(in);
+                break;
+            case BYTES:
+                rawValue = readBytes(in);
+                break;
+            case ARRAY:
+                int size = in.readInt();
+                List<Object> list = Lists.newArrayListWithCapacity(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in, schema.valueSchema()));
+                }
+                rawValue = list;
+                break;
+            case MAP:
+                int entries = in.readInt();
+                Map<Object, Object> map = Maps.newLinkedHashMapWithExpectedSize(entries);
+                for (int i = 0; i < entries; i++) {
+                    Object key = readValue(in, schema.keySchema());
+                    map.put(key, readValue(in, schema.valueSchema()));
+                }
+                rawValue = map;
+                break;
+            case STRUCT:
+                Struct struct = new Struct(schema);
+                for (Field field : schema.fields()) {
+                    struct.put(field, readValue(in, field.schema()));
+                }
+                rawValue = struct;
+                break;
+            default:
+                throw new IllegalArgumentException("unsupported schema type : " + schema.type());
+        }
+        return toLogical(schema, rawValue);
+    }
+
+    private Object fromLogical(Schema schema, Object value) {
+        if (schema.name() == null) {
+            return value;
+        }
+        switch (schema.name()) {
+            case Decimal.LOGICAL_NAME:
+                return Decimal.fromLogical(schema, (BigDecimal) value);
+            case Date.LOGICAL_NAME:
+                return Date.fromLogical(schema, (java.util.Date) value);
+            case Time.LOGICAL_NAME:
+                return Time.fromLogical(schema, (java.util.Date) value);
+            case Timestamp.LOGICAL_NAME:
+                return Timestamp.fromLogical(schema, (java.util.Date) value);
+            default:
+                return value;
+        }
+    }
+
+    private Object toLogical(Schema schema, Object rawValue) {
+        if (schema.name() == null) {
+            return rawValue;
+        }
+        switch (schema.name()) {
+            case Decimal.LOGICAL_NAME:
+                return Decimal.toLogical(schema, (byte[]) rawValue);
+            case Date.LOGICAL_NAME:
+                return Date.toLogical(schema, (Integer) rawValue);
+            case Time.LOGICAL_NAME:
+                return Time.toLogical(schema, (Integer) rawValue);
+            case Timestamp.LOGICAL_NAME:
+                return Timestamp.toLogical(schema, (Long) rawValue);
+            default:
+                return rawValue;
+        }
+    }
+
+    private void writeSchemalessValue(DataOutputStream out, Object value) throws IOException {
+        if (value instanceof Boolean) {
+            out.writeByte(BOOLEAN_TAG);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(INT8_TAG);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Short) {
+            out.writeByte(INT16_TAG);
+            out.writeShort((Short) value);
+        } else if (value instanceof Integer) {
+            out.writeByte(INT32_TAG);
+            out.writeInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.writeByte(INT64_TAG);
+            out.writeLong((Long) value);
+        } else if (value instanceof Float) {
+            out.writeByte(FLOAT32_TAG);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.writeByte(FLOAT64_TAG);
+            out.writeDouble((Double) value);
+        } else if (value instanceof String) {
+            out.writeByte(STRING_TAG);
+            writeString(out, (String) value);
+        } else if (value instanceof byte[] || value instanceof ByteBuffer) {
+            out.writeByte(BYTES_TAG);
+            writeBytes(out, toByteArray(value));
+        } else if (value instanceof List) {
+            out.writeByte(ARRAY_TAG);
+            List<?> list = (List<?>) value;
+            out.writeInt(list.size());
+            for (Object item : list) {
+                writeValue(out, null, item);
+            }
+        } else if (value instanceof Map) {
+            out.writeByte(MAP_TAG);
+            Map<?, ?> map = (Map<?, ?>) value;
+            out.writeInt(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeValue(out, null, entry.getKey());
+                writeValue(out, null, entry.getValue());
+            }
+        } else if (value instanceof Struct) {
+            out.writeByte(STRUCT_TAG);
+            Struct struct = (Struct) value;
+            writeSchema(out, struct.schema());
+            writeValue(out, struct.schema(), struct);
+        } else if (value instanceof BigDecimal) {
+            out.writeByte(DECIMAL_TAG);
+            writeString(out, value.toString());
+        } else if (value instanceof java.util.Date) {
+            out.writeByte(DATE_TAG);
+            out.writeLong(((java.util.Date) value).getTime());
+        } else {
+            throw new IllegalArgumentException("cannot serialize a value of type " + value.getClass().getName());
+        }
+    }
+
+    private Object readSchemalessValue(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case BOOLEAN_TAG:
+                return in.readBoolean();
+            case INT8_TAG:
+                return in.readByte();
+            case INT16_TAG:
+                return in.readShort();
+            case INT32_TAG:
+                return in.readInt();
+            case INT64_TAG:
+                return in.readLong();
+            case FLOAT32_TAG:
+                return in.readFloat();
+            case FLOAT64_TAG:
+                return in.readDouble();
+            case STRING_TAG:
+                return readString(in);
+            case BYTES_TAG:
+                return readBytes(in);
+            case ARRAY_TAG:
+                int size = in.readInt();
+                List<Object> list = Lists.newArrayListWithCapacity(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in, null));
+                }
+                return list;
+            case MAP_TAG:
+                int entries = in.readInt();
+                Map<Object, Object> map = Maps.newLinkedHashMapWithExpectedSize(entries);
+                for (int i = 0; i < entries; i++) {
+                    Object key = readValue(in, null);
+                    map.put(key, readValue(in, null));
+                }
+                return map;
+            case STRUCT_TAG:
+                Schema schema = readSchema(in);
+                return readValue(in, schema);
+            case DECIMAL_TAG:
+                return new BigDecimal(readString(in));
+            case DATE_TAG:
+                return new java.util.Date(in.readLong());
+            default:
+                throw new IllegalArgumentException("unknown type tag : " + tag);
+        }
+    }
+
+    private void writeHttpExchange(DataOutputStream out, HttpExchange httpExchange) throws IOException {
+        writeHttpRequest(out, httpExchange.getHttpRequest());
+        writeHttpResponse(out, httpExchange.getHttpResponse());
+        out.writeLong(httpExchange.getDurationInMillis() != null ? httpExchange.getDurationInMillis() : 0L);
+        OffsetDateTime moment = httpExchange.getMoment();
+        out.writeBoolean(moment != null);
+        if (moment != null) {
+            out.writeLong(moment.toEpochSecond());
+            out.writeInt(moment.getNano());
+            out.writeInt(moment.getOffset().getTotalSeconds());
+        }
+        out.writeInt(httpExchange.getAttempts() != null ? httpExchange.getAttempts().get() : 0);
+        out.writeBoolean(httpExchange.isSuccess());
+    }
+
+    private HttpExchange readHttpExchange(DataInputStream in, byte version) throws IOException {
+        HttpRequest httpRequest = readHttpRequest(in, version);
+        HttpResponse httpResponse = readHttpResponse(in);
+        long durationInMillis = in.readLong();
+        OffsetDateTime moment = null;
+        if (in.readBoolean()) {
+            long epochSecond = in.readLong();
+            int nano = in.readInt();
+            ZoneOffset offset = ZoneOffset.ofTotalSeconds(in.readInt());
+            moment = OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), offset);
+        }
+        AtomicInteger attempts = new AtomicInteger(in.readInt());
+        boolean success = in.readBoolean();
+        return new HttpExchange(httpRequest, httpResponse, durationInMillis, moment, attempts, success);
+    }
+
+    private void writeHttpRequest(DataOutputStream out, HttpRequest httpRequest) throws IOException {
+        out.writeBoolean(httpRequest != null);
+        if (httpRequest == null) {
+            return;
+        }
+        writeString(out, httpRequest.getUrl());
+        writeString(out, httpRequest.getMethod());
+        writeString(out, httpRequest.getBodyType().name());
+        writeString(out, httpRequest.getBodyAsString());
+        writeBytes(out, httpRequest.getBodyAsByteArray());
+        List<byte[]> multipart = httpRequest.getBodyAsMultipart();
+        out.writeInt(multipart.size());
+        for (byte[] part : multipart) {
+            writeBytes(out, part);
+        }
+        List<Map<String, String>> multipartAttributes = httpRequest.getMultipartAttributes();
+        out.writeInt(multipartAttributes.size());
+        for (Map<String, String> partAttributes : multipartAttributes) {
+            writeStringMap(out, partAttributes);
+        }
+        writeStringListMap(out, httpRequest.getHeaders());
+    }
+
+    private HttpRequest readHttpRequest(DataInputStream in, byte version) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        String url = readString(in);
+        String method = readString(in);
+        String bodyType = readString(in);
+        String bodyAsString = readString(in);
+        byte[] bodyAsByteArray = readBytes(in);
+        int parts = in.readInt();
+        List<byte[]> multipart = Lists.newArrayListWithCapacity(parts);
+        for (int i = 0; i < parts; i++) {
+            multipart.add(readBytes(in));
+        }
+        List<Map<String, String>> multipartAttributes = null;
+        if (version != VERSION_WITHOUT_MULTIPART_ATTRIBUTES) {
+            int describedParts = in.readInt();
+            multipartAttributes = Lists.newArrayListWithCapacity(describedParts);
+            for (int i = 0; i < describedParts; i++) {
+                multipartAttributes.add(readStringMap(in));
+            }
+        }
+        HttpRequest httpRequest = new HttpRequest(
+                url,
+                method,
+                bodyType,
+                bodyAsString,
+                bodyAsByteArray != null && bodyAsByteArray.length > 0 ? bodyAsByteArray : null,
+                !multipart.isEmpty() ? multipart : null,
+                multipartAttributes);
+        httpRequest.setHeaders(readStringListMap(in));
+        return httpRequest;
+    }
+
+    private void writeHttpResponse(DataOutputStream out, HttpResponse httpResponse) throws IOException {
+        out.writeBoolean(httpResponse != null);
+        if (httpResponse == null) {
+            return;
+        }
+        out.writeInt(httpResponse.getStatusCode());
+        writeString(out, httpResponse.getStatusMessage());
+        writeString(out, httpResponse.getResponseBody());
+        writeStringListMap(out, httpResponse.getResponseHeaders());
+    }
+
+    private HttpResponse readHttpResponse(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        int statusCode = in.readInt();
+        String statusMessage = readString(in);
+        String responseBody = readString(in);
+        HttpResponse httpResponse = new HttpResponse(statusCode, statusMessage, responseBody);
+        httpResponse.setResponseHeaders(readStringListMap(in));
+        return httpResponse;
+    }
+
+    private void writeStringListMap(DataOutputStream out, Map<String, List<String>> map) throws IOException {
+        if (map == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(map.size());
+        for (Map.Entry<String, List<String>> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            List<String> values = entry.getValue();
+            out.writeInt(values != null ? values.size() : NULL_LENGTH);
+            if (values != null) {
+                for (String value : values) {
+                    writeString(out, value);
+                }
+            }
+        }
+    }
+
+    private Map<String, List<String>> readStringListMap(DataInputStream in) throws IOException {
+        int entries = in.readInt();
+        if (entries == NULL_LENGTH) {
+            return null;
+        }
+        Map<String, List<String>> map = Maps.newHashMapWithExpectedSize(entries);
+        for (int i = 0; i < entries; i++) {
+            String key = readString(in);
+            int size = in.readInt();
+            List<String> values = null;
+            if (size != NULL_LENGTH) {
+                values = Lists.newArrayListWithCapacity(size);
+                for (int j = 0; j < size; j++) {
+                    values.add(readString(in));
+                }
+            }
+            map.put(key, values);
+        }
+        return map;
+    }
+
+    private void writeStringMap(DataOutputStream out, Map<String, String> map) throws IOException {
+        if (map == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(map.size());
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            writeString(out, entry.getKey());
+            writeString(out, entry.getValue());
+        }
+    }
+
+    private Map<String, String> readStringMap(DataInputStream in) throws IOException {
+        int entries = in.readInt();
+        if (entries == NULL_LENGTH) {
+            return null;
+        }
+        Map<String, String> map = Maps.newLinkedHashMapWithExpectedSize(entries);
+        for (int i = 0; i < entries; i++) {
+            String key = readString(in);
+            map.put(key, readString(in));
+        }
+        return map;
+    }
+
+    private byte[] toByteArray(Object value) {
+        if (value instanceof ByteBuffer) {
+            ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+            byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }
+        return (byte[]) value;
+    }
+
+    //DataOutputStream.writeUTF is limited to 64 KB
+    private void writeString(DataOutputStream out, String value) throws IOException {
+        writeBytes(out, value != null ? value.getBytes(StandardCharsets.UTF_8) : null);
+    }
+
+    private String readString(DataInputStream in) throws IOException {
+        byte[] bytes = readBytes(in);
+        return bytes != null ? new String(bytes, StandardCharsets.UTF_8) : null;
+    }
+
+    private void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        if (bytes == null) {
+            out.writeInt(NULL_LENGTH);
+            return;
+        }
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+}
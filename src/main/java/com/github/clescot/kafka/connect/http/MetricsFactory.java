@@ -0,0 +1,44 @@
+package com.github.clescot.kafka.connect.http;
+
+import com.google.common.collect.Lists;
+import org.apache.kafka.common.metrics.JmxReporter;
+import org.apache.kafka.common.metrics.KafkaMetricsContext;
+import org.apache.kafka.common.metrics.MetricConfig;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.MetricsReporter;
+import org.apache.kafka.common.utils.Time;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * build metrics registries exposed through JMX, under the 'kafka.connect.http' domain.
+ */
+public class MetricsFactory {
+
+    public static final String JMX_DOMAIN = "kafka.connect.http";
+    public static final String CONNECTOR_TAG = "connector";
+    public static final String TASK_TAG = "task";
+    private static final String CONNECTOR_NAME = "name";
+    private static final String UNKNOWN = "unknown";
+
+    protected MetricsFactory() {
+        //Class with only static methods
+    }
+
+    public static Metrics newMetrics() {
+        List<MetricsReporter> reporters = Lists.newArrayList(new JmxReporter());
+        return new Metrics(new MetricConfig(), reporters, Time.SYSTEM, new KafkaMetricsContext(JMX_DOMAIN));
+    }
+
+    /**
+     * @param settings task settings, owning the connector name, and the task id set by the connector.
+     * @return tags identifying a task instance in the Connect cluster.
+     */
+    public static Map<String, String> taskTags(Map<String, String> settings) {
+        String connectorName = Optional.ofNullable(settings.get(CONNECTOR_NAME)).orElse(UNKNOWN);
+        String taskId = Optional.ofNullable(settings.get(ConfigConstants.TASK_ID)).orElse(UNKNOWN);
+        return Map.of(CONNECTOR_TAG, connectorName, TASK_TAG, taskId);
+    }
+}
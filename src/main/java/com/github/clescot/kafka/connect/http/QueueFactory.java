@@ -1,36 +1,211 @@
 package com.github.clescot.kafka.connect.http;
 
+import com.github.clescot.kafka.connect.http.queue.BoundedQueue;
+import com.github.clescot.kafka.connect.http.queue.DiskSpill;
+import com.github.clescot.kafka.connect.http.queue.JournalSettings;
+import com.github.clescot.kafka.connect.http.queue.OverflowPolicy;
+import com.github.clescot.kafka.connect.http.queue.ShardedQueue;
+import com.github.clescot.kafka.connect.http.queue.SpillSettings;
+import com.github.clescot.kafka.connect.http.transport.ExchangeTransport;
+import com.github.clescot.kafka.connect.http.transport.ExchangeTransportType;
+import com.github.clescot.kafka.connect.http.transport.InMemoryExchangeTransport;
+import com.github.clescot.kafka.connect.http.transport.SocketExchangeTransport;
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Maps;
+import com.google.common.collect.Lists;
+import org.apache.kafka.common.metrics.Metrics;
 import org.awaitility.Awaitility;
 import org.awaitility.core.ConditionEvaluationLogger;
 import org.awaitility.core.ConditionTimeoutException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 public class QueueFactory {
     public static final String DEFAULT_QUEUE_NAME = "default";
+    public static final int DEFAULT_QUEUE_CAPACITY = 16384;
+    public static final int DEFAULT_QUEUE_SHARDS = 1;
+    public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.BLOCK;
+    public static final String DEFAULT_SPILL_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"), "kafka-connect-http-spill").toString();
+    public static final int DEFAULT_SPILL_SEGMENT_SIZE_IN_BYTES = 64 * 1024 * 1024;
+    public static final long DEFAULT_SPILL_MAX_SIZE_IN_BYTES = 1024L * 1024 * 1024;
+    public static final String DEFAULT_JOURNAL_DIRECTORY = Paths.get(System.getProperty("java.io.tmpdir"), "kafka-connect-http-journal").toString();
+    public static final int DEFAULT_JOURNAL_SEGMENT_SIZE_IN_BYTES = 64 * 1024 * 1024;
+    public static final ExchangeTransportType DEFAULT_TRANSPORT = ExchangeTransportType.IN_MEMORY;
+    public static final String DEFAULT_TRANSPORT_ADDRESS = "localhost:17070";
     private static final Logger LOGGER = LoggerFactory.getLogger(QueueFactory.class);
-    private static final Map<String,Queue<KafkaRecord>> queueMap = Maps.newHashMap();
+    //queues are created and released atomically with their users count, without a global lock
+    private static final Map<String,QueueHolder> queueMap = new ConcurrentHashMap<>();
+    //number of consumers registered by queue name
+    private static final Map<String,Integer> consumers = new ConcurrentHashMap<>();
+    private static final ExchangeTransport IN_MEMORY_TRANSPORT = new InMemoryExchangeTransport();
+    //socket transports by address : a source listens once on a port
+    private static final Map<String,SocketExchangeTransport> socketTransports = new ConcurrentHashMap<>();
+    //queues of all connectors share their metrics
+    private static volatile Metrics metrics;
 
-    private static final Map<String,Boolean> consumers = Maps.newHashMap();
-    public static synchronized Queue<KafkaRecord> getQueue(String queueName){
-        if(queueMap.get(queueName) == null){
-            LOGGER.debug("creating the '{}' queue",queueName);
-            queueMap.put(queueName, new ConcurrentLinkedQueue<>());
+    public static ShardedQueue<KafkaRecord> getQueue(String queueName){
+        return getQueue(queueName, DEFAULT_QUEUE_SHARDS, DEFAULT_QUEUE_CAPACITY, DEFAULT_OVERFLOW_POLICY);
+    }
+
+    public static ShardedQueue<KafkaRecord> getQueue(String queueName, int capacity, OverflowPolicy overflowPolicy){
+        return getQueue(queueName, DEFAULT_QUEUE_SHARDS, capacity, overflowPolicy);
+    }
+
+    public static ShardedQueue<KafkaRecord> getQueue(String queueName, int shards, int capacity, OverflowPolicy overflowPolicy){
+        return getQueue(queueName, shards, capacity, overflowPolicy, new SpillSettings(DEFAULT_SPILL_DIRECTORY, DEFAULT_SPILL_SEGMENT_SIZE_IN_BYTES, DEFAULT_SPILL_MAX_SIZE_IN_BYTES));
+    }
+
+    public static ShardedQueue<KafkaRecord> getQueue(String queueName, int shards, int capacity, OverflowPolicy overflowPolicy, SpillSettings spillSettings){
+        return getQueue(queueName, shards, capacity, overflowPolicy, spillSettings, null);
+    }
+
+    /**
+     * get the queue, or create it if it does not exist yet. the queue is not counted as used : see {@link #acquireQueue}.
+     * @param shards number of independent shards of the queue, used only if the queue does not exist yet.
+     * @param capacity max number of records in each shard, used only if the queue does not exist yet.
+     * @param overflowPolicy behaviour when a shard is full, used only if the queue does not exist yet.
+     * @param spillSettings segment files of each shard, used only with the SPILL overflow policy, if the queue does not exist yet.
+     * @param journalSettings write-ahead journal of each shard, or null to not journal records. used only if the queue does not exist yet.
+     */
+    public static ShardedQueue<KafkaRecord> getQueue(String queueName, int shards, int capacity, OverflowPolicy overflowPolicy, SpillSettings spillSettings, JournalSettings journalSettings){
+        return getQueue(queueName, shards, capacity, overflowPolicy, spillSettings, journalSettings, false);
+    }
+
+    /**
+     * get or create the queue like {@link #getQueue(String, int, int, OverflowPolicy, SpillSettings, JournalSettings)},
+     * and count the caller as a user of the queue, until it calls {@link #releaseQueue(String)}.
+     */
+    public static ShardedQueue<KafkaRecord> acquireQueue(String queueName, int shards, int capacity, OverflowPolicy overflowPolicy, SpillSettings spillSettings, JournalSettings journalSettings){
+        return getQueue(queueName, shards, capacity, overflowPolicy, spillSettings, journalSettings, true);
+    }
+
+    private static ShardedQueue<KafkaRecord> getQueue(String queueName, int shards, int capacity, OverflowPolicy overflowPolicy, SpillSettings spillSettings, JournalSettings journalSettings, boolean acquire){
+        Preconditions.checkArgument(shards > 0, "a queue needs at least one shard");
+        QueueHolder existingHolder = queueMap.get(queueName);
+        if (existingHolder != null && !acquire) {
+            warnIfSettingsDiffer(queueName, existingHolder, shards, capacity, overflowPolicy, journalSettings);
+            return existingHolder.queue;
+        }
+        QueueHolder holder = queueMap.compute(queueName, (name, current) -> {
+            QueueHolder queueHolder = current;
+            if (queueHolder == null) {
+                queueHolder = newQueueHolder(name, shards, capacity, overflowPolicy, spillSettings, journalSettings);
+            } else {
+                warnIfSettingsDiffer(name, queueHolder, shards, capacity, overflowPolicy, journalSettings);
+            }
+            if (acquire) {
+                queueHolder.users++;
+            }
+            return queueHolder;
+        });
+        return holder.queue;
+    }
+
+    private static QueueHolder newQueueHolder(String queueName, int shards, int capacity, OverflowPolicy overflowPolicy, SpillSettings spillSettings, JournalSettings journalSettings) {
+        LOGGER.debug("creating the '{}' queue with {} shard(s) of {} records and the '{}' overflow policy",queueName,shards,capacity,overflowPolicy);
+        List<BoundedQueue<KafkaRecord>> boundedQueues = Lists.newArrayListWithCapacity(shards);
+        List<ExchangeJournal> journals = Lists.newArrayListWithCapacity(shards);
+        for (int i = 0; i < shards; i++) {
+            //a single shard keeps the queue name in its metrics
+            String shardName = shards == 1 ? queueName : queueName + "-" + i;
+            DiskSpill<KafkaRecord> spill = null;
+            if (OverflowPolicy.SPILL == overflowPolicy) {
+                LOGGER.info("HTTP exchanges of the '{}' queue are spilled to disk when it is full, with {}", shardName, spillSettings);
+                spill = new DiskSpill<>(shardName, spillSettings, new KafkaRecordSerde());
+            }
+            ExchangeJournal journal = null;
+            if (journalSettings != null) {
+                journal = new ExchangeJournal(shardName, journalSettings);
+                journals.add(journal);
+            }
+            boundedQueues.add(new BoundedQueue<>(shardName, capacity, overflowPolicy, metrics(), spill, journal));
+        }
+        if (journalSettings != null) {
+            LOGGER.info("HTTP exchanges of the '{}' queue are journaled, with {}", queueName, journalSettings);
+        }
+        return new QueueHolder(new ShardedQueue<>(boundedQueues), Collections.unmodifiableList(journals));
+    }
+
+    private static void warnIfSettingsDiffer(String queueName, QueueHolder holder, int shards, int capacity, OverflowPolicy overflowPolicy, JournalSettings journalSettings) {
+        ShardedQueue<KafkaRecord> queue = holder.queue;
+        if(queue.shardCount() != shards || queue.capacity() < (long) capacity * shards || queue.getOverflowPolicy() != overflowPolicy){
+            LOGGER.warn("the '{}' queue already exists with {} shard(s), a capacity of {} records and the '{}' overflow policy : requested shards ({}), capacity ({}) and overflow policy ('{}') are ignored",queueName,queue.shardCount(),queue.capacity(),queue.getOverflowPolicy(),shards,capacity,overflowPolicy);
+        }else if(holder.journals.isEmpty() != (journalSettings == null)){
+            LOGGER.warn("the '{}' queue already exists {} journal : requested journal settings ({}) are ignored",queueName,!holder.journals.isEmpty() ? "with a" : "without",journalSettings);
         }
-        return queueMap.get(queueName);
     }
-    public static synchronized Queue<KafkaRecord> getQueue(){
+
+    private static Metrics metrics() {
+        Metrics queueMetrics = metrics;
+        if (queueMetrics == null) {
+            synchronized (QueueFactory.class) {
+                if (metrics == null) {
+                    metrics = MetricsFactory.newMetrics();
+                }
+                queueMetrics = metrics;
+            }
+        }
+        return queueMetrics;
+    }
+
+    /**
+     * stop counting the caller as a user of the queue. When the queue has no more users and is empty, it is removed and closed :
+     * its metrics are removed, its segment files deleted and its journals closed. A non empty queue is kept for the next users.
+     */
+    public static void releaseQueue(String queueName){
+        queueMap.computeIfPresent(queueName, (name, holder) -> {
+            if (holder.users <= 0) {
+                LOGGER.debug("the '{}' queue is released, but has not been acquired", name);
+                return holder;
+            }
+            holder.users--;
+            if (holder.users > 0) {
+                return holder;
+            }
+            if (!holder.queue.isEmpty()) {
+                LOGGER.info("the '{}' queue has no more users, but is kept : it holds {} HTTP exchanges", name, holder.queue.size());
+                return holder;
+            }
+            LOGGER.info("removing the '{}' queue : it has no more users", name);
+            holder.queue.close();
+            for (ExchangeJournal journal : holder.journals) {
+                journal.close();
+            }
+            return null;
+        });
+    }
+
+    public static ShardedQueue<KafkaRecord> getQueue(){
         return getQueue(DEFAULT_QUEUE_NAME);
     }
 
+    /**
+     * @return the journal of each shard of the queue, by shard index, or an empty list if the queue is not journaled.
+     */
+    public static List<ExchangeJournal> getJournals(String queueName){
+        QueueHolder holder = queueMap.get(queueName);
+        return holder != null ? holder.journals : Collections.emptyList();
+    }
+
+    /**
+     * @param address 'host:port' address of the worker running the source tasks, used only with the SOCKET transport.
+     * @return the transport between sink and source tasks.
+     */
+    public static ExchangeTransport getTransport(ExchangeTransportType transportType, String address){
+        Preconditions.checkNotNull(transportType, "transport type cannot be null");
+        if (ExchangeTransportType.IN_MEMORY == transportType) {
+            return IN_MEMORY_TRANSPORT;
+        }
+        return socketTransports.computeIfAbsent(address, SocketExchangeTransport::new);
+    }
+
     public static boolean queueMapIsEmpty(){
         return queueMap.isEmpty();
     }
@@ -39,12 +214,20 @@ public class QueueFactory {
         Preconditions.checkNotNull(queueName,"we cannot register a consumer for a null queueName");
         Preconditions.checkArgument(!queueName.isEmpty(),"we cannot register a consumer for an empty queueName");
         LOGGER.info("registration of a consumer for the queue '{}'",queueName);
-        consumers.put(queueName,true);
+        consumers.merge(queueName, 1, Integer::sum);
+    }
+
+    /**
+     * remove a consumer registered for the queue : the queue has no more consumer once all of them are unregistered.
+     */
+    public static void unregisterConsumerForQueue(String queueName){
+        Preconditions.checkNotNull(queueName,"we cannot unregister a consumer for a null queueName");
+        LOGGER.info("unregistration of a consumer for the queue '{}'",queueName);
+        consumers.computeIfPresent(queueName, (name, count) -> count > 1 ? count - 1 : null);
     }
 
     private static boolean hasAConsumer(String queueName){
-        Boolean queueHasAConsumer = consumers.get(queueName);
-        return queueHasAConsumer != null && queueHasAConsumer;
+        return consumers.containsKey(queueName);
     }
 
     public static boolean hasAConsumer(String queueName,long maxWaitTimeInMilliSeconds){
@@ -60,4 +243,17 @@ public class QueueFactory {
     public static void clearRegistrations() {
         consumers.clear();
     }
+
+    private static class QueueHolder {
+        private final ShardedQueue<KafkaRecord> queue;
+        //journals of each shard, empty if the queue is not journaled
+        private final List<ExchangeJournal> journals;
+        //only updated while computing the queue map entry
+        private int users;
+
+        private QueueHolder(ShardedQueue<KafkaRecord> queue, List<ExchangeJournal> journals) {
+            this.queue = queue;
+            this.journals = journals;
+        }
+    }
 }
@@ -0,0 +1,364 @@
+package com.github.clescot.kafka.connect.http.queue;
+
+import com.google.common.base.Preconditions;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Gauge;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.CumulativeSum;
+import org.apache.kafka.common.metrics.stats.Meter;
+import org.apache.kafka.common.metrics.stats.Rate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.VarHandle;
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * bounded queue applying an {@link OverflowPolicy} when it is full, and exposing its activity as metrics :
+ * depth, enqueue, dequeue and drop rates, and the time producers spent blocked.
+ * Consumers can wait for elements with {@link #drainTo(Collection, int, long, TimeUnit)} :
+ * producers only take a lock to wake them up when a consumer is waiting.
+ * With the SPILL policy, once an element is spilled, next elements are spilled too, until consumers have read all the spilled elements :
+ * the order of the elements added by a producer is kept.
+ * With a {@link QueueJournal}, each element is appended to the journal before being added.
+ * {@link #close()} removes the metrics of the queue, and deletes its segment files.
+ */
+public class BoundedQueue<E> extends AbstractQueue<E> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(BoundedQueue.class);
+    public static final String QUEUE_METRIC_GROUP = "http-queue";
+    public static final String QUEUE_TAG = "queue";
+    private static final int SPINS_BEFORE_PARKING = 100;
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final MpmcArrayQueue<E> ringBuffer;
+    private final OverflowPolicy overflowPolicy;
+    private final Metrics metrics;
+    private final List<MetricName> gaugeNames;
+    private final Sensor enqueueSensor;
+    private final Sensor dequeueSensor;
+    private final Sensor dropSensor;
+    private final Sensor blockedTimeSensor;
+    private final Sensor spillSensor;
+    //null unless the overflow policy is SPILL
+    private final DiskSpill<E> spill;
+    private volatile boolean spilling;
+    //null unless elements are journaled
+    private final QueueJournal<E> journal;
+    private final ReentrantLock consumersLock = new ReentrantLock();
+    private final Condition notEmpty = consumersLock.newCondition();
+    private final AtomicInteger waitingConsumers = new AtomicInteger();
+
+    /**
+     * @param name queue name, identifying its metrics.
+     */
+    public BoundedQueue(String name, int capacity, OverflowPolicy overflowPolicy, Metrics metrics) {
+        this(name, capacity, overflowPolicy, metrics, null);
+    }
+
+    /**
+     * @param spill overflow tier, required with the SPILL overflow policy.
+     */
+    public BoundedQueue(String name, int capacity, OverflowPolicy overflowPolicy, Metrics metrics, DiskSpill<E> spill) {
+        this(name, capacity, overflowPolicy, metrics, spill, null);
+    }
+
+    /**
+     * @param journal records each element before it is added, can be null.
+     */
+    public BoundedQueue(String name, int capacity, OverflowPolicy overflowPolicy, Metrics metrics, DiskSpill<E> spill, QueueJournal<E> journal) {
+        Preconditions.checkNotNull(name, "queue name cannot be null");
+        Preconditions.checkNotNull(overflowPolicy, "overflow policy cannot be null");
+        Preconditions.checkNotNull(metrics, "metrics cannot be null");
+        Preconditions.checkArgument(OverflowPolicy.SPILL != overflowPolicy || spill != null, "a spill is required with the SPILL overflow policy");
+        //dropped elements would stay in the journal, and be replayed
+        Preconditions.checkArgument(OverflowPolicy.DROP_OLDEST != overflowPolicy || journal == null, "a journal cannot be used with the DROP_OLDEST overflow policy");
+        this.ringBuffer = new MpmcArrayQueue<>(capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.spill = OverflowPolicy.SPILL == overflowPolicy ? spill : null;
+        this.journal = journal;
+        Map<String, String> tags = Map.of(QUEUE_TAG, name);
+        String sensorPrefix = QUEUE_METRIC_GROUP + "-" + name + "-";
+        this.enqueueSensor = metrics.sensor(sensorPrefix + "enqueue");
+        enqueueSensor.add(new Meter(metrics.metricName("enqueue-rate", QUEUE_METRIC_GROUP, "number of elements added per second", tags),
+                metrics.metricName("enqueue-total", QUEUE_METRIC_GROUP, "total number of elements added", tags)));
+        this.dequeueSensor = metrics.sensor(sensorPrefix + "dequeue");
+        dequeueSensor.add(new Meter(metrics.metricName("dequeue-rate", QUEUE_METRIC_GROUP, "number of elements removed per second", tags),
+                metrics.metricName("dequeue-total", QUEUE_METRIC_GROUP, "total number of elements removed", tags)));
+        this.dropSensor = metrics.sensor(sensorPrefix + "drop");
+        dropSensor.add(new Meter(metrics.metricName("drop-rate", QUEUE_METRIC_GROUP, "number of elements dropped per second, with the DROP_OLDEST overflow policy", tags),
+                metrics.metricName("drop-total", QUEUE_METRIC_GROUP, "total number of elements dropped, with the DROP_OLDEST overflow policy", tags)));
+        this.blockedTimeSensor = metrics.sensor(sensorPrefix + "blocked-time");
+        blockedTimeSensor.add(metrics.metricName("blocked-ratio", QUEUE_METRIC_GROUP, "fraction of time producers spent blocked on a full queue, with the BLOCK overflow policy", tags),
+                new Rate(TimeUnit.NANOSECONDS));
+        blockedTimeSensor.add(metrics.metricName("blocked-time-ns-total", QUEUE_METRIC_GROUP, "total time in nanoseconds producers spent blocked on a full queue, with the BLOCK overflow policy", tags),
+                new CumulativeSum());
+        this.spillSensor = metrics.sensor(sensorPrefix + "spill");
+        spillSensor.add(new Meter(metrics.metricName("spill-rate", QUEUE_METRIC_GROUP, "number of elements spilled to disk per second, with the SPILL overflow policy", tags),
+                metrics.metricName("spill-total", QUEUE_METRIC_GROUP, "total number of elements spilled to disk, with the SPILL overflow policy", tags)));
+        MetricName depth = metrics.metricName("depth", QUEUE_METRIC_GROUP, "number of elements in the queue, including spilled elements", tags);
+        metrics.addMetric(depth, (Gauge<Integer>) (config, now) -> size());
+        MetricName spillDepth = metrics.metricName("spill-depth", QUEUE_METRIC_GROUP, "number of elements spilled to disk, with the SPILL overflow policy", tags);
+        metrics.addMetric(spillDepth, (Gauge<Long>) (config, now) -> this.spill != null ? this.spill.size() : 0L);
+        MetricName spillBytes = metrics.metricName("spill-bytes", QUEUE_METRIC_GROUP, "size in bytes of the segment files holding spilled elements, with the SPILL overflow policy", tags);
+        metrics.addMetric(spillBytes, (Gauge<Long>) (config, now) -> this.spill != null ? this.spill.sizeInBytes() : 0L);
+        MetricName capacityName = metrics.metricName("capacity", QUEUE_METRIC_GROUP, "max number of elements in the queue", tags);
+        metrics.addMetric(capacityName, (Gauge<Integer>) (config, now) -> ringBuffer.capacity());
+        this.metrics = metrics;
+        this.gaugeNames = List.of(depth, spillDepth, spillBytes, capacityName);
+    }
+
+    /**
+     * add the element, applying the overflow policy if the queue is full.
+     * With the BLOCK policy, the calling thread waits for a free slot.
+     * @return false only if the calling thread is interrupted while waiting for a free slot.
+     */
+    @Override
+    public boolean offer(E element) {
+        if (journal == null) {
+            return enqueue(element);
+        }
+        //the journal order must be the order consumers read elements in
+        synchronized (journal) {
+            journal.append(element);
+            return enqueue(element);
+        }
+    }
+
+    private boolean enqueue(E element) {
+        if (!spilling && ringBuffer.offer(element)) {
+            enqueueSensor.record();
+            signalNotEmpty();
+            return true;
+        }
+        if (OverflowPolicy.DROP_OLDEST == overflowPolicy) {
+            do {
+                if (ringBuffer.poll() != null) {
+                    dropSensor.record();
+                }
+            } while (!ringBuffer.offer(element));
+            enqueueSensor.record();
+            signalNotEmpty();
+            return true;
+        }
+        boolean offered = OverflowPolicy.SPILL == overflowPolicy ? offerOrSpill(element) : offerAndWait(element);
+        if (offered) {
+            signalNotEmpty();
+        }
+        return offered;
+    }
+
+    private void signalNotEmpty() {
+        //the element publication must be visible before reading the waiting consumers count,
+        //as the consumer increments the count before checking the queue
+        VarHandle.fullFence();
+        if (waitingConsumers.get() > 0) {
+            consumersLock.lock();
+            try {
+                notEmpty.signal();
+            } finally {
+                consumersLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * move up to 'maxElements' elements into the target collection, waiting up to 'timeout' for the first element.
+     * returns as soon as an element is available, without waiting for more elements.
+     * @return the number of elements moved.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public int drainTo(Collection<? super E> target, int maxElements, long timeout, TimeUnit unit) throws InterruptedException {
+        Preconditions.checkArgument(maxElements > 0, "max elements must be a positive number");
+        E element = poll();
+        if (element == null) {
+            element = awaitElement(unit.toNanos(timeout));
+            if (element == null) {
+                return 0;
+            }
+        }
+        target.add(element);
+        return maxElements > 1 ? 1 + drainTo(target, maxElements - 1) : 1;
+    }
+
+    /**
+     * move up to 'maxElements' elements into the target collection, without waiting.
+     * @return the number of elements moved.
+     */
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        Preconditions.checkArgument(maxElements > 0, "max elements must be a positive number");
+        int drained = 0;
+        E element;
+        while (drained < maxElements && (element = poll()) != null) {
+            target.add(element);
+            drained++;
+        }
+        return drained;
+    }
+
+    private E awaitElement(long timeoutInNanos) throws InterruptedException {
+        long remainingNanos = timeoutInNanos;
+        consumersLock.lockInterruptibly();
+        waitingConsumers.incrementAndGet();
+        try {
+            while (true) {
+                E element = poll();
+                if (element != null) {
+                    return element;
+                }
+                if (remainingNanos <= 0) {
+                    return null;
+                }
+                remainingNanos = notEmpty.awaitNanos(remainingNanos);
+            }
+        } finally {
+            waitingConsumers.decrementAndGet();
+            consumersLock.unlock();
+        }
+    }
+
+    private boolean offerOrSpill(E element) {
+        long start = System.nanoTime();
+        long parkNanos = 1;
+        boolean blocked = false;
+        try {
+            while (true) {
+                synchronized (spill) {
+                    if (!spilling && ringBuffer.offer(element)) {
+                        enqueueSensor.record();
+                        return true;
+                    }
+                    if (spill.append(element)) {
+                        spilling = true;
+                        spillSensor.record();
+                        enqueueSensor.record();
+                        return true;
+                    }
+                }
+                //the max spill size is reached
+                blocked = true;
+                if (Thread.currentThread().isInterrupted()) {
+                    LOGGER.warn("interrupted while waiting for a free space in the spill");
+                    return false;
+                }
+                LockSupport.parkNanos(parkNanos);
+                parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+            }
+        } finally {
+            if (blocked) {
+                blockedTimeSensor.record(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private E pollSpill() {
+        synchronized (spill) {
+            //elements added to the ring buffer before spilling are read first
+            E element = ringBuffer.poll();
+            if (element == null) {
+                element = spill.poll();
+                if (spill.isEmpty()) {
+                    spilling = false;
+                }
+            }
+            return element;
+        }
+    }
+
+    private boolean offerAndWait(E element) {
+        long start = System.nanoTime();
+        long parkNanos = 1;
+        int spins = 0;
+        try {
+            while (!ringBuffer.offer(element)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    LOGGER.warn("interrupted while waiting for a free slot in the queue");
+                    return false;
+                }
+                if (spins < SPINS_BEFORE_PARKING) {
+                    spins++;
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(parkNanos);
+                    parkNanos = Math.min(parkNanos * 2, MAX_PARK_NANOS);
+                }
+            }
+            enqueueSensor.record();
+            return true;
+        } finally {
+            blockedTimeSensor.record(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public E poll() {
+        E element = ringBuffer.poll();
+        if (element == null && spilling) {
+            element = pollSpill();
+        }
+        if (element != null) {
+            dequeueSensor.record();
+        }
+        return element;
+    }
+
+    /**
+     * spilled elements are not visible.
+     */
+    @Override
+    public E peek() {
+        return ringBuffer.peek();
+    }
+
+    @Override
+    public int size() {
+        long size = ringBuffer.size() + (spill != null ? spill.size() : 0);
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return ringBuffer.isEmpty() && (spill == null || spill.isEmpty());
+    }
+
+    /**
+     * @return a weakly consistent iterator over the elements in memory : spilled elements are not visible.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return ringBuffer.iterator();
+    }
+
+    public int capacity() {
+        return ringBuffer.capacity();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * remove the metrics of the queue, and delete its segment files : a queue with the same name can be created again.
+     * The journal is not closed, it is owned by the creator of the queue.
+     */
+    public void close() {
+        for (Sensor sensor : List.of(enqueueSensor, dequeueSensor, dropSensor, blockedTimeSensor, spillSensor)) {
+            metrics.removeSensor(sensor.name());
+        }
+        for (MetricName gaugeName : gaugeNames) {
+            metrics.removeMetric(gaugeName);
+        }
+        if (spill != null) {
+            spill.close();
+        }
+    }
+}
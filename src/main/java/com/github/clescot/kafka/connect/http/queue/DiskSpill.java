@@ -0,0 +1,233 @@
+package com.github.clescot.kafka.connect.http.queue;
+
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.regex.Pattern;
+
+/**
+ * FIFO overflow tier of a {@link BoundedQueue}, holding serialized elements in append-only memory mapped segment files.
+ * Each element is written as its length followed by its bytes. Elements are read back in order,
+ * and drained segments are recycled for the next writes, up to two spare segments.
+ * Segment files are not a journal : they are deleted when the spill is created, and do not survive a restart.
+ * All operations are synchronized : the spill is only used when the in memory queue is full.
+ */
+public class DiskSpill<E> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DiskSpill.class);
+    private static final String SEGMENT_FILE_EXTENSION = ".spill";
+    private static final int LENGTH_SIZE = Integer.BYTES;
+    private static final int MAX_RECYCLED_SEGMENTS = 2;
+
+    private final String name;
+    private final Path directory;
+    private final int segmentSizeInBytes;
+    private final long maxSizeInBytes;
+    private final SpillSerde<E> serde;
+    //first segment is read, last segment is written
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private final Deque<Segment> recycledSegments = new ArrayDeque<>();
+    private long nextSegmentId;
+    private volatile long sizeInBytes;
+    private volatile long size;
+
+    /**
+     * @param name prefix of the segment files.
+     */
+    public DiskSpill(String name, SpillSettings spillSettings, SpillSerde<E> serde) {
+        Preconditions.checkNotNull(name, "spill name cannot be null");
+        Preconditions.checkNotNull(spillSettings, "spill settings cannot be null");
+        Preconditions.checkNotNull(serde, "spill serde cannot be null");
+        this.name = name;
+        this.directory = Paths.get(spillSettings.getDirectory());
+        this.segmentSizeInBytes = spillSettings.getSegmentSizeInBytes();
+        this.maxSizeInBytes = spillSettings.getMaxSizeInBytes();
+        this.serde = serde;
+        try {
+            Files.createDirectories(directory);
+            deleteSegmentFiles();
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot prepare the '" + directory + "' spill directory", e);
+        }
+    }
+
+    private void deleteSegmentFiles() throws IOException {
+        Pattern segmentFilePattern = Pattern.compile(Pattern.quote(name) + "\\.\\d+" + Pattern.quote(SEGMENT_FILE_EXTENSION));
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, path -> segmentFilePattern.matcher(path.getFileName().toString()).matches())) {
+            for (Path file : files) {
+                LOGGER.warn("deleting the '{}' segment file of a previous spill", file);
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * @return false if the max size of the segment files is reached.
+     * @throws UncheckedIOException if a segment file cannot be created.
+     */
+    public synchronized boolean append(E element) {
+        byte[] bytes = serde.serialize(element);
+        int recordSize = LENGTH_SIZE + bytes.length;
+        Segment segment = segments.peekLast();
+        if (segment == null || segment.remaining() < recordSize) {
+            //an element bigger than a segment gets its own segment
+            int newSegmentSize = Math.max(segmentSizeInBytes, recordSize);
+            if (!segments.isEmpty() && sizeInBytes + newSegmentSize > maxSizeInBytes) {
+                return false;
+            }
+            segment = newSegment(newSegmentSize);
+            segments.addLast(segment);
+            sizeInBytes += segment.capacity();
+        }
+        segment.write(bytes);
+        size++;
+        return true;
+    }
+
+    /**
+     * @return the oldest element, or null if the spill is empty.
+     */
+    public synchronized E poll() {
+        Segment segment = segments.peekFirst();
+        while (segment != null) {
+            byte[] bytes = segment.read();
+            if (bytes != null) {
+                size--;
+                return serde.deserialize(bytes);
+            }
+            if (segment == segments.peekLast()) {
+                //the last segment is fully read : it is written again from its beginning
+                segment.clear();
+                return null;
+            }
+            segments.pollFirst();
+            sizeInBytes -= segment.capacity();
+            release(segment);
+            segment = segments.peekFirst();
+        }
+        return null;
+    }
+
+    /**
+     * delete the segment files, including the ones holding spilled elements.
+     */
+    public synchronized void close() {
+        for (Segment segment : segments) {
+            segment.delete();
+        }
+        for (Segment segment : recycledSegments) {
+            segment.delete();
+        }
+        segments.clear();
+        recycledSegments.clear();
+        size = 0;
+        sizeInBytes = 0;
+    }
+
+    private Segment newSegment(int capacity) {
+        Segment recycled = recycledSegments.pollFirst();
+        if (recycled != null) {
+            if (recycled.capacity() >= capacity) {
+                return recycled;
+            }
+            recycled.delete();
+        }
+        Path file = directory.resolve(name + "." + nextSegmentId++ + SEGMENT_FILE_EXTENSION);
+        LOGGER.debug("creating the '{}' segment file of {} bytes", file, capacity);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            //the mapping stays valid after the channel is closed
+            return new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot create the '" + file + "' segment file", e);
+        }
+    }
+
+    private void release(Segment segment) {
+        if (segment.capacity() == segmentSizeInBytes && recycledSegments.size() < MAX_RECYCLED_SEGMENTS) {
+            segment.clear();
+            recycledSegments.addLast(segment);
+        } else {
+            segment.delete();
+        }
+    }
+
+    /**
+     * @return the number of spilled elements.
+     */
+    public long size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return the size of the segment files holding spilled elements, excluding recycled segments.
+     */
+    public long sizeInBytes() {
+        return sizeInBytes;
+    }
+
+    private static class Segment {
+        private final Path file;
+        private final MappedByteBuffer writeBuffer;
+        private final ByteBuffer readBuffer;
+
+        private Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.writeBuffer = buffer;
+            this.readBuffer = buffer.duplicate();
+        }
+
+        private int capacity() {
+            return writeBuffer.capacity();
+        }
+
+        private int remaining() {
+            return writeBuffer.remaining();
+        }
+
+        private void write(byte[] bytes) {
+            writeBuffer.putInt(bytes.length);
+            writeBuffer.put(bytes);
+        }
+
+        /**
+         * @return the next element bytes, or null if all written elements are read.
+         */
+        private byte[] read() {
+            if (readBuffer.position() >= writeBuffer.position()) {
+                return null;
+            }
+            byte[] bytes = new byte[readBuffer.getInt()];
+            readBuffer.get(bytes);
+            return bytes;
+        }
+
+        private void clear() {
+            writeBuffer.clear();
+            readBuffer.clear();
+        }
+
+        private void delete() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOGGER.warn("cannot delete the '{}' segment file", file, e);
+            }
+        }
+    }
+}
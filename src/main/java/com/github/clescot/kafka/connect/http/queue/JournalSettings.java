@@ -0,0 +1,39 @@
+package com.github.clescot.kafka.connect.http.queue;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * location and size of the segment files of a write-ahead journal, recording the elements added to a queue.
+ */
+public class JournalSettings {
+
+    private final String directory;
+    private final int segmentSizeInBytes;
+
+    /**
+     * @param directory directory of the segment files, which must survive a restart.
+     * @param segmentSizeInBytes size above which a new segment file is written.
+     */
+    public JournalSettings(String directory, int segmentSizeInBytes) {
+        Preconditions.checkNotNull(directory, "journal directory cannot be null");
+        Preconditions.checkArgument(segmentSizeInBytes > 0, "segment size must be a positive number");
+        this.directory = directory;
+        this.segmentSizeInBytes = segmentSizeInBytes;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public int getSegmentSizeInBytes() {
+        return segmentSizeInBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "JournalSettings{" +
+                "directory='" + directory + '\'' +
+                ", segmentSizeInBytes=" + segmentSizeInBytes +
+                '}';
+    }
+}
@@ -0,0 +1,178 @@
+package com.github.clescot.kafka.connect.http.queue;
+
+import com.google.common.base.Preconditions;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * bounded, lock-free, multi-producer multi-consumer queue, backed by a ring buffer (Dmitry Vyukov's algorithm).
+ * Each slot owns a sequence number, telling producers and consumers if the slot is free or filled for their turn :
+ * producers and consumers only contend on a compare-and-set of their own position, and no node is allocated per element.
+ * The capacity is rounded up to the next power of two.
+ * {@link #size()} and {@link #iterator()} are a best effort view, while producers and consumers are running.
+ */
+public class MpmcArrayQueue<E> extends AbstractQueue<E> {
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    //producers and consumers positions are padded, to not share the same cache line
+    private final PaddedAtomicLong producerPosition = new PaddedAtomicLong();
+    private final PaddedAtomicLong consumerPosition = new PaddedAtomicLong();
+
+    public MpmcArrayQueue(int requestedCapacity) {
+        Preconditions.checkArgument(requestedCapacity >= 2, "capacity must be at least 2");
+        Preconditions.checkArgument(requestedCapacity <= 1 << 30, "capacity cannot exceed 2^30");
+        this.capacity = requestedCapacity == Integer.highestOneBit(requestedCapacity) ? requestedCapacity : Integer.highestOneBit(requestedCapacity) << 1;
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false if the queue is full.
+     */
+    @Override
+    public boolean offer(E element) {
+        Preconditions.checkNotNull(element, "null elements are not supported");
+        long position = producerPosition.get();
+        int index;
+        while (true) {
+            index = (int) position & mask;
+            long gap = sequences.get(index) - position;
+            if (gap == 0) {
+                if (producerPosition.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = producerPosition.get();
+            } else if (gap < 0) {
+                //the slot still holds the element of the previous lap
+                return false;
+            } else {
+                //another producer took this position
+                position = producerPosition.get();
+            }
+        }
+        elements.lazySet(index, element);
+        //publish the element to consumers
+        sequences.lazySet(index, position + 1);
+        return true;
+    }
+
+    @Override
+    public E poll() {
+        long position = consumerPosition.get();
+        int index;
+        while (true) {
+            index = (int) position & mask;
+            long gap = sequences.get(index) - (position + 1);
+            if (gap == 0) {
+                if (consumerPosition.compareAndSet(position, position + 1)) {
+                    break;
+                }
+                position = consumerPosition.get();
+            } else if (gap < 0) {
+                //the slot is not filled yet
+                return null;
+            } else {
+                //another consumer took this position
+                position = consumerPosition.get();
+            }
+        }
+        E element = elements.get(index);
+        elements.lazySet(index, null);
+        //release the slot for the next lap of producers
+        sequences.lazySet(index, position + capacity);
+        return element;
+    }
+
+    @Override
+    public E peek() {
+        while (true) {
+            long position = consumerPosition.get();
+            int index = (int) position & mask;
+            long gap = sequences.get(index) - (position + 1);
+            if (gap < 0) {
+                return null;
+            }
+            E element = elements.get(index);
+            //the element is only valid if no consumer took it meanwhile
+            if (element != null && consumerPosition.get() == position) {
+                return element;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        //consumer position is read first, to never return a size above the real one
+        long consumer = consumerPosition.get();
+        long producer = producerPosition.get();
+        long size = producer - consumer;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return peek() == null;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @return a weakly consistent iterator over the elements present when it is created. removal is not supported.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<>() {
+            private long position = consumerPosition.get();
+            private final long end = producerPosition.get();
+            private E next = advance();
+
+            private E advance() {
+                while (position < end) {
+                    int index = (int) position & mask;
+                    long current = position++;
+                    E element = elements.get(index);
+                    if (element != null && sequences.get(index) == current + 1) {
+                        return element;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public E next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                E element = next;
+                next = advance();
+                return element;
+            }
+        };
+    }
+
+    @SuppressWarnings("unused")
+    private static class PaddedAtomicLong extends AtomicLong {
+        private static final long serialVersionUID = 1L;
+
+        //subclass fields are laid out after the value field : they fill the rest of the cache line
+        private long p1, p2, p3, p4, p5, p6, p7;
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.clescot.kafka.connect.http.queue;
+
+/**
+ * behaviour of a bounded queue when it is full.
+ */
+public enum OverflowPolicy {
+    /**
+     * the producer waits until a consumer frees a slot : no element is lost, but the producer (the sink) is slowed down.
+     */
+    BLOCK,
+    /**
+     * the oldest element is removed to make room for the new one : the producer is never slowed down, but elements are lost.
+     */
+    DROP_OLDEST,
+    /**
+     * new elements are serialized into segment files on disk, until consumers have read all the spilled elements :
+     * the heap stays bounded, and the producer is only slowed down when the max spill size is reached.
+     */
+    SPILL
+}
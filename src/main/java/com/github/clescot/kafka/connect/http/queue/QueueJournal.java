@@ -0,0 +1,15 @@
+package com.github.clescot.kafka.connect.http.queue;
+
+/**
+ * durable record of the elements added to a {@link BoundedQueue}.
+ * The queue appends an element before adding it, holding the journal monitor :
+ * elements are journaled in the order consumers read them.
+ */
+public interface QueueJournal<E> {
+
+    /**
+     * record the element, before it is added to the queue.
+     * @throws java.io.UncheckedIOException if the element cannot be written.
+     */
+    void append(E element);
+}
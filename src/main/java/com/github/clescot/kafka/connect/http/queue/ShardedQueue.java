@@ -0,0 +1,185 @@
+package com.github.clescot.kafka.connect.http.queue;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+
+import java.util.AbstractQueue;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * queue split into independent {@link BoundedQueue} shards : producers and consumers of different shards never contend.
+ * Producers choose a shard with {@link #offer(Object, int)}, to keep the order of elements sharing the same shard key.
+ * Consumers can own a subset of the shards, with {@link #subset(Collection)}.
+ * Shards are visited in turn, from a rotating index, to not starve any of them.
+ */
+public class ShardedQueue<E> extends AbstractQueue<E> {
+    //max wait time on an empty shard, before looking at the other shards
+    private static final long MAX_SHARD_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final List<BoundedQueue<E>> shards;
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    public ShardedQueue(List<BoundedQueue<E>> shards) {
+        Preconditions.checkNotNull(shards, "shards cannot be null");
+        Preconditions.checkArgument(!shards.isEmpty(), "a sharded queue needs at least one shard");
+        this.shards = ImmutableList.copyOf(shards);
+    }
+
+    /**
+     * @param shardIndexes indexes of the shards to keep.
+     * @return a view of some shards of this queue, sharing their elements.
+     */
+    public ShardedQueue<E> subset(Collection<Integer> shardIndexes) {
+        Preconditions.checkNotNull(shardIndexes, "shard indexes cannot be null");
+        ImmutableList.Builder<BoundedQueue<E>> subset = ImmutableList.builder();
+        for (Integer shardIndex : shardIndexes) {
+            Preconditions.checkArgument(shardIndex >= 0 && shardIndex < shards.size(), "shard index " + shardIndex + " is out of range : " + shards.size() + " shards");
+            subset.add(shards.get(shardIndex));
+        }
+        return new ShardedQueue<>(subset.build());
+    }
+
+    /**
+     * add the element to the shard matching the shard key.
+     * @return false only if the calling thread is interrupted while waiting for a free slot.
+     */
+    public boolean offer(E element, int shardKey) {
+        return shards.get(Math.floorMod(shardKey, shards.size())).offer(element);
+    }
+
+    /**
+     * add the element to the next shard, in turn.
+     */
+    @Override
+    public boolean offer(E element) {
+        return offer(element, nextShard.getAndIncrement());
+    }
+
+    @Override
+    public E poll() {
+        int start = nextShard.getAndIncrement();
+        for (int i = 0; i < shards.size(); i++) {
+            E element = shard(start + i).poll();
+            if (element != null) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * move up to 'maxElements' elements of the shards into the target collection, without waiting.
+     * @return the number of elements moved.
+     */
+    public int drainTo(Collection<? super E> target, int maxElements) {
+        Preconditions.checkArgument(maxElements > 0, "max elements must be a positive number");
+        int start = nextShard.getAndIncrement();
+        int drained = 0;
+        for (int i = 0; i < shards.size() && drained < maxElements; i++) {
+            drained += shard(start + i).drainTo(target, maxElements - drained);
+        }
+        return drained;
+    }
+
+    /**
+     * move up to 'maxElements' elements into the target collection, waiting up to 'timeout' for the first element.
+     * With multiple shards, empty shards are waited for in turn, up to 10 ms each.
+     * @return the number of elements moved.
+     * @throws InterruptedException if the calling thread is interrupted while waiting.
+     */
+    public int drainTo(Collection<? super E> target, int maxElements, long timeout, TimeUnit unit) throws InterruptedException {
+        if (shards.size() == 1) {
+            return shards.get(0).drainTo(target, maxElements, timeout, unit);
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            int drained = drainTo(target, maxElements);
+            if (drained > 0) {
+                return drained;
+            }
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return 0;
+            }
+            drained = shard(nextShard.getAndIncrement()).drainTo(target, maxElements, Math.min(remainingNanos, MAX_SHARD_WAIT_NANOS), TimeUnit.NANOSECONDS);
+            if (drained > 0) {
+                return drained < maxElements ? drained + drainTo(target, maxElements - drained) : drained;
+            }
+        }
+    }
+
+    private BoundedQueue<E> shard(int index) {
+        return shards.get(Math.floorMod(index, shards.size()));
+    }
+
+    @Override
+    public E peek() {
+        for (BoundedQueue<E> shard : shards) {
+            E element = shard.peek();
+            if (element != null) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (BoundedQueue<E> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (BoundedQueue<E> shard : shards) {
+            if (!shard.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a weakly consistent iterator over the elements of all shards. removal is not supported.
+     */
+    @Override
+    public Iterator<E> iterator() {
+        return Iterators.concat(Iterators.transform(shards.iterator(), BoundedQueue::iterator));
+    }
+
+    /**
+     * @return the sum of the shards capacity.
+     */
+    public int capacity() {
+        int capacity = 0;
+        for (BoundedQueue<E> shard : shards) {
+            capacity += shard.capacity();
+        }
+        return capacity;
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return shards.get(0).getOverflowPolicy();
+    }
+
+    /**
+     * close each shard.
+     */
+    public void close() {
+        for (BoundedQueue<E> shard : shards) {
+            shard.close();
+        }
+    }
+}
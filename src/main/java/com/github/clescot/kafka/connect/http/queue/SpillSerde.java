@@ -0,0 +1,11 @@
+package com.github.clescot.kafka.connect.http.queue;
+
+/**
+ * binary form of the elements spilled to disk, with the SPILL overflow policy.
+ */
+public interface SpillSerde<E> {
+
+    byte[] serialize(E element);
+
+    E deserialize(byte[] bytes);
+}
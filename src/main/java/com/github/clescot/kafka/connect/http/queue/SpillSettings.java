@@ -0,0 +1,47 @@
+package com.github.clescot.kafka.connect.http.queue;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * location and size of the segment files, holding elements spilled to disk with the SPILL overflow policy.
+ */
+public class SpillSettings {
+
+    private final String directory;
+    private final int segmentSizeInBytes;
+    private final long maxSizeInBytes;
+
+    /**
+     * @param segmentSizeInBytes size of each memory mapped segment file.
+     * @param maxSizeInBytes max size of the segment files of a queue : producers wait for free space above it.
+     */
+    public SpillSettings(String directory, int segmentSizeInBytes, long maxSizeInBytes) {
+        Preconditions.checkNotNull(directory, "spill directory cannot be null");
+        Preconditions.checkArgument(segmentSizeInBytes > 0, "segment size must be a positive number");
+        Preconditions.checkArgument(maxSizeInBytes >= segmentSizeInBytes, "max spill size must be greater than or equal to the segment size");
+        this.directory = directory;
+        this.segmentSizeInBytes = segmentSizeInBytes;
+        this.maxSizeInBytes = maxSizeInBytes;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    public int getSegmentSizeInBytes() {
+        return segmentSizeInBytes;
+    }
+
+    public long getMaxSizeInBytes() {
+        return maxSizeInBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "SpillSettings{" +
+                "directory='" + directory + '\'' +
+                ", segmentSizeInBytes=" + segmentSizeInBytes +
+                ", maxSizeInBytes=" + maxSizeInBytes +
+                '}';
+    }
+}
@@ -0,0 +1,256 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import dev.failsafe.BulkheadFullException;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Gauge;
+import org.apache.kafka.common.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * concurrency limit of a destination, adapted to the observed durations and errors with an AIMD algorithm (additive increase, multiplicative decrease) :
+ * <ul>
+ *     <li>the limit is multiplied by the backoff ratio after an overload signal : an overloaded response (429 status code, or error implying a retry), a call error,
+ *     or a duration above the latency tolerance times the average duration. The limit is decreased once per congestion window :
+ *     only signals of HTTP exchanges started after the last decrease decrease it again,</li>
+ *     <li>otherwise, while at least half of the limit is used, the limit is increased by one every 'limit' HTTP exchanges.</li>
+ * </ul>
+ * The limit stays between the min and max limits. Requests exceeding the limit wait for a slot, in arrival order.
+ * Slots are numbered in the order they are granted : the slot number is given back with the overload signals of its HTTP exchange.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+    //weight of the last duration in the average duration : the average covers roughly the last 20 HTTP exchanges
+    private static final double AVERAGE_DURATION_WEIGHT = 0.05d;
+    public static final String ADAPTIVE_CONCURRENCY_METRIC_GROUP = "http-sink-adaptive-concurrency";
+    public static final String DESTINATION_TAG = "destination";
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final long maxWaitInMs;
+    //guarded by this
+    private double limit;
+    private int inFlight;
+    private double averageDurationInMs = Double.NaN;
+    //number of the next granted slot
+    private long nextSlot;
+    //slots granted before the last decrease belong to the congestion window of this decrease
+    private long firstSlotAfterDecrease;
+    private final Deque<CompletableFuture<Long>> waiters = new ArrayDeque<>();
+
+    /**
+     * @param name destination name.
+     * @param maxLimit max concurrency limit.
+     * @param maxWaitInMs max wait time for a slot.
+     */
+    public AdaptiveConcurrencyLimiter(String name, AdaptiveConcurrencySettings settings, int maxLimit, long maxWaitInMs) {
+        Preconditions.checkNotNull(settings, "settings cannot be null");
+        Preconditions.checkArgument(maxLimit >= settings.getMinLimit(), "max limit of the '" + name + "' destination cannot be lower than its min limit");
+        this.name = name;
+        this.minLimit = settings.getMinLimit();
+        this.maxLimit = maxLimit;
+        this.backoffRatio = settings.getBackoffRatio();
+        this.latencyTolerance = settings.getLatencyTolerance();
+        this.maxWaitInMs = maxWaitInMs;
+        this.limit = Math.min(settings.getInitialLimit(), maxLimit);
+    }
+
+    /**
+     * wait for a slot, blocking the calling thread.
+     * @return the number of the granted slot.
+     * @throws BulkheadFullException if no slot is released in time.
+     */
+    public long acquire() throws InterruptedException {
+        CompletableFuture<Long> slot = enqueue();
+        try {
+            return slot.get(maxWaitInMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (cancel(slot)) {
+                throw full();
+            }
+            //the slot has been granted meanwhile
+            return slot.join();
+        } catch (InterruptedException e) {
+            if (!cancel(slot)) {
+                //the slot has been granted meanwhile
+                release();
+            }
+            throw e;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * wait for a slot without blocking the calling thread.
+     * @return a stage completed with the number of the slot when it is granted,
+     * or exceptionally with a {@link BulkheadFullException} if no slot is released in time.
+     */
+    public CompletableFuture<Long> acquireAsync(ScheduledExecutorService scheduler) {
+        CompletableFuture<Long> slot = enqueue();
+        if (!slot.isDone()) {
+            scheduler.schedule(() -> {
+                if (cancel(slot)) {
+                    slot.completeExceptionally(full());
+                }
+            }, maxWaitInMs, TimeUnit.MILLISECONDS);
+        }
+        return slot;
+    }
+
+    /**
+     * release a slot, after an HTTP exchange with a response.
+     * @param slot number of the slot of the HTTP exchange.
+     * @param durationInMillis duration of the HTTP exchange, or null if unknown.
+     * @param overloaded true if the response status code is an overload signal.
+     */
+    public void onResponse(long slot, Long durationInMillis, boolean overloaded) {
+        Map<CompletableFuture<Long>, Long> granted;
+        synchronized (this) {
+            boolean tooSlow = false;
+            if (durationInMillis != null) {
+                tooSlow = !Double.isNaN(averageDurationInMs) && durationInMillis > latencyTolerance * averageDurationInMs;
+                averageDurationInMs = Double.isNaN(averageDurationInMs)
+                        ? durationInMillis
+                        : averageDurationInMs + AVERAGE_DURATION_WEIGHT * (durationInMillis - averageDurationInMs);
+            }
+            if (overloaded || tooSlow) {
+                decrease(slot);
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            inFlight--;
+            granted = grant();
+        }
+        complete(granted);
+    }
+
+    /**
+     * release a slot, after an HTTP exchange without response : a call error is an overload signal.
+     * @param slot number of the slot of the HTTP exchange.
+     */
+    public void onFailure(long slot) {
+        Map<CompletableFuture<Long>, Long> granted;
+        synchronized (this) {
+            decrease(slot);
+            inFlight--;
+            granted = grant();
+        }
+        complete(granted);
+    }
+
+    /**
+     * release a slot, without any HTTP exchange.
+     */
+    public void release() {
+        Map<CompletableFuture<Long>, Long> granted;
+        synchronized (this) {
+            inFlight--;
+            granted = grant();
+        }
+        complete(granted);
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    /**
+     * expose the concurrency limit and the HTTP exchanges in flight, with a 'destination' tag.
+     */
+    public void registerMetrics(Metrics metrics, Map<String, String> tags) {
+        Map<String, String> destinationTags = destinationTags(tags);
+        metrics.addMetric(limitMetricName(metrics, destinationTags),
+                (Gauge<Integer>) (config, now) -> getLimit());
+        metrics.addMetric(inFlightMetricName(metrics, destinationTags),
+                (Gauge<Integer>) (config, now) -> getInFlight());
+    }
+
+    public void unregisterMetrics(Metrics metrics, Map<String, String> tags) {
+        Map<String, String> destinationTags = destinationTags(tags);
+        metrics.removeMetric(limitMetricName(metrics, destinationTags));
+        metrics.removeMetric(inFlightMetricName(metrics, destinationTags));
+    }
+
+    private Map<String, String> destinationTags(Map<String, String> tags) {
+        Map<String, String> destinationTags = Maps.newHashMap(tags);
+        destinationTags.put(DESTINATION_TAG, name);
+        return destinationTags;
+    }
+
+    private static MetricName limitMetricName(Metrics metrics, Map<String, String> destinationTags) {
+        return metrics.metricName("concurrency-limit", ADAPTIVE_CONCURRENCY_METRIC_GROUP, "current concurrency limit of the destination", destinationTags);
+    }
+
+    private static MetricName inFlightMetricName(Metrics metrics, Map<String, String> destinationTags) {
+        return metrics.metricName("in-flight", ADAPTIVE_CONCURRENCY_METRIC_GROUP, "number of HTTP exchanges of the destination holding a slot", destinationTags);
+    }
+
+    private synchronized CompletableFuture<Long> enqueue() {
+        CompletableFuture<Long> slot = new CompletableFuture<>();
+        if (waiters.isEmpty() && inFlight < (int) limit) {
+            inFlight++;
+            slot.complete(nextSlot++);
+        } else {
+            waiters.addLast(slot);
+        }
+        return slot;
+    }
+
+    /**
+     * @return true if the slot was still waiting, false if it has been granted.
+     */
+    private synchronized boolean cancel(CompletableFuture<Long> slot) {
+        return waiters.remove(slot);
+    }
+
+    private void decrease(long slot) {
+        if (slot < firstSlotAfterDecrease) {
+            //the HTTP exchange was started before the last decrease : its overload signal is already taken into account
+            return;
+        }
+        firstSlotAfterDecrease = nextSlot;
+        int previousLimit = (int) limit;
+        limit = Math.max(minLimit, limit * backoffRatio);
+        if ((int) limit != previousLimit) {
+            LOGGER.debug("concurrency limit of the '{}' destination decreased to {}", name, (int) limit);
+        }
+    }
+
+    private Map<CompletableFuture<Long>, Long> grant() {
+        Map<CompletableFuture<Long>, Long> granted = Maps.newLinkedHashMap();
+        while (!waiters.isEmpty() && inFlight < (int) limit) {
+            inFlight++;
+            granted.put(waiters.pollFirst(), nextSlot++);
+        }
+        return granted;
+    }
+
+    //waiting calls are resumed out of the lock
+    private static void complete(Map<CompletableFuture<Long>, Long> granted) {
+        granted.forEach(CompletableFuture::complete);
+    }
+
+    private static BulkheadFullException full() {
+        //like a full bulkhead, a full adaptive concurrency limit is not a failure of the destination
+        return new BulkheadFullException(null);
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * settings of the adaptive concurrency limit of a destination.
+ * Settings of a configured destination are read from the 'destination.&lt;id&gt;.' prefixed parameters,
+ * missing settings are inherited from the default settings.
+ */
+public class AdaptiveConcurrencySettings {
+    public static final String ADAPTIVE_CONCURRENCY_ENABLED = "adaptive.concurrency.enabled";
+    public static final String ADAPTIVE_CONCURRENCY_MIN_LIMIT = "adaptive.concurrency.min.limit";
+    public static final String ADAPTIVE_CONCURRENCY_INITIAL_LIMIT = "adaptive.concurrency.initial.limit";
+    public static final String ADAPTIVE_CONCURRENCY_BACKOFF_RATIO = "adaptive.concurrency.backoff.ratio";
+    public static final String ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE = "adaptive.concurrency.latency.tolerance";
+    //max limit when the max concurrent requests of the destination is not set
+    public static final int DEFAULT_MAX_LIMIT = 200;
+
+    /**
+     * settings built with the default values of the connector parameters : the concurrency limit is not adaptive.
+     */
+    public static final AdaptiveConcurrencySettings DISABLED = new AdaptiveConcurrencySettings(
+            false,
+            HttpSinkConfigDefinition.DEFAULT_ADAPTIVE_CONCURRENCY_MIN_LIMIT_VALUE,
+            HttpSinkConfigDefinition.DEFAULT_ADAPTIVE_CONCURRENCY_INITIAL_LIMIT_VALUE,
+            HttpSinkConfigDefinition.DEFAULT_ADAPTIVE_CONCURRENCY_BACKOFF_RATIO_VALUE,
+            HttpSinkConfigDefinition.DEFAULT_ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE_VALUE);
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int initialLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    public AdaptiveConcurrencySettings(boolean enabled, int minLimit, int initialLimit, double backoffRatio, double latencyTolerance) {
+        Preconditions.checkArgument(minLimit > 0, "'" + ADAPTIVE_CONCURRENCY_MIN_LIMIT + "' must be a positive number");
+        Preconditions.checkArgument(initialLimit >= minLimit, "'" + ADAPTIVE_CONCURRENCY_INITIAL_LIMIT + "' cannot be lower than '" + ADAPTIVE_CONCURRENCY_MIN_LIMIT + "'");
+        Preconditions.checkArgument(backoffRatio > 0 && backoffRatio < 1, "'" + ADAPTIVE_CONCURRENCY_BACKOFF_RATIO + "' must be between 0 and 1 (excluded)");
+        Preconditions.checkArgument(latencyTolerance > 1, "'" + ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE + "' must be greater than 1");
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.initialLimit = initialLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    /**
+     * @param settings destination parameters, without the 'destination.&lt;id&gt;.' prefix.
+     * @param defaults settings used when a parameter is not set.
+     */
+    public static AdaptiveConcurrencySettings of(Map<String, ?> settings, AdaptiveConcurrencySettings defaults) {
+        return new AdaptiveConcurrencySettings(
+                Optional.ofNullable(settings.get(ADAPTIVE_CONCURRENCY_ENABLED)).map(value -> Boolean.parseBoolean(value.toString())).orElse(defaults.enabled),
+                Optional.ofNullable(settings.get(ADAPTIVE_CONCURRENCY_MIN_LIMIT)).map(value -> Integer.parseInt(value.toString())).orElse(defaults.minLimit),
+                Optional.ofNullable(settings.get(ADAPTIVE_CONCURRENCY_INITIAL_LIMIT)).map(value -> Integer.parseInt(value.toString())).orElse(defaults.initialLimit),
+                Optional.ofNullable(settings.get(ADAPTIVE_CONCURRENCY_BACKOFF_RATIO)).map(value -> Double.parseDouble(value.toString())).orElse(defaults.backoffRatio),
+                Optional.ofNullable(settings.get(ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE)).map(value -> Double.parseDouble(value.toString())).orElse(defaults.latencyTolerance)
+        );
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencySettings{" +
+                "enabled=" + enabled +
+                ", minLimit=" + minLimit +
+                ", initialLimit=" + initialLimit +
+                ", backoffRatio=" + backoffRatio +
+                ", latencyTolerance=" + latencyTolerance +
+                '}';
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * order guarantee between HTTP exchanges, when records are sent asynchronously.
+ * Two records with the same ordering key are sent one after the other (including retries),
+ * two records with different ordering keys are sent concurrently.
+ */
+public enum DeliveryOrdering {
+    /**
+     * no order guarantee : each record is sent as soon as possible.
+     */
+    NONE,
+    /**
+     * records of the same Kafka partition are sent in order.
+     */
+    PARTITION,
+    /**
+     * records of the same topic with the same key are sent in order. records without key are not ordered.
+     */
+    KEY,
+    /**
+     * records of the same topic with the same value for the configured header are sent in order. records without this header are not ordered.
+     */
+    HEADER;
+
+    /**
+     * @param headerName name of the header holding the ordering key, only used with the HEADER ordering.
+     * @return the key identifying records which need to be sent in order, or null if the record can be sent without waiting.
+     */
+    public Object orderingKey(SinkRecord sinkRecord, String headerName) {
+        switch (this) {
+            case PARTITION:
+                return new TopicPartition(sinkRecord.topic(), sinkRecord.kafkaPartition());
+            case KEY:
+                Object key = sinkRecord.key();
+                if (key == null) {
+                    return null;
+                }
+                //byte arrays don't implement equals and hashCode based on their content
+                return List.of(sinkRecord.topic(), key instanceof byte[] ? ByteBuffer.wrap((byte[]) key) : key);
+            case HEADER:
+                Header header = headerName != null ? sinkRecord.headers().lastWithName(headerName) : null;
+                if (header == null || header.value() == null) {
+                    return null;
+                }
+                Object headerValue = header.value();
+                return List.of(sinkRecord.topic(), headerValue instanceof byte[] ? ByteBuffer.wrap((byte[]) headerValue) : headerValue);
+            case NONE:
+            default:
+                return null;
+        }
+    }
+}
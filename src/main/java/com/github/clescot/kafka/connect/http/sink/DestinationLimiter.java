@@ -0,0 +1,196 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.github.clescot.kafka.connect.http.HttpExchange;
+import dev.failsafe.Bulkhead;
+import dev.failsafe.Failsafe;
+import dev.failsafe.RateLimiter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static com.github.clescot.kafka.connect.http.sink.client.HttpClient.ONE_HTTP_REQUEST;
+
+/**
+ * rate limiter, and optional concurrency limit, of a destination.
+ * The concurrency limit also caps the connections opened to the destination, one HTTP/1.1 connection serving one request at a time.
+ * The concurrency limit is either fixed, or adapted to the durations and status codes of the HTTP exchanges of the destination.
+ * Calls are also delayed to honor the calls quota announced by the destination in its responses ('Retry-After' and rate limit headers).
+ */
+public class DestinationLimiter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DestinationLimiter.class);
+    private static final int TOO_MANY_REQUESTS_STATUS_CODE = 429;
+
+    private final DestinationSettings settings;
+    private final RateLimiter<HttpExchange> rateLimiter;
+    //null when the concurrency is not limited, or adaptive
+    private final Bulkhead<HttpExchange> bulkhead;
+    //null when the concurrency limit is not adaptive
+    private final AdaptiveConcurrencyLimiter adaptiveLimiter;
+    private final ServerRateLimit serverRateLimit;
+
+    public DestinationLimiter(DestinationSettings settings) {
+        this.settings = settings;
+        this.rateLimiter = RateLimiter.<HttpExchange>smoothBuilder(settings.getRateLimiterMaxExecutions(), Duration.ofMillis(settings.getRateLimiterPeriodInMs())).build();
+        this.serverRateLimit = new ServerRateLimit(settings.getServerRateLimitMaxWaitInMs());
+        if (settings.getAdaptiveConcurrency().isEnabled()) {
+            int maxLimit = settings.getMaxConcurrentRequests() > 0 ? settings.getMaxConcurrentRequests() : AdaptiveConcurrencySettings.DEFAULT_MAX_LIMIT;
+            this.adaptiveLimiter = new AdaptiveConcurrencyLimiter(settings.getName(), settings.getAdaptiveConcurrency(), maxLimit, settings.getMaxConcurrentRequestsWaitInMs());
+            this.bulkhead = null;
+            LOGGER.info("limiter created for the '{}' destination : {} executions every {} ms, adaptive concurrency limit between {} and {}",
+                    settings.getName(), settings.getRateLimiterMaxExecutions(), settings.getRateLimiterPeriodInMs(),
+                    settings.getAdaptiveConcurrency().getMinLimit(), maxLimit);
+            return;
+        }
+        this.adaptiveLimiter = null;
+        this.bulkhead = settings.getMaxConcurrentRequests() > 0
+                ? Bulkhead.<HttpExchange>builder(settings.getMaxConcurrentRequests()).withMaxWaitTime(Duration.ofMillis(settings.getMaxConcurrentRequestsWaitInMs())).build()
+                : null;
+        LOGGER.info("limiter created for the '{}' destination : {} executions every {} ms, {} max concurrent requests",
+                settings.getName(), settings.getRateLimiterMaxExecutions(), settings.getRateLimiterPeriodInMs(),
+                bulkhead != null ? settings.getMaxConcurrentRequests() : "no");
+    }
+
+    /**
+     * call the destination, blocking the calling thread while the call quota or the max concurrent requests is reached.
+     * @throws dev.failsafe.BulkheadFullException if no concurrent request slot is released in time.
+     */
+    public HttpExchange call(Supplier<HttpExchange> call) throws InterruptedException {
+        //no concurrent request slot is held while the destination does not accept calls
+        awaitServerRateLimit();
+        if (adaptiveLimiter != null) {
+            return callWithAdaptiveLimit(call);
+        }
+        if (bulkhead == null) {
+            rateLimiter.acquirePermits(ONE_HTTP_REQUEST);
+            return observe(call.get());
+        }
+        bulkhead.acquirePermit(Duration.ofMillis(settings.getMaxConcurrentRequestsWaitInMs()));
+        try {
+            rateLimiter.acquirePermits(ONE_HTTP_REQUEST);
+            return observe(call.get());
+        } finally {
+            bulkhead.releasePermit();
+        }
+    }
+
+    /**
+     * call the destination without blocking the calling thread : waits for a call permit or a concurrent request slot are scheduled.
+     * the returned future completes exceptionally with a {@link dev.failsafe.BulkheadFullException} if no concurrent request slot is released in time.
+     */
+    public CompletableFuture<HttpExchange> callAsync(Supplier<CompletableFuture<HttpExchange>> destinationCall, ScheduledExecutorService scheduler) {
+        Supplier<CompletableFuture<HttpExchange>> call = () -> destinationCall.get().thenApply(this::observe);
+        if (adaptiveLimiter != null) {
+            //the slot is released, and the limit adapted, when the HTTP exchange completes
+            return adaptiveLimiter.acquireAsync(scheduler)
+                    .thenCompose(slot -> callWithAdaptiveLimitAsync(slot, call, scheduler));
+        }
+        if (bulkhead == null) {
+            return callWithThrottlingAsync(call, scheduler);
+        }
+        //the concurrent request slot is released when the returned stage completes
+        return Failsafe.with(bulkhead)
+                .with(scheduler)
+                .getStageAsync(() -> callWithThrottlingAsync(call, scheduler));
+    }
+
+    private CompletableFuture<HttpExchange> callWithThrottlingAsync(Supplier<CompletableFuture<HttpExchange>> call, ScheduledExecutorService scheduler) {
+        //the permit is reserved now, and the call is delayed until the permit is available, and the destination accepts calls
+        Duration waitTime = rateLimiter.reservePermits(ONE_HTTP_REQUEST);
+        long serverWaitTimeInMs = serverRateLimit.reserve(System.currentTimeMillis());
+        if (serverWaitTimeInMs > waitTime.toMillis()) {
+            waitTime = Duration.ofMillis(serverWaitTimeInMs);
+        }
+        if (waitTime.isZero() || waitTime.isNegative()) {
+            return call.get();
+        }
+        LOGGER.debug("permits reserved for the '{}' destination, call delayed for {} ms", settings.getName(), waitTime.toMillis());
+        CompletableFuture<Void> permitAvailable = new CompletableFuture<>();
+        scheduler.schedule(() -> permitAvailable.complete(null), waitTime.toNanos(), TimeUnit.NANOSECONDS);
+        return permitAvailable.thenCompose(ignored -> call.get());
+    }
+
+    private HttpExchange callWithAdaptiveLimit(Supplier<HttpExchange> call) throws InterruptedException {
+        long slot = adaptiveLimiter.acquire();
+        try {
+            rateLimiter.acquirePermits(ONE_HTTP_REQUEST);
+        } catch (InterruptedException | RuntimeException e) {
+            adaptiveLimiter.release();
+            throw e;
+        }
+        HttpExchange httpExchange;
+        try {
+            httpExchange = observe(call.get());
+        } catch (RuntimeException e) {
+            adaptiveLimiter.onFailure(slot);
+            throw e;
+        }
+        adaptiveLimiter.onResponse(slot, httpExchange.getDurationInMillis(), isOverloaded(httpExchange));
+        return httpExchange;
+    }
+
+    private CompletableFuture<HttpExchange> callWithAdaptiveLimitAsync(long slot, Supplier<CompletableFuture<HttpExchange>> call, ScheduledExecutorService scheduler) {
+        CompletableFuture<HttpExchange> httpExchangeFuture;
+        try {
+            httpExchangeFuture = callWithThrottlingAsync(call, scheduler);
+        } catch (RuntimeException e) {
+            httpExchangeFuture = CompletableFuture.failedFuture(e);
+        }
+        return httpExchangeFuture.whenComplete((httpExchange, throwable) -> {
+            if (throwable != null) {
+                adaptiveLimiter.onFailure(slot);
+            } else {
+                adaptiveLimiter.onResponse(slot, httpExchange.getDurationInMillis(), isOverloaded(httpExchange));
+            }
+        });
+    }
+
+    /**
+     * wait until the destination accepts calls, up to the max wait time of the destination.
+     */
+    private void awaitServerRateLimit() throws InterruptedException {
+        long serverWaitTimeInMs = serverRateLimit.reserve(System.currentTimeMillis());
+        if (serverWaitTimeInMs > 0) {
+            LOGGER.debug("calls quota of the '{}' destination reached, call delayed for {} ms", settings.getName(), serverWaitTimeInMs);
+            TimeUnit.MILLISECONDS.sleep(serverWaitTimeInMs);
+        }
+    }
+
+    /**
+     * read the calls quota announced by the response of the destination.
+     */
+    private HttpExchange observe(HttpExchange httpExchange) {
+        if (httpExchange != null && httpExchange.getHttpResponse() != null) {
+            serverRateLimit.update(httpExchange.getHttpResponse(), System.currentTimeMillis());
+        }
+        return httpExchange;
+    }
+
+    /**
+     * @return true if the status code of the response is a 'too many requests' one, or a failure implying a retry.
+     */
+    private boolean isOverloaded(HttpExchange httpExchange) {
+        int statusCode = httpExchange.getHttpResponse().getStatusCode();
+        DestinationPolicy policy = settings.getPolicy();
+        return statusCode == TOO_MANY_REQUESTS_STATUS_CODE || (!policy.isSuccess(statusCode) && policy.retryNeeded(statusCode));
+    }
+
+    /**
+     * @return the adaptive concurrency limiter of the destination, or null if its concurrency limit is not adaptive.
+     */
+    public AdaptiveConcurrencyLimiter getAdaptiveLimiter() {
+        return adaptiveLimiter;
+    }
+
+    public ServerRateLimit getServerRateLimit() {
+        return serverRateLimit;
+    }
+
+    public DestinationSettings getSettings() {
+        return settings;
+    }
+}
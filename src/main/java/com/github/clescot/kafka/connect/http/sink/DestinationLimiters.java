@@ -0,0 +1,289 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.github.clescot.kafka.connect.http.HttpRequest;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.apache.kafka.common.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * resolve the limiter, and the policy, of an HTTP request :
+ * <ul>
+ *     <li>the limiter of the configured destination named by the destination header of the request, if any,</li>
+ *     <li>or the limiter of the first configured destination matching the request (by host, path prefix, method or URL regex),</li>
+ *     <li>or, when limits are set per host, a limiter owned by the URL host, with the default settings,</li>
+ *     <li>or the default limiter, shared by all the other requests.</li>
+ * </ul>
+ * Configured destinations are indexed by host when they are built : a request is only checked against the destinations
+ * of its host, and the destinations without any host.
+ * Limiters of the configured destinations, and the default limiter, are created with the destinations, and never evicted :
+ * their throttling state must survive a burst of requests to many hosts.
+ * Per host limiters are created lazily, and kept in a bounded cache : the least recently used limiter is evicted when the cache is full.
+ */
+public class DestinationLimiters {
+    public static final String DEFAULT_DESTINATION = "default";
+    //per host destinations are prefixed, to not share a limiter with a configured destination
+    public static final String HOST_DESTINATION_PREFIX = "host:";
+    private static final Logger LOGGER = LoggerFactory.getLogger(DestinationLimiters.class);
+    private static final String SCHEME_SEPARATOR = "://";
+
+    private final Map<String, DestinationSettings> destinationsByName = Maps.newHashMap();
+    //destinations are kept in the configured order, in each index
+    private final Map<String, List<IndexedDestination>> destinationsByHost = Maps.newHashMap();
+    private final List<IndexedDestination> destinationsWithoutHost = Lists.newArrayList();
+    private final DestinationSettings defaultSettings;
+    private final boolean perHost;
+    private final String destinationHeader;
+    //limiters of the configured destinations
+    private final Map<String, DestinationLimiter> configuredLimiters;
+    private volatile DestinationLimiter defaultLimiter;
+    private final Cache<String, DestinationLimiter> hostLimiters;
+    //null until metrics are registered
+    private Metrics metrics;
+    private Map<String, String> tags;
+
+    /**
+     * @param destinations configured destinations, matched in order.
+     * @param defaultSettings settings of the default limiter, and of per host limiters.
+     * @param perHost when true, requests not matching a configured destination are limited per host.
+     * @param maxLimiters max number of per host limiters kept in the cache.
+     */
+    public DestinationLimiters(List<DestinationSettings> destinations, DestinationSettings defaultSettings, boolean perHost, long maxLimiters) {
+        this(destinations, defaultSettings, perHost, maxLimiters, null);
+    }
+
+    /**
+     * @param destinationHeader name of the request header holding the name of a configured destination, or null.
+     */
+    public DestinationLimiters(List<DestinationSettings> destinations, DestinationSettings defaultSettings, boolean perHost, long maxLimiters, String destinationHeader) {
+        Preconditions.checkNotNull(destinations, "destinations cannot be null");
+        Preconditions.checkNotNull(defaultSettings, "default settings cannot be null");
+        Preconditions.checkArgument(maxLimiters > 0, "max limiters must be a positive number");
+        ImmutableMap.Builder<String, DestinationLimiter> configuredLimitersBuilder = ImmutableMap.builder();
+        for (int order = 0; order < destinations.size(); order++) {
+            DestinationSettings destination = destinations.get(order);
+            Preconditions.checkArgument(destinationsByName.put(destination.getName(), destination) == null, "'" + destination.getName() + "' destination is defined twice");
+            configuredLimitersBuilder.put(destination.getName(), new DestinationLimiter(destination));
+            IndexedDestination indexedDestination = new IndexedDestination(order, destination);
+            if (destination.getHost() != null) {
+                destinationsByHost.computeIfAbsent(destination.getHost(), host -> Lists.newArrayList()).add(indexedDestination);
+            } else {
+                destinationsWithoutHost.add(indexedDestination);
+            }
+        }
+        Preconditions.checkArgument(!destinationsByName.containsKey(DEFAULT_DESTINATION), "'" + DEFAULT_DESTINATION + "' destination name is reserved");
+        this.configuredLimiters = configuredLimitersBuilder.build();
+        this.defaultLimiter = new DestinationLimiter(defaultSettings);
+        this.defaultSettings = defaultSettings;
+        this.perHost = perHost;
+        this.destinationHeader = destinationHeader;
+        this.hostLimiters = CacheBuilder.newBuilder()
+                .maximumSize(maxLimiters)
+                .removalListener(this::onRemoval)
+                .build();
+    }
+
+    /**
+     * expose the concurrency limit, and the HTTP exchanges in flight, of each destination with an adaptive concurrency limit.
+     * must be called before the first per host limiter is created.
+     */
+    public synchronized void registerMetrics(Metrics metrics, Map<String, String> tags) {
+        Preconditions.checkNotNull(metrics, "metrics cannot be null");
+        Preconditions.checkNotNull(tags, "tags cannot be null");
+        this.metrics = metrics;
+        this.tags = tags;
+        configuredLimiters.values().forEach(this::registerLimiterMetrics);
+        registerLimiterMetrics(defaultLimiter);
+    }
+
+    /**
+     * replace the rate limiter of the default limiter. per host limiters keep the rate limit of the default settings.
+     */
+    public synchronized void setDefaultRateLimiter(long periodInMs, long maxExecutions) {
+        DestinationLimiter previousLimiter = defaultLimiter;
+        DestinationLimiter limiter = new DestinationLimiter(previousLimiter.getSettings().withRateLimiter(maxExecutions, periodInMs));
+        if (metrics != null && previousLimiter.getAdaptiveLimiter() != null) {
+            previousLimiter.getAdaptiveLimiter().unregisterMetrics(metrics, tags);
+        }
+        registerLimiterMetrics(limiter);
+        this.defaultLimiter = limiter;
+    }
+
+    public DestinationLimiter get(String url) {
+        return get(null, url, null);
+    }
+
+    public DestinationLimiter get(HttpRequest httpRequest) {
+        return get(httpRequest.getMethod(), httpRequest.getUrl(), httpRequest.getHeaders());
+    }
+
+    private DestinationLimiter get(String method, String url, Map<String, List<String>> headers) {
+        String authority = authority(url);
+        DestinationSettings destination = namedDestination(headers);
+        if (destination == null) {
+            destination = configuredDestination(method != null ? method.toUpperCase(Locale.ROOT) : null, url, authority);
+        }
+        if (destination != null) {
+            return configuredLimiters.get(destination.getName());
+        }
+        if (!perHost || authority == null) {
+            return defaultLimiter;
+        }
+        String name = HOST_DESTINATION_PREFIX + authority;
+        DestinationLimiter limiter = hostLimiters.getIfPresent(name);
+        if (limiter != null) {
+            return limiter;
+        }
+        try {
+            return hostLimiters.get(name, () -> newLimiter(defaultSettings.withName(name)));
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new IllegalStateException("cannot create the limiter of the '" + name + "' destination", e.getCause());
+        }
+    }
+
+    private DestinationLimiter newLimiter(DestinationSettings settings) {
+        DestinationLimiter limiter = new DestinationLimiter(settings);
+        registerLimiterMetrics(limiter);
+        return limiter;
+    }
+
+    private synchronized void registerLimiterMetrics(DestinationLimiter limiter) {
+        if (metrics != null && limiter.getAdaptiveLimiter() != null) {
+            limiter.getAdaptiveLimiter().registerMetrics(metrics, tags);
+        }
+    }
+
+    private synchronized void onRemoval(RemovalNotification<String, DestinationLimiter> notification) {
+        DestinationLimiter limiter = notification.getValue();
+        if (metrics == null || !notification.wasEvicted() || limiter == null || limiter.getAdaptiveLimiter() == null) {
+            return;
+        }
+        limiter.getAdaptiveLimiter().unregisterMetrics(metrics, tags);
+    }
+
+    private DestinationSettings namedDestination(Map<String, List<String>> headers) {
+        if (destinationHeader == null || headers == null) {
+            return null;
+        }
+        List<String> values = headers.get(destinationHeader);
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        DestinationSettings destination = destinationsByName.get(values.get(0));
+        if (destination == null) {
+            LOGGER.debug("'{}' destination named by the '{}' header is not configured", values.get(0), destinationHeader);
+        }
+        return destination;
+    }
+
+    /**
+     * @return the first configured destination matching the request, in the configured order, or null.
+     */
+    private DestinationSettings configuredDestination(String method, String url, String authority) {
+        List<IndexedDestination> hostDestinations = authority != null ? destinationsByHost.getOrDefault(authority, Collections.emptyList()) : Collections.emptyList();
+        if (hostDestinations.isEmpty() && destinationsWithoutHost.isEmpty()) {
+            return null;
+        }
+        String path = path(url);
+        //both lists are sorted by configured order : they are merged
+        int hostIndex = 0;
+        int withoutHostIndex = 0;
+        while (hostIndex < hostDestinations.size() || withoutHostIndex < destinationsWithoutHost.size()) {
+            IndexedDestination next;
+            if (withoutHostIndex >= destinationsWithoutHost.size()
+                    || (hostIndex < hostDestinations.size() && hostDestinations.get(hostIndex).order < destinationsWithoutHost.get(withoutHostIndex).order)) {
+                next = hostDestinations.get(hostIndex++);
+            } else {
+                next = destinationsWithoutHost.get(withoutHostIndex++);
+            }
+            if (next.destination.matchesIgnoringHost(method, url, path)) {
+                return next.destination;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the path of the URL, without query and fragment, or null if the URL has no authority.
+     */
+    protected static String path(String url) {
+        if (url == null) {
+            return null;
+        }
+        int schemeEnd = url.indexOf(SCHEME_SEPARATOR);
+        if (schemeEnd < 0) {
+            return null;
+        }
+        int start = url.indexOf('/', schemeEnd + SCHEME_SEPARATOR.length());
+        int end = url.length();
+        for (int i = schemeEnd + SCHEME_SEPARATOR.length(); i < url.length(); i++) {
+            char c = url.charAt(i);
+            if (c == '?' || c == '#') {
+                end = i;
+                break;
+            }
+        }
+        if (start < 0 || start >= end) {
+            return "/";
+        }
+        return url.substring(start, end);
+    }
+
+    /**
+     * @return the lower case authority ('host' or 'host:port') of the URL, or null if the URL has no authority.
+     */
+    protected static String authority(String url) {
+        if (url == null) {
+            return null;
+        }
+        int schemeEnd = url.indexOf(SCHEME_SEPARATOR);
+        if (schemeEnd < 0) {
+            return null;
+        }
+        int start = schemeEnd + SCHEME_SEPARATOR.length();
+        int end = start;
+        while (end < url.length() && "/?#".indexOf(url.charAt(end)) < 0) {
+            end++;
+        }
+        //user info is not part of the destination
+        int userInfoEnd = url.lastIndexOf('@', end - 1);
+        if (userInfoEnd >= start) {
+            start = userInfoEnd + 1;
+        }
+        return start < end ? url.substring(start, end).toLowerCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * @return the number of per host limiters in the cache.
+     */
+    public long size() {
+        return hostLimiters.size();
+    }
+
+    public DestinationSettings getDefaultSettings() {
+        return defaultSettings;
+    }
+
+    private static class IndexedDestination {
+        private final int order;
+        private final DestinationSettings destination;
+
+        private IndexedDestination(int order, DestinationSettings destination) {
+            this.order = order;
+            this.destination = destination;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.github.clescot.kafka.connect.http.HttpExchange;
+import com.github.clescot.kafka.connect.http.sink.client.HttpException;
+import com.google.common.base.Preconditions;
+import dev.failsafe.RetryPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * success, retry and timeout policy of a destination.
+ * Status code regexes and the retry policy are built once, when the connector configuration is read :
+ * a policy is immutable, and shared by all the HTTP exchanges of its destination.
+ * Policy parameters of a configured destination are read from the 'destination.&lt;id&gt;.' prefixed parameters,
+ * missing parameters are inherited from the default policy.
+ */
+public class DestinationPolicy {
+    private static final Logger LOGGER = LoggerFactory.getLogger(DestinationPolicy.class);
+    public static final String SUCCESS_RESPONSE_CODE_REGEX = "success.response.code.regex";
+    public static final String RETRY_RESPONSE_CODE_REGEX = "retry.response.code.regex";
+    public static final String RETRIES = "retries";
+    public static final String RETRY_DELAY_IN_MS = "retry.delay.in.ms";
+    public static final String RETRY_MAX_DELAY_IN_MS = "retry.max.delay.in.ms";
+    public static final String RETRY_DELAY_FACTOR = "retry.delay.factor";
+    public static final String RETRY_JITTER_IN_MS = "retry.jitter.in.ms";
+    public static final String REQUEST_TIMEOUT_IN_MS = "request.timeout.in.ms";
+    public static final String READ_TIMEOUT_IN_MS = "read.timeout.in.ms";
+
+    /**
+     * policy built with the default values of the connector parameters.
+     */
+    public static final DestinationPolicy DEFAULT = new DestinationPolicy(
+            StatusCodeMatcher.fromRegex(HttpSinkConfigDefinition.DEFAULT_DEFAULT_SUCCESS_RESPONSE_CODE_REGEX),
+            StatusCodeMatcher.fromRegex(HttpSinkConfigDefinition.DEFAULT_DEFAULT_RETRY_RESPONSE_CODE_REGEX),
+            HttpSinkConfigDefinition.DEFAULT_RETRIES_VALUE,
+            HttpSinkConfigDefinition.DEFAULT_RETRY_DELAY_IN_MS_VALUE,
+            HttpSinkConfigDefinition.DEFAULT_RETRY_MAX_DELAY_IN_MS_VALUE,
+            HttpSinkConfigDefinition.DEFAULT_RETRY_DELAY_FACTOR_VALUE,
+            HttpSinkConfigDefinition.DEFAULT_RETRY_JITTER_IN_MS_VALUE,
+            null,
+            null);
+
+    private final StatusCodeMatcher successResponseCodeMatcher;
+    private final StatusCodeMatcher retryResponseCodeMatcher;
+    private final int retries;
+    private final long retryDelayInMs;
+    private final long retryMaxDelayInMs;
+    private final double retryDelayFactor;
+    private final long retryJitterInMs;
+    //null when the HTTP client setting applies
+    private final Integer requestTimeoutInMs;
+    private final Integer readTimeoutInMs;
+    private final RetryPolicy<HttpExchange> retryPolicy;
+
+    public DestinationPolicy(StatusCodeMatcher successResponseCodeMatcher,
+                             StatusCodeMatcher retryResponseCodeMatcher,
+                             int retries,
+                             long retryDelayInMs,
+                             long retryMaxDelayInMs,
+                             double retryDelayFactor,
+                             long retryJitterInMs,
+                             Integer requestTimeoutInMs,
+                             Integer readTimeoutInMs) {
+        Preconditions.checkNotNull(successResponseCodeMatcher, "success response code matcher cannot be null");
+        Preconditions.checkNotNull(retryResponseCodeMatcher, "retry response code matcher cannot be null");
+        Preconditions.checkArgument(retries >= 0, "'" + RETRIES + "' cannot be negative");
+        Preconditions.checkArgument(requestTimeoutInMs == null || requestTimeoutInMs > 0, "'" + REQUEST_TIMEOUT_IN_MS + "' must be a positive number");
+        Preconditions.checkArgument(readTimeoutInMs == null || readTimeoutInMs > 0, "'" + READ_TIMEOUT_IN_MS + "' must be a positive number");
+        this.successResponseCodeMatcher = successResponseCodeMatcher;
+        this.retryResponseCodeMatcher = retryResponseCodeMatcher;
+        this.retries = retries;
+        this.retryDelayInMs = retryDelayInMs;
+        this.retryMaxDelayInMs = retryMaxDelayInMs;
+        this.retryDelayFactor = retryDelayFactor;
+        this.retryJitterInMs = retryJitterInMs;
+        this.requestTimeoutInMs = requestTimeoutInMs;
+        this.readTimeoutInMs = readTimeoutInMs;
+        this.retryPolicy = buildRetryPolicy();
+    }
+
+    /**
+     * @param settings destination parameters, without the 'destination.&lt;id&gt;.' prefix.
+     * @param defaults policy used when a parameter is not set.
+     */
+    public static DestinationPolicy of(Map<String, ?> settings, DestinationPolicy defaults) {
+        return new DestinationPolicy(
+                Optional.ofNullable(settings.get(SUCCESS_RESPONSE_CODE_REGEX)).map(value -> StatusCodeMatcher.fromRegex(value.toString())).orElse(defaults.successResponseCodeMatcher),
+                Optional.ofNullable(settings.get(RETRY_RESPONSE_CODE_REGEX)).map(value -> StatusCodeMatcher.fromRegex(value.toString())).orElse(defaults.retryResponseCodeMatcher),
+                Optional.ofNullable(settings.get(RETRIES)).map(value -> Integer.parseInt(value.toString())).orElse(defaults.retries),
+                Optional.ofNullable(settings.get(RETRY_DELAY_IN_MS)).map(value -> Long.parseLong(value.toString())).orElse(defaults.retryDelayInMs),
+                Optional.ofNullable(settings.get(RETRY_MAX_DELAY_IN_MS)).map(value -> Long.parseLong(value.toString())).orElse(defaults.retryMaxDelayInMs),
+                Optional.ofNullable(settings.get(RETRY_DELAY_FACTOR)).map(value -> Double.parseDouble(value.toString())).orElse(defaults.retryDelayFactor),
+                Optional.ofNullable(settings.get(RETRY_JITTER_IN_MS)).map(value -> Long.parseLong(value.toString())).orElse(defaults.retryJitterInMs),
+                Optional.ofNullable(settings.get(REQUEST_TIMEOUT_IN_MS)).map(value -> Integer.parseInt(value.toString())).orElse(defaults.requestTimeoutInMs),
+                Optional.ofNullable(settings.get(READ_TIMEOUT_IN_MS)).map(value -> Integer.parseInt(value.toString())).orElse(defaults.readTimeoutInMs)
+        );
+    }
+
+    private RetryPolicy<HttpExchange> buildRetryPolicy() {
+        return RetryPolicy.<HttpExchange>builder()
+                //we retry only if the error comes from the WS server (server-side technical error)
+                .handle(HttpException.class)
+                //a delay asked by the server with a 'Retry-After' header replaces the backoff delay
+                .withDelayFn(context -> retryDelay(context.getLastException(), context.getAttemptCount()))
+                .withJitter(Duration.ofMillis(retryJitterInMs))
+                .withMaxRetries(retries)
+                .onRetry(listener -> LOGGER.warn("Retry ws call result:{}, failure:{}", listener.getLastResult(), listener.getLastException()))
+                .onFailure(listener -> LOGGER.warn("ws call failed ! result:{},exception:{}", listener.getResult(), listener.getException()))
+                .onAbort(listener -> LOGGER.warn("ws call aborted ! result:{},exception:{}", listener.getResult(), listener.getException()))
+                .build();
+    }
+
+    /**
+     * @return the delay asked by the 'Retry-After' header of the failed HTTP exchange, or else the backoff delay, up to the retry max delay.
+     * The destination limiter holds back the calls until the moment asked by the server, even beyond the retry max delay, up to its max wait time.
+     */
+    private Duration retryDelay(Throwable throwable, int attempts) {
+        Duration delay = null;
+        if (throwable instanceof HttpException && ((HttpException) throwable).getHttpExchange() != null) {
+            delay = ServerRateLimit.retryAfter(((HttpException) throwable).getHttpExchange().getHttpResponse(), System.currentTimeMillis());
+        }
+        if (delay == null) {
+            delay = Duration.ofMillis((long) (retryDelayInMs * Math.pow(retryDelayFactor, Math.max(0, attempts - 1))));
+        }
+        Duration maxDelay = Duration.ofMillis(retryMaxDelayInMs);
+        return delay.compareTo(maxDelay) > 0 ? maxDelay : delay;
+    }
+
+    public boolean isSuccess(int statusCode) {
+        return successResponseCodeMatcher.matches(statusCode);
+    }
+
+    public boolean retryNeeded(int statusCode) {
+        return retryResponseCodeMatcher.matches(statusCode);
+    }
+
+    public StatusCodeMatcher getSuccessResponseCodeMatcher() {
+        return successResponseCodeMatcher;
+    }
+
+    public StatusCodeMatcher getRetryResponseCodeMatcher() {
+        return retryResponseCodeMatcher;
+    }
+
+    public RetryPolicy<HttpExchange> getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
+    public long getRetryDelayInMs() {
+        return retryDelayInMs;
+    }
+
+    public long getRetryMaxDelayInMs() {
+        return retryMaxDelayInMs;
+    }
+
+    public double getRetryDelayFactor() {
+        return retryDelayFactor;
+    }
+
+    public long getRetryJitterInMs() {
+        return retryJitterInMs;
+    }
+
+    public Integer getRequestTimeoutInMs() {
+        return requestTimeoutInMs;
+    }
+
+    public Integer getReadTimeoutInMs() {
+        return readTimeoutInMs;
+    }
+
+    @Override
+    public String toString() {
+        return "DestinationPolicy{" +
+                "successResponseCodeRegex=" + successResponseCodeMatcher.getRegex() +
+                ", retryResponseCodeRegex=" + retryResponseCodeMatcher.getRegex() +
+                ", retries=" + retries +
+                ", retryDelayInMs=" + retryDelayInMs +
+                ", retryMaxDelayInMs=" + retryMaxDelayInMs +
+                ", retryDelayFactor=" + retryDelayFactor +
+                ", retryJitterInMs=" + retryJitterInMs +
+                ", requestTimeoutInMs=" + requestTimeoutInMs +
+                ", readTimeoutInMs=" + readTimeoutInMs +
+                '}';
+    }
+}
@@ -0,0 +1,236 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * throttling settings and policy of a destination, i.e HTTP requests sent to the same host, under the same path prefix,
+ * with the same method, or matching the same URL regex : a request matches a destination when it matches all its defined criteria.
+ * settings of a configured destination are read from the 'destination.&lt;id&gt;.' prefixed parameters,
+ * missing settings are inherited from the default settings.
+ */
+public class DestinationSettings {
+    public static final String HOST = "host";
+    public static final String URL_REGEX = "url.regex";
+    public static final String PATH_PREFIX = "path.prefix";
+    public static final String METHOD = "method";
+    public static final String RATE_LIMITER_MAX_EXECUTIONS = "rate.limiter.max.executions";
+    public static final String RATE_LIMITER_PERIOD_IN_MS = "rate.limiter.period.in.ms";
+    public static final String MAX_CONCURRENT_REQUESTS = "max.concurrent.requests";
+    public static final String MAX_CONCURRENT_REQUESTS_WAIT_IN_MS = "max.concurrent.requests.wait.in.ms";
+    public static final String SERVER_RATE_LIMIT_MAX_WAIT_IN_MS = "server.rate.limit.max.wait.in.ms";
+
+    private final String name;
+    private final String host;
+    private final Pattern urlPattern;
+    private final String pathPrefix;
+    private final String method;
+    private final long rateLimiterMaxExecutions;
+    private final long rateLimiterPeriodInMs;
+    private final int maxConcurrentRequests;
+    private final long maxConcurrentRequestsWaitInMs;
+    private final DestinationPolicy policy;
+    private final AdaptiveConcurrencySettings adaptiveConcurrency;
+    private final long serverRateLimitMaxWaitInMs;
+
+    /**
+     * settings with the default policy.
+     */
+    public DestinationSettings(String name,
+                               String host,
+                               Pattern urlPattern,
+                               long rateLimiterMaxExecutions,
+                               long rateLimiterPeriodInMs,
+                               int maxConcurrentRequests,
+                               long maxConcurrentRequestsWaitInMs) {
+        this(name, host, urlPattern, null, null, rateLimiterMaxExecutions, rateLimiterPeriodInMs, maxConcurrentRequests, maxConcurrentRequestsWaitInMs, DestinationPolicy.DEFAULT);
+    }
+
+    public DestinationSettings(String name,
+                               String host,
+                               Pattern urlPattern,
+                               String pathPrefix,
+                               String method,
+                               long rateLimiterMaxExecutions,
+                               long rateLimiterPeriodInMs,
+                               int maxConcurrentRequests,
+                               long maxConcurrentRequestsWaitInMs,
+                               DestinationPolicy policy) {
+        this(name, host, urlPattern, pathPrefix, method, rateLimiterMaxExecutions, rateLimiterPeriodInMs, maxConcurrentRequests, maxConcurrentRequestsWaitInMs, policy, AdaptiveConcurrencySettings.DISABLED);
+    }
+
+    public DestinationSettings(String name,
+                               String host,
+                               Pattern urlPattern,
+                               String pathPrefix,
+                               String method,
+                               long rateLimiterMaxExecutions,
+                               long rateLimiterPeriodInMs,
+                               int maxConcurrentRequests,
+                               long maxConcurrentRequestsWaitInMs,
+                               DestinationPolicy policy,
+                               AdaptiveConcurrencySettings adaptiveConcurrency) {
+        this(name, host, urlPattern, pathPrefix, method, rateLimiterMaxExecutions, rateLimiterPeriodInMs, maxConcurrentRequests, maxConcurrentRequestsWaitInMs, policy, adaptiveConcurrency, HttpSinkConfigDefinition.DEFAULT_SERVER_RATE_LIMIT_MAX_WAIT_IN_MS_VALUE);
+    }
+
+    public DestinationSettings(String name,
+                               String host,
+                               Pattern urlPattern,
+                               String pathPrefix,
+                               String method,
+                               long rateLimiterMaxExecutions,
+                               long rateLimiterPeriodInMs,
+                               int maxConcurrentRequests,
+                               long maxConcurrentRequestsWaitInMs,
+                               DestinationPolicy policy,
+                               AdaptiveConcurrencySettings adaptiveConcurrency,
+                               long serverRateLimitMaxWaitInMs) {
+        Preconditions.checkNotNull(name, "destination name cannot be null");
+        Preconditions.checkNotNull(policy, "policy of the '" + name + "' destination cannot be null");
+        Preconditions.checkNotNull(adaptiveConcurrency, "adaptive concurrency settings of the '" + name + "' destination cannot be null");
+        Preconditions.checkArgument(rateLimiterMaxExecutions > 0, "'" + RATE_LIMITER_MAX_EXECUTIONS + "' of the '" + name + "' destination must be a positive number");
+        Preconditions.checkArgument(rateLimiterPeriodInMs > 0, "'" + RATE_LIMITER_PERIOD_IN_MS + "' of the '" + name + "' destination must be a positive number");
+        Preconditions.checkArgument(maxConcurrentRequests >= 0, "'" + MAX_CONCURRENT_REQUESTS + "' of the '" + name + "' destination cannot be negative");
+        Preconditions.checkArgument(maxConcurrentRequestsWaitInMs >= 0, "'" + MAX_CONCURRENT_REQUESTS_WAIT_IN_MS + "' of the '" + name + "' destination cannot be negative");
+        Preconditions.checkArgument(serverRateLimitMaxWaitInMs >= 0, "'" + SERVER_RATE_LIMIT_MAX_WAIT_IN_MS + "' of the '" + name + "' destination cannot be negative");
+        this.name = name;
+        this.host = host != null ? host.toLowerCase(Locale.ROOT) : null;
+        this.urlPattern = urlPattern;
+        this.pathPrefix = pathPrefix;
+        this.method = method != null ? method.toUpperCase(Locale.ROOT) : null;
+        this.rateLimiterMaxExecutions = rateLimiterMaxExecutions;
+        this.rateLimiterPeriodInMs = rateLimiterPeriodInMs;
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxConcurrentRequestsWaitInMs = maxConcurrentRequestsWaitInMs;
+        this.policy = policy;
+        this.adaptiveConcurrency = adaptiveConcurrency;
+        this.serverRateLimitMaxWaitInMs = serverRateLimitMaxWaitInMs;
+    }
+
+    /**
+     * @param name destination name.
+     * @param settings destination parameters, without the 'destination.&lt;id&gt;.' prefix.
+     * @param defaults settings used when a parameter is not set.
+     */
+    public static DestinationSettings of(String name, Map<String, ?> settings, DestinationSettings defaults) {
+        String host = Optional.ofNullable(settings.get(HOST)).map(Object::toString).orElse(null);
+        String urlRegex = Optional.ofNullable(settings.get(URL_REGEX)).map(Object::toString).orElse(null);
+        String pathPrefix = Optional.ofNullable(settings.get(PATH_PREFIX)).map(Object::toString).orElse(null);
+        String method = Optional.ofNullable(settings.get(METHOD)).map(Object::toString).orElse(null);
+        Preconditions.checkArgument(host != null || urlRegex != null || pathPrefix != null || method != null, "the '" + name + "' destination must define at least a '" + HOST + "', '" + PATH_PREFIX + "', '" + METHOD + "' or '" + URL_REGEX + "' parameter");
+        return new DestinationSettings(
+                name,
+                host,
+                urlRegex != null ? Pattern.compile(urlRegex) : null,
+                pathPrefix,
+                method,
+                Optional.ofNullable(settings.get(RATE_LIMITER_MAX_EXECUTIONS)).map(value -> Long.parseLong(value.toString())).orElse(defaults.rateLimiterMaxExecutions),
+                Optional.ofNullable(settings.get(RATE_LIMITER_PERIOD_IN_MS)).map(value -> Long.parseLong(value.toString())).orElse(defaults.rateLimiterPeriodInMs),
+                Optional.ofNullable(settings.get(MAX_CONCURRENT_REQUESTS)).map(value -> Integer.parseInt(value.toString())).orElse(defaults.maxConcurrentRequests),
+                Optional.ofNullable(settings.get(MAX_CONCURRENT_REQUESTS_WAIT_IN_MS)).map(value -> Long.parseLong(value.toString())).orElse(defaults.maxConcurrentRequestsWaitInMs),
+                DestinationPolicy.of(settings, defaults.policy),
+                AdaptiveConcurrencySettings.of(settings, defaults.adaptiveConcurrency),
+                Optional.ofNullable(settings.get(SERVER_RATE_LIMIT_MAX_WAIT_IN_MS)).map(value -> Long.parseLong(value.toString())).orElse(defaults.serverRateLimitMaxWaitInMs)
+        );
+    }
+
+    /**
+     * @return a copy of these settings, bound to another destination name.
+     */
+    public DestinationSettings withName(String name) {
+        return new DestinationSettings(name, host, urlPattern, pathPrefix, method, rateLimiterMaxExecutions, rateLimiterPeriodInMs, maxConcurrentRequests, maxConcurrentRequestsWaitInMs, policy, adaptiveConcurrency, serverRateLimitMaxWaitInMs);
+    }
+
+    /**
+     * @return a copy of these settings, with another rate limit.
+     */
+    public DestinationSettings withRateLimiter(long rateLimiterMaxExecutions, long rateLimiterPeriodInMs) {
+        return new DestinationSettings(name, host, urlPattern, pathPrefix, method, rateLimiterMaxExecutions, rateLimiterPeriodInMs, maxConcurrentRequests, maxConcurrentRequestsWaitInMs, policy, adaptiveConcurrency, serverRateLimitMaxWaitInMs);
+    }
+
+    /**
+     * the host is not checked : destinations are indexed by host.
+     * @param method upper case method of the HTTP request.
+     * @param url URL of the HTTP request.
+     * @param path path of the URL, or null if the URL has no path.
+     */
+    boolean matchesIgnoringHost(String method, String url, String path) {
+        if (this.method != null && !this.method.equals(method)) {
+            return false;
+        }
+        if (pathPrefix != null && (path == null || !path.startsWith(pathPrefix))) {
+            return false;
+        }
+        return urlPattern == null || urlPattern.matcher(url).matches();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public Pattern getUrlPattern() {
+        return urlPattern;
+    }
+
+    public String getPathPrefix() {
+        return pathPrefix;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public long getRateLimiterMaxExecutions() {
+        return rateLimiterMaxExecutions;
+    }
+
+    public long getRateLimiterPeriodInMs() {
+        return rateLimiterPeriodInMs;
+    }
+
+    public int getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    public long getMaxConcurrentRequestsWaitInMs() {
+        return maxConcurrentRequestsWaitInMs;
+    }
+
+    public DestinationPolicy getPolicy() {
+        return policy;
+    }
+
+    public AdaptiveConcurrencySettings getAdaptiveConcurrency() {
+        return adaptiveConcurrency;
+    }
+
+    public long getServerRateLimitMaxWaitInMs() {
+        return serverRateLimitMaxWaitInMs;
+    }
+
+    @Override
+    public String toString() {
+        return "DestinationSettings{" +
+                "name='" + name + '\'' +
+                ", host='" + host + '\'' +
+                ", urlPattern=" + urlPattern +
+                ", pathPrefix='" + pathPrefix + '\'' +
+                ", method='" + method + '\'' +
+                ", rateLimiterMaxExecutions=" + rateLimiterMaxExecutions +
+                ", rateLimiterPeriodInMs=" + rateLimiterPeriodInMs +
+                ", maxConcurrentRequests=" + maxConcurrentRequests +
+                ", maxConcurrentRequestsWaitInMs=" + maxConcurrentRequestsWaitInMs +
+                ", policy=" + policy +
+                ", adaptiveConcurrency=" + adaptiveConcurrency +
+                ", serverRateLimitMaxWaitInMs=" + serverRateLimitMaxWaitInMs +
+                '}';
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+/**
+ * how HTTP exchanges are run, when records are sent asynchronously.
+ */
+public enum ExchangeExecution {
+    /**
+     * exchanges are chained with non-blocking calls : retries and throttling delays are scheduled without holding any thread.
+     */
+    NON_BLOCKING,
+    /**
+     * each exchange runs with blocking calls on its own virtual thread (JDK 21+).
+     * fall back to PLATFORM_THREADS on older JVMs.
+     */
+    VIRTUAL_THREADS,
+    /**
+     * exchanges run with blocking calls on a pool of 'async.max.in.flight.requests' platform threads.
+     */
+    PLATFORM_THREADS
+}
@@ -0,0 +1,80 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * build the executor running blocking HTTP exchanges.
+ * On JDK 21+, each exchange runs on its own virtual thread : blocking calls don't hold any platform thread.
+ * On older JVMs, exchanges run on a bounded pool of platform threads.
+ */
+public class ExchangeExecutorFactory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExchangeExecutorFactory.class);
+    private static final String NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = "newVirtualThreadPerTaskExecutor";
+
+    protected ExchangeExecutorFactory() {
+        //Class with only static methods
+    }
+
+    /**
+     * @param exchangeExecution how HTTP exchanges are run.
+     * @param maxPlatformThreads size of the platform threads pool, used when virtual threads are not available.
+     * @return the executor running blocking HTTP exchanges, or null with the NON_BLOCKING execution.
+     */
+    public static ExecutorService newExchangeExecutor(ExchangeExecution exchangeExecution, int maxPlatformThreads) {
+        Preconditions.checkNotNull(exchangeExecution, "exchange execution cannot be null");
+        Preconditions.checkArgument(maxPlatformThreads > 0, "max platform threads must be a positive integer");
+        if (ExchangeExecution.NON_BLOCKING == exchangeExecution) {
+            return null;
+        }
+        if (ExchangeExecution.PLATFORM_THREADS == exchangeExecution) {
+            LOGGER.info("HTTP exchanges run on {} platform threads", maxPlatformThreads);
+            return newPlatformThreadExecutor(maxPlatformThreads);
+        }
+        ExecutorService virtualThreadExecutor = newVirtualThreadExecutor();
+        if (virtualThreadExecutor != null) {
+            LOGGER.info("HTTP exchanges run on virtual threads");
+            return virtualThreadExecutor;
+        }
+        LOGGER.info("virtual threads are not available on this JVM ({}) : HTTP exchanges run on {} platform threads", System.getProperty("java.version"), maxPlatformThreads);
+        return newPlatformThreadExecutor(maxPlatformThreads);
+    }
+
+    public static ExecutorService newPlatformThreadExecutor(int maxPlatformThreads) {
+        return Executors.newFixedThreadPool(maxPlatformThreads,
+                new ThreadFactoryBuilder().setNameFormat("http-sink-exchange-%d").setDaemon(true).build());
+    }
+
+    /**
+     * @return an executor starting a virtual thread per task, or null if virtual threads are not available.
+     */
+    public static ExecutorService newVirtualThreadExecutor() {
+        //we compile against Java 11 : virtual threads are only reachable through reflection
+        try {
+            Method method = Executors.class.getMethod(NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR);
+            return (ExecutorService) method.invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        } catch (InvocationTargetException e) {
+            //JDK 19 and 20 throw an UnsupportedOperationException when preview features are not enabled
+            LOGGER.debug("virtual threads are not enabled", e.getCause());
+            return null;
+        }
+    }
+
+    public static boolean isVirtualThreadAvailable() {
+        ExecutorService executorService = newVirtualThreadExecutor();
+        if (executorService == null) {
+            return false;
+        }
+        executorService.shutdown();
+        return true;
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.github.clescot.kafka.connect.http.HttpExchange;
+import com.google.common.base.Preconditions;
+import org.apache.kafka.clients.producer.Producer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.storage.Converter;
+import org.apache.kafka.connect.storage.HeaderConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * publish HTTP exchanges into the success or error topic, with a Kafka producer owned by a sink task.
+ * Records are sent asynchronously, and batched by the producer : {@link #flush()} waits for their acknowledgement,
+ * and must be called before committing the offsets of the sink records.
+ * A failed send is also reported by {@link #throwSendFailureIfAny()}, called for each batch of sink records, to fail the sink task.
+ */
+public class ExchangePublisher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ExchangePublisher.class);
+    private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(30);
+
+    private final Producer<byte[], byte[]> producer;
+    private final Converter keyConverter;
+    private final Converter valueConverter;
+    private final HeaderConverter headerConverter;
+    private final String successTopic;
+    private final String errorTopic;
+    private final AtomicReference<Exception> sendFailure = new AtomicReference<>();
+
+    /**
+     * @param keyConverter configured converter of the sink record key.
+     * @param valueConverter configured converter of the HTTP exchange struct.
+     * @param headerConverter configured converter of the sink record headers.
+     */
+    public ExchangePublisher(Producer<byte[], byte[]> producer,
+                             Converter keyConverter,
+                             Converter valueConverter,
+                             HeaderConverter headerConverter,
+                             String successTopic,
+                             String errorTopic) {
+        Preconditions.checkNotNull(producer, "producer cannot be null");
+        Preconditions.checkNotNull(keyConverter, "key converter cannot be null");
+        Preconditions.checkNotNull(valueConverter, "value converter cannot be null");
+        Preconditions.checkNotNull(headerConverter, "header converter cannot be null");
+        Preconditions.checkNotNull(successTopic, "success topic cannot be null");
+        Preconditions.checkNotNull(errorTopic, "error topic cannot be null");
+        this.producer = producer;
+        this.keyConverter = keyConverter;
+        this.valueConverter = valueConverter;
+        this.headerConverter = headerConverter;
+        this.successTopic = successTopic;
+        this.errorTopic = errorTopic;
+    }
+
+    /**
+     * send the HTTP exchange with the key and headers of its sink record, without waiting for the acknowledgement.
+     */
+    public void publish(SinkRecord sinkRecord, HttpExchange httpExchange) {
+        String topic = httpExchange.isSuccess() ? successTopic : errorTopic;
+        Struct struct = httpExchange.toStruct();
+        RecordHeaders headers = new RecordHeaders();
+        if (sinkRecord.headers() != null) {
+            for (Header header : sinkRecord.headers()) {
+                headers.add(header.key(), headerConverter.fromConnectHeader(topic, header.key(), header.schema(), header.value()));
+            }
+        }
+        ProducerRecord<byte[], byte[]> producerRecord = new ProducerRecord<>(
+                topic,
+                null,
+                keyConverter.fromConnectData(topic, headers, sinkRecord.keySchema(), sinkRecord.key()),
+                valueConverter.fromConnectData(topic, headers, struct.schema(), struct),
+                headers);
+        producer.send(producerRecord, (metadata, exception) -> {
+            if (exception != null) {
+                LOGGER.error("HTTP exchange NOT published into the '{}' topic :{}", topic, httpExchange, exception);
+                sendFailure.compareAndSet(null, exception);
+            }
+        });
+    }
+
+    /**
+     * wait for the acknowledgement of all the sent HTTP exchanges.
+     * @throws ConnectException if an HTTP exchange has not been published : offsets must not be committed.
+     */
+    public void flush() {
+        producer.flush();
+        throwSendFailureIfAny();
+    }
+
+    /**
+     * @throws ConnectException if an HTTP exchange has not been published : the sink task must fail, its offsets are not committed anymore.
+     */
+    public void throwSendFailureIfAny() {
+        Exception exception = sendFailure.get();
+        if (exception != null) {
+            throw new ConnectException("an HTTP exchange has not been published", exception);
+        }
+    }
+
+    public void close() {
+        producer.close(CLOSE_TIMEOUT);
+    }
+}
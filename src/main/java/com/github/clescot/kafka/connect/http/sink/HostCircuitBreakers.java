@@ -0,0 +1,220 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.github.clescot.kafka.connect.http.HttpExchange;
+import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import dev.failsafe.BulkheadFullException;
+import dev.failsafe.CircuitBreaker;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Gauge;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.metrics.Sensor;
+import org.apache.kafka.common.metrics.stats.Meter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * circuit breakers of the hosts HTTP requests are sent to.
+ * A circuit breaker records each call to its host : a server error implying a retry, or a call error, is a failure.
+ * Once open, calls fail fast with a {@link dev.failsafe.CircuitBreakerOpenException} until the delay is elapsed :
+ * the circuit breaker is then half-open, and lets probe requests through, which close it or open it again.
+ * Circuit breakers are created lazily, and kept in a bounded cache : the least recently used is evicted when the cache is full.
+ * An evicted circuit breaker which is open or half-open is kept aside until its host is requested again :
+ * a host protected by its circuit breaker does not get a new closed one.
+ */
+public class HostCircuitBreakers {
+    public static final String CIRCUIT_BREAKERS_METRIC_GROUP = "http-sink-circuit-breakers";
+    public static final String HOST_TAG = "host";
+    //requests without any host share a circuit breaker
+    public static final String UNKNOWN_HOST = "unknown";
+    private static final Logger LOGGER = LoggerFactory.getLogger(HostCircuitBreakers.class);
+
+    private final int failureThreshold;
+    private final long delayInMs;
+    private final int successThreshold;
+    private final Cache<String, CircuitBreaker<HttpExchange>> circuitBreakers;
+    //evicted circuit breakers not closed, by host
+    private final Map<String, CircuitBreaker<HttpExchange>> notClosedEvicted = new ConcurrentHashMap<>();
+    //null until metrics are registered
+    private Metrics metrics;
+    private Map<String, String> tags;
+
+    /**
+     * @param failureThreshold number of consecutive failures opening a circuit breaker.
+     * @param delayInMs time an open circuit breaker fails fast, before being half-open.
+     * @param successThreshold number of successful probe requests closing a half-open circuit breaker.
+     * @param maxCircuitBreakers max number of circuit breakers kept in the cache.
+     */
+    public HostCircuitBreakers(int failureThreshold, long delayInMs, int successThreshold, long maxCircuitBreakers) {
+        Preconditions.checkArgument(failureThreshold > 0, "failure threshold must be a positive number");
+        Preconditions.checkArgument(delayInMs >= 0, "delay cannot be negative");
+        Preconditions.checkArgument(successThreshold > 0, "success threshold must be a positive number");
+        Preconditions.checkArgument(maxCircuitBreakers > 0, "max circuit breakers must be a positive number");
+        this.failureThreshold = failureThreshold;
+        this.delayInMs = delayInMs;
+        this.successThreshold = successThreshold;
+        this.circuitBreakers = CacheBuilder.newBuilder()
+                .maximumSize(maxCircuitBreakers)
+                .removalListener(this::onRemoval)
+                .build();
+    }
+
+    /**
+     * expose the state of each circuit breaker, and its rejected calls, with a 'host' tag.
+     * must be called before the first circuit breaker is created.
+     */
+    public synchronized void registerMetrics(Metrics metrics, Map<String, String> tags) {
+        Preconditions.checkNotNull(metrics, "metrics cannot be null");
+        Preconditions.checkNotNull(tags, "tags cannot be null");
+        this.metrics = metrics;
+        this.tags = tags;
+    }
+
+    /**
+     * @return the circuit breaker of the URL host.
+     */
+    public CircuitBreaker<HttpExchange> get(String url) {
+        String host = host(url);
+        CircuitBreaker<HttpExchange> circuitBreaker = circuitBreakers.getIfPresent(host);
+        if (circuitBreaker != null) {
+            return circuitBreaker;
+        }
+        try {
+            return circuitBreakers.get(host, () -> {
+                CircuitBreaker<HttpExchange> evicted = notClosedEvicted.remove(host);
+                return evicted != null ? evicted : newCircuitBreaker(host);
+            });
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            throw new IllegalStateException("cannot create the circuit breaker of the '" + host + "' host", e.getCause());
+        }
+    }
+
+    /**
+     * record a call failed fast by the open circuit breaker of the URL host.
+     */
+    public void rejected(String url) {
+        Metrics registry = this.metrics;
+        if (registry == null) {
+            return;
+        }
+        Sensor sensor = registry.getSensor(rejectedSensorName(host(url)));
+        if (sensor != null) {
+            sensor.record();
+        }
+    }
+
+    /**
+     * @return the lower case authority of the URL, or 'unknown' if the URL has no authority.
+     */
+    public static String host(String url) {
+        return Optional.ofNullable(DestinationLimiters.authority(url)).orElse(UNKNOWN_HOST);
+    }
+
+    /**
+     * @return the number of circuit breakers in the cache.
+     */
+    public long size() {
+        return circuitBreakers.size();
+    }
+
+    /**
+     * @return the number of evicted circuit breakers kept aside, as they are not closed.
+     */
+    public int notClosedEvictedSize() {
+        return notClosedEvicted.size();
+    }
+
+    private CircuitBreaker<HttpExchange> newCircuitBreaker(String host) {
+        CircuitBreaker<HttpExchange> circuitBreaker = CircuitBreaker.<HttpExchange>builder()
+                //a full concurrency limit is not a failure of the host
+                .handleIf((httpExchange, throwable) -> throwable != null && !(unwrap(throwable) instanceof BulkheadFullException))
+                .withFailureThreshold(failureThreshold)
+                .withDelay(Duration.ofMillis(delayInMs))
+                .withSuccessThreshold(successThreshold)
+                .onOpen(event -> LOGGER.warn("circuit breaker of the '{}' host is open : calls fail fast during {} ms", host, delayInMs))
+                .onHalfOpen(event -> LOGGER.info("circuit breaker of the '{}' host is half-open : probe requests are sent", host))
+                .onClose(event -> LOGGER.info("circuit breaker of the '{}' host is closed", host))
+                .build();
+        registerHostMetrics(host, circuitBreaker);
+        return circuitBreaker;
+    }
+
+    private synchronized void registerHostMetrics(String host, CircuitBreaker<HttpExchange> circuitBreaker) {
+        if (metrics == null) {
+            return;
+        }
+        Map<String, String> hostTags = hostTags(host);
+        metrics.addMetric(stateMetricName(hostTags),
+                (Gauge<Integer>) (config, now) -> state(circuitBreaker));
+        metrics.addMetric(failureCountMetricName(hostTags),
+                (Gauge<Long>) (config, now) -> circuitBreaker.getFailureCount());
+        Sensor rejectedSensor = metrics.sensor(rejectedSensorName(host));
+        rejectedSensor.add(new Meter(metrics.metricName("rejected-rate", CIRCUIT_BREAKERS_METRIC_GROUP, "number of calls per second failed fast by the open circuit breaker", hostTags),
+                metrics.metricName("rejected-total", CIRCUIT_BREAKERS_METRIC_GROUP, "total number of calls failed fast by the open circuit breaker", hostTags)));
+    }
+
+    private synchronized void onRemoval(RemovalNotification<String, CircuitBreaker<HttpExchange>> notification) {
+        if (!notification.wasEvicted()) {
+            return;
+        }
+        String host = notification.getKey();
+        CircuitBreaker<HttpExchange> circuitBreaker = notification.getValue();
+        if (circuitBreaker != null && !circuitBreaker.isClosed()) {
+            //its metrics are kept with it
+            notClosedEvicted.put(host, circuitBreaker);
+            return;
+        }
+        if (metrics == null) {
+            return;
+        }
+        Map<String, String> hostTags = hostTags(host);
+        metrics.removeMetric(stateMetricName(hostTags));
+        metrics.removeMetric(failureCountMetricName(hostTags));
+        metrics.removeSensor(rejectedSensorName(host));
+    }
+
+    private Map<String, String> hostTags(String host) {
+        Map<String, String> hostTags = Maps.newHashMap(tags);
+        hostTags.put(HOST_TAG, host);
+        return hostTags;
+    }
+
+    private MetricName stateMetricName(Map<String, String> hostTags) {
+        return metrics.metricName("state", CIRCUIT_BREAKERS_METRIC_GROUP, "state of the circuit breaker : 0 when closed, 1 when half-open, 2 when open", hostTags);
+    }
+
+    private MetricName failureCountMetricName(Map<String, String> hostTags) {
+        return metrics.metricName("failure-count", CIRCUIT_BREAKERS_METRIC_GROUP, "number of failures recorded by the circuit breaker in its current state", hostTags);
+    }
+
+    private static String rejectedSensorName(String host) {
+        return CIRCUIT_BREAKERS_METRIC_GROUP + "-" + host + "-rejected";
+    }
+
+    protected static int state(CircuitBreaker<?> circuitBreaker) {
+        switch (circuitBreaker.getState()) {
+            case HALF_OPEN:
+                return 1;
+            case OPEN:
+                return 2;
+            case CLOSED:
+            default:
+                return 0;
+        }
+    }
+
+    private static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+}
@@ -1,6 +1,12 @@
 package com.github.clescot.kafka.connect.http.sink;
 
 import com.github.clescot.kafka.connect.http.ConfigConstants;
+import com.github.clescot.kafka.connect.http.QueueFactory;
+import com.github.clescot.kafka.connect.http.queue.OverflowPolicy;
+import com.github.clescot.kafka.connect.http.sink.client.HttpClient;
+import com.github.clescot.kafka.connect.http.sink.client.ResponseBodyCapture;
+import com.github.clescot.kafka.connect.http.sink.client.ahc.AHCHttpClient;
+import com.github.clescot.kafka.connect.http.transport.ExchangeTransportType;
 import org.apache.kafka.common.config.ConfigDef;
 
 import java.util.Collections;
@@ -11,6 +17,24 @@ public class HttpSinkConfigDefinition {
     public static final String STATIC_REQUEST_HEADER_NAMES_DOC = "list of static parameters names which will be added to all http requests. these parameter names need to be added with their values as parameters in complement of this list";
     public static final String PUBLISH_TO_IN_MEMORY_QUEUE = "publish.to.in.memory.queue";
     public static final String PUBLISH_TO_IN_MEMORY_QUEUE_DOC = "when set to false, ignore HTTP responses, i.e does not publish responses in the in memory queue. No Source Connector is needed when set to false. When set to true, a Source Connector is needed to consume published Http exchanges in this in memory queue.";
+    public static final String PUBLISH_TO_KAFKA = "publish.to.kafka";
+    public static final String PUBLISH_TO_KAFKA_DOC = "when set to true, HTTP exchanges are published by the sink itself into the 'publish.success.topic' or 'publish.error.topic' topics, with a Kafka producer owned by each task : no Source Connector is needed. offsets of a record are committed only when its HTTP exchange is acknowledged by the Kafka cluster.";
+    public static final String PUBLISH_SUCCESS_TOPIC = "publish.success.topic";
+    public static final String PUBLISH_SUCCESS_TOPIC_DOC = "topic receiving successful HTTP exchanges, when '"+PUBLISH_TO_KAFKA+"' is set to true.";
+    public static final String PUBLISH_ERROR_TOPIC = "publish.error.topic";
+    public static final String PUBLISH_ERROR_TOPIC_DOC = "topic receiving failed HTTP exchanges, when '"+PUBLISH_TO_KAFKA+"' is set to true.";
+    public static final String PUBLISH_KEY_CONVERTER = "publish.key.converter";
+    public static final String PUBLISH_KEY_CONVERTER_DOC = "converter class of the record key, published with its HTTP exchange when '"+PUBLISH_TO_KAFKA+"' is set to true. it is configured with the parameters prefixed with '"+PUBLISH_KEY_CONVERTER+".'.";
+    public static final String PUBLISH_VALUE_CONVERTER = "publish.value.converter";
+    public static final String PUBLISH_VALUE_CONVERTER_DOC = "converter class of the published HTTP exchange, when '"+PUBLISH_TO_KAFKA+"' is set to true. it is configured with the parameters prefixed with '"+PUBLISH_VALUE_CONVERTER+".'.";
+    //the producer is configured with the parameters starting with this prefix, when HTTP exchanges are published to Kafka
+    public static final String PUBLISH_PRODUCER_PREFIX = "publish.producer.";
+    public static final String QUEUE_HIGH_WATER_MARK = "queue.high.water.mark";
+    public static final String QUEUE_HIGH_WATER_MARK_DOC = "ratio of the in memory queue capacity, from which the sink pauses the consumption of its partitions, when '"+PUBLISH_TO_IN_MEMORY_QUEUE+"' is set to true. it gives time to the source to consume published HTTP exchanges.";
+    public static final String QUEUE_LOW_WATER_MARK = "queue.low.water.mark";
+    public static final String QUEUE_LOW_WATER_MARK_DOC = "ratio of the in memory queue capacity, under which the sink resumes the consumption of its paused partitions. must be lower than '"+QUEUE_HIGH_WATER_MARK+"'.";
+    public static final String QUEUE_SHARDING = "queue.sharding";
+    public static final String QUEUE_SHARDING_DOC = "shard of the in memory queue receiving an HTTP exchange, when '"+ConfigConstants.QUEUE_SHARDS+"' is greater than 1. 'PARTITION' keeps HTTP exchanges of the same Kafka partition in the same shard, 'KEY' keeps HTTP exchanges of records with the same topic and key in the same shard, 'NONE' spreads HTTP exchanges over the shards in turn.";
     public static final String DEFAULT_RETRIES = "default.retries";
     public static final String DEFAULT_RETRIES_DOC = "if set with other default retry parameters, permit to define a default retry policy, which can be overriden in the httpRequest object. Define how many retries before an error is thrown";
     public static final String DEFAULT_RETRY_DELAY_IN_MS = "default.retry.delay.in.ms";
@@ -36,13 +60,80 @@ public class HttpSinkConfigDefinition {
     public static final String GENERATE_MISSING_CORRELATION_ID_DOC = "if not present in the HttpRequest headers, generate an UUID bound to the 'X-Correlation-ID' name";
     public static final String GENERATE_MISSING_REQUEST_ID = "generate.missing.request.id";
     public static final String GENERATE_MISSING_REQUEST_ID_DOC = "if not present in the HttpRequest headers, generate an UUID bound to the 'X-Request-ID' name";
+    public static final String ASYNC_MODE = "async.mode";
+    public static final String ASYNC_MODE_DOC = "when set to true, 'put' does not wait for each HTTP exchange before sending the next one : records are sent concurrently, and their offsets are committed only when their HTTP exchange is finished (at-least-once delivery).";
+    public static final String ASYNC_MAX_IN_FLIGHT_REQUESTS = "async.max.in.flight.requests";
+    public static final String ASYNC_MAX_IN_FLIGHT_REQUESTS_DOC = "max number of HTTP exchanges not yet finished per task, when '"+ASYNC_MODE+"' is set to true. when this limit is reached, 'put' waits for an exchange to finish before sending another record.";
+    public static final String ASYNC_DELIVERY_ORDERING = "async.delivery.ordering";
+    public static final String ASYNC_DELIVERY_ORDERING_DOC = "order guarantee between HTTP exchanges when '"+ASYNC_MODE+"' is set to true. 'NONE' sends each record as soon as possible, 'PARTITION' sends records of the same Kafka partition one after the other, 'KEY' sends records of the same topic with the same key one after the other, 'HEADER' sends records of the same topic with the same value for the header configured with 'async.delivery.ordering.header' one after the other.";
+    public static final String ASYNC_DELIVERY_ORDERING_HEADER = "async.delivery.ordering.header";
+    public static final String ASYNC_DELIVERY_ORDERING_HEADER_DOC = "name of the Kafka record header holding the ordering key, when '"+ASYNC_DELIVERY_ORDERING+"' is set to 'HEADER'.";
+    public static final String ASYNC_LANES = "async.lanes";
+    public static final String ASYNC_LANES_DOC = "when set to a positive number, ordering keys are hashed into this fixed number of lanes : each lane sends its records one after the other, and lanes run concurrently. when set to 0, each ordering key owns its own lane.";
+    public static final String ASYNC_LANE_QUEUE_DEPTH = "async.lane.queue.depth";
+    public static final String ASYNC_LANE_QUEUE_DEPTH_DOC = "max number of records running or waiting in a lane, when '"+ASYNC_LANES+"' is set to a positive number. when a lane is full, 'put' waits for a record of this lane to be finished.";
+    public static final String ASYNC_EXCHANGE_EXECUTION = "async.exchange.execution";
+    public static final String ASYNC_EXCHANGE_EXECUTION_DOC = "how HTTP exchanges (request building, throttling, call, retries and publish) are run when '"+ASYNC_MODE+"' is set to true. 'NON_BLOCKING' chains non-blocking calls, 'VIRTUAL_THREADS' runs each exchange with blocking calls on its own virtual thread (JDK 21+, falls back to 'PLATFORM_THREADS' on older JVMs), 'PLATFORM_THREADS' runs exchanges with blocking calls on a pool of '"+ASYNC_MAX_IN_FLIGHT_REQUESTS+"' platform threads.";
+    public static final String DEFAULT_MAX_CONCURRENT_REQUESTS = "default.max.concurrent.requests";
+    public static final String DEFAULT_MAX_CONCURRENT_REQUESTS_DOC = "max number of concurrent HTTP requests sent to a destination. '0' means no limit. can be overriden per destination.";
+    public static final String DEFAULT_MAX_CONCURRENT_REQUESTS_WAIT_IN_MS = "default.max.concurrent.requests.wait.in.ms";
+    public static final String DEFAULT_MAX_CONCURRENT_REQUESTS_WAIT_IN_MS_DOC = "max wait time for a concurrent request slot, when the '"+DEFAULT_MAX_CONCURRENT_REQUESTS+"' limit is reached. when exceeded, the HTTP request is not sent, and the record is reported to the Dead Letter Queue, or fails the task. can be overriden per destination.";
+    public static final String DEFAULT_ADAPTIVE_CONCURRENCY_ENABLED = "default." + AdaptiveConcurrencySettings.ADAPTIVE_CONCURRENCY_ENABLED;
+    public static final String DEFAULT_ADAPTIVE_CONCURRENCY_ENABLED_DOC = "when set to true, the concurrency limit of a destination is adapted to its observed durations and errors (AIMD algorithm), between '" + AdaptiveConcurrencySettings.ADAPTIVE_CONCURRENCY_MIN_LIMIT + "' and '" + DEFAULT_MAX_CONCURRENT_REQUESTS + "' (" + AdaptiveConcurrencySettings.DEFAULT_MAX_LIMIT + " when not set). can be overriden per destination.";
+    public static final String DEFAULT_ADAPTIVE_CONCURRENCY_MIN_LIMIT = "default." + AdaptiveConcurrencySettings.ADAPTIVE_CONCURRENCY_MIN_LIMIT;
+    public static final String DEFAULT_ADAPTIVE_CONCURRENCY_MIN_LIMIT_DOC = "min concurrency limit of a destination, when its concurrency limit is adaptive. can be overriden per destination.";
+    public static final String DEFAULT_ADAPTIVE_CONCURRENCY_INITIAL_LIMIT = "default." + AdaptiveConcurrencySettings.ADAPTIVE_CONCURRENCY_INITIAL_LIMIT;
+    public static final String DEFAULT_ADAPTIVE_CONCURRENCY_INITIAL_LIMIT_DOC = "concurrency limit of a destination when its limiter is created, when its concurrency limit is adaptive. can be overriden per destination.";
+    public static final String DEFAULT_ADAPTIVE_CONCURRENCY_BACKOFF_RATIO = "default." + AdaptiveConcurrencySettings.ADAPTIVE_CONCURRENCY_BACKOFF_RATIO;
+    public static final String DEFAULT_ADAPTIVE_CONCURRENCY_BACKOFF_RATIO_DOC = "ratio applied to an adaptive concurrency limit after an overload signal (error response implying a retry, 429 status code, call error, or too slow response). can be overriden per destination.";
+    public static final String DEFAULT_ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE = "default." + AdaptiveConcurrencySettings.ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE;
+    public static final String DEFAULT_ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE_DOC = "an HTTP exchange lasting more than this factor times the average duration of the destination is an overload signal, when its concurrency limit is adaptive. can be overriden per destination.";
+    public static final String DEFAULT_SERVER_RATE_LIMIT_MAX_WAIT_IN_MS = "default." + DestinationSettings.SERVER_RATE_LIMIT_MAX_WAIT_IN_MS;
+    public static final String DEFAULT_SERVER_RATE_LIMIT_MAX_WAIT_IN_MS_DOC = "max wait time before a call, when the calls quota announced by a destination in its responses ('Retry-After' or rate limit headers) is reached. longer waits asked by the destination are shortened to this time. can be overriden per destination.";
+    public static final String PER_HOST_LIMITS = "per.host.limits";
+    public static final String PER_HOST_LIMITS_DOC = "when set to true, each host owns its rate limiter and concurrency limit, built with the default settings. when set to false, HTTP requests not matching a configured destination share the default rate limiter and concurrency limit.";
+    public static final String LIMITERS_CACHE_MAX_SIZE = "limiters.cache.max.size";
+    public static final String LIMITERS_CACHE_MAX_SIZE_DOC = "max number of per host limiters kept in memory. per host limiters are created on the first request sent to their host, and the least recently used is evicted when this size is reached. limiters of the configured destinations, and the default limiter, are never evicted.";
+    public static final String DESTINATIONS = "destinations";
+    public static final String DESTINATIONS_DOC = "list of destination ids, with their own rate limiter, concurrency limit, success, retry and timeout policy. each destination is configured with 'destination.<id>.' prefixed parameters : 'host', 'path.prefix', 'method' and/or 'url.regex' to match HTTP requests, and optionally 'rate.limiter.max.executions', 'rate.limiter.period.in.ms', 'max.concurrent.requests', 'max.concurrent.requests.wait.in.ms', 'adaptive.concurrency.enabled', 'adaptive.concurrency.min.limit', 'adaptive.concurrency.initial.limit', 'adaptive.concurrency.backoff.ratio', 'adaptive.concurrency.latency.tolerance', 'server.rate.limit.max.wait.in.ms', 'success.response.code.regex', 'retry.response.code.regex', 'retries', 'retry.delay.in.ms', 'retry.max.delay.in.ms', 'retry.delay.factor', 'retry.jitter.in.ms', 'request.timeout.in.ms' and 'read.timeout.in.ms' (inherited from the default parameters when not set).";
+    public static final String DESTINATION_PREFIX = "destination.";
+    public static final String DESTINATION_HEADER = "destination.header";
+    public static final String DESTINATION_HEADER_DOC = "name of the HTTP request header holding the id of a configured destination : when set in a request, this destination is used, whatever its matching parameters.";
+    public static final String CIRCUIT_BREAKER_ENABLED = "circuit.breaker.enabled";
+    public static final String CIRCUIT_BREAKER_ENABLED_DOC = "when set to true, each host owns a circuit breaker : once open, HTTP requests sent to this host fail fast, without any call, and their HTTP exchange is published as a failure with a '" + HttpClient.CIRCUIT_BREAKER_OPEN_STATUS_CODE + "' status code.";
+    public static final String CIRCUIT_BREAKER_FAILURE_THRESHOLD = "circuit.breaker.failure.threshold";
+    public static final String CIRCUIT_BREAKER_FAILURE_THRESHOLD_DOC = "number of consecutive failed calls to a host (server errors implying a retry, or call errors) opening its circuit breaker.";
+    public static final String CIRCUIT_BREAKER_DELAY_IN_MS = "circuit.breaker.delay.in.ms";
+    public static final String CIRCUIT_BREAKER_DELAY_IN_MS_DOC = "time in milliseconds an open circuit breaker fails fast, before letting probe requests through (half-open state).";
+    public static final String CIRCUIT_BREAKER_SUCCESS_THRESHOLD = "circuit.breaker.success.threshold";
+    public static final String CIRCUIT_BREAKER_SUCCESS_THRESHOLD_DOC = "number of successful probe requests closing a half-open circuit breaker. it is also the max number of probe requests running at the same time. one failed probe request opens the circuit breaker again.";
+    public static final int DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD_VALUE = 5;
+    public static final long DEFAULT_CIRCUIT_BREAKER_DELAY_IN_MS_VALUE = 30000L;
+    public static final int DEFAULT_CIRCUIT_BREAKER_SUCCESS_THRESHOLD_VALUE = 1;
+    public static final int DEFAULT_ADAPTIVE_CONCURRENCY_MIN_LIMIT_VALUE = 1;
+    public static final int DEFAULT_ADAPTIVE_CONCURRENCY_INITIAL_LIMIT_VALUE = 10;
+    public static final double DEFAULT_ADAPTIVE_CONCURRENCY_BACKOFF_RATIO_VALUE = 0.9d;
+    public static final double DEFAULT_ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE_VALUE = 2.0d;
+    public static final long DEFAULT_SERVER_RATE_LIMIT_MAX_WAIT_IN_MS_VALUE = 30000L;
     public static final long DEFAULT_RATE_LIMITER_PERIOD_IN_MS_VALUE = 1000L;
     public static final long DEFAULT_RATE_LIMITER_MAX_EXECUTIONS_VALUE = 1L;
-    private static final int DEFAULT_RETRIES_VALUE = 1;
-    private static final long DEFAULT_RETRY_DELAY_IN_MS_VALUE = 2000L;
-    private static final long DEFAULT_RETRY_MAX_DELAY_IN_MS_VALUE = 20000L;
-    private static final double DEFAULT_RETRY_DELAY_FACTOR_VALUE = 1.5d;
-    private static final long DEFAULT_RETRY_JITTER_IN_MS_VALUE = 500;
+    public static final int DEFAULT_RETRIES_VALUE = 1;
+    public static final long DEFAULT_RETRY_DELAY_IN_MS_VALUE = 2000L;
+    public static final long DEFAULT_RETRY_MAX_DELAY_IN_MS_VALUE = 20000L;
+    public static final double DEFAULT_RETRY_DELAY_FACTOR_VALUE = 1.5d;
+    public static final long DEFAULT_RETRY_JITTER_IN_MS_VALUE = 500;
+    private static final int DEFAULT_ASYNC_MAX_IN_FLIGHT_REQUESTS_VALUE = 100;
+    private static final int DEFAULT_ASYNC_LANES_VALUE = 0;
+    private static final int DEFAULT_ASYNC_LANE_QUEUE_DEPTH_VALUE = 10;
+    public static final String DEFAULT_PUBLISH_CONVERTER_VALUE = "org.apache.kafka.connect.json.JsonConverter";
+    public static final int DEFAULT_PUBLISH_PRODUCER_LINGER_MS_VALUE = 20;
+    public static final int DEFAULT_PUBLISH_PRODUCER_BATCH_SIZE_VALUE = 64 * 1024;
+    public static final String DEFAULT_PUBLISH_PRODUCER_COMPRESSION_TYPE_VALUE = "lz4";
+    private static final double DEFAULT_QUEUE_HIGH_WATER_MARK_VALUE = 0.8d;
+    private static final double DEFAULT_QUEUE_LOW_WATER_MARK_VALUE = 0.5d;
+    private static final int DEFAULT_MAX_CONCURRENT_REQUESTS_VALUE = 0;
+    private static final long DEFAULT_MAX_CONCURRENT_REQUESTS_WAIT_IN_MS_VALUE = 60000L;
+    private static final long DEFAULT_LIMITERS_CACHE_MAX_SIZE_VALUE = 1000L;
 
 
     public static final String HTTPCLIENT_SSL_TRUSTSTORE_PATH = "httpclient.ssl.truststore.path";
@@ -53,9 +144,13 @@ public class HttpSinkConfigDefinition {
     public static final String HTTPCLIENT_SSL_TRUSTSTORE_TYPE_DOC = "truststore type. can be 'jks' or 'pkcs12'";
     public static final String HTTPCLIENT_SSL_TRUSTSTORE_ALGORITHM = "httpclient.ssl.truststore.algorithm";
     public static final String HTTPCLIENT_SSL_TRUSTSTORE_ALGORITHM_DOC = "httpclient.ssl.truststore.algorithm";
+    public static final String HTTPCLIENT_RESPONSE_BODY_CAPTURE = "httpclient.response.body.capture";
+    public static final String HTTPCLIENT_RESPONSE_BODY_CAPTURE_DOC = "part of the response body kept in the HTTP exchange : 'FULL' (default), 'TRUNCATED' (first 'httpclient.response.body.max.bytes' bytes), 'HASH' (hexadecimal SHA-256 hash of the body), or 'DISCARD' (empty body). Can be overridden per request with the '" + AHCHttpClient.WS_RESPONSE_BODY_CAPTURE + "' header";
+    public static final String HTTPCLIENT_RESPONSE_BODY_MAX_BYTES = "httpclient.response.body.max.bytes";
+    public static final String HTTPCLIENT_RESPONSE_BODY_MAX_BYTES_DOC = "max number of response body bytes kept with the 'TRUNCATED' capture mode. Can be overridden per request with the '" + AHCHttpClient.WS_RESPONSE_BODY_MAX_BYTES + "' header";
     public static final String DEFAULT_SUCCESS_RESPONSE_CODE_REGEX = "default.success.response.code.regex";
     public static final String DEFAULT_SUCCESS_RESPONSE_CODE_REGEX_DOC = "default regex which decide if the request is a success or not, based on the response status code";
-    private static final String DEFAULT_DEFAULT_SUCCESS_RESPONSE_CODE_REGEX = "^[1-2][0-9][0-9]$";
+    public static final String DEFAULT_DEFAULT_SUCCESS_RESPONSE_CODE_REGEX = "^[1-2][0-9][0-9]$";
     public static final String DEFAULT_RETRY_RESPONSE_CODE_REGEX = "default.retry.response.code.regex";
     public static final String DEFAULT_RETRY_RESPONSE_CODE_REGEX_DOC = "regex which define if a retry need to be triggered, based on the response status code";
     //by default, we don't resend any http call with a response between 100 and 499
@@ -74,7 +169,7 @@ public class HttpSinkConfigDefinition {
      *  * a technical error occurs from the WS server : the status code returned from the ws server does not match the regexp AND is equals or higher than 500 : retries are done
      */
 
-    private static final String DEFAULT_DEFAULT_RETRY_RESPONSE_CODE_REGEX = "^5[0-9][0-9]$";
+    public static final String DEFAULT_DEFAULT_RETRY_RESPONSE_CODE_REGEX = "^5[0-9][0-9]$";
 
 
 
@@ -85,8 +180,28 @@ public class HttpSinkConfigDefinition {
     public static ConfigDef config() {
         return new ConfigDef()
                 .define(ConfigConstants.QUEUE_NAME, ConfigDef.Type.STRING, null,ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_NAME_DOC)
+                .define(ConfigConstants.QUEUE_CAPACITY, ConfigDef.Type.INT, QueueFactory.DEFAULT_QUEUE_CAPACITY, ConfigDef.Range.between(2, 1 << 30), ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_CAPACITY_DOC)
+                .define(ConfigConstants.QUEUE_OVERFLOW_POLICY, ConfigDef.Type.STRING, QueueFactory.DEFAULT_OVERFLOW_POLICY.name(), ConfigDef.ValidString.in(OverflowPolicy.BLOCK.name(), OverflowPolicy.DROP_OLDEST.name(), OverflowPolicy.SPILL.name()), ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_OVERFLOW_POLICY_DOC)
+                .define(ConfigConstants.QUEUE_SPILL_DIRECTORY, ConfigDef.Type.STRING, QueueFactory.DEFAULT_SPILL_DIRECTORY, ConfigDef.Importance.LOW, ConfigConstants.QUEUE_SPILL_DIRECTORY_DOC)
+                .define(ConfigConstants.QUEUE_SPILL_SEGMENT_SIZE_IN_BYTES, ConfigDef.Type.INT, QueueFactory.DEFAULT_SPILL_SEGMENT_SIZE_IN_BYTES, ConfigDef.Range.atLeast(1024), ConfigDef.Importance.LOW, ConfigConstants.QUEUE_SPILL_SEGMENT_SIZE_IN_BYTES_DOC)
+                .define(ConfigConstants.QUEUE_SPILL_MAX_SIZE_IN_BYTES, ConfigDef.Type.LONG, QueueFactory.DEFAULT_SPILL_MAX_SIZE_IN_BYTES, ConfigDef.Range.atLeast(1024), ConfigDef.Importance.LOW, ConfigConstants.QUEUE_SPILL_MAX_SIZE_IN_BYTES_DOC)
+                .define(ConfigConstants.QUEUE_JOURNAL_ENABLED, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_JOURNAL_ENABLED_DOC)
+                .define(ConfigConstants.QUEUE_JOURNAL_DIRECTORY, ConfigDef.Type.STRING, QueueFactory.DEFAULT_JOURNAL_DIRECTORY, ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_JOURNAL_DIRECTORY_DOC)
+                .define(ConfigConstants.QUEUE_JOURNAL_SEGMENT_SIZE_IN_BYTES, ConfigDef.Type.INT, QueueFactory.DEFAULT_JOURNAL_SEGMENT_SIZE_IN_BYTES, ConfigDef.Range.atLeast(1024), ConfigDef.Importance.LOW, ConfigConstants.QUEUE_JOURNAL_SEGMENT_SIZE_IN_BYTES_DOC)
+                .define(ConfigConstants.QUEUE_TRANSPORT, ConfigDef.Type.STRING, QueueFactory.DEFAULT_TRANSPORT.name(), ConfigDef.ValidString.in(ExchangeTransportType.IN_MEMORY.name(), ExchangeTransportType.SOCKET.name()), ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_TRANSPORT_DOC)
+                .define(ConfigConstants.QUEUE_TRANSPORT_ADDRESS, ConfigDef.Type.STRING, QueueFactory.DEFAULT_TRANSPORT_ADDRESS, ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_TRANSPORT_ADDRESS_DOC)
+                .define(ConfigConstants.QUEUE_SHARDS, ConfigDef.Type.INT, QueueFactory.DEFAULT_QUEUE_SHARDS, ConfigDef.Range.atLeast(1), ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_SHARDS_DOC)
+                .define(ConfigConstants.TASK_ID, ConfigDef.Type.STRING, null, ConfigDef.Importance.LOW, ConfigConstants.TASK_ID_DOC)
+                .define(QUEUE_SHARDING, ConfigDef.Type.STRING, DeliveryOrdering.PARTITION.name(), ConfigDef.ValidString.in(DeliveryOrdering.NONE.name(), DeliveryOrdering.PARTITION.name(), DeliveryOrdering.KEY.name()), ConfigDef.Importance.LOW, QUEUE_SHARDING_DOC)
                 .define(STATIC_REQUEST_HEADER_NAMES, ConfigDef.Type.LIST,  Collections.emptyList(), ConfigDef.Importance.MEDIUM, STATIC_REQUEST_HEADER_NAMES_DOC)
                 .define(PUBLISH_TO_IN_MEMORY_QUEUE, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.MEDIUM, PUBLISH_TO_IN_MEMORY_QUEUE_DOC)
+                .define(PUBLISH_TO_KAFKA, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.MEDIUM, PUBLISH_TO_KAFKA_DOC)
+                .define(PUBLISH_SUCCESS_TOPIC, ConfigDef.Type.STRING, null, ConfigDef.Importance.MEDIUM, PUBLISH_SUCCESS_TOPIC_DOC)
+                .define(PUBLISH_ERROR_TOPIC, ConfigDef.Type.STRING, null, ConfigDef.Importance.MEDIUM, PUBLISH_ERROR_TOPIC_DOC)
+                .define(PUBLISH_KEY_CONVERTER, ConfigDef.Type.STRING, DEFAULT_PUBLISH_CONVERTER_VALUE, ConfigDef.Importance.LOW, PUBLISH_KEY_CONVERTER_DOC)
+                .define(PUBLISH_VALUE_CONVERTER, ConfigDef.Type.STRING, DEFAULT_PUBLISH_CONVERTER_VALUE, ConfigDef.Importance.LOW, PUBLISH_VALUE_CONVERTER_DOC)
+                .define(QUEUE_HIGH_WATER_MARK, ConfigDef.Type.DOUBLE, DEFAULT_QUEUE_HIGH_WATER_MARK_VALUE, ConfigDef.Range.between(0.0d, 1.0d), ConfigDef.Importance.LOW, QUEUE_HIGH_WATER_MARK_DOC)
+                .define(QUEUE_LOW_WATER_MARK, ConfigDef.Type.DOUBLE, DEFAULT_QUEUE_LOW_WATER_MARK_VALUE, ConfigDef.Range.between(0.0d, 1.0d), ConfigDef.Importance.LOW, QUEUE_LOW_WATER_MARK_DOC)
                 .define(DEFAULT_SUCCESS_RESPONSE_CODE_REGEX, ConfigDef.Type.STRING, DEFAULT_DEFAULT_SUCCESS_RESPONSE_CODE_REGEX, ConfigDef.Importance.LOW, DEFAULT_SUCCESS_RESPONSE_CODE_REGEX_DOC)
                 .define(DEFAULT_RETRY_RESPONSE_CODE_REGEX, ConfigDef.Type.STRING, DEFAULT_DEFAULT_RETRY_RESPONSE_CODE_REGEX, ConfigDef.Importance.LOW, DEFAULT_RETRY_RESPONSE_CODE_REGEX_DOC)
                 .define(DEFAULT_RETRIES, ConfigDef.Type.INT, DEFAULT_RETRIES_VALUE, ConfigDef.Importance.MEDIUM, DEFAULT_RETRIES_DOC)
@@ -96,13 +211,38 @@ public class HttpSinkConfigDefinition {
                 .define(DEFAULT_RETRY_JITTER_IN_MS, ConfigDef.Type.LONG, DEFAULT_RETRY_JITTER_IN_MS_VALUE, ConfigDef.Importance.MEDIUM, DEFAULT_RETRY_JITTER_IN_MS_DOC)
                 .define(DEFAULT_RATE_LIMITER_PERIOD_IN_MS, ConfigDef.Type.LONG, HttpSinkConfigDefinition.DEFAULT_RATE_LIMITER_PERIOD_IN_MS_VALUE, ConfigDef.Importance.MEDIUM, DEFAULT_RATE_LIMITER_PERIOD_IN_MS_DOC)
                 .define(DEFAULT_RATE_LIMITER_MAX_EXECUTIONS, ConfigDef.Type.LONG, HttpSinkConfigDefinition.DEFAULT_RATE_LIMITER_MAX_EXECUTIONS_VALUE, ConfigDef.Importance.MEDIUM, DEFAULT_RATE_LIMITER_MAX_EXECUTIONS_DOC)
+                .define(DEFAULT_MAX_CONCURRENT_REQUESTS, ConfigDef.Type.INT, DEFAULT_MAX_CONCURRENT_REQUESTS_VALUE, ConfigDef.Range.atLeast(0), ConfigDef.Importance.MEDIUM, DEFAULT_MAX_CONCURRENT_REQUESTS_DOC)
+                .define(DEFAULT_MAX_CONCURRENT_REQUESTS_WAIT_IN_MS, ConfigDef.Type.LONG, DEFAULT_MAX_CONCURRENT_REQUESTS_WAIT_IN_MS_VALUE, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW, DEFAULT_MAX_CONCURRENT_REQUESTS_WAIT_IN_MS_DOC)
+                .define(DEFAULT_ADAPTIVE_CONCURRENCY_ENABLED, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.MEDIUM, DEFAULT_ADAPTIVE_CONCURRENCY_ENABLED_DOC)
+                .define(DEFAULT_ADAPTIVE_CONCURRENCY_MIN_LIMIT, ConfigDef.Type.INT, DEFAULT_ADAPTIVE_CONCURRENCY_MIN_LIMIT_VALUE, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, DEFAULT_ADAPTIVE_CONCURRENCY_MIN_LIMIT_DOC)
+                .define(DEFAULT_ADAPTIVE_CONCURRENCY_INITIAL_LIMIT, ConfigDef.Type.INT, DEFAULT_ADAPTIVE_CONCURRENCY_INITIAL_LIMIT_VALUE, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, DEFAULT_ADAPTIVE_CONCURRENCY_INITIAL_LIMIT_DOC)
+                .define(DEFAULT_ADAPTIVE_CONCURRENCY_BACKOFF_RATIO, ConfigDef.Type.DOUBLE, DEFAULT_ADAPTIVE_CONCURRENCY_BACKOFF_RATIO_VALUE, ConfigDef.Range.between(0.0d, 1.0d), ConfigDef.Importance.LOW, DEFAULT_ADAPTIVE_CONCURRENCY_BACKOFF_RATIO_DOC)
+                .define(DEFAULT_ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE, ConfigDef.Type.DOUBLE, DEFAULT_ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE_VALUE, ConfigDef.Range.atLeast(1.0d), ConfigDef.Importance.LOW, DEFAULT_ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE_DOC)
+                .define(DEFAULT_SERVER_RATE_LIMIT_MAX_WAIT_IN_MS, ConfigDef.Type.LONG, DEFAULT_SERVER_RATE_LIMIT_MAX_WAIT_IN_MS_VALUE, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW, DEFAULT_SERVER_RATE_LIMIT_MAX_WAIT_IN_MS_DOC)
+                .define(PER_HOST_LIMITS, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.MEDIUM, PER_HOST_LIMITS_DOC)
+                .define(LIMITERS_CACHE_MAX_SIZE, ConfigDef.Type.LONG, DEFAULT_LIMITERS_CACHE_MAX_SIZE_VALUE, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, LIMITERS_CACHE_MAX_SIZE_DOC)
+                .define(DESTINATIONS, ConfigDef.Type.LIST, Collections.emptyList(), ConfigDef.Importance.MEDIUM, DESTINATIONS_DOC)
+                .define(DESTINATION_HEADER, ConfigDef.Type.STRING, null, ConfigDef.Importance.LOW, DESTINATION_HEADER_DOC)
+                .define(CIRCUIT_BREAKER_ENABLED, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.MEDIUM, CIRCUIT_BREAKER_ENABLED_DOC)
+                .define(CIRCUIT_BREAKER_FAILURE_THRESHOLD, ConfigDef.Type.INT, DEFAULT_CIRCUIT_BREAKER_FAILURE_THRESHOLD_VALUE, ConfigDef.Range.atLeast(1), ConfigDef.Importance.MEDIUM, CIRCUIT_BREAKER_FAILURE_THRESHOLD_DOC)
+                .define(CIRCUIT_BREAKER_DELAY_IN_MS, ConfigDef.Type.LONG, DEFAULT_CIRCUIT_BREAKER_DELAY_IN_MS_VALUE, ConfigDef.Range.atLeast(0), ConfigDef.Importance.MEDIUM, CIRCUIT_BREAKER_DELAY_IN_MS_DOC)
+                .define(CIRCUIT_BREAKER_SUCCESS_THRESHOLD, ConfigDef.Type.INT, DEFAULT_CIRCUIT_BREAKER_SUCCESS_THRESHOLD_VALUE, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, CIRCUIT_BREAKER_SUCCESS_THRESHOLD_DOC)
                 .define(GENERATE_MISSING_CORRELATION_ID, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.MEDIUM, GENERATE_MISSING_CORRELATION_ID_DOC)
                 .define(GENERATE_MISSING_REQUEST_ID, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.MEDIUM, GENERATE_MISSING_REQUEST_ID_DOC)
+                .define(ASYNC_MODE, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.MEDIUM, ASYNC_MODE_DOC)
+                .define(ASYNC_MAX_IN_FLIGHT_REQUESTS, ConfigDef.Type.INT, DEFAULT_ASYNC_MAX_IN_FLIGHT_REQUESTS_VALUE, ConfigDef.Range.atLeast(1), ConfigDef.Importance.MEDIUM, ASYNC_MAX_IN_FLIGHT_REQUESTS_DOC)
+                .define(ASYNC_DELIVERY_ORDERING, ConfigDef.Type.STRING, DeliveryOrdering.NONE.name(), ConfigDef.ValidString.in(DeliveryOrdering.NONE.name(), DeliveryOrdering.PARTITION.name(), DeliveryOrdering.KEY.name(), DeliveryOrdering.HEADER.name()), ConfigDef.Importance.MEDIUM, ASYNC_DELIVERY_ORDERING_DOC)
+                .define(ASYNC_DELIVERY_ORDERING_HEADER, ConfigDef.Type.STRING, null, ConfigDef.Importance.LOW, ASYNC_DELIVERY_ORDERING_HEADER_DOC)
+                .define(ASYNC_LANES, ConfigDef.Type.INT, DEFAULT_ASYNC_LANES_VALUE, ConfigDef.Range.atLeast(0), ConfigDef.Importance.MEDIUM, ASYNC_LANES_DOC)
+                .define(ASYNC_EXCHANGE_EXECUTION, ConfigDef.Type.STRING, ExchangeExecution.NON_BLOCKING.name(), ConfigDef.ValidString.in(ExchangeExecution.NON_BLOCKING.name(), ExchangeExecution.VIRTUAL_THREADS.name(), ExchangeExecution.PLATFORM_THREADS.name()), ConfigDef.Importance.LOW, ASYNC_EXCHANGE_EXECUTION_DOC)
+                .define(ASYNC_LANE_QUEUE_DEPTH, ConfigDef.Type.INT, DEFAULT_ASYNC_LANE_QUEUE_DEPTH_VALUE, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, ASYNC_LANE_QUEUE_DEPTH_DOC)
                 .define(WAIT_TIME_REGISTRATION_QUEUE_CONSUMER_IN_MS, ConfigDef.Type.LONG, 60000L, ConfigDef.Importance.LOW, WAIT_TIME_REGISTRATION_QUEUE_CONSUMER_IN_MS_DOC)
                 .define(HTTPCLIENT_SSL_TRUSTSTORE_PATH, ConfigDef.Type.STRING, null, ConfigDef.Importance.LOW, HTTPCLIENT_SSL_TRUSTSTORE_PATH_DOC)
                 .define(HTTPCLIENT_SSL_TRUSTSTORE_PASSWORD, ConfigDef.Type.STRING, null, ConfigDef.Importance.LOW, HTTPCLIENT_SSL_TRUSTSTORE_PASSWORD_DOC)
                 .define(HTTPCLIENT_SSL_TRUSTSTORE_TYPE, ConfigDef.Type.STRING, null, ConfigDef.Importance.LOW, HTTPCLIENT_SSL_TRUSTSTORE_TYPE_DOC)
                 .define(HTTPCLIENT_SSL_TRUSTSTORE_ALGORITHM, ConfigDef.Type.STRING, null, ConfigDef.Importance.LOW, HTTPCLIENT_SSL_TRUSTSTORE_ALGORITHM_DOC)
+                .define(HTTPCLIENT_RESPONSE_BODY_CAPTURE, ConfigDef.Type.STRING, ResponseBodyCapture.FULL.name(), ConfigDef.ValidString.in(ResponseBodyCapture.FULL.name(), ResponseBodyCapture.TRUNCATED.name(), ResponseBodyCapture.HASH.name(), ResponseBodyCapture.DISCARD.name()), ConfigDef.Importance.MEDIUM, HTTPCLIENT_RESPONSE_BODY_CAPTURE_DOC)
+                .define(HTTPCLIENT_RESPONSE_BODY_MAX_BYTES, ConfigDef.Type.INT, AHCHttpClient.DEFAULT_RESPONSE_BODY_MAX_BYTES, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW, HTTPCLIENT_RESPONSE_BODY_MAX_BYTES_DOC)
                 ;
     }
 }
@@ -1,5 +1,6 @@
 package com.github.clescot.kafka.connect.http.sink;
 
+import com.github.clescot.kafka.connect.http.ConfigConstants;
 import com.google.common.base.Preconditions;
 import org.apache.kafka.common.config.ConfigDef;
 import org.apache.kafka.connect.connector.Task;
@@ -29,7 +30,9 @@ public class HttpSinkConnector extends SinkConnector {
     public List<Map<String, String>> taskConfigs(int taskCount) {
         List<Map<String, String>> configs = new ArrayList<>(taskCount);
         for (int i = 0; i < taskCount; i++) {
-            configs.add(this.httpSinkConnectorConfig.originalsStrings());
+            Map<String, String> taskConfig = this.httpSinkConnectorConfig.originalsStrings();
+            taskConfig.put(ConfigConstants.TASK_ID, String.valueOf(i));
+            configs.add(taskConfig);
         }
         return configs;
     }
@@ -1,10 +1,17 @@
 package com.github.clescot.kafka.connect.http.sink;
 
+import com.github.clescot.kafka.connect.http.ConfigConstants;
+import com.github.clescot.kafka.connect.http.queue.OverflowPolicy;
+import com.github.clescot.kafka.connect.http.queue.JournalSettings;
+import com.github.clescot.kafka.connect.http.queue.SpillSettings;
+import com.github.clescot.kafka.connect.http.transport.ExchangeTransportType;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.config.AbstractConfig;
 import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,7 +19,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_CAPACITY;
 import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_NAME;
+import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_OVERFLOW_POLICY;
+import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_SHARDS;
 import static com.github.clescot.kafka.connect.http.QueueFactory.DEFAULT_QUEUE_NAME;
 import static com.github.clescot.kafka.connect.http.QueueFactory.queueMapIsEmpty;
 import static com.github.clescot.kafka.connect.http.sink.HttpSinkConfigDefinition.*;
@@ -22,7 +32,23 @@ public class HttpSinkConnectorConfig extends AbstractConfig {
     private final String defaultSuccessResponseCodeRegex;
     private final String defaultRetryResponseCodeRegex;
     private String queueName;
+    private int queueCapacity;
+    private OverflowPolicy queueOverflowPolicy;
+    private SpillSettings queueSpillSettings;
+    //null when the queue is not journaled
+    private JournalSettings queueJournalSettings;
+    private ExchangeTransportType queueTransport;
+    private String queueTransportAddress;
+    private int queueShards;
+    private DeliveryOrdering queueSharding;
+    private double queueHighWaterMark;
+    private double queueLowWaterMark;
     private boolean publishToInMemoryQueue;
+    private boolean publishToKafka;
+    private String publishSuccessTopic;
+    private String publishErrorTopic;
+    private String publishKeyConverter;
+    private String publishValueConverter;
     private Integer defaultRetries;
     private Long defaultRetryDelayInMs;
     private Long defaultRetryMaxDelayInMs;
@@ -35,6 +61,22 @@ public class HttpSinkConnectorConfig extends AbstractConfig {
     private boolean generateMissingCorrelationId;
 
     private long maxWaitTimeRegistrationOfQueueConsumerInMs;
+    private boolean asyncMode;
+    private int asyncMaxInFlightRequests;
+    private DeliveryOrdering asyncDeliveryOrdering;
+    private String asyncDeliveryOrderingHeader;
+    private int asyncLanes;
+    private int asyncLaneQueueDepth;
+    private ExchangeExecution asyncExchangeExecution;
+    private DestinationSettings defaultDestinationSettings;
+    private List<DestinationSettings> destinations = Lists.newArrayList();
+    private String destinationHeader;
+    private boolean perHostLimits;
+    private long limitersCacheMaxSize;
+    private boolean circuitBreakerEnabled;
+    private int circuitBreakerFailureThreshold;
+    private long circuitBreakerDelayInMs;
+    private int circuitBreakerSuccessThreshold;
 
     public HttpSinkConnectorConfig(Map<?, ?> originals) {
         this(HttpSinkConfigDefinition.config(), originals);
@@ -43,10 +85,39 @@ public class HttpSinkConnectorConfig extends AbstractConfig {
     public HttpSinkConnectorConfig(ConfigDef configDef, Map<?, ?> originals){
         super(configDef,originals);
         this.queueName = Optional.ofNullable(getString(QUEUE_NAME)).orElse(DEFAULT_QUEUE_NAME);
+        this.queueCapacity = getInt(QUEUE_CAPACITY);
+        this.queueOverflowPolicy = OverflowPolicy.valueOf(getString(QUEUE_OVERFLOW_POLICY));
+        this.queueSpillSettings = new SpillSettings(
+                getString(ConfigConstants.QUEUE_SPILL_DIRECTORY),
+                getInt(ConfigConstants.QUEUE_SPILL_SEGMENT_SIZE_IN_BYTES),
+                getLong(ConfigConstants.QUEUE_SPILL_MAX_SIZE_IN_BYTES));
+        this.queueJournalSettings = getBoolean(ConfigConstants.QUEUE_JOURNAL_ENABLED) ? new JournalSettings(
+                getString(ConfigConstants.QUEUE_JOURNAL_DIRECTORY),
+                getInt(ConfigConstants.QUEUE_JOURNAL_SEGMENT_SIZE_IN_BYTES)) : null;
+        //HTTP exchanges dropped from the queue would stay in the journal, and be replayed after a restart
+        Preconditions.checkArgument(queueJournalSettings == null || OverflowPolicy.DROP_OLDEST != queueOverflowPolicy,
+                "'" + ConfigConstants.QUEUE_JOURNAL_ENABLED + "' cannot be set to 'true' with the '" + OverflowPolicy.DROP_OLDEST + "' '" + QUEUE_OVERFLOW_POLICY + "'");
+        this.queueTransport = ExchangeTransportType.valueOf(getString(ConfigConstants.QUEUE_TRANSPORT));
+        this.queueTransportAddress = getString(ConfigConstants.QUEUE_TRANSPORT_ADDRESS);
+        this.queueShards = getInt(QUEUE_SHARDS);
+        this.queueSharding = DeliveryOrdering.valueOf(getString(QUEUE_SHARDING));
+        this.queueHighWaterMark = getDouble(QUEUE_HIGH_WATER_MARK);
+        this.queueLowWaterMark = getDouble(QUEUE_LOW_WATER_MARK);
+        Preconditions.checkArgument(queueLowWaterMark < queueHighWaterMark, "'" + QUEUE_LOW_WATER_MARK + "' must be lower than '" + QUEUE_HIGH_WATER_MARK + "'");
         if(queueMapIsEmpty()){
             LOGGER.warn("no pre-existing queue exists. this HttpSourceConnector has created a '{}' one. It needs to consume a queue filled with a SinkConnector. Ignore this message if a SinkConnector will be created after this one.",queueName);
         }
         this.publishToInMemoryQueue = Optional.ofNullable(getBoolean(PUBLISH_TO_IN_MEMORY_QUEUE)).orElse(false);
+        this.publishToKafka = getBoolean(PUBLISH_TO_KAFKA);
+        this.publishSuccessTopic = getString(PUBLISH_SUCCESS_TOPIC);
+        this.publishErrorTopic = getString(PUBLISH_ERROR_TOPIC);
+        this.publishKeyConverter = getString(PUBLISH_KEY_CONVERTER);
+        this.publishValueConverter = getString(PUBLISH_VALUE_CONVERTER);
+        if (publishToKafka) {
+            Preconditions.checkNotNull(publishSuccessTopic, "'" + PUBLISH_SUCCESS_TOPIC + "' is required when '" + PUBLISH_TO_KAFKA + "' is set to true");
+            Preconditions.checkNotNull(publishErrorTopic, "'" + PUBLISH_ERROR_TOPIC + "' is required when '" + PUBLISH_TO_KAFKA + "' is set to true");
+            Preconditions.checkNotNull(originals().get(PUBLISH_PRODUCER_PREFIX + ProducerConfig.BOOTSTRAP_SERVERS_CONFIG), "'" + PUBLISH_PRODUCER_PREFIX + ProducerConfig.BOOTSTRAP_SERVERS_CONFIG + "' is required when '" + PUBLISH_TO_KAFKA + "' is set to true");
+        }
 
         this.defaultRetries = getInt(DEFAULT_RETRIES);
         this.defaultRetryDelayInMs = getLong(DEFAULT_RETRY_DELAY_IN_MS);
@@ -58,6 +129,16 @@ public class HttpSinkConnectorConfig extends AbstractConfig {
         this.defaultRateLimiterPeriodInMs = getLong(DEFAULT_RATE_LIMITER_PERIOD_IN_MS);
         this.defaultRateLimiterMaxExecutions = getLong(DEFAULT_RATE_LIMITER_MAX_EXECUTIONS);
         this.maxWaitTimeRegistrationOfQueueConsumerInMs = getLong(WAIT_TIME_REGISTRATION_QUEUE_CONSUMER_IN_MS);
+        this.asyncMode = getBoolean(ASYNC_MODE);
+        this.asyncMaxInFlightRequests = getInt(ASYNC_MAX_IN_FLIGHT_REQUESTS);
+        this.asyncDeliveryOrdering = DeliveryOrdering.valueOf(getString(ASYNC_DELIVERY_ORDERING));
+        this.asyncDeliveryOrderingHeader = getString(ASYNC_DELIVERY_ORDERING_HEADER);
+        if (DeliveryOrdering.HEADER == asyncDeliveryOrdering) {
+            Preconditions.checkNotNull(asyncDeliveryOrderingHeader, "'" + ASYNC_DELIVERY_ORDERING_HEADER + "' is required when '" + ASYNC_DELIVERY_ORDERING + "' is set to 'HEADER'");
+        }
+        this.asyncLanes = getInt(ASYNC_LANES);
+        this.asyncLaneQueueDepth = getInt(ASYNC_LANE_QUEUE_DEPTH);
+        this.asyncExchangeExecution = ExchangeExecution.valueOf(getString(ASYNC_EXCHANGE_EXECUTION));
         Optional<List<String>> staticRequestHeaderNames = Optional.ofNullable(getList(STATIC_REQUEST_HEADER_NAMES));
         List<String> additionalHeaderNamesList =staticRequestHeaderNames.orElse(Lists.newArrayList());
         for(String headerName:additionalHeaderNamesList){
@@ -67,16 +148,149 @@ public class HttpSinkConnectorConfig extends AbstractConfig {
         }
         this.defaultSuccessResponseCodeRegex=getString(DEFAULT_SUCCESS_RESPONSE_CODE_REGEX);
         this.defaultRetryResponseCodeRegex=getString(DEFAULT_RETRY_RESPONSE_CODE_REGEX);
+        //status code regexes are evaluated once here : responses are then classified with a lookup
+        DestinationPolicy defaultPolicy = new DestinationPolicy(
+                StatusCodeMatcher.fromRegex(defaultSuccessResponseCodeRegex),
+                StatusCodeMatcher.fromRegex(defaultRetryResponseCodeRegex),
+                defaultRetries,
+                defaultRetryDelayInMs,
+                defaultRetryMaxDelayInMs,
+                defaultRetryDelayFactor,
+                defaultRetryJitterInMs,
+                null,
+                null);
+        this.defaultDestinationSettings = new DestinationSettings(
+                DestinationLimiters.DEFAULT_DESTINATION,
+                null,
+                null,
+                null,
+                null,
+                defaultRateLimiterMaxExecutions,
+                defaultRateLimiterPeriodInMs,
+                getInt(DEFAULT_MAX_CONCURRENT_REQUESTS),
+                getLong(DEFAULT_MAX_CONCURRENT_REQUESTS_WAIT_IN_MS),
+                defaultPolicy,
+                new AdaptiveConcurrencySettings(
+                        getBoolean(DEFAULT_ADAPTIVE_CONCURRENCY_ENABLED),
+                        getInt(DEFAULT_ADAPTIVE_CONCURRENCY_MIN_LIMIT),
+                        getInt(DEFAULT_ADAPTIVE_CONCURRENCY_INITIAL_LIMIT),
+                        getDouble(DEFAULT_ADAPTIVE_CONCURRENCY_BACKOFF_RATIO),
+                        getDouble(DEFAULT_ADAPTIVE_CONCURRENCY_LATENCY_TOLERANCE)),
+                getLong(DEFAULT_SERVER_RATE_LIMIT_MAX_WAIT_IN_MS));
+        for (String destinationId : Optional.ofNullable(getList(DESTINATIONS)).orElse(Lists.newArrayList())) {
+            destinations.add(DestinationSettings.of(destinationId, originalsWithPrefix(DESTINATION_PREFIX + destinationId + "."), defaultDestinationSettings));
+        }
+        this.destinationHeader = getString(DESTINATION_HEADER);
+        this.perHostLimits = getBoolean(PER_HOST_LIMITS);
+        this.limitersCacheMaxSize = getLong(LIMITERS_CACHE_MAX_SIZE);
+        this.circuitBreakerEnabled = getBoolean(CIRCUIT_BREAKER_ENABLED);
+        this.circuitBreakerFailureThreshold = getInt(CIRCUIT_BREAKER_FAILURE_THRESHOLD);
+        this.circuitBreakerDelayInMs = getLong(CIRCUIT_BREAKER_DELAY_IN_MS);
+        this.circuitBreakerSuccessThreshold = getInt(CIRCUIT_BREAKER_SUCCESS_THRESHOLD);
     }
 
     public String getQueueName() {
         return queueName;
     }
 
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public OverflowPolicy getQueueOverflowPolicy() {
+        return queueOverflowPolicy;
+    }
+
+    public SpillSettings getQueueSpillSettings() {
+        return queueSpillSettings;
+    }
+
+    /**
+     * @return the journal settings, or null if the queue is not journaled.
+     */
+    public JournalSettings getQueueJournalSettings() {
+        return queueJournalSettings;
+    }
+
+    public ExchangeTransportType getQueueTransport() {
+        return queueTransport;
+    }
+
+    public String getQueueTransportAddress() {
+        return queueTransportAddress;
+    }
+
+    public int getQueueShards() {
+        return queueShards;
+    }
+
+    public DeliveryOrdering getQueueSharding() {
+        return queueSharding;
+    }
+
+    public double getQueueHighWaterMark() {
+        return queueHighWaterMark;
+    }
+
+    public double getQueueLowWaterMark() {
+        return queueLowWaterMark;
+    }
+
     public boolean isPublishToInMemoryQueue() {
         return publishToInMemoryQueue;
     }
 
+    public boolean isPublishToKafka() {
+        return publishToKafka;
+    }
+
+    public String getPublishSuccessTopic() {
+        return publishSuccessTopic;
+    }
+
+    public String getPublishErrorTopic() {
+        return publishErrorTopic;
+    }
+
+    public String getPublishKeyConverter() {
+        return publishKeyConverter;
+    }
+
+    public String getPublishValueConverter() {
+        return publishValueConverter;
+    }
+
+    /**
+     * @return the settings of the key converter, without their prefix.
+     */
+    public Map<String, Object> getPublishKeyConverterSettings() {
+        return originalsWithPrefix(PUBLISH_KEY_CONVERTER + ".");
+    }
+
+    /**
+     * @return the settings of the value converter, without their prefix.
+     */
+    public Map<String, Object> getPublishValueConverterSettings() {
+        return originalsWithPrefix(PUBLISH_VALUE_CONVERTER + ".");
+    }
+
+    /**
+     * @return the producer settings without their prefix, with batching, linger and compression enabled by default.
+     * records are acknowledged by all the in-sync replicas, and serialized by the key and value converters.
+     */
+    public Map<String, Object> getPublishProducerSettings() {
+        Map<String, Object> producerSettings = Maps.newHashMap();
+        producerSettings.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerSettings.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        producerSettings.put(ProducerConfig.LINGER_MS_CONFIG, DEFAULT_PUBLISH_PRODUCER_LINGER_MS_VALUE);
+        producerSettings.put(ProducerConfig.BATCH_SIZE_CONFIG, DEFAULT_PUBLISH_PRODUCER_BATCH_SIZE_VALUE);
+        producerSettings.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, DEFAULT_PUBLISH_PRODUCER_COMPRESSION_TYPE_VALUE);
+        producerSettings.putAll(originalsWithPrefix(PUBLISH_PRODUCER_PREFIX));
+        producerSettings.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        producerSettings.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        return producerSettings;
+    }
+
     public Map<String, List<String>> getStaticRequestHeaders() {
         return Maps.newHashMap(staticRequestHeaders);
     }
@@ -121,6 +335,70 @@ public class HttpSinkConnectorConfig extends AbstractConfig {
         return maxWaitTimeRegistrationOfQueueConsumerInMs;
     }
 
+    public boolean isAsyncMode() {
+        return asyncMode;
+    }
+
+    public int getAsyncMaxInFlightRequests() {
+        return asyncMaxInFlightRequests;
+    }
+
+    public DeliveryOrdering getAsyncDeliveryOrdering() {
+        return asyncDeliveryOrdering;
+    }
+
+    public String getAsyncDeliveryOrderingHeader() {
+        return asyncDeliveryOrderingHeader;
+    }
+
+    public int getAsyncLanes() {
+        return asyncLanes;
+    }
+
+    public int getAsyncLaneQueueDepth() {
+        return asyncLaneQueueDepth;
+    }
+
+    public ExchangeExecution getAsyncExchangeExecution() {
+        return asyncExchangeExecution;
+    }
+
+    public DestinationSettings getDefaultDestinationSettings() {
+        return defaultDestinationSettings;
+    }
+
+    public List<DestinationSettings> getDestinations() {
+        return Lists.newArrayList(destinations);
+    }
+
+    public String getDestinationHeader() {
+        return destinationHeader;
+    }
+
+    public boolean isPerHostLimits() {
+        return perHostLimits;
+    }
+
+    public long getLimitersCacheMaxSize() {
+        return limitersCacheMaxSize;
+    }
+
+    public boolean isCircuitBreakerEnabled() {
+        return circuitBreakerEnabled;
+    }
+
+    public int getCircuitBreakerFailureThreshold() {
+        return circuitBreakerFailureThreshold;
+    }
+
+    public long getCircuitBreakerDelayInMs() {
+        return circuitBreakerDelayInMs;
+    }
+
+    public int getCircuitBreakerSuccessThreshold() {
+        return circuitBreakerSuccessThreshold;
+    }
+
     public String getDefaultSuccessResponseCodeRegex() {
         return defaultSuccessResponseCodeRegex;
     }
@@ -135,7 +413,20 @@ public class HttpSinkConnectorConfig extends AbstractConfig {
                 "defaultSuccessResponseCodeRegex='" + defaultSuccessResponseCodeRegex + '\'' +
                 ", defaultRetryResponseCodeRegex='" + defaultRetryResponseCodeRegex + '\'' +
                 ", queueName='" + queueName + '\'' +
+                ", queueCapacity=" + queueCapacity +
+                ", queueOverflowPolicy=" + queueOverflowPolicy +
+                ", queueSpillSettings=" + queueSpillSettings +
+                ", queueJournalSettings=" + queueJournalSettings +
+                ", queueTransport=" + queueTransport +
+                ", queueTransportAddress='" + queueTransportAddress + '\'' +
+                ", queueShards=" + queueShards +
+                ", queueSharding=" + queueSharding +
+                ", queueHighWaterMark=" + queueHighWaterMark +
+                ", queueLowWaterMark=" + queueLowWaterMark +
                 ", publishToInMemoryQueue=" + publishToInMemoryQueue +
+                ", publishToKafka=" + publishToKafka +
+                ", publishSuccessTopic='" + publishSuccessTopic + '\'' +
+                ", publishErrorTopic='" + publishErrorTopic + '\'' +
                 ", defaultRetries=" + defaultRetries +
                 ", defaultRetryDelayInMs=" + defaultRetryDelayInMs +
                 ", defaultRetryMaxDelayInMs=" + defaultRetryMaxDelayInMs +
@@ -147,6 +438,22 @@ public class HttpSinkConnectorConfig extends AbstractConfig {
                 ", generateMissingRequestId=" + generateMissingRequestId +
                 ", generateMissingCorrelationId=" + generateMissingCorrelationId +
                 ", maxWaitTimeRegistrationOfQueueConsumerInMs=" + maxWaitTimeRegistrationOfQueueConsumerInMs +
+                ", asyncMode=" + asyncMode +
+                ", asyncMaxInFlightRequests=" + asyncMaxInFlightRequests +
+                ", asyncDeliveryOrdering=" + asyncDeliveryOrdering +
+                ", asyncDeliveryOrderingHeader='" + asyncDeliveryOrderingHeader + '\'' +
+                ", asyncLanes=" + asyncLanes +
+                ", asyncLaneQueueDepth=" + asyncLaneQueueDepth +
+                ", asyncExchangeExecution=" + asyncExchangeExecution +
+                ", defaultDestinationSettings=" + defaultDestinationSettings +
+                ", destinations=" + destinations +
+                ", destinationHeader='" + destinationHeader + '\'' +
+                ", perHostLimits=" + perHostLimits +
+                ", limitersCacheMaxSize=" + limitersCacheMaxSize +
+                ", circuitBreakerEnabled=" + circuitBreakerEnabled +
+                ", circuitBreakerFailureThreshold=" + circuitBreakerFailureThreshold +
+                ", circuitBreakerDelayInMs=" + circuitBreakerDelayInMs +
+                ", circuitBreakerSuccessThreshold=" + circuitBreakerSuccessThreshold +
                 '}';
     }
 }
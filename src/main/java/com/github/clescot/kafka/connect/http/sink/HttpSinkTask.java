@@ -4,35 +4,46 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.github.clescot.kafka.connect.http.*;
+import com.github.clescot.kafka.connect.http.queue.OverflowPolicy;
+import com.github.clescot.kafka.connect.http.queue.ShardedQueue;
+import com.github.clescot.kafka.connect.http.transport.ExchangeTransport;
+import com.github.clescot.kafka.connect.http.transport.SocketExchangeQueue;
 import com.github.clescot.kafka.connect.http.sink.client.HttpClient;
 import com.github.clescot.kafka.connect.http.sink.client.HttpException;
+import com.github.clescot.kafka.connect.http.sink.client.ahc.AHCHttpClient;
 import com.github.clescot.kafka.connect.http.sink.client.ahc.AHCHttpClientFactory;
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import dev.failsafe.BulkheadFullException;
+import dev.failsafe.CircuitBreakerOpenException;
 import dev.failsafe.Failsafe;
-import dev.failsafe.RateLimiter;
-import dev.failsafe.RetryPolicy;
+import dev.failsafe.Policy;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.metrics.Metrics;
+import org.apache.kafka.common.utils.Utils;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.errors.ConnectException;
 import org.apache.kafka.connect.sink.ErrantRecordReporter;
 import org.apache.kafka.connect.sink.SinkRecord;
 import org.apache.kafka.connect.sink.SinkTask;
+import org.apache.kafka.connect.storage.Converter;
+import org.apache.kafka.connect.storage.HeaderConverter;
+import org.apache.kafka.connect.storage.SimpleHeaderConverter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.github.clescot.kafka.connect.http.sink.HttpSinkConfigDefinition.DEFAULT_SUCCESS_RESPONSE_CODE_REGEX;
 import static com.github.clescot.kafka.connect.http.sink.client.HttpClient.*;
@@ -46,21 +57,46 @@ public class HttpSinkTask extends SinkTask {
     public static final String HEADER_X_REQUEST_ID = "X-Request-ID";
 
     private HttpClient httpClient;
+    private ExchangeTransport transport;
     private Queue<KafkaRecord> queue;
     private String queueName;
+    private DeliveryOrdering queueSharding = DeliveryOrdering.PARTITION;
+    //null when HTTP exchanges are not published to Kafka by the sink
+    private ExchangePublisher exchangePublisher;
+    //empty when the queue is not journaled
+    private List<ExchangeJournal> journals = Collections.emptyList();
 
     private Map<String, List<String>> staticRequestHeaders;
     private HttpSinkConnectorConfig httpSinkConnectorConfig;
     private ErrantRecordReporter errantRecordReporter;
     private boolean generateMissingCorrelationId;
     private boolean generateMissingRequestId;
-    private RateLimiter<HttpExchange> defaultRateLimiter = RateLimiter.<HttpExchange>smoothBuilder(HttpSinkConfigDefinition.DEFAULT_RATE_LIMITER_MAX_EXECUTIONS_VALUE, Duration.of(HttpSinkConfigDefinition.DEFAULT_RATE_LIMITER_PERIOD_IN_MS_VALUE, ChronoUnit.MILLIS)).build();
-
-    private Optional<RetryPolicy<HttpExchange>> defaultRetryPolicy = Optional.empty();
-
-    private Map<String, Pattern> patternMap = Maps.newHashMap();
-    private String defaultSuccessResponseCodeRegex;
-    private String defaultRetryResponseCodeRegex;
+    private DestinationLimiters destinationLimiters;
+    //null when circuit breakers are disabled
+    private HostCircuitBreakers circuitBreakers;
+
+
+    //retries and throttling delays of async calls are scheduled here, without holding any task thread
+    private static final ScheduledExecutorService ASYNC_SCHEDULER = Executors.newScheduledThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            new ThreadFactoryBuilder().setNameFormat("http-sink-scheduler-%d").setDaemon(true).build());
+
+    private boolean asyncMode;
+    private int maxInFlightRequests;
+    private Semaphore inFlightPermits;
+    private DeliveryOrdering deliveryOrdering = DeliveryOrdering.NONE;
+    private String deliveryOrderingHeader;
+    private LaneDispatcher laneDispatcher;
+    private Metrics metrics;
+    //when set, HTTP exchanges run with blocking calls on this executor, instead of the non-blocking chain
+    private ExecutorService exchangeExecutor;
+    //HTTP exchanges of the non-blocking chain are published here, out of the I/O threads of the HTTP client : publishing may block
+    private ExecutorService publishExecutor;
+    //null when HTTP exchanges are not published to a bounded in memory queue
+    private QueueBackpressure queueBackpressure;
+    private final Map<Object, CompletableFuture<HttpExchange>> lastExchangeByOrderingKey = new ConcurrentHashMap<>();
+    private final OffsetTracker offsetTracker = new OffsetTracker();
+    private final AtomicReference<Throwable> asyncFailure = new AtomicReference<>();
 
     @Override
     public String version() {
@@ -92,30 +128,74 @@ public class HttpSinkTask extends SinkTask {
         this.httpSinkConnectorConfig = new HttpSinkConnectorConfig(HttpSinkConfigDefinition.config(), settings);
 
         this.queueName = httpSinkConnectorConfig.getQueueName();
-        this.queue = QueueFactory.getQueue(queueName);
+        this.transport = QueueFactory.getTransport(httpSinkConnectorConfig.getQueueTransport(), httpSinkConnectorConfig.getQueueTransportAddress());
+        this.queue = transport.publisher(queueName, () -> QueueFactory.acquireQueue(queueName, httpSinkConnectorConfig.getQueueShards(), httpSinkConnectorConfig.getQueueCapacity(), httpSinkConnectorConfig.getQueueOverflowPolicy(), httpSinkConnectorConfig.getQueueSpillSettings(), httpSinkConnectorConfig.getQueueJournalSettings()));
+        this.journals = QueueFactory.getJournals(queueName);
+        this.queueSharding = httpSinkConnectorConfig.getQueueSharding();
         this.staticRequestHeaders = httpSinkConnectorConfig.getStaticRequestHeaders();
         this.generateMissingRequestId = httpSinkConnectorConfig.isGenerateMissingRequestId();
         this.generateMissingCorrelationId = httpSinkConnectorConfig.isGenerateMissingCorrelationId();
-        this.defaultSuccessResponseCodeRegex = httpSinkConnectorConfig.getDefaultSuccessResponseCodeRegex();
-        this.defaultRetryResponseCodeRegex = httpSinkConnectorConfig.getDefaultRetryResponseCodeRegex();
         this.httpClient = new AHCHttpClientFactory().build(httpSinkConnectorConfig.originalsStrings());
-        Integer defaultRetries = httpSinkConnectorConfig.getDefaultRetries();
-        Long defaultRetryDelayInMs = httpSinkConnectorConfig.getDefaultRetryDelayInMs();
-        Long defaultRetryMaxDelayInMs = httpSinkConnectorConfig.getDefaultRetryMaxDelayInMs();
-        Double defaultRetryDelayFactor = httpSinkConnectorConfig.getDefaultRetryDelayFactor();
-        Long defaultRetryJitterInMs = httpSinkConnectorConfig.getDefaultRetryJitterInMs();
-
-        setDefaultRetryPolicy(
-                defaultRetries,
-                defaultRetryDelayInMs,
-                defaultRetryMaxDelayInMs,
-                defaultRetryDelayFactor,
-                defaultRetryJitterInMs
-        );
-        setDefaultRateLimiter(httpSinkConnectorConfig.getDefaultRateLimiterPeriodInMs(),httpSinkConnectorConfig.getDefaultRateLimiterMaxExecutions());
+        //destinations hold the throttling, success, retry and timeout policy of HTTP requests
+        this.destinationLimiters = new DestinationLimiters(
+                httpSinkConnectorConfig.getDestinations(),
+                httpSinkConnectorConfig.getDefaultDestinationSettings(),
+                httpSinkConnectorConfig.isPerHostLimits(),
+                httpSinkConnectorConfig.getLimitersCacheMaxSize(),
+                httpSinkConnectorConfig.getDestinationHeader());
+
+        this.asyncMode = httpSinkConnectorConfig.isAsyncMode();
+        Map<String, String> taskTags = MetricsFactory.taskTags(settings);
+        if (asyncMode || httpSinkConnectorConfig.isCircuitBreakerEnabled() || hasAdaptiveConcurrency()) {
+            this.metrics = MetricsFactory.newMetrics();
+        }
+        if (hasAdaptiveConcurrency()) {
+            destinationLimiters.registerMetrics(metrics, taskTags);
+        }
+        if (asyncMode) {
+            this.maxInFlightRequests = httpSinkConnectorConfig.getAsyncMaxInFlightRequests();
+            this.deliveryOrdering = httpSinkConnectorConfig.getAsyncDeliveryOrdering();
+            this.deliveryOrderingHeader = httpSinkConnectorConfig.getAsyncDeliveryOrderingHeader();
+            LOGGER.info("async mode enabled with {} max in flight requests, and '{}' delivery ordering", maxInFlightRequests, deliveryOrdering);
+            this.inFlightPermits = new Semaphore(maxInFlightRequests);
+            this.exchangeExecutor = ExchangeExecutorFactory.newExchangeExecutor(httpSinkConnectorConfig.getAsyncExchangeExecution(), maxInFlightRequests);
+            if (exchangeExecutor == null) {
+                this.publishExecutor = Executors.newFixedThreadPool(
+                        Math.min(maxInFlightRequests, Runtime.getRuntime().availableProcessors()),
+                        new ThreadFactoryBuilder().setNameFormat("http-sink-publisher-%d").setDaemon(true).build());
+            }
+            if (httpSinkConnectorConfig.getAsyncLanes() > 0) {
+                LOGGER.info("ordering keys are dispatched into {} lanes", httpSinkConnectorConfig.getAsyncLanes());
+                this.laneDispatcher = new LaneDispatcher(httpSinkConnectorConfig.getAsyncLanes(), httpSinkConnectorConfig.getAsyncLaneQueueDepth());
+                laneDispatcher.registerMetrics(metrics, taskTags);
+            }
+        }
+        if (httpSinkConnectorConfig.isCircuitBreakerEnabled()) {
+            LOGGER.info("circuit breakers are open after {} consecutive failed calls to a host, during {} ms", httpSinkConnectorConfig.getCircuitBreakerFailureThreshold(), httpSinkConnectorConfig.getCircuitBreakerDelayInMs());
+            this.circuitBreakers = new HostCircuitBreakers(
+                    httpSinkConnectorConfig.getCircuitBreakerFailureThreshold(),
+                    httpSinkConnectorConfig.getCircuitBreakerDelayInMs(),
+                    httpSinkConnectorConfig.getCircuitBreakerSuccessThreshold(),
+                    httpSinkConnectorConfig.getLimitersCacheMaxSize());
+            circuitBreakers.registerMetrics(metrics, taskTags);
+        }
 
+        if (httpSinkConnectorConfig.isPublishToKafka()) {
+            LOGGER.info("HTTP exchanges are published into the '{}' and '{}' topics", httpSinkConnectorConfig.getPublishSuccessTopic(), httpSinkConnectorConfig.getPublishErrorTopic());
+            this.exchangePublisher = newExchangePublisher();
+        }
         if (httpSinkConnectorConfig.isPublishToInMemoryQueue()) {
-            Preconditions.checkArgument(QueueFactory.hasAConsumer(queueName, httpSinkConnectorConfig.getMaxWaitTimeRegistrationOfQueueConsumerInMs()), "'" + queueName + "' queue hasn't got any consumer, i.e no Source Connector has been configured to consume records published in this in memory queue. we stop the Sink Connector to prevent any OutofMemoryError.");
+            Preconditions.checkArgument(transport.hasAConsumer(queueName, httpSinkConnectorConfig.getMaxWaitTimeRegistrationOfQueueConsumerInMs()), "'" + queueName + "' queue hasn't got any consumer, i.e no Source Connector has been configured to consume records published in this in memory queue. we stop the Sink Connector to prevent any OutofMemoryError.");
+            if (queue instanceof ShardedQueue && OverflowPolicy.SPILL == ((ShardedQueue<KafkaRecord>) queue).getOverflowPolicy()) {
+                //the spill keeps the heap bounded : partitions consumption goes on during a slow source
+                LOGGER.info("HTTP exchanges are spilled to disk when the '{}' queue is full : partitions consumption is never paused", queueName);
+            } else if (queue instanceof ShardedQueue) {
+                int capacity = ((ShardedQueue<KafkaRecord>) queue).capacity();
+                int highWaterMark = Math.max(1, (int) (capacity * httpSinkConnectorConfig.getQueueHighWaterMark()));
+                int lowWaterMark = Math.min(highWaterMark - 1, (int) (capacity * httpSinkConnectorConfig.getQueueLowWaterMark()));
+                LOGGER.info("partitions consumption is paused when the '{}' queue holds {} HTTP exchanges, and resumed under {} HTTP exchanges", queueName, highWaterMark, lowWaterMark);
+                this.queueBackpressure = new QueueBackpressure(queue, highWaterMark, lowWaterMark);
+            }
         }
     }
 
@@ -125,11 +205,20 @@ public class HttpSinkTask extends SinkTask {
     public void put(Collection<SinkRecord> records) {
 
         Preconditions.checkNotNull(records, "records collection to be processed is null");
+        //exceptions thrown by preCommit are only logged : a failed publication fails the task here
+        if (exchangePublisher != null) {
+            exchangePublisher.throwSendFailureIfAny();
+        }
+        //put is also called with no records while partitions are paused
+        applyBackpressure();
         if (records.isEmpty()) {
             return;
         }
         Preconditions.checkNotNull(httpClient, "httpClient is null. 'start' method must be called once before put");
-
+        if (asyncMode) {
+            putAsync(records);
+            return;
+        }
         for (SinkRecord sinkRecord : records) {
             try {
                 // attempt to send record to data sink
@@ -153,7 +242,183 @@ public class HttpSinkTask extends SinkTask {
 
     }
 
-    private void process(SinkRecord sinkRecord) {
+    private void applyBackpressure() {
+        if (queueBackpressure == null) {
+            return;
+        }
+        switch (queueBackpressure.check()) {
+            case PAUSE:
+                Set<TopicPartition> assignment = context.assignment();
+                LOGGER.warn("the '{}' queue holds {} HTTP exchanges or more : consumption of {} is paused", queueName, queueBackpressure.getHighWaterMark(), assignment);
+                context.pause(assignment.toArray(new TopicPartition[0]));
+                break;
+            case RESUME:
+                Set<TopicPartition> pausedPartitions = context.assignment();
+                LOGGER.info("the '{}' queue holds {} HTTP exchanges or less : consumption of {} is resumed", queueName, queueBackpressure.getLowWaterMark(), pausedPartitions);
+                context.resume(pausedPartitions.toArray(new TopicPartition[0]));
+                break;
+            case NONE:
+            default:
+                break;
+        }
+    }
+
+    private void putAsync(Collection<SinkRecord> records) {
+        for (SinkRecord sinkRecord : records) {
+            throwAsyncFailureIfAny();
+            try {
+                inFlightPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ConnectException("interrupted while waiting for an in flight request slot", e);
+            }
+            offsetTracker.pending(sinkRecord);
+            CompletableFuture<HttpExchange> httpExchangeFuture;
+            try {
+                httpExchangeFuture = submitInOrder(sinkRecord);
+            } catch (InterruptedException e) {
+                offsetTracker.completed(sinkRecord);
+                inFlightPermits.release();
+                Thread.currentThread().interrupt();
+                throw new ConnectException("interrupted while waiting for a lane slot", e);
+            }
+            httpExchangeFuture
+                    .whenComplete((result, throwable) -> {
+                        try {
+                            if (throwable == null || reportAsyncError(sinkRecord, throwable)) {
+                                offsetTracker.completed(sinkRecord);
+                            }
+                        } finally {
+                            inFlightPermits.release();
+                        }
+                    });
+        }
+    }
+
+    /**
+     * chain the record exchange after the previous exchange with the same ordering key, if any.
+     */
+    private CompletableFuture<HttpExchange> submitInOrder(SinkRecord sinkRecord) throws InterruptedException {
+        Object orderingKey = deliveryOrdering.orderingKey(sinkRecord, deliveryOrderingHeader);
+        if (orderingKey == null) {
+            return submit(sinkRecord);
+        }
+        if (laneDispatcher != null) {
+            return laneDispatcher.dispatch(orderingKey, () -> submit(sinkRecord));
+        }
+        CompletableFuture<HttpExchange> previous = lastExchangeByOrderingKey.get(orderingKey);
+        CompletableFuture<HttpExchange> current;
+        if (previous == null) {
+            current = submit(sinkRecord);
+        } else {
+            //the previous exchange outcome, successful or not, does not prevent the next one
+            current = previous.handle((httpExchange, throwable) -> sinkRecord)
+                    .thenCompose(this::submit);
+        }
+        lastExchangeByOrderingKey.put(orderingKey, current);
+        current.whenComplete((httpExchange, throwable) -> lastExchangeByOrderingKey.remove(orderingKey, current));
+        return current;
+    }
+
+    /**
+     * @return true if the error has been reported to the Dead Letter Queue, false if the task needs to fail.
+     */
+    private boolean reportAsyncError(SinkRecord sinkRecord, Throwable throwable) {
+        Throwable cause = throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+        if (errantRecordReporter != null) {
+            try {
+                errantRecordReporter.report(sinkRecord, cause).get();
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                cause = e;
+            }
+        }
+        LOGGER.error("Failed on record with offset {} in {}-{}", sinkRecord.kafkaOffset(), sinkRecord.topic(), sinkRecord.kafkaPartition(), cause);
+        asyncFailure.compareAndSet(null, cause);
+        return false;
+    }
+
+    private void throwAsyncFailureIfAny() {
+        Throwable throwable = asyncFailure.get();
+        if (throwable != null) {
+            throw new ConnectException("Failed on record", throwable);
+        }
+    }
+
+    @Override
+    public Map<TopicPartition, OffsetAndMetadata> preCommit(Map<TopicPartition, OffsetAndMetadata> currentOffsets) {
+        Map<TopicPartition, OffsetAndMetadata> committableOffsets;
+        if (asyncMode) {
+            throwAsyncFailureIfAny();
+            //we only commit offsets of records with a finished HTTP exchange
+            committableOffsets = offsetTracker.committableOffsets(currentOffsets.keySet());
+        } else {
+            committableOffsets = super.preCommit(currentOffsets);
+        }
+        //HTTP exchanges of the committed records must be acknowledged, and survive a restart
+        if (exchangePublisher != null) {
+            exchangePublisher.flush();
+        }
+        syncJournals();
+        return committableOffsets;
+    }
+
+    private boolean hasAdaptiveConcurrency() {
+        return httpSinkConnectorConfig.getDefaultDestinationSettings().getAdaptiveConcurrency().isEnabled()
+                || httpSinkConnectorConfig.getDestinations().stream().anyMatch(destination -> destination.getAdaptiveConcurrency().isEnabled());
+    }
+
+    private ExchangePublisher newExchangePublisher() {
+        Converter keyConverter;
+        Converter valueConverter;
+        try {
+            keyConverter = Utils.newInstance(httpSinkConnectorConfig.getPublishKeyConverter(), Converter.class);
+            valueConverter = Utils.newInstance(httpSinkConnectorConfig.getPublishValueConverter(), Converter.class);
+        } catch (ClassNotFoundException e) {
+            throw new ConnectException("converter class of published HTTP exchanges not found", e);
+        }
+        keyConverter.configure(httpSinkConnectorConfig.getPublishKeyConverterSettings(), true);
+        valueConverter.configure(httpSinkConnectorConfig.getPublishValueConverterSettings(), false);
+        HeaderConverter headerConverter = new SimpleHeaderConverter();
+        headerConverter.configure(Maps.newHashMap());
+        return new ExchangePublisher(
+                new KafkaProducer<>(httpSinkConnectorConfig.getPublishProducerSettings()),
+                keyConverter,
+                valueConverter,
+                headerConverter,
+                httpSinkConnectorConfig.getPublishSuccessTopic(),
+                httpSinkConnectorConfig.getPublishErrorTopic());
+    }
+
+    private void syncJournals() {
+        for (ExchangeJournal journal : journals) {
+            journal.sync();
+        }
+    }
+
+    @Override
+    public void open(Collection<TopicPartition> partitions) {
+        //newly assigned partitions are paused too, until the queue is drained
+        if (queueBackpressure != null && queueBackpressure.isPaused()) {
+            context.pause(partitions.toArray(new TopicPartition[0]));
+        }
+    }
+
+    @Override
+    public void close(Collection<TopicPartition> partitions) {
+        offsetTracker.remove(partitions);
+    }
+
+    private CompletableFuture<HttpExchange> submit(SinkRecord sinkRecord) {
+        if (exchangeExecutor != null) {
+            return CompletableFuture.supplyAsync(() -> process(sinkRecord), exchangeExecutor);
+        }
+        return processAsync(sinkRecord);
+    }
+
+    private HttpExchange process(SinkRecord sinkRecord) {
         if (sinkRecord.value() == null) {
             throw new ConnectException("sinkRecord Value is null :" + sinkRecord);
         }
@@ -161,44 +426,147 @@ public class HttpSinkTask extends SinkTask {
         HttpRequest httpRequest = buildHttpRequest(sinkRecord);
         HttpRequest httpRequestWithStaticHeaders = addStaticHeaders(httpRequest);
         HttpRequest httpRequestWithTrackingHeaders = addTrackingHeaders(httpRequestWithStaticHeaders);
+        DestinationLimiter destination = destinationLimiters.get(httpRequestWithTrackingHeaders);
+        addTimeoutHeaders(httpRequestWithTrackingHeaders, destination.getSettings().getPolicy());
         //handle Request and Response
-        HttpExchange httpExchange = callWithRetryPolicy(sinkRecord,httpRequestWithTrackingHeaders, defaultRetryPolicy);
+        HttpExchange httpExchange = callWithRetryPolicy(sinkRecord,httpRequestWithTrackingHeaders, destination);
         LOGGER.debug("HTTP exchange :{}", httpExchange);
+        return httpExchange;
     }
 
-    private HttpExchange callWithRetryPolicy(SinkRecord sinkRecord,HttpRequest httpRequest, Optional<RetryPolicy<HttpExchange>> retryPolicyForCall) {
+    private CompletableFuture<HttpExchange> processAsync(SinkRecord sinkRecord) {
+        try {
+            if (sinkRecord.value() == null) {
+                throw new ConnectException("sinkRecord Value is null :" + sinkRecord);
+            }
+            //build HttpRequest
+            HttpRequest httpRequest = buildHttpRequest(sinkRecord);
+            HttpRequest httpRequestWithStaticHeaders = addStaticHeaders(httpRequest);
+            HttpRequest httpRequestWithTrackingHeaders = addTrackingHeaders(httpRequestWithStaticHeaders);
+            DestinationLimiter destination = destinationLimiters.get(httpRequestWithTrackingHeaders);
+            addTimeoutHeaders(httpRequestWithTrackingHeaders, destination.getSettings().getPolicy());
+            //handle Request and Response
+            return callWithRetryPolicyAsync(sinkRecord, httpRequestWithTrackingHeaders, destination)
+                    .whenComplete((httpExchange, throwable) -> LOGGER.debug("HTTP exchange :{}", httpExchange));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<HttpExchange> callWithRetryPolicyAsync(SinkRecord sinkRecord, HttpRequest httpRequest, DestinationLimiter destination) {
+        if (httpRequest == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        AtomicInteger attempts = new AtomicInteger();
+        attempts.addAndGet(ONE_HTTP_REQUEST);
+        DestinationPolicy policy = destination.getSettings().getPolicy();
+        //retries are scheduled without blocking any thread during the delay between two attempts
+        CompletableFuture<HttpExchange> httpExchangeFuture = Failsafe.with(policies(httpRequest, policy))
+                .with(ASYNC_SCHEDULER)
+                .getStageAsync(() -> callAndPublishAsync(sinkRecord, httpRequest, attempts, destination)
+                        .thenApply(httpExchange -> handleRetry(httpExchange, policy)));
+        //the fallback runs on a scheduler or an HTTP client thread : the HTTP exchange failed fast is published on the publishing threads
+        return httpExchangeFuture
+                .handle((httpExchange, throwable) -> {
+                    if (throwable == null) {
+                        return CompletableFuture.completedFuture(httpExchange);
+                    }
+                    if (isCircuitBreakerOpen(throwable)) {
+                        HttpExchange failedFastHttpExchange = circuitBreakerOpenHttpExchange(httpRequest, attempts);
+                        return CompletableFuture.supplyAsync(() -> publish(sinkRecord, failedFastHttpExchange, policy), publishExecutor);
+                    }
+                    try {
+                        return CompletableFuture.completedFuture(failedHttpExchange(sinkRecord, httpRequest, attempts, policy, throwable));
+                    } catch (RuntimeException e) {
+                        return CompletableFuture.<HttpExchange>failedFuture(e);
+                    }
+                })
+                .thenCompose(httpExchangeStage -> httpExchangeStage);
+    }
+
+    private HttpExchange callWithRetryPolicy(SinkRecord sinkRecord,HttpRequest httpRequest, DestinationLimiter destination) {
         HttpExchange httpExchange = null;
 
         if (httpRequest != null) {
             AtomicInteger attempts = new AtomicInteger();
+            DestinationPolicy policy = destination.getSettings().getPolicy();
             try {
                 attempts.addAndGet(ONE_HTTP_REQUEST);
-                if (retryPolicyForCall.isPresent()) {
-                    httpExchange = Failsafe.with(List.of(retryPolicyForCall.get()))
-                            .get(() -> {
-                                HttpExchange httpExchange1 = callAndPublish(sinkRecord,httpRequest, attempts);
-                                return handleRetry(httpExchange1);
-                            });
-                } else {
-                    return callAndPublish(sinkRecord,httpRequest, attempts);
-                }
+                httpExchange = Failsafe.with(policies(httpRequest, policy))
+                        .get(() -> {
+                            HttpExchange httpExchange1 = callAndPublish(sinkRecord,httpRequest, attempts, destination);
+                            return handleRetry(httpExchange1, policy);
+                        });
             } catch (Throwable throwable) {
-                LOGGER.error("Failed to call web service after {} retries with error({}). message:{} ", attempts, throwable,
-                        throwable.getMessage());
-                return httpClient.buildHttpExchange(
-                        httpRequest,
-                        new HttpResponse(SERVER_ERROR_STATUS_CODE, String.valueOf(throwable.getMessage()), BLANK_RESPONSE_CONTENT),
-                        Stopwatch.createUnstarted(), OffsetDateTime.now(ZoneId.of(UTC_ZONE_ID)),
-                        attempts,
-                        FAILURE);
+                return failedHttpExchange(sinkRecord, httpRequest, attempts, policy, throwable);
             }
         }
         return httpExchange;
     }
 
-    private HttpExchange handleRetry(HttpExchange httpExchange){
+    /**
+     * the circuit breaker of the host is the innermost policy : it records each attempt, and calls failed fast are not retried.
+     */
+    private List<Policy<HttpExchange>> policies(HttpRequest httpRequest, DestinationPolicy policy) {
+        if (circuitBreakers == null) {
+            return List.of(policy.getRetryPolicy());
+        }
+        return List.of(policy.getRetryPolicy(), circuitBreakers.get(httpRequest.getUrl()));
+    }
+
+    /**
+     * @throws ConnectException if the HTTP request has not been sent, without any concurrent request slot released in time,
+     * or if the HTTP exchange has not been published to the queue :
+     * the record is reported to the Dead Letter Queue, or fails the task, and its offset is not committed.
+     */
+    private HttpExchange failedHttpExchange(SinkRecord sinkRecord, HttpRequest httpRequest, AtomicInteger attempts, DestinationPolicy policy, Throwable throwable) {
+        Throwable cause = cause(throwable);
+        if (cause instanceof ConnectException) {
+            throw (ConnectException) cause;
+        }
+        if (cause instanceof BulkheadFullException) {
+            throw new ConnectException("no concurrent request slot released in time : HTTP request to '" + httpRequest.getUrl() + "' not sent", cause);
+        }
+        if (cause instanceof CircuitBreakerOpenException) {
+            //the HTTP exchange failed fast is published like any failed HTTP exchange, i.e into the error topic
+            return publish(sinkRecord, circuitBreakerOpenHttpExchange(httpRequest, attempts), policy);
+        }
+        LOGGER.error("Failed to call web service after {} retries with error({}). message:{} ", attempts, throwable,
+                throwable.getMessage());
+        return httpClient.buildHttpExchange(
+                httpRequest,
+                new HttpResponse(SERVER_ERROR_STATUS_CODE, String.valueOf(throwable.getMessage()), BLANK_RESPONSE_CONTENT),
+                Stopwatch.createUnstarted(), OffsetDateTime.now(ZoneId.of(UTC_ZONE_ID)),
+                attempts,
+                FAILURE);
+    }
+
+    private static Throwable cause(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+    }
+
+    private boolean isCircuitBreakerOpen(Throwable throwable) {
+        return cause(throwable) instanceof CircuitBreakerOpenException;
+    }
+
+    /**
+     * @return the HTTP exchange of a request not sent, as the circuit breaker of its host is open.
+     */
+    private HttpExchange circuitBreakerOpenHttpExchange(HttpRequest httpRequest, AtomicInteger attempts) {
+        String host = HostCircuitBreakers.host(httpRequest.getUrl());
+        LOGGER.warn("circuit breaker of the '{}' host is open : HTTP request not sent", host);
+        circuitBreakers.rejected(httpRequest.getUrl());
+        return httpClient.buildHttpExchange(
+                httpRequest,
+                new HttpResponse(CIRCUIT_BREAKER_OPEN_STATUS_CODE, "circuit breaker open for '" + host + "'", BLANK_RESPONSE_CONTENT),
+                Stopwatch.createUnstarted(), OffsetDateTime.now(ZoneId.of(UTC_ZONE_ID)),
+                attempts,
+                FAILURE);
+    }
+
+    private HttpExchange handleRetry(HttpExchange httpExchange, DestinationPolicy policy){
         //we don't retry success HTTP Exchange
-        boolean responseCodeImpliesRetry = retryNeeded(httpExchange.getHttpResponse());
+        boolean responseCodeImpliesRetry = policy.retryNeeded(httpExchange.getHttpResponse().getStatusCode());
         LOGGER.debug("httpExchange success :'{}'",httpExchange.isSuccess());
         LOGGER.debug("response code('{}') implies retry:'{}'",httpExchange.getHttpResponse().getStatusCode(),""+responseCodeImpliesRetry);
         if(!httpExchange.isSuccess()
@@ -207,27 +575,16 @@ public class HttpSinkTask extends SinkTask {
         }
         return httpExchange;
     }
-    private Pattern getPattern(String pattern) {
-
-        if (this.patternMap.get(pattern) == null) {
-            //Pattern.compile should be reused for performance, but wsSuccessCode can change....
-            Pattern httpSuccessPattern = Pattern.compile(pattern);
-            patternMap.put(pattern, httpSuccessPattern);
-        }
-        return patternMap.get(pattern);
-    }
+    /**
+     * @return true if the status code of the response implies a retry, with the default policy.
+     */
     protected boolean retryNeeded(HttpResponse httpResponse){
-        //TODO add specific pattern per site
-        Pattern retryPattern = getPattern(this.defaultRetryResponseCodeRegex);
-        Matcher matcher = retryPattern.matcher("" + httpResponse.getStatusCode());
-        return matcher.matches();
+        return destinationLimiters.getDefaultSettings().getPolicy().retryNeeded(httpResponse.getStatusCode());
     }
 
-    private HttpExchange callWithThrottling(HttpRequest httpRequest, AtomicInteger attempts){
+    private HttpExchange callWithThrottling(HttpRequest httpRequest, AtomicInteger attempts, DestinationLimiter destination){
         try {
-            this.defaultRateLimiter.acquirePermits(ONE_HTTP_REQUEST);
-            LOGGER.debug("permits acquired");
-            return httpClient.call(httpRequest,attempts);
+            return destination.call(() -> httpClient.call(httpRequest, attempts));
         } catch (InterruptedException e) {
             LOGGER.error("Failed to acquire execution permit from the rate limiter {} ", e.getMessage());
             throw new HttpException(e.getMessage());
@@ -235,25 +592,77 @@ public class HttpSinkTask extends SinkTask {
     }
 
 
-    private HttpExchange callAndPublish(SinkRecord sinkRecord,HttpRequest httpRequest,AtomicInteger attempts){
-        HttpExchange httpExchange = callWithThrottling(httpRequest, attempts);
-        //TODO add specific pattern per site
-        boolean success = isSuccess(httpExchange);
+    private CompletableFuture<HttpExchange> callWithThrottlingAsync(HttpRequest httpRequest, AtomicInteger attempts, DestinationLimiter destination) {
+        return destination.callAsync(() -> httpClient.callAsync(httpRequest, attempts).toCompletableFuture(), ASYNC_SCHEDULER);
+    }
+
+    private CompletableFuture<HttpExchange> callAndPublishAsync(SinkRecord sinkRecord, HttpRequest httpRequest, AtomicInteger attempts, DestinationLimiter destination) {
+        //the response completes on an I/O thread of the HTTP client, which must not wait for a full queue or a Kafka producer
+        return callWithThrottlingAsync(httpRequest, attempts, destination)
+                .thenApplyAsync(httpExchange -> publish(sinkRecord, httpExchange, destination.getSettings().getPolicy()), publishExecutor);
+    }
+
+    private HttpExchange callAndPublish(SinkRecord sinkRecord,HttpRequest httpRequest,AtomicInteger attempts, DestinationLimiter destination){
+        HttpExchange httpExchange = callWithThrottling(httpRequest, attempts, destination);
+        return publish(sinkRecord, httpExchange, destination.getSettings().getPolicy());
+    }
+
+    private HttpExchange publish(SinkRecord sinkRecord, HttpExchange httpExchange, DestinationPolicy policy) {
+        boolean success = policy.isSuccess(httpExchange.getHttpResponse().getStatusCode());
         httpExchange.setSuccess(success);
+        if (exchangePublisher != null) {
+            exchangePublisher.publish(sinkRecord, httpExchange);
+        }
         //publish eventually to 'in memory' queue
         if (httpSinkConnectorConfig.isPublishToInMemoryQueue()) {
             LOGGER.debug("http exchange published to queue '{}':{}",queueName, httpExchange);
-            queue.offer(new KafkaRecord(sinkRecord.headers(),sinkRecord.keySchema(),sinkRecord.key(),httpExchange));
+            boolean offered;
+            try {
+                offered = offer(sinkRecord, new KafkaRecord(sinkRecord.headers(),sinkRecord.keySchema(),sinkRecord.key(),httpExchange));
+            } catch (RuntimeException e) {
+                //a queue shared with a remote source (socket transport), or journaled, may fail : the record must not be committed
+                throw new ConnectException("http exchange NOT published to queue '" + queueName + "'", e);
+            }
+            if (!offered) {
+                //the queue refuses an HTTP exchange only when interrupted while waiting for a free slot : the record must not be committed
+                Thread.currentThread().interrupt();
+                throw new ConnectException("http exchange NOT published to queue '" + queueName + "' (interrupted while waiting for a free slot)");
+            }
         } else {
             LOGGER.debug("http exchange NOT published to queue '{}':{}",queueName, httpExchange);
         }
         return httpExchange;
     }
 
+    private boolean offer(SinkRecord sinkRecord, KafkaRecord kafkaRecord) {
+        if (queue instanceof ShardedQueue && ((ShardedQueue<KafkaRecord>) queue).shardCount() > 1) {
+            //records without partition or key are spread over the shards
+            boolean shardable = DeliveryOrdering.PARTITION != queueSharding || sinkRecord.kafkaPartition() != null;
+            Object shardKey = shardable ? queueSharding.orderingKey(sinkRecord, null) : null;
+            if (shardKey != null) {
+                return ((ShardedQueue<KafkaRecord>) queue).offer(kafkaRecord, shardKey.hashCode());
+            }
+        }
+        return queue.offer(kafkaRecord);
+    }
+
+    /**
+     * @return true if the status code of the response is a success, with the default policy.
+     */
     protected boolean isSuccess(HttpExchange httpExchange) {
-        Pattern pattern = getPattern(this.defaultSuccessResponseCodeRegex);
-        boolean success = pattern.matcher(httpExchange.getHttpResponse().getStatusCode() + "").matches();
-        return success;
+        return destinationLimiters.getDefaultSettings().getPolicy().isSuccess(httpExchange.getHttpResponse().getStatusCode());
+    }
+
+    /**
+     * timeouts of the destination policy are set with the request headers read by the HTTP client, unless already set in the request.
+     */
+    private void addTimeoutHeaders(HttpRequest httpRequest, DestinationPolicy policy) {
+        if (policy.getRequestTimeoutInMs() != null) {
+            httpRequest.getHeaders().putIfAbsent(AHCHttpClient.WS_REQUEST_TIMEOUT_IN_MS, Lists.newArrayList(String.valueOf(policy.getRequestTimeoutInMs())));
+        }
+        if (policy.getReadTimeoutInMs() != null) {
+            httpRequest.getHeaders().putIfAbsent(AHCHttpClient.WS_READ_TIMEOUT_IN_MS, Lists.newArrayList(String.valueOf(policy.getReadTimeoutInMs())));
+        }
     }
 
 
@@ -352,6 +761,47 @@ public class HttpSinkTask extends SinkTask {
     @Override
     public void stop() {
         //Producer are stopped in connector stop
+        if (asyncMode) {
+            //we wait for in flight HTTP exchanges
+            try {
+                if (inFlightPermits.tryAcquire(maxInFlightRequests, 30, TimeUnit.SECONDS)) {
+                    inFlightPermits.release(maxInFlightRequests);
+                } else {
+                    LOGGER.warn("{} HTTP exchanges are still in flight after 30 seconds, they will be sent again after restart", offsetTracker.inFlightCount());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (exchangeExecutor != null) {
+            exchangeExecutor.shutdownNow();
+        }
+        if (publishExecutor != null) {
+            publishExecutor.shutdownNow();
+        }
+        syncJournals();
+        if (exchangePublisher != null) {
+            exchangePublisher.close();
+        }
+        if (queue instanceof SocketExchangeQueue) {
+            ((SocketExchangeQueue) queue).close();
+        } else if (queueName != null) {
+            QueueFactory.releaseQueue(queueName);
+        }
+        if (metrics != null) {
+            metrics.close();
+        }
+    }
+
+    /**
+     * replace the rate limiter of the default destination.
+     * @deprecated rate limits are set per destination : use the 'default.rate.limiter.*' and 'destination.&lt;id&gt;.rate.limiter.*' parameters.
+     */
+    @Deprecated
+    public void setDefaultRateLimiter(long periodInMs, long maxExecutions) {
+        Preconditions.checkState(destinationLimiters != null, "'start' method must be called once before setting the default rate limiter");
+        LOGGER.info("default rate limiter set with  {} executions every {} ms", maxExecutions, periodInMs);
+        destinationLimiters.setDefaultRateLimiter(periodInMs, maxExecutions);
     }
 
     //for testing purpose
@@ -365,35 +815,13 @@ public class HttpSinkTask extends SinkTask {
         return Maps.newHashMap(staticRequestHeaders);
     }
 
-    protected void setQueue(Queue<KafkaRecord> queue) {
-        this.queue = queue;
+    //for testing purpose
+    protected void setExchangePublisher(ExchangePublisher exchangePublisher) {
+        this.exchangePublisher = exchangePublisher;
     }
 
-
-    public void setDefaultRateLimiter(long periodInMs, long maxExecutions) {
-        LOGGER.info("default rate limiter set with  {} executions every {} ms",maxExecutions,periodInMs);
-        this.defaultRateLimiter = RateLimiter.<HttpExchange>smoothBuilder(maxExecutions, Duration.of(periodInMs, ChronoUnit.MILLIS)).build();
-    }
-
-    private void setDefaultRetryPolicy(Integer retries, Long retryDelayInMs, Long retryMaxDelayInMs, Double retryDelayFactor, Long retryJitterInMs) {
-        this.defaultRetryPolicy = Optional.of(buildRetryPolicy(retries, retryDelayInMs, retryMaxDelayInMs, retryDelayFactor, retryJitterInMs));
-    }
-
-    private RetryPolicy<HttpExchange> buildRetryPolicy(Integer retries,
-                                                       Long retryDelayInMs,
-                                                       Long retryMaxDelayInMs,
-                                                       Double retryDelayFactor,
-                                                       Long retryJitterInMs) {
-        return RetryPolicy.<HttpExchange>builder()
-                //we retry only if the error comes from the WS server (server-side technical error)
-                .handle(HttpException.class)
-                .withBackoff(Duration.ofMillis(retryDelayInMs), Duration.ofMillis(retryMaxDelayInMs), retryDelayFactor)
-                .withJitter(Duration.ofMillis(retryJitterInMs))
-                .withMaxRetries(retries)
-                .onRetry(listener -> LOGGER.warn("Retry ws call result:{}, failure:{}", listener.getLastResult(), listener.getLastException()))
-                .onFailure(listener -> LOGGER.warn("ws call failed ! result:{},exception:{}", listener.getResult(), listener.getException()))
-                .onAbort(listener -> LOGGER.warn("ws call aborted ! result:{},exception:{}", listener.getResult(), listener.getException()))
-                .build();
+    protected void setQueue(Queue<KafkaRecord> queue) {
+        this.queue = queue;
     }
 
 }
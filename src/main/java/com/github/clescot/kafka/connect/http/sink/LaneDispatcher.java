@@ -0,0 +1,95 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.github.clescot.kafka.connect.http.HttpExchange;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Maps;
+import org.apache.kafka.common.metrics.Gauge;
+import org.apache.kafka.common.metrics.Metrics;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * dispatch HTTP exchanges into a fixed number of lanes, chosen by hashing an ordering key.
+ * Each lane sends its exchanges one after the other, and lanes run concurrently :
+ * exchanges with the same ordering key are ordered, with a bounded parallelism.
+ * A lane holds at most 'queueDepth' exchanges (running or waiting) : the caller is blocked when the lane is full.
+ * Exchanges are dispatched from one thread (the task thread), and completed from any thread.
+ */
+public class LaneDispatcher {
+    public static final String LANES_METRIC_GROUP = "http-sink-lanes";
+    private static final String LANE_TAG = "lane";
+
+    private final Lane[] lanes;
+
+    public LaneDispatcher(int laneCount, int queueDepth) {
+        Preconditions.checkArgument(laneCount > 0, "lane count must be a positive integer");
+        Preconditions.checkArgument(queueDepth > 0, "lane queue depth must be a positive integer");
+        this.lanes = new Lane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new Lane(queueDepth);
+        }
+    }
+
+    /**
+     * @param orderingKey key of the record. exchanges with the same key are sent in the same lane.
+     * @param exchange starts the HTTP exchange, when all previous exchanges of the lane are finished.
+     * @return the HTTP exchange outcome.
+     */
+    public CompletableFuture<HttpExchange> dispatch(Object orderingKey, Supplier<CompletableFuture<HttpExchange>> exchange) throws InterruptedException {
+        Lane lane = lanes[laneIndex(orderingKey)];
+        lane.slots.acquire();
+        lane.occupancy.incrementAndGet();
+        //the previous exchange outcome, successful or not, does not prevent the next one
+        CompletableFuture<HttpExchange> current = lane.tail
+                .handle((httpExchange, throwable) -> (Void) null)
+                .thenCompose(ignored -> exchange.get());
+        lane.tail = current;
+        current.whenComplete((httpExchange, throwable) -> {
+            lane.occupancy.decrementAndGet();
+            lane.slots.release();
+        });
+        return current;
+    }
+
+    protected int laneIndex(Object orderingKey) {
+        return Math.floorMod(orderingKey.hashCode(), lanes.length);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    public int getOccupancy(int laneIndex) {
+        return lanes[laneIndex].occupancy.get();
+    }
+
+    public void registerMetrics(Metrics metrics, Map<String, String> tags) {
+        for (int i = 0; i < lanes.length; i++) {
+            Map<String, String> laneTags = Maps.newHashMap(tags);
+            laneTags.put(LANE_TAG, String.valueOf(i));
+            Lane lane = lanes[i];
+            metrics.addMetric(metrics.metricName("lane-occupancy", LANES_METRIC_GROUP, "number of HTTP exchanges running or waiting in the lane", laneTags),
+                    (Gauge<Integer>) (config, now) -> lane.occupancy.get());
+        }
+        metrics.addMetric(metrics.metricName("lanes-occupancy-max", LANES_METRIC_GROUP, "occupancy of the most loaded lane", tags),
+                (Gauge<Integer>) (config, now) -> Arrays.stream(lanes).mapToInt(lane -> lane.occupancy.get()).max().orElse(0));
+        metrics.addMetric(metrics.metricName("lanes-busy", LANES_METRIC_GROUP, "number of lanes with at least one HTTP exchange", tags),
+                (Gauge<Long>) (config, now) -> Arrays.stream(lanes).filter(lane -> lane.occupancy.get() > 0).count());
+    }
+
+    private static class Lane {
+        private final Semaphore slots;
+        private final AtomicInteger occupancy = new AtomicInteger();
+        //only updated from the dispatching thread
+        private volatile CompletableFuture<HttpExchange> tail = CompletableFuture.completedFuture(null);
+
+        private Lane(int queueDepth) {
+            this.slots = new Semaphore(queueDepth);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.google.common.collect.Maps;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * track offsets of records sent asynchronously, to commit only offsets of finished HTTP exchanges.
+ * For each partition, the committable offset is the lowest offset not yet finished,
+ * or the offset following the highest offset submitted if all exchanges are finished.
+ * records are submitted from the task thread, and completed from any thread.
+ */
+public class OffsetTracker {
+
+    private final Map<TopicPartition, PartitionOffsets> partitions = new ConcurrentHashMap<>();
+
+    public void pending(SinkRecord sinkRecord) {
+        TopicPartition topicPartition = new TopicPartition(sinkRecord.topic(), sinkRecord.kafkaPartition());
+        partitions.computeIfAbsent(topicPartition, tp -> new PartitionOffsets()).pending(sinkRecord.kafkaOffset());
+    }
+
+    public void completed(SinkRecord sinkRecord) {
+        TopicPartition topicPartition = new TopicPartition(sinkRecord.topic(), sinkRecord.kafkaPartition());
+        PartitionOffsets partitionOffsets = partitions.get(topicPartition);
+        if (partitionOffsets != null) {
+            partitionOffsets.completed(sinkRecord.kafkaOffset());
+        }
+    }
+
+    /**
+     * @param assignedPartitions partitions owned by the task.
+     * @return offsets which can be committed safely, i.e offsets with all previous records exchanges finished.
+     */
+    public Map<TopicPartition, OffsetAndMetadata> committableOffsets(Collection<TopicPartition> assignedPartitions) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = Maps.newHashMap();
+        for (TopicPartition topicPartition : assignedPartitions) {
+            PartitionOffsets partitionOffsets = partitions.get(topicPartition);
+            if (partitionOffsets != null) {
+                long committableOffset = partitionOffsets.committableOffset();
+                if (committableOffset >= 0) {
+                    offsets.put(topicPartition, new OffsetAndMetadata(committableOffset));
+                }
+            }
+        }
+        return offsets;
+    }
+
+    public int inFlightCount() {
+        return partitions.values().stream().mapToInt(PartitionOffsets::inFlightCount).sum();
+    }
+
+    public void remove(Collection<TopicPartition> topicPartitions) {
+        topicPartitions.forEach(partitions::remove);
+    }
+
+    private static class PartitionOffsets {
+        private final ConcurrentSkipListSet<Long> inFlight = new ConcurrentSkipListSet<>();
+        private volatile long highestSubmitted = -1L;
+
+        private void pending(long offset) {
+            inFlight.add(offset);
+            if (offset > highestSubmitted) {
+                highestSubmitted = offset;
+            }
+        }
+
+        private void completed(long offset) {
+            inFlight.remove(offset);
+        }
+
+        private long committableOffset() {
+            //highestSubmitted is read before in flight offsets, to not commit a record submitted meanwhile
+            long highest = highestSubmitted;
+            try {
+                return inFlight.first();
+            } catch (NoSuchElementException e) {
+                return highest < 0 ? -1L : highest + 1;
+            }
+        }
+
+        private int inFlightCount() {
+            return inFlight.size();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Queue;
+
+/**
+ * hysteresis between a high and a low water mark of the in memory queue :
+ * the sink pauses the consumption of its partitions when the queue depth reaches the high water mark,
+ * and resumes it when the source has consumed enough HTTP exchanges to reach the low water mark.
+ * Only used from the task thread.
+ */
+public class QueueBackpressure {
+
+    public enum Transition {
+        PAUSE,
+        RESUME,
+        NONE
+    }
+
+    private final Queue<?> queue;
+    private final int highWaterMark;
+    private final int lowWaterMark;
+    private boolean paused;
+
+    /**
+     * @param highWaterMark queue depth from which consumption is paused.
+     * @param lowWaterMark queue depth under which consumption is resumed.
+     */
+    public QueueBackpressure(Queue<?> queue, int highWaterMark, int lowWaterMark) {
+        Preconditions.checkNotNull(queue, "queue cannot be null");
+        Preconditions.checkArgument(highWaterMark > 0, "high water mark must be a positive number");
+        Preconditions.checkArgument(lowWaterMark >= 0 && lowWaterMark < highWaterMark, "low water mark must be lower than the high water mark");
+        this.queue = queue;
+        this.highWaterMark = highWaterMark;
+        this.lowWaterMark = lowWaterMark;
+    }
+
+    /**
+     * @return the transition to apply to the partitions consumption, according to the current queue depth.
+     */
+    public Transition check() {
+        int depth = queue.size();
+        if (!paused && depth >= highWaterMark) {
+            paused = true;
+            return Transition.PAUSE;
+        }
+        if (paused && depth <= lowWaterMark) {
+            paused = false;
+            return Transition.RESUME;
+        }
+        return Transition.NONE;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    public int getLowWaterMark() {
+        return lowWaterMark;
+    }
+}
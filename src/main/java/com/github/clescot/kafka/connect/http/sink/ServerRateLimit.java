@@ -0,0 +1,182 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.github.clescot.kafka.connect.http.HttpResponse;
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * calls quota announced by a destination in its responses :
+ * <ul>
+ *     <li>after a 429 or 503 response with a 'Retry-After' header, calls are suspended until the moment given by this header,</li>
+ *     <li>with 'X-RateLimit-Remaining' and 'X-RateLimit-Reset' headers (or their 'RateLimit-Remaining' and 'RateLimit-Reset' counterparts),
+ *     the remaining calls are spread over the time left until the reset, and calls are suspended until the reset when no call remains.</li>
+ * </ul>
+ * Calls reserve their moment with {@link #reserve(long)}, in addition to the rate limiter of the destination.
+ * A call never waits more than the max wait time, whatever the moment asked by the destination.
+ */
+public class ServerRateLimit {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServerRateLimit.class);
+    public static final String RETRY_AFTER = "Retry-After";
+    public static final String X_RATE_LIMIT_REMAINING = "X-RateLimit-Remaining";
+    public static final String X_RATE_LIMIT_RESET = "X-RateLimit-Reset";
+    public static final String RATE_LIMIT_REMAINING = "RateLimit-Remaining";
+    public static final String RATE_LIMIT_RESET = "RateLimit-Reset";
+    private static final int TOO_MANY_REQUESTS_STATUS_CODE = 429;
+    private static final int SERVICE_UNAVAILABLE_STATUS_CODE = 503;
+    //reset values above this one are epoch milliseconds
+    private static final long EPOCH_MILLIS_THRESHOLD = 1_000_000_000_000L;
+    //reset values above this one are epoch seconds, and below, delays in seconds
+    private static final long EPOCH_SECONDS_THRESHOLD = 1_000_000_000L;
+    //delays asked beyond this one are misread or erroneous headers, and are ignored
+    private static final long MAX_SERVER_DELAY_IN_MS = TimeUnit.DAYS.toMillis(1);
+
+    private final long maxWaitInMs;
+    //guarded by this
+    private long suspendedUntilInMs;
+    private long spacingUntilInMs;
+    private long spacingInMs;
+    private long lastCallInMs;
+
+    /**
+     * @param maxWaitInMs max wait time of a call.
+     */
+    public ServerRateLimit(long maxWaitInMs) {
+        Preconditions.checkArgument(maxWaitInMs >= 0, "max wait time cannot be negative");
+        this.maxWaitInMs = maxWaitInMs;
+    }
+
+    /**
+     * read the calls quota announced by a response of the destination.
+     */
+    public synchronized void update(HttpResponse httpResponse, long nowInMs) {
+        Duration retryAfter = retryAfter(httpResponse, nowInMs);
+        if (retryAfter != null) {
+            suspend(nowInMs, nowInMs + retryAfter.toMillis());
+        }
+        Long remaining = longHeader(httpResponse, X_RATE_LIMIT_REMAINING, RATE_LIMIT_REMAINING);
+        Long resetInMs = reset(httpResponse, nowInMs);
+        if (remaining == null || resetInMs == null || resetInMs <= nowInMs) {
+            return;
+        }
+        if (remaining <= 0) {
+            suspend(nowInMs, resetInMs);
+        } else {
+            spacingInMs = Math.min(maxWaitInMs, (resetInMs - nowInMs) / remaining);
+            spacingUntilInMs = resetInMs;
+        }
+    }
+
+    private void suspend(long nowInMs, long untilInMs) {
+        suspendedUntilInMs = Math.max(suspendedUntilInMs, Math.min(untilInMs, nowInMs + maxWaitInMs));
+    }
+
+    /**
+     * reserve the moment of a call.
+     * @return the time in milliseconds to wait before the call.
+     */
+    public synchronized long reserve(long nowInMs) {
+        long callInMs = Math.max(nowInMs, suspendedUntilInMs);
+        if (callInMs < spacingUntilInMs) {
+            callInMs = Math.max(callInMs, lastCallInMs + spacingInMs);
+        }
+        callInMs = Math.min(callInMs, nowInMs + maxWaitInMs);
+        lastCallInMs = callInMs;
+        return callInMs - nowInMs;
+    }
+
+    /**
+     * @return the delay asked by a 429 or 503 response with a 'Retry-After' header (a number of seconds, or an HTTP date),
+     * or null without such a header, or when the delay is longer than one day.
+     */
+    public static Duration retryAfter(HttpResponse httpResponse, long nowInMs) {
+        if (httpResponse == null
+                || (httpResponse.getStatusCode() != TOO_MANY_REQUESTS_STATUS_CODE && httpResponse.getStatusCode() != SERVICE_UNAVAILABLE_STATUS_CODE)) {
+            return null;
+        }
+        String value = header(httpResponse.getResponseHeaders(), RETRY_AFTER);
+        if (value == null) {
+            return null;
+        }
+        long delayInMs;
+        try {
+            long seconds = Long.parseLong(value);
+            delayInMs = seconds > MAX_SERVER_DELAY_IN_MS / 1000 ? Long.MAX_VALUE : Math.max(0, seconds * 1000);
+        } catch (NumberFormatException e) {
+            try {
+                long dateInMs = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+                delayInMs = Math.max(0, dateInMs - nowInMs);
+            } catch (DateTimeParseException dateTimeParseException) {
+                return null;
+            }
+        }
+        if (delayInMs > MAX_SERVER_DELAY_IN_MS) {
+            LOGGER.warn("'{}' header ignored : '{}' is more than one day away", RETRY_AFTER, value);
+            return null;
+        }
+        return Duration.ofMillis(delayInMs);
+    }
+
+    /**
+     * @return the moment in epoch milliseconds of the quota reset, or null without reset header, or when the reset is more than one day away.
+     * The reset header holds epoch milliseconds, epoch seconds, or a delay in seconds.
+     */
+    private static Long reset(HttpResponse httpResponse, long nowInMs) {
+        Long reset = longHeader(httpResponse, X_RATE_LIMIT_RESET, RATE_LIMIT_RESET);
+        if (reset == null || reset < 0) {
+            return null;
+        }
+        long resetInMs;
+        if (reset >= EPOCH_MILLIS_THRESHOLD) {
+            resetInMs = reset;
+        } else if (reset >= EPOCH_SECONDS_THRESHOLD) {
+            resetInMs = reset * 1000;
+        } else {
+            resetInMs = nowInMs + reset * 1000;
+        }
+        if (resetInMs - nowInMs > MAX_SERVER_DELAY_IN_MS) {
+            LOGGER.warn("rate limit reset header ignored : '{}' is more than one day away", reset);
+            return null;
+        }
+        return resetInMs;
+    }
+
+    private static Long longHeader(HttpResponse httpResponse, String name, String alternativeName) {
+        Map<String, List<String>> headers = httpResponse.getResponseHeaders();
+        String value = header(headers, name);
+        if (value == null) {
+            value = header(headers, alternativeName);
+        }
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the first value of the header, whatever its case, or null.
+     */
+    private static String header(Map<String, List<String>> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, List<String>> entry : headers.entrySet()) {
+            if (name.equalsIgnoreCase(entry.getKey()) && entry.getValue() != null && !entry.getValue().isEmpty()) {
+                return entry.getValue().get(0).trim();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.google.common.base.Preconditions;
+
+import java.util.BitSet;
+import java.util.regex.Pattern;
+
+/**
+ * status code regex, evaluated once for each status code between 0 and 599 when the matcher is built :
+ * matching a response is then a lookup in a bit set, without any allocation.
+ * Status codes outside this range are rare, and are matched against the regex.
+ * A matcher is immutable, and can be shared between threads.
+ */
+public class StatusCodeMatcher {
+    public static final int LOOKUP_TABLE_SIZE = 600;
+
+    private final Pattern pattern;
+    private final BitSet matchingStatusCodes;
+
+    private StatusCodeMatcher(Pattern pattern) {
+        this.pattern = pattern;
+        this.matchingStatusCodes = new BitSet(LOOKUP_TABLE_SIZE);
+        for (int statusCode = 0; statusCode < LOOKUP_TABLE_SIZE; statusCode++) {
+            if (pattern.matcher(Integer.toString(statusCode)).matches()) {
+                matchingStatusCodes.set(statusCode);
+            }
+        }
+    }
+
+    /**
+     * @throws java.util.regex.PatternSyntaxException if the regex is invalid.
+     */
+    public static StatusCodeMatcher fromRegex(String regex) {
+        Preconditions.checkNotNull(regex, "status code regex cannot be null");
+        return new StatusCodeMatcher(Pattern.compile(regex));
+    }
+
+    public boolean matches(int statusCode) {
+        if (statusCode >= 0 && statusCode < LOOKUP_TABLE_SIZE) {
+            return matchingStatusCodes.get(statusCode);
+        }
+        return pattern.matcher(Integer.toString(statusCode)).matches();
+    }
+
+    public String getRegex() {
+        return pattern.pattern();
+    }
+
+    @Override
+    public String toString() {
+        return "StatusCodeMatcher{" +
+                "regex=" + pattern.pattern() +
+                '}';
+    }
+}
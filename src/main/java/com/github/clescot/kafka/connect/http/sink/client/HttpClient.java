@@ -10,12 +10,15 @@ import org.slf4j.LoggerFactory;
 
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public interface HttpClient<Req, Res> {
     boolean FAILURE = false;
     int SERVER_ERROR_STATUS_CODE = 500;
+    //not sent by HTTP servers : an HTTP exchange failed fast by an open circuit breaker, without any call
+    int CIRCUIT_BREAKER_OPEN_STATUS_CODE = 599;
     String BLANK_RESPONSE_CONTENT = "";
     String UTC_ZONE_ID = "UTC";
     boolean SUCCESS = true;
@@ -75,6 +78,36 @@ public interface HttpClient<Req, Res> {
     }
 
 
+    /**
+     * call the web service without blocking the calling thread.
+     * the returned stage completes with the HttpExchange when the response is received,
+     * or exceptionally if the call fails.
+     */
+    default CompletionStage<HttpExchange> callAsync(HttpRequest httpRequest, AtomicInteger attempts) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        Req request = buildRequest(httpRequest);
+        LOGGER.info("request: {}", request);
+        OffsetDateTime now = OffsetDateTime.now(ZoneId.of(UTC_ZONE_ID));
+        return nativeCallAsync(request)
+                .thenApply(response -> {
+                    LOGGER.info("response: {}", response);
+                    stopwatch.stop();
+                    HttpResponse httpResponse = buildResponse(response);
+                    LOGGER.info("duration: {}", stopwatch);
+                    return buildHttpExchange(httpRequest, httpResponse, stopwatch, now, attempts, httpResponse.getStatusCode() < 400 ? SUCCESS : FAILURE);
+                })
+                .whenComplete((httpExchange, throwable) -> {
+                    if (stopwatch.isRunning()) {
+                        stopwatch.stop();
+                    }
+                    if (throwable != null) {
+                        LOGGER.error("Failed to call web service {} ", throwable.getMessage());
+                    }
+                });
+    }
+
+
     HttpResponse buildResponse(Res response);
     Res nativeCall(Req request);
+    CompletionStage<Res> nativeCallAsync(Req request);
 }
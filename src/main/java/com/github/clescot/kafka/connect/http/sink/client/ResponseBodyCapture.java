@@ -0,0 +1,23 @@
+package com.github.clescot.kafka.connect.http.sink.client;
+
+/**
+ * part of the response body kept in the HTTP exchange. The body is read from the connection in any case.
+ */
+public enum ResponseBodyCapture {
+    /**
+     * the whole body.
+     */
+    FULL,
+    /**
+     * the first bytes of the body, up to a max size.
+     */
+    TRUNCATED,
+    /**
+     * the hexadecimal SHA-256 hash of the body, instead of the body.
+     */
+    HASH,
+    /**
+     * an empty body.
+     */
+    DISCARD
+}
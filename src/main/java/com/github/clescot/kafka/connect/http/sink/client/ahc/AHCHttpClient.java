@@ -4,20 +4,24 @@ import com.github.clescot.kafka.connect.http.HttpRequest;
 import com.github.clescot.kafka.connect.http.HttpResponse;
 import com.github.clescot.kafka.connect.http.sink.client.HttpClient;
 import com.github.clescot.kafka.connect.http.sink.client.HttpException;
+import com.github.clescot.kafka.connect.http.sink.client.ResponseBodyCapture;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import io.netty.handler.codec.http.HttpHeaders;
 import org.asynchttpclient.*;
 import org.asynchttpclient.proxy.ProxyServer;
+import org.asynchttpclient.request.body.multipart.ByteArrayPart;
 import org.asynchttpclient.proxy.ProxyType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.nio.charset.Charset;
-import java.util.AbstractMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 
@@ -54,22 +58,37 @@ public class AHCHttpClient implements HttpClient<Request, Response> {
 
     public static final String WS_REQUEST_TIMEOUT_IN_MS = "request-timeout-in-ms";
     public static final String WS_READ_TIMEOUT_IN_MS = "read-timeout-in-ms";
+    public static final String WS_RESPONSE_BODY_CAPTURE = "response-body-capture";
+    public static final String WS_RESPONSE_BODY_MAX_BYTES = "response-body-max-bytes";
+    public static final int DEFAULT_RESPONSE_BODY_MAX_BYTES = 64 * 1024;
     private static final String WS_REALM_PASS = "password";
 
 
     private final AsyncHttpClient asyncHttpClient;
-
-    private final HttpClientAsyncCompletionHandler asyncCompletionHandler = new HttpClientAsyncCompletionHandler();
+    private final ResponseBodyCapture responseBodyCapture;
+    private final int responseBodyMaxBytes;
 
     public AHCHttpClient(AsyncHttpClient asyncHttpClient) {
+        this(asyncHttpClient, ResponseBodyCapture.FULL, DEFAULT_RESPONSE_BODY_MAX_BYTES);
+    }
+
+    /**
+     * @param responseBodyCapture default part of the response body kept, overridden by the '{@value #WS_RESPONSE_BODY_CAPTURE}' request header.
+     * @param responseBodyMaxBytes default max number of bytes kept in the TRUNCATED mode, overridden by the '{@value #WS_RESPONSE_BODY_MAX_BYTES}' request header.
+     */
+    public AHCHttpClient(AsyncHttpClient asyncHttpClient, ResponseBodyCapture responseBodyCapture, int responseBodyMaxBytes) {
+        Preconditions.checkNotNull(responseBodyCapture, "response body capture cannot be null");
+        Preconditions.checkArgument(responseBodyMaxBytes >= 0, "response body max bytes must be positive");
         this.asyncHttpClient = asyncHttpClient;
+        this.responseBodyCapture = responseBodyCapture;
+        this.responseBodyMaxBytes = responseBodyMaxBytes;
     }
 
     @Override
     public org.asynchttpclient.Response nativeCall(org.asynchttpclient.Request request) {
         LOGGER.debug("native call  {}",request);
-        ListenableFuture<Response> responseListenableFuture = asyncHttpClient.executeRequest(request, asyncCompletionHandler);
-        //we cannot use the asynchronous nature of the response yet
+        //a handler accumulates the response parts : it cannot be shared between concurrent calls
+        ListenableFuture<Response> responseListenableFuture = asyncHttpClient.executeRequest(request, newResponseBodyCaptureHandler(request));
         try {
             return responseListenableFuture.get();
         } catch (InterruptedException|ExecutionException e) {
@@ -78,12 +97,35 @@ public class AHCHttpClient implements HttpClient<Request, Response> {
 
     }
 
+    @Override
+    public CompletionStage<Response> nativeCallAsync(Request request) {
+        LOGGER.debug("native async call  {}",request);
+        ListenableFuture<Response> responseListenableFuture = asyncHttpClient.executeRequest(request, newResponseBodyCaptureHandler(request));
+        return responseListenableFuture.toCompletableFuture();
+    }
+
+    ResponseBodyCaptureHandler newResponseBodyCaptureHandler(Request request) {
+        ResponseBodyCapture capture = responseBodyCapture;
+        int maxBytes = responseBodyMaxBytes;
+        HttpHeaders headers = request.getHeaders();
+        if (headers != null) {
+            String captureHeader = headers.get(WS_RESPONSE_BODY_CAPTURE);
+            if (captureHeader != null) {
+                capture = ResponseBodyCapture.valueOf(captureHeader.trim().toUpperCase(Locale.ROOT));
+            }
+            String maxBytesHeader = headers.get(WS_RESPONSE_BODY_MAX_BYTES);
+            if (maxBytesHeader != null) {
+                maxBytes = Integer.parseInt(maxBytesHeader.trim());
+            }
+        }
+        return new ResponseBodyCaptureHandler(capture, maxBytes);
+    }
+
 
     @Override
     public org.asynchttpclient.Request buildRequest(HttpRequest httpRequest) {
         Preconditions.checkNotNull(httpRequest, "'httpRequest' is required but null");
         Preconditions.checkNotNull(httpRequest.getHeaders(), "'headers' are required but null");
-        Preconditions.checkNotNull(httpRequest.getBodyAsString(), "'body' is required but null");
         String url = httpRequest.getUrl();
         Preconditions.checkNotNull(url, "'url' is required but null");
         String method = httpRequest.getMethod();
@@ -95,8 +137,25 @@ public class AHCHttpClient implements HttpClient<Request, Response> {
         RequestBuilder requestBuilder = new RequestBuilder()
                 .setUrl(url)
                 .setHeaders(httpHeaders)
-                .setMethod(method)
-                .setBody(httpRequest.getBodyAsString());
+                .setMethod(method);
+        if (HttpRequest.BodyType.BYTE_ARRAY == httpRequest.getBodyType()) {
+            //raw bytes are sent as is, without any copy
+            requestBuilder.setBody(httpRequest.getBodyAsByteArray());
+        } else if (HttpRequest.BodyType.MULTIPART == httpRequest.getBodyType()) {
+            //parts are written one after the other to the connection : the whole multipart body is never buffered
+            List<byte[]> parts = httpRequest.getBodyAsMultipart();
+            for (int i = 0; i < parts.size(); i++) {
+                requestBuilder.addBodyPart(new ByteArrayPart(
+                        httpRequest.getPartName(i),
+                        parts.get(i),
+                        httpRequest.getPartContentType(i),
+                        null,
+                        httpRequest.getPartFileName(i)));
+            }
+        } else {
+            Preconditions.checkNotNull(httpRequest.getBodyAsString(), "'body' is required but null");
+            requestBuilder.setBody(httpRequest.getBodyAsString());
+        }
 
         //extract proxy headers
         Map<String, String> proxyHeaders = Maps.newHashMap();
@@ -203,9 +262,9 @@ public class AHCHttpClient implements HttpClient<Request, Response> {
     public HttpResponse buildResponse(Response response) throws HttpException {
         List<Map.Entry<String, String>> responseEntries = response.getHeaders() != null ? response.getHeaders().entries() : Lists.newArrayList();
         HttpResponse httpResponse = new HttpResponse(response.getStatusCode(), response.getStatusText(), response.getResponseBody());
+        //a header can be present multiple times (like 'Set-Cookie') : all its values are kept
         Map<String, List<String>> responseHeaders = responseEntries.stream()
-                .map(entry -> new AbstractMap.SimpleImmutableEntry<String, List<String>>(entry.getKey(), Lists.newArrayList(entry.getValue())))
-                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+                .collect(Collectors.groupingBy(Map.Entry::getKey, Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
         httpResponse.setResponseHeaders(responseHeaders);
         return httpResponse;
     }
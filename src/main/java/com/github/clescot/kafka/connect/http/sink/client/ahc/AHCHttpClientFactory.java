@@ -2,6 +2,7 @@ package com.github.clescot.kafka.connect.http.sink.client.ahc;
 
 import com.github.clescot.kafka.connect.http.sink.client.HttpClient;
 import com.github.clescot.kafka.connect.http.sink.client.HttpClientFactory;
+import com.github.clescot.kafka.connect.http.sink.client.ResponseBodyCapture;
 import com.google.common.collect.Lists;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.buffer.PooledByteBufAllocator;
@@ -151,7 +152,9 @@ public class AHCHttpClientFactory implements HttpClientFactory {
 
     @Override
     public HttpClient build(Map<String, String> config) {
-            return new AHCHttpClient(getAsyncHttpClient(config));
+        ResponseBodyCapture responseBodyCapture = ResponseBodyCapture.valueOf(config.getOrDefault(HTTPCLIENT_RESPONSE_BODY_CAPTURE, ResponseBodyCapture.FULL.name()));
+        int responseBodyMaxBytes = Integer.parseInt(config.getOrDefault(HTTPCLIENT_RESPONSE_BODY_MAX_BYTES, String.valueOf(AHCHttpClient.DEFAULT_RESPONSE_BODY_MAX_BYTES)));
+        return new AHCHttpClient(getAsyncHttpClient(config), responseBodyCapture, responseBodyMaxBytes);
     }
 }
 
@@ -0,0 +1,125 @@
+package com.github.clescot.kafka.connect.http.sink.client.ahc;
+
+import com.github.clescot.kafka.connect.http.sink.client.ResponseBodyCapture;
+import com.google.common.base.Preconditions;
+import com.google.common.io.BaseEncoding;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.HttpHeaders;
+import org.asynchttpclient.AsyncHandler;
+import org.asynchttpclient.HttpResponseBodyPart;
+import org.asynchttpclient.HttpResponseStatus;
+import org.asynchttpclient.Response;
+import org.asynchttpclient.netty.EagerResponseBodyPart;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * build the response, keeping only the part of the body defined by the {@link ResponseBodyCapture} mode :
+ * body parts are consumed as they are received, and the whole body is never held in memory, except in the FULL mode.
+ * A handler accumulates the parts of one response : it cannot be shared between concurrent calls.
+ */
+public class ResponseBodyCaptureHandler implements AsyncHandler<Response> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResponseBodyCaptureHandler.class);
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final Response.ResponseBuilder responseBuilder = new Response.ResponseBuilder();
+    private final ResponseBodyCapture capture;
+    private final int maxBytes;
+    //TRUNCATED mode only
+    private ByteArrayOutputStream truncatedBody;
+    //HASH mode only
+    private MessageDigest digest;
+
+    /**
+     * @param maxBytes max number of body bytes kept, in the TRUNCATED mode.
+     */
+    public ResponseBodyCaptureHandler(ResponseBodyCapture capture, int maxBytes) {
+        Preconditions.checkNotNull(capture, "response body capture cannot be null");
+        Preconditions.checkArgument(maxBytes >= 0, "max bytes must be positive");
+        this.capture = capture;
+        this.maxBytes = maxBytes;
+        if (ResponseBodyCapture.TRUNCATED == capture) {
+            truncatedBody = new ByteArrayOutputStream(Math.min(maxBytes, 8192));
+        } else if (ResponseBodyCapture.HASH == capture) {
+            try {
+                digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    @Override
+    public State onStatusReceived(HttpResponseStatus status) {
+        LOGGER.debug("status response code={}, text={}", status.getStatusCode(), status.getStatusText());
+        responseBuilder.accumulate(status);
+        return State.CONTINUE;
+    }
+
+    @Override
+    public State onHeadersReceived(HttpHeaders headers) {
+        responseBuilder.accumulate(headers);
+        return State.CONTINUE;
+    }
+
+    @Override
+    public State onTrailingHeadersReceived(HttpHeaders headers) {
+        responseBuilder.accumulate(headers);
+        return State.CONTINUE;
+    }
+
+    /**
+     * the connection is kept alive : in the DISCARD mode, or once the max bytes are kept, the remaining parts are read and dropped.
+     */
+    @Override
+    public State onBodyPartReceived(HttpResponseBodyPart bodyPart) {
+        switch (capture) {
+            case FULL:
+                responseBuilder.accumulate(bodyPart);
+                break;
+            case TRUNCATED:
+                int remaining = maxBytes - truncatedBody.size();
+                if (remaining > 0) {
+                    ByteBuffer buffer = bodyPart.getBodyByteBuffer();
+                    int length = Math.min(remaining, buffer.remaining());
+                    byte[] bytes = new byte[length];
+                    buffer.get(bytes);
+                    truncatedBody.write(bytes, 0, length);
+                }
+                break;
+            case HASH:
+                digest.update(bodyPart.getBodyByteBuffer());
+                break;
+            case DISCARD:
+            default:
+                break;
+        }
+        return State.CONTINUE;
+    }
+
+    @Override
+    public void onThrowable(Throwable t) {
+        LOGGER.error(t.getMessage(), t);
+    }
+
+    @Override
+    public Response onCompleted() {
+        byte[] capturedBody = null;
+        if (ResponseBodyCapture.TRUNCATED == capture) {
+            capturedBody = truncatedBody.toByteArray();
+        } else if (ResponseBodyCapture.HASH == capture) {
+            capturedBody = BaseEncoding.base16().lowerCase().encode(digest.digest()).getBytes(StandardCharsets.US_ASCII);
+        }
+        if (capturedBody != null && capturedBody.length > 0) {
+            responseBuilder.accumulate(new EagerResponseBodyPart(Unpooled.wrappedBuffer(capturedBody), true));
+        }
+        return responseBuilder.build();
+    }
+}
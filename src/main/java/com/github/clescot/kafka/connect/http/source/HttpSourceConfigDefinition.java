@@ -1,9 +1,17 @@
 package com.github.clescot.kafka.connect.http.source;
 
 import com.github.clescot.kafka.connect.http.ConfigConstants;
+import com.github.clescot.kafka.connect.http.QueueFactory;
+import com.github.clescot.kafka.connect.http.queue.OverflowPolicy;
+import com.github.clescot.kafka.connect.http.transport.ExchangeTransportType;
 import org.apache.kafka.common.config.ConfigDef;
 
+import java.util.Collections;
+
+import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_CAPACITY;
 import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_NAME;
+import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_OVERFLOW_POLICY;
+import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_SHARDS;
 
 public class HttpSourceConfigDefinition {
 
@@ -11,6 +19,14 @@ public class HttpSourceConfigDefinition {
     public static final String SUCCESS_TOPIC_DOC = "Topic to receive successful http request/responses";
     public static final String ERROR_TOPIC = "error.topic";
     public static final String ERROR_TOPIC_DOC = "Topic to receive errors from http request/responses";
+    public static final String POLL_MAX_BATCH_SIZE = "poll.max.batch.size";
+    public static final String POLL_MAX_BATCH_SIZE_DOC = "max number of HTTP exchanges returned by a poll of the source task.";
+    public static final String POLL_LINGER_TIME_IN_MS = "poll.linger.time.in.ms";
+    public static final String POLL_LINGER_TIME_IN_MS_DOC = "max wait time for an HTTP exchange, when the in memory queue is empty. a poll returns as soon as HTTP exchanges are available.";
+    public static final String QUEUE_ASSIGNED_SHARDS = "queue.assigned.shards";
+    public static final String QUEUE_ASSIGNED_SHARDS_DOC = "indexes of the in memory queue shards consumed by a source task. set by the connector for each task : consume all the shards if empty.";
+    private static final int DEFAULT_POLL_MAX_BATCH_SIZE_VALUE = 1000;
+    private static final long DEFAULT_POLL_LINGER_TIME_IN_MS_VALUE = 1000L;
     private HttpSourceConfigDefinition() {
         //Class with only static methods
     }
@@ -20,6 +36,20 @@ public class HttpSourceConfigDefinition {
                 .define(SUCCESS_TOPIC, ConfigDef.Type.STRING,  ConfigDef.Importance.HIGH,SUCCESS_TOPIC_DOC)
                 .define(ERROR_TOPIC, ConfigDef.Type.STRING, ConfigDef.Importance.HIGH, ERROR_TOPIC_DOC)
                 .define(QUEUE_NAME, ConfigDef.Type.STRING, null,ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_NAME_DOC)
+                .define(POLL_MAX_BATCH_SIZE, ConfigDef.Type.INT, DEFAULT_POLL_MAX_BATCH_SIZE_VALUE, ConfigDef.Range.atLeast(1), ConfigDef.Importance.LOW, POLL_MAX_BATCH_SIZE_DOC)
+                .define(POLL_LINGER_TIME_IN_MS, ConfigDef.Type.LONG, DEFAULT_POLL_LINGER_TIME_IN_MS_VALUE, ConfigDef.Range.atLeast(0), ConfigDef.Importance.LOW, POLL_LINGER_TIME_IN_MS_DOC)
+                .define(QUEUE_CAPACITY, ConfigDef.Type.INT, QueueFactory.DEFAULT_QUEUE_CAPACITY, ConfigDef.Range.between(2, 1 << 30), ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_CAPACITY_DOC)
+                .define(QUEUE_OVERFLOW_POLICY, ConfigDef.Type.STRING, QueueFactory.DEFAULT_OVERFLOW_POLICY.name(), ConfigDef.ValidString.in(OverflowPolicy.BLOCK.name(), OverflowPolicy.DROP_OLDEST.name(), OverflowPolicy.SPILL.name()), ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_OVERFLOW_POLICY_DOC)
+                .define(ConfigConstants.QUEUE_SPILL_DIRECTORY, ConfigDef.Type.STRING, QueueFactory.DEFAULT_SPILL_DIRECTORY, ConfigDef.Importance.LOW, ConfigConstants.QUEUE_SPILL_DIRECTORY_DOC)
+                .define(ConfigConstants.QUEUE_SPILL_SEGMENT_SIZE_IN_BYTES, ConfigDef.Type.INT, QueueFactory.DEFAULT_SPILL_SEGMENT_SIZE_IN_BYTES, ConfigDef.Range.atLeast(1024), ConfigDef.Importance.LOW, ConfigConstants.QUEUE_SPILL_SEGMENT_SIZE_IN_BYTES_DOC)
+                .define(ConfigConstants.QUEUE_SPILL_MAX_SIZE_IN_BYTES, ConfigDef.Type.LONG, QueueFactory.DEFAULT_SPILL_MAX_SIZE_IN_BYTES, ConfigDef.Range.atLeast(1024), ConfigDef.Importance.LOW, ConfigConstants.QUEUE_SPILL_MAX_SIZE_IN_BYTES_DOC)
+                .define(ConfigConstants.QUEUE_JOURNAL_ENABLED, ConfigDef.Type.BOOLEAN, false, ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_JOURNAL_ENABLED_DOC)
+                .define(ConfigConstants.QUEUE_JOURNAL_DIRECTORY, ConfigDef.Type.STRING, QueueFactory.DEFAULT_JOURNAL_DIRECTORY, ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_JOURNAL_DIRECTORY_DOC)
+                .define(ConfigConstants.QUEUE_JOURNAL_SEGMENT_SIZE_IN_BYTES, ConfigDef.Type.INT, QueueFactory.DEFAULT_JOURNAL_SEGMENT_SIZE_IN_BYTES, ConfigDef.Range.atLeast(1024), ConfigDef.Importance.LOW, ConfigConstants.QUEUE_JOURNAL_SEGMENT_SIZE_IN_BYTES_DOC)
+                .define(ConfigConstants.QUEUE_TRANSPORT, ConfigDef.Type.STRING, QueueFactory.DEFAULT_TRANSPORT.name(), ConfigDef.ValidString.in(ExchangeTransportType.IN_MEMORY.name(), ExchangeTransportType.SOCKET.name()), ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_TRANSPORT_DOC)
+                .define(ConfigConstants.QUEUE_TRANSPORT_ADDRESS, ConfigDef.Type.STRING, QueueFactory.DEFAULT_TRANSPORT_ADDRESS, ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_TRANSPORT_ADDRESS_DOC)
+                .define(QUEUE_SHARDS, ConfigDef.Type.INT, QueueFactory.DEFAULT_QUEUE_SHARDS, ConfigDef.Range.atLeast(1), ConfigDef.Importance.MEDIUM, ConfigConstants.QUEUE_SHARDS_DOC)
+                .define(QUEUE_ASSIGNED_SHARDS, ConfigDef.Type.LIST, Collections.emptyList(), ConfigDef.Importance.LOW, QUEUE_ASSIGNED_SHARDS_DOC)
                 ;
     }
 }
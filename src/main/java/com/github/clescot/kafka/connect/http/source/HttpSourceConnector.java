@@ -1,15 +1,25 @@
 package com.github.clescot.kafka.connect.http.source;
 
 import com.github.clescot.kafka.connect.http.sink.VersionUtil;
+import com.google.common.base.Joiner;
 import org.apache.kafka.common.config.ConfigDef;
 import org.apache.kafka.connect.connector.Task;
 import org.apache.kafka.connect.source.SourceConnector;
+import org.apache.kafka.connect.util.ConnectorUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_SHARDS;
+import static com.github.clescot.kafka.connect.http.source.HttpSourceConfigDefinition.QUEUE_ASSIGNED_SHARDS;
 
 public class HttpSourceConnector extends SourceConnector {
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpSourceConnector.class);
 
     private HttpSourceConnectorConfig httpSourceConnectorConfig;
     @Override
@@ -22,13 +32,32 @@ public class HttpSourceConnector extends SourceConnector {
         return HttpSourceTask.class;
     }
 
+    /**
+     * each task consumes a subset of the queue shards.
+     * With more tasks than shards, tasks share the shards, in turn.
+     */
     @Override
     public List<Map<String, String>> taskConfigs(int maxTasks) {
         List<Map<String, String>> configs = new ArrayList<>(maxTasks);
-        for (int i = 0; i < maxTasks; i++) {
-            configs.add(this.httpSourceConnectorConfig.originalsStrings());
+        if (maxTasks == 0) {
+            return configs;
+        }
+        int shards = httpSourceConnectorConfig.getQueueShards();
+        int tasks = maxTasks;
+        if (maxTasks > shards && httpSourceConnectorConfig.getQueueJournalSettings() != null) {
+            //the source offsets of a journal must be committed by a single task
+            LOGGER.warn("only {} tasks are started instead of {} : each shard of the journaled '{}' queue is consumed by a single task", shards, maxTasks, httpSourceConnectorConfig.getQueueName());
+            tasks = shards;
+        } else if (maxTasks > shards && shards > 1) {
+            LOGGER.warn("{} tasks share the {} shards of the '{}' queue : set '{}' to {} to give its own shards to each task", maxTasks, shards, httpSourceConnectorConfig.getQueueName(), QUEUE_SHARDS, maxTasks);
+        }
+        List<Integer> shardIndexes = IntStream.range(0, shards).boxed().collect(Collectors.toList());
+        List<List<Integer>> shardsPerTask = ConnectorUtils.groupPartitions(shardIndexes, Math.min(tasks, shards));
+        for (int i = 0; i < tasks; i++) {
+            Map<String, String> taskConfig = this.httpSourceConnectorConfig.originalsStrings();
+            taskConfig.put(QUEUE_ASSIGNED_SHARDS, Joiner.on(',').join(shardsPerTask.get(i % shardsPerTask.size())));
+            configs.add(taskConfig);
         }
-
         return configs;
     }
 
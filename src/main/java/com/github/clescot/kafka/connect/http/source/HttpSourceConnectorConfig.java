@@ -1,17 +1,31 @@
 package com.github.clescot.kafka.connect.http.source;
 
+import com.github.clescot.kafka.connect.http.ConfigConstants;
+import com.github.clescot.kafka.connect.http.queue.OverflowPolicy;
+import com.github.clescot.kafka.connect.http.queue.JournalSettings;
+import com.github.clescot.kafka.connect.http.queue.SpillSettings;
+import com.github.clescot.kafka.connect.http.transport.ExchangeTransportType;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.Lists;
 import org.apache.kafka.common.config.AbstractConfig;
 import org.apache.kafka.common.config.ConfigDef;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
+import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_CAPACITY;
 import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_NAME;
+import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_OVERFLOW_POLICY;
+import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_SHARDS;
 import static com.github.clescot.kafka.connect.http.QueueFactory.DEFAULT_QUEUE_NAME;
 import static com.github.clescot.kafka.connect.http.QueueFactory.queueMapIsEmpty;
 import static com.github.clescot.kafka.connect.http.source.HttpSourceConfigDefinition.ERROR_TOPIC;
+import static com.github.clescot.kafka.connect.http.source.HttpSourceConfigDefinition.POLL_LINGER_TIME_IN_MS;
+import static com.github.clescot.kafka.connect.http.source.HttpSourceConfigDefinition.POLL_MAX_BATCH_SIZE;
+import static com.github.clescot.kafka.connect.http.source.HttpSourceConfigDefinition.QUEUE_ASSIGNED_SHARDS;
 import static com.github.clescot.kafka.connect.http.source.HttpSourceConfigDefinition.SUCCESS_TOPIC;
 
 public class HttpSourceConnectorConfig extends AbstractConfig {
@@ -20,6 +34,17 @@ public class HttpSourceConnectorConfig extends AbstractConfig {
     private final String successTopic;
     private final String errorsTopic;
     private final String queueName;
+    private final int queueCapacity;
+    private final OverflowPolicy queueOverflowPolicy;
+    private final SpillSettings queueSpillSettings;
+    //null when the queue is not journaled
+    private final JournalSettings queueJournalSettings;
+    private final ExchangeTransportType queueTransport;
+    private final String queueTransportAddress;
+    private final int queueShards;
+    private final List<Integer> queueAssignedShards = Lists.newArrayList();
+    private final int pollMaxBatchSize;
+    private final long pollLingerTimeInMs;
 
 
     public HttpSourceConnectorConfig(Map<?, ?> originals) {
@@ -31,6 +56,28 @@ public class HttpSourceConnectorConfig extends AbstractConfig {
         this.successTopic = Optional.ofNullable(getString(SUCCESS_TOPIC)).orElseThrow(()-> new IllegalArgumentException(SUCCESS_TOPIC + CANNOT_BE_FOUND_IN_MAP_CONFIGURATION));
         this.errorsTopic = Optional.ofNullable(getString(ERROR_TOPIC)).orElseThrow(()-> new IllegalArgumentException(ERROR_TOPIC + CANNOT_BE_FOUND_IN_MAP_CONFIGURATION));
         this.queueName = Optional.ofNullable(getString(QUEUE_NAME)).orElse(DEFAULT_QUEUE_NAME);
+        this.queueCapacity = getInt(QUEUE_CAPACITY);
+        this.queueOverflowPolicy = OverflowPolicy.valueOf(getString(QUEUE_OVERFLOW_POLICY));
+        this.queueSpillSettings = new SpillSettings(
+                getString(ConfigConstants.QUEUE_SPILL_DIRECTORY),
+                getInt(ConfigConstants.QUEUE_SPILL_SEGMENT_SIZE_IN_BYTES),
+                getLong(ConfigConstants.QUEUE_SPILL_MAX_SIZE_IN_BYTES));
+        this.queueJournalSettings = getBoolean(ConfigConstants.QUEUE_JOURNAL_ENABLED) ? new JournalSettings(
+                getString(ConfigConstants.QUEUE_JOURNAL_DIRECTORY),
+                getInt(ConfigConstants.QUEUE_JOURNAL_SEGMENT_SIZE_IN_BYTES)) : null;
+        //HTTP exchanges dropped from the queue would stay in the journal, and be replayed after a restart
+        Preconditions.checkArgument(queueJournalSettings == null || OverflowPolicy.DROP_OLDEST != queueOverflowPolicy,
+                "'" + ConfigConstants.QUEUE_JOURNAL_ENABLED + "' cannot be set to 'true' with the '" + OverflowPolicy.DROP_OLDEST + "' '" + QUEUE_OVERFLOW_POLICY + "'");
+        this.queueTransport = ExchangeTransportType.valueOf(getString(ConfigConstants.QUEUE_TRANSPORT));
+        this.queueTransportAddress = getString(ConfigConstants.QUEUE_TRANSPORT_ADDRESS);
+        this.queueShards = getInt(QUEUE_SHARDS);
+        for (String shard : getList(QUEUE_ASSIGNED_SHARDS)) {
+            int shardIndex = Integer.parseInt(shard.trim());
+            Preconditions.checkArgument(shardIndex >= 0 && shardIndex < queueShards, "'" + QUEUE_ASSIGNED_SHARDS + "' contains the " + shardIndex + " shard, out of the '" + QUEUE_SHARDS + "' range");
+            queueAssignedShards.add(shardIndex);
+        }
+        this.pollMaxBatchSize = getInt(POLL_MAX_BATCH_SIZE);
+        this.pollLingerTimeInMs = getLong(POLL_LINGER_TIME_IN_MS);
         if(queueMapIsEmpty()){
             LOGGER.warn("no pre-existing queue exists. this HttpSourceConnector has created a '{}' one. It needs to consume a queue filled with a SinkConnector. Ignore this message if a SinkConnector will be created after this one.",queueName);
         }
@@ -50,4 +97,50 @@ public class HttpSourceConnectorConfig extends AbstractConfig {
     public String getQueueName() {
         return queueName;
     }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public OverflowPolicy getQueueOverflowPolicy() {
+        return queueOverflowPolicy;
+    }
+
+    public SpillSettings getQueueSpillSettings() {
+        return queueSpillSettings;
+    }
+
+    /**
+     * @return the journal settings, or null if the queue is not journaled.
+     */
+    public JournalSettings getQueueJournalSettings() {
+        return queueJournalSettings;
+    }
+
+    public ExchangeTransportType getQueueTransport() {
+        return queueTransport;
+    }
+
+    public String getQueueTransportAddress() {
+        return queueTransportAddress;
+    }
+
+    public int getQueueShards() {
+        return queueShards;
+    }
+
+    /**
+     * @return indexes of the shards consumed by the task, or an empty list to consume all of them.
+     */
+    public List<Integer> getQueueAssignedShards() {
+        return queueAssignedShards;
+    }
+
+    public int getPollMaxBatchSize() {
+        return pollMaxBatchSize;
+    }
+
+    public long getPollLingerTimeInMs() {
+        return pollLingerTimeInMs;
+    }
 }
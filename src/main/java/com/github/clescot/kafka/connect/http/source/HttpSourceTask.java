@@ -1,8 +1,11 @@
 package com.github.clescot.kafka.connect.http.source;
 
+import com.github.clescot.kafka.connect.http.ExchangeJournal;
 import com.github.clescot.kafka.connect.http.HttpExchange;
 import com.github.clescot.kafka.connect.http.KafkaRecord;
 import com.github.clescot.kafka.connect.http.QueueFactory;
+import com.github.clescot.kafka.connect.http.queue.ShardedQueue;
+import com.github.clescot.kafka.connect.http.transport.ExchangeTransport;
 import com.github.clescot.kafka.connect.http.sink.VersionUtil;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
@@ -13,15 +16,26 @@ import org.apache.kafka.connect.source.SourceTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
+import java.util.concurrent.TimeUnit;
 
 public class HttpSourceTask extends SourceTask {
+    public static final String SOURCE_PARTITION_JOURNAL = "journal";
+    public static final String SOURCE_OFFSET_POSITION = "position";
 
-    private Queue<KafkaRecord> queue;
+    private ShardedQueue<KafkaRecord> queue;
     private String queueName;
     private HttpSourceConnectorConfig sourceConfig;
+    private ExchangeTransport transport;
+    //journals of the consumed shards, empty when the queue is not journaled
+    private final List<ExchangeJournal> journals = Lists.newArrayList();
+    //HTTP exchanges written into the journals before the task start, and not acknowledged yet
+    private final Deque<ExchangeJournal.Reader> replays = new ArrayDeque<>();
+    //last replayed position of each journal : these HTTP exchanges are skipped when they are read from the queue
+    private final Map<String, Long> replayedPositions = Maps.newHashMap();
     private final static Logger LOGGER = LoggerFactory.getLogger(HttpSourceTask.class);
 
 
@@ -36,32 +50,106 @@ public class HttpSourceTask extends SourceTask {
         Preconditions.checkNotNull(taskConfig, "taskConfig cannot be null");
         this.sourceConfig = new HttpSourceConnectorConfig(taskConfig);
         this.queueName = sourceConfig.getQueueName();
-        queue = QueueFactory.getQueue(queueName);
-        QueueFactory.registerConsumerForQueue(queueName);
+        ShardedQueue<KafkaRecord> shardedQueue = QueueFactory.acquireQueue(queueName, sourceConfig.getQueueShards(), sourceConfig.getQueueCapacity(), sourceConfig.getQueueOverflowPolicy(), sourceConfig.getQueueSpillSettings(), sourceConfig.getQueueJournalSettings());
+        List<Integer> assignedShards = sourceConfig.getQueueAssignedShards();
+        if (assignedShards.isEmpty()) {
+            queue = shardedQueue;
+        } else if (shardedQueue.shardCount() != sourceConfig.getQueueShards()) {
+            LOGGER.warn("the '{}' queue has got {} shards instead of {} : all of them are consumed", queueName, shardedQueue.shardCount(), sourceConfig.getQueueShards());
+            assignedShards = List.of();
+            queue = shardedQueue;
+        } else {
+            LOGGER.info("consuming the {} shards of the '{}' queue", assignedShards, queueName);
+            queue = shardedQueue.subset(assignedShards);
+        }
+        List<ExchangeJournal> queueJournals = QueueFactory.getJournals(queueName);
+        for (int i = 0; i < queueJournals.size(); i++) {
+            if (assignedShards.isEmpty() || assignedShards.contains(i)) {
+                journals.add(queueJournals.get(i));
+                startReplay(queueJournals.get(i));
+            }
+        }
+        this.transport = QueueFactory.getTransport(sourceConfig.getQueueTransport(), sourceConfig.getQueueTransportAddress());
+        transport.consume(queueName, shardedQueue);
+    }
+
+    /**
+     * replay the HTTP exchanges written into the journal after the last committed source offset.
+     */
+    private void startReplay(ExchangeJournal journal) {
+        long fromPosition = committedPosition(journal) + 1;
+        long untilPosition = journal.lastPosition();
+        replayedPositions.put(journal.getName(), untilPosition);
+        if (fromPosition <= untilPosition) {
+            LOGGER.info("replaying the HTTP exchanges of the '{}' journal, from the {} position to the {} position", journal.getName(), fromPosition, untilPosition);
+            replays.add(journal.reader(fromPosition, untilPosition));
+        }
+    }
+
+    /**
+     * @return the last position of the journal committed as a source offset, or -1 if none.
+     */
+    private long committedPosition(ExchangeJournal journal) {
+        Map<String, Object> sourceOffset = context.offsetStorageReader().offset(sourcePartition(journal.getName()));
+        if (sourceOffset == null || sourceOffset.get(SOURCE_OFFSET_POSITION) == null) {
+            return -1;
+        }
+        return ((Number) sourceOffset.get(SOURCE_OFFSET_POSITION)).longValue();
+    }
+
+    private static Map<String, String> sourcePartition(String journal) {
+        return Map.of(SOURCE_PARTITION_JOURNAL, journal);
     }
 
+    /**
+     * wait up to the linger time for HTTP exchanges, and return as soon as some of them are available,
+     * up to the max batch size.
+     */
     @Override
     public List<SourceRecord> poll() {
-        List<SourceRecord> records = Lists.newArrayList();
-        while (queue.peek() != null) {
-            KafkaRecord kafkaRecord = queue.poll();
-            LOGGER.debug("received httpExchange from queue '{}':{}",queueName,kafkaRecord);
-            if(kafkaRecord!=null){
-                SourceRecord sourceRecord = toSourceRecord(kafkaRecord);
-                LOGGER.debug("send ack to queue '{}' with source record :{}",queueName,sourceRecord);
-                records.add(sourceRecord);
+        List<KafkaRecord> kafkaRecords = Lists.newArrayList();
+        ExchangeJournal.Reader replay = replays.peekFirst();
+        if (replay != null) {
+            kafkaRecords.addAll(replay.read(sourceConfig.getPollMaxBatchSize()));
+            if (replay.isDone()) {
+                replay.close();
+                replays.pollFirst();
+            }
+        } else {
+            try {
+                queue.drainTo(kafkaRecords, sourceConfig.getPollMaxBatchSize(), sourceConfig.getPollLingerTimeInMs(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!replayedPositions.isEmpty()) {
+                kafkaRecords.removeIf(this::isReplayed);
             }
         }
-
+        List<SourceRecord> records = Lists.newArrayListWithCapacity(kafkaRecords.size());
+        for (KafkaRecord kafkaRecord : kafkaRecords) {
+            LOGGER.debug("received httpExchange from queue '{}':{}",queueName,kafkaRecord);
+            SourceRecord sourceRecord = toSourceRecord(kafkaRecord);
+            LOGGER.debug("send ack to queue '{}' with source record :{}",queueName,sourceRecord);
+            records.add(sourceRecord);
+        }
         return records;
     }
 
 
-    private SourceRecord toSourceRecord(KafkaRecord kafkaRecord){
-        //sourcePartition and sourceOffset are useful to track data consumption from source
-        //but it is useless in the in memory queue context
+    private boolean isReplayed(KafkaRecord kafkaRecord) {
+        Long replayedPosition = kafkaRecord.getJournal() != null ? replayedPositions.get(kafkaRecord.getJournal()) : null;
+        return replayedPosition != null && kafkaRecord.getJournalPosition() <= replayedPosition;
+    }
+
+    //protected for benchmark purpose
+    protected SourceRecord toSourceRecord(KafkaRecord kafkaRecord){
+        //sourcePartition and sourceOffset track data consumption from the journal, when the queue is journaled
         Map<String, ?> sourcePartition = Maps.newHashMap();
         Map<String, ?> sourceOffset= Maps.newHashMap();
+        if (kafkaRecord.getJournal() != null) {
+            sourcePartition = sourcePartition(kafkaRecord.getJournal());
+            sourceOffset = Map.of(SOURCE_OFFSET_POSITION, kafkaRecord.getJournalPosition());
+        }
         HttpExchange httpExchange = kafkaRecord.getHttpExchange();
         Struct struct = httpExchange.toStruct();
 
@@ -82,8 +170,29 @@ public class HttpSourceTask extends SourceTask {
 
 
 
+    /**
+     * delete the journal segment files acknowledged by the committed source offsets.
+     */
     @Override
-    public void stop() {
+    public void commit() {
+        for (ExchangeJournal journal : journals) {
+            long committedPosition = committedPosition(journal);
+            if (committedPosition >= 0) {
+                journal.truncate(committedPosition);
+            }
+        }
+    }
 
+    @Override
+    public void stop() {
+        for (ExchangeJournal.Reader replay : replays) {
+            replay.close();
+        }
+        replays.clear();
+        if (transport != null) {
+            transport.stopConsuming(queueName);
+            transport = null;
+            QueueFactory.releaseQueue(queueName);
+        }
     }
 }
@@ -0,0 +1,35 @@
+package com.github.clescot.kafka.connect.http.transport;
+
+import com.github.clescot.kafka.connect.http.KafkaRecord;
+import com.github.clescot.kafka.connect.http.queue.ShardedQueue;
+
+import java.util.Queue;
+import java.util.function.Supplier;
+
+/**
+ * link between sink tasks publishing HTTP exchanges, and source tasks consuming them from a local queue.
+ */
+public interface ExchangeTransport {
+
+    /**
+     * @param localQueue supplies the queue of this JVM, for a transport publishing into it.
+     * @return the queue receiving HTTP exchanges published by a sink task.
+     */
+    Queue<KafkaRecord> publisher(String queueName, Supplier<ShardedQueue<KafkaRecord>> localQueue);
+
+    /**
+     * wait for a source task consuming the queue.
+     * @return false if no source task consumes the queue after the max wait time.
+     */
+    boolean hasAConsumer(String queueName, long maxWaitTimeInMilliSeconds);
+
+    /**
+     * make HTTP exchanges published into the queue available to the source tasks of this JVM, through the local queue.
+     */
+    void consume(String queueName, ShardedQueue<KafkaRecord> localQueue);
+
+    /**
+     * a source task stops consuming the queue : HTTP exchanges are not received anymore once all source tasks of this JVM have stopped.
+     */
+    void stopConsuming(String queueName);
+}
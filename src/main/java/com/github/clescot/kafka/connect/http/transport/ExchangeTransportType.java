@@ -0,0 +1,15 @@
+package com.github.clescot.kafka.connect.http.transport;
+
+/**
+ * how HTTP exchanges published by sink tasks reach the queue consumed by source tasks.
+ */
+public enum ExchangeTransportType {
+    /**
+     * sink and source tasks share a queue of the same JVM : they must run in the same worker.
+     */
+    IN_MEMORY,
+    /**
+     * sink tasks send HTTP exchanges over a TCP connection to the worker running the source tasks.
+     */
+    SOCKET
+}
@@ -0,0 +1,34 @@
+package com.github.clescot.kafka.connect.http.transport;
+
+import com.github.clescot.kafka.connect.http.KafkaRecord;
+import com.github.clescot.kafka.connect.http.QueueFactory;
+import com.github.clescot.kafka.connect.http.queue.ShardedQueue;
+
+import java.util.Queue;
+import java.util.function.Supplier;
+
+/**
+ * sink and source tasks share the queue of the JVM : HTTP exchanges are not serialized.
+ */
+public class InMemoryExchangeTransport implements ExchangeTransport {
+
+    @Override
+    public Queue<KafkaRecord> publisher(String queueName, Supplier<ShardedQueue<KafkaRecord>> localQueue) {
+        return localQueue.get();
+    }
+
+    @Override
+    public boolean hasAConsumer(String queueName, long maxWaitTimeInMilliSeconds) {
+        return QueueFactory.hasAConsumer(queueName, maxWaitTimeInMilliSeconds);
+    }
+
+    @Override
+    public void consume(String queueName, ShardedQueue<KafkaRecord> localQueue) {
+        QueueFactory.registerConsumerForQueue(queueName);
+    }
+
+    @Override
+    public void stopConsuming(String queueName) {
+        QueueFactory.unregisterConsumerForQueue(queueName);
+    }
+}
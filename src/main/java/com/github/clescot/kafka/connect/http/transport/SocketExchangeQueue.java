@@ -0,0 +1,106 @@
+package com.github.clescot.kafka.connect.http.transport;
+
+import com.github.clescot.kafka.connect.http.KafkaRecord;
+import com.github.clescot.kafka.connect.http.KafkaRecordSerde;
+import com.google.common.base.Preconditions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.AbstractQueue;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * write-only queue sending each HTTP exchange over a TCP connection, as its length followed by its serialized bytes.
+ * The connection is opened on the first offer, and opened again once if a write fails.
+ * A slow consumer slows down offers, through the TCP flow control.
+ */
+public class SocketExchangeQueue extends AbstractQueue<KafkaRecord> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SocketExchangeQueue.class);
+    private static final int CONNECT_TIMEOUT_IN_MS = 10_000;
+
+    private final InetSocketAddress address;
+    private final KafkaRecordSerde serde = new KafkaRecordSerde();
+    private Socket socket;
+    private DataOutputStream output;
+
+    public SocketExchangeQueue(InetSocketAddress address) {
+        Preconditions.checkNotNull(address, "address cannot be null");
+        this.address = address;
+    }
+
+    /**
+     * @throws UncheckedIOException if the HTTP exchange cannot be sent.
+     */
+    @Override
+    public synchronized boolean offer(KafkaRecord kafkaRecord) {
+        byte[] bytes = serde.serialize(kafkaRecord);
+        try {
+            write(bytes);
+        } catch (IOException e) {
+            LOGGER.warn("cannot send an HTTP exchange to '{}' : connecting again", address, e);
+            close();
+            try {
+                write(bytes);
+            } catch (IOException retryException) {
+                close();
+                throw new UncheckedIOException("cannot send an HTTP exchange to '" + address + "'", retryException);
+            }
+        }
+        return true;
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (output == null) {
+            socket = new Socket();
+            socket.setTcpNoDelay(true);
+            socket.connect(address, CONNECT_TIMEOUT_IN_MS);
+            output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+        output.writeInt(bytes.length);
+        output.write(bytes);
+        output.flush();
+    }
+
+    public synchronized void close() {
+        if (socket != null) {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                LOGGER.debug("cannot close the connection to '{}'", address, e);
+            }
+        }
+        socket = null;
+        output = null;
+    }
+
+    /**
+     * HTTP exchanges are consumed at the other end of the connection.
+     * @return always null.
+     */
+    @Override
+    public KafkaRecord poll() {
+        return null;
+    }
+
+    @Override
+    public KafkaRecord peek() {
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return 0;
+    }
+
+    @Override
+    public Iterator<KafkaRecord> iterator() {
+        return Collections.emptyIterator();
+    }
+}
@@ -0,0 +1,218 @@
+package com.github.clescot.kafka.connect.http.transport;
+
+import com.github.clescot.kafka.connect.http.KafkaRecord;
+import com.github.clescot.kafka.connect.http.KafkaRecordSerde;
+import com.github.clescot.kafka.connect.http.queue.ShardedQueue;
+import com.google.common.base.Preconditions;
+import com.google.common.net.HostAndPort;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * sink tasks send HTTP exchanges over TCP connections to the worker running the source tasks,
+ * which listens on the port of the transport address, and adds received HTTP exchanges to its local queue.
+ * Each connection is read by its own thread : when the local queue is full, the TCP flow control slows down the sink task.
+ * HTTP exchanges of a connection are spread over the shards of the local queue in turn.
+ */
+public class SocketExchangeTransport implements ExchangeTransport {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SocketExchangeTransport.class);
+    private static final long CONNECT_RETRY_DELAY_IN_MS = 100;
+    private static final long CLOSE_TIMEOUT_IN_MS = 10_000;
+
+    private final HostAndPort address;
+    private ServerSocket serverSocket;
+    private String consumedQueueName;
+    //source tasks of this JVM consuming the queue : the port is listened until the last one stops
+    private int consumers;
+    private ExecutorService connectionExecutor;
+    private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param address 'host:port' address of the worker running the source tasks.
+     */
+    public SocketExchangeTransport(String address) {
+        Preconditions.checkNotNull(address, "address cannot be null");
+        this.address = HostAndPort.fromString(address);
+        Preconditions.checkArgument(this.address.hasPort(), "'" + address + "' address has no port");
+    }
+
+    @Override
+    public Queue<KafkaRecord> publisher(String queueName, Supplier<ShardedQueue<KafkaRecord>> localQueue) {
+        return new SocketExchangeQueue(socketAddress());
+    }
+
+    private InetSocketAddress socketAddress() {
+        return new InetSocketAddress(address.getHost(), address.getPort());
+    }
+
+    /**
+     * wait until a connection to the transport address succeeds.
+     */
+    @Override
+    public boolean hasAConsumer(String queueName, long maxWaitTimeInMilliSeconds) {
+        long deadline = System.currentTimeMillis() + maxWaitTimeInMilliSeconds;
+        while (true) {
+            try (Socket socket = new Socket()) {
+                socket.connect(socketAddress(), (int) Math.max(1, Math.min(Integer.MAX_VALUE, deadline - System.currentTimeMillis())));
+                return true;
+            } catch (IOException e) {
+                LOGGER.info("awaiting a Source Connector listening on '{}' for the '{}' queue", address, queueName);
+            }
+            if (System.currentTimeMillis() + CONNECT_RETRY_DELAY_IN_MS > deadline) {
+                return false;
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(CONNECT_RETRY_DELAY_IN_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+
+    /**
+     * listen on the port of the transport address, if not already listening.
+     * @throws UncheckedIOException if the port cannot be bound.
+     */
+    @Override
+    public synchronized void consume(String queueName, ShardedQueue<KafkaRecord> localQueue) {
+        if (serverSocket != null) {
+            Preconditions.checkArgument(queueName.equals(consumedQueueName), "port " + address.getPort() + " already receives HTTP exchanges of the '" + consumedQueueName + "' queue");
+            consumers++;
+            return;
+        }
+        ServerSocket newServerSocket = null;
+        try {
+            newServerSocket = new ServerSocket();
+            //connections of a previous listening may still hold the port (TIME_WAIT state) : it can be bound again at once
+            newServerSocket.setReuseAddress(true);
+            newServerSocket.bind(new InetSocketAddress(address.getPort()));
+        } catch (IOException e) {
+            closeQuietly(newServerSocket);
+            throw new UncheckedIOException("cannot listen on port " + address.getPort() + " for the '" + queueName + "' queue", e);
+        }
+        serverSocket = newServerSocket;
+        consumedQueueName = queueName;
+        consumers = 1;
+        connectionExecutor = Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                .setNameFormat("http-exchange-transport-" + address.getPort() + "-%d")
+                .setDaemon(true)
+                .build());
+        LOGGER.info("receiving HTTP exchanges of the '{}' queue on port {}", queueName, address.getPort());
+        ServerSocket listeningSocket = serverSocket;
+        connectionExecutor.execute(() -> accept(listeningSocket, queueName, localQueue));
+    }
+
+    private void accept(ServerSocket listeningSocket, String queueName, ShardedQueue<KafkaRecord> localQueue) {
+        while (!listeningSocket.isClosed()) {
+            try {
+                Socket socket = listeningSocket.accept();
+                LOGGER.debug("sink connected from '{}' to the '{}' queue", socket.getRemoteSocketAddress(), queueName);
+                connections.add(socket);
+                connectionExecutor.execute(() -> receive(socket, queueName, localQueue));
+            } catch (IOException e) {
+                if (!listeningSocket.isClosed()) {
+                    LOGGER.warn("cannot accept a connection on port {}", address.getPort(), e);
+                }
+            }
+        }
+    }
+
+    private void receive(Socket socket, String queueName, ShardedQueue<KafkaRecord> localQueue) {
+        KafkaRecordSerde serde = new KafkaRecordSerde();
+        try (socket; DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()))) {
+            while (true) {
+                int length = input.readInt();
+                if (length < 0) {
+                    throw new IOException("corrupted HTTP exchange length : " + length);
+                }
+                byte[] bytes = new byte[length];
+                input.readFully(bytes);
+                if (!localQueue.offer(serde.deserialize(bytes))) {
+                    LOGGER.warn("HTTP exchange received from '{}' NOT added to the '{}' queue (interrupted while waiting for a free slot)", socket.getRemoteSocketAddress(), queueName);
+                }
+            }
+        } catch (EOFException e) {
+            LOGGER.debug("sink disconnected from the '{}' queue", queueName);
+        } catch (IOException e) {
+            if (!socket.isClosed()) {
+                LOGGER.warn("connection to the '{}' queue lost", queueName, e);
+            }
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    /**
+     * stop listening once the last source task consuming the queue stops.
+     */
+    @Override
+    public synchronized void stopConsuming(String queueName) {
+        if (serverSocket == null || !queueName.equals(consumedQueueName)) {
+            return;
+        }
+        if (--consumers == 0) {
+            close();
+        }
+    }
+
+    private void closeQuietly(ServerSocket socket) {
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            LOGGER.debug("cannot close the server socket on port {}", address.getPort(), e);
+        }
+    }
+
+    /**
+     * stop listening, close the connections, and wait for the end of their threads.
+     */
+    public synchronized void close() {
+        if (serverSocket == null) {
+            return;
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            LOGGER.warn("cannot close the server socket on port {}", address.getPort(), e);
+        }
+        for (Socket connection : connections) {
+            try {
+                connection.close();
+            } catch (IOException e) {
+                LOGGER.debug("cannot close the connection from '{}'", connection.getRemoteSocketAddress(), e);
+            }
+        }
+        connectionExecutor.shutdownNow();
+        try {
+            if (!connectionExecutor.awaitTermination(CLOSE_TIMEOUT_IN_MS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("connections on port {} are still read after {} ms", address.getPort(), CLOSE_TIMEOUT_IN_MS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        serverSocket = null;
+        consumedQueueName = null;
+        consumers = 0;
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.clescot.kafka.connect.http;
+
+import com.github.clescot.kafka.connect.http.queue.JournalSettings;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExchangeJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void test_append_sets_the_journal_position_on_the_record() {
+        //given
+        ExchangeJournal journal = new ExchangeJournal("test", new JournalSettings(directory.toString(), 1024));
+        KafkaRecord kafkaRecord = getKafkaRecord("key-0");
+        //when
+        journal.append(kafkaRecord);
+        //then
+        assertThat(kafkaRecord.getJournal()).isEqualTo("test");
+        assertThat(kafkaRecord.getJournalPosition()).isEqualTo(0);
+        assertThat(journal.lastPosition()).isEqualTo(0);
+    }
+
+    @Test
+    public void test_entries_are_read_in_order_across_segments() throws IOException {
+        //given
+        ExchangeJournal journal = new ExchangeJournal("test", new JournalSettings(directory.toString(), 1024));
+        for (int i = 0; i < 20; i++) {
+            journal.append(getKafkaRecord("key-" + i));
+        }
+        //when
+        ExchangeJournal.Reader reader = journal.reader(5, 14);
+        List<KafkaRecord> firstBatch = reader.read(6);
+        List<KafkaRecord> secondBatch = reader.read(6);
+        //then
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+        assertThat(firstBatch).extracting(KafkaRecord::getKey).containsExactly("key-5", "key-6", "key-7", "key-8", "key-9", "key-10");
+        assertThat(secondBatch).extracting(KafkaRecord::getJournalPosition).containsExactly(11L, 12L, 13L, 14L);
+        assertThat(reader.isDone()).isTrue();
+        reader.close();
+    }
+
+    @Test
+    public void test_journal_is_recovered_after_a_restart() {
+        //given
+        JournalSettings journalSettings = new JournalSettings(directory.toString(), 1024);
+        ExchangeJournal journal = new ExchangeJournal("test", journalSettings);
+        for (int i = 0; i < 10; i++) {
+            journal.append(getKafkaRecord("key-" + i));
+        }
+        journal.sync();
+        //when
+        ExchangeJournal recoveredJournal = new ExchangeJournal("test", journalSettings);
+        KafkaRecord nextRecord = getKafkaRecord("key-10");
+        recoveredJournal.append(nextRecord);
+        //then
+        assertThat(nextRecord.getJournalPosition()).isEqualTo(10);
+        List<KafkaRecord> kafkaRecords = recoveredJournal.reader(0, 10).read(100);
+        assertThat(kafkaRecords).extracting(KafkaRecord::getKey).containsExactly("key-0", "key-1", "key-2", "key-3", "key-4", "key-5", "key-6", "key-7", "key-8", "key-9", "key-10");
+        assertHttpExchangeEquals(kafkaRecords.get(0).getHttpExchange(), getKafkaRecord("key-0").getHttpExchange());
+    }
+
+    @Test
+    public void test_partially_written_entry_is_truncated_after_a_restart() throws IOException {
+        //given
+        JournalSettings journalSettings = new JournalSettings(directory.toString(), 64 * 1024);
+        ExchangeJournal journal = new ExchangeJournal("test", journalSettings);
+        for (int i = 0; i < 3; i++) {
+            journal.append(getKafkaRecord("key-" + i));
+        }
+        journal.sync();
+        Path segmentFile = segmentFiles().get(0);
+        long validSize = Files.size(segmentFile);
+        try (FileChannel channel = FileChannel.open(segmentFile, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            //a crash in the middle of the next entry header
+            channel.write(ByteBuffer.wrap(new byte[]{0, 0, 0, 0, 0, 0, 0, 3, 0, 0}));
+        }
+        //when
+        ExchangeJournal recoveredJournal = new ExchangeJournal("test", journalSettings);
+        //then
+        assertThat(Files.size(segmentFile)).isEqualTo(validSize);
+        assertThat(recoveredJournal.lastPosition()).isEqualTo(2);
+        KafkaRecord nextRecord = getKafkaRecord("key-3");
+        recoveredJournal.append(nextRecord);
+        assertThat(recoveredJournal.reader(2, 3).read(10)).extracting(KafkaRecord::getKey).containsExactly("key-2", "key-3");
+    }
+
+    @Test
+    public void test_truncate_deletes_acknowledged_segments_only() throws IOException {
+        //given
+        ExchangeJournal journal = new ExchangeJournal("test", new JournalSettings(directory.toString(), 1024));
+        for (int i = 0; i < 20; i++) {
+            journal.append(getKafkaRecord("key-" + i));
+        }
+        int segments = segmentFiles().size();
+        //when
+        journal.truncate(journal.lastPosition());
+        //then the last segment file is kept, to recover the next position
+        assertThat(segments).isGreaterThan(1);
+        assertThat(segmentFiles()).hasSize(1);
+        assertThat(new ExchangeJournal("test", new JournalSettings(directory.toString(), 1024)).lastPosition()).isEqualTo(19);
+    }
+
+    @Test
+    public void test_truncate_keeps_segments_with_unacknowledged_entries() throws IOException {
+        //given
+        ExchangeJournal journal = new ExchangeJournal("test", new JournalSettings(directory.toString(), 1024));
+        for (int i = 0; i < 20; i++) {
+            journal.append(getKafkaRecord("key-" + i));
+        }
+        List<Path> segmentFiles = segmentFiles();
+        //when
+        journal.truncate(0);
+        //then
+        assertThat(segmentFiles()).isEqualTo(segmentFiles);
+        assertThat(journal.reader(1, 19).read(100)).hasSize(19);
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+
+    private void assertHttpExchangeEquals(HttpExchange actual, HttpExchange expected) {
+        assertThat(actual.getHttpRequest()).isEqualTo(expected.getHttpRequest());
+        assertThat(actual.getHttpResponse()).isEqualTo(expected.getHttpResponse());
+        assertThat(actual.getMoment()).isEqualTo(expected.getMoment());
+        assertThat(actual.isSuccess()).isEqualTo(expected.isSuccess());
+    }
+
+    private KafkaRecord getKafkaRecord(String key) {
+        HttpRequest httpRequest = new HttpRequest("http://www.titi.com", "GET", "STRING", "stuff", null, null);
+        HttpResponse httpResponse = new HttpResponse(200, "OK", "my response");
+        HttpExchange httpExchange = new HttpExchange(
+                httpRequest,
+                httpResponse,
+                245L,
+                OffsetDateTime.of(2022, 11, 2, 10, 15, 30, 0, ZoneOffset.UTC),
+                new AtomicInteger(1),
+                true
+        );
+        return new KafkaRecord(null, null, key, httpExchange);
+    }
+}
@@ -162,4 +162,66 @@ class HttpRequestTest {
         assertThat(httpRequest.getMethod()).isEqualTo(dummyMethod);
         assertThat(httpRequest.getBodyType().toString()).isEqualTo(dummyBodyType);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void test_byte_array_body_is_base64_encoded_only_in_json(){
+        //given
+        ObjectMapper objectMapper = new ObjectMapper();
+        byte[] body = new byte[]{0, -1, 2, 127, -128};
+        HttpRequest httpRequest = new HttpRequest("http://stuff.com", "POST", "BYTE_ARRAY", null, body, null);
+        //when
+        String json;
+        HttpRequest deserialized;
+        try {
+            json = objectMapper.writeValueAsString(httpRequest);
+            deserialized = objectMapper.readValue(json, HttpRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        //then
+        assertThat(httpRequest.getBodyAsByteArray()).isSameAs(body);
+        assertThat(json).contains("\"bodyAsByteArray\":\"" + java.util.Base64.getEncoder().encodeToString(body) + "\"");
+        assertThat(deserialized.getBodyAsByteArray()).containsExactly(body);
+        assertThat(deserialized).isEqualTo(httpRequest);
+    }
+
+    @Test
+    public void test_multipart_body_round_trip_through_a_struct(){
+        //given
+        List<byte[]> parts = Lists.newArrayList("part1".getBytes(StandardCharsets.UTF_8), new byte[]{1, 2, 3});
+        List<Map<String, String>> multipartAttributes = Lists.newArrayList(Map.of(HttpRequest.PART_NAME, "text", HttpRequest.PART_CONTENT_TYPE, "text/plain"));
+        HttpRequest httpRequest = new HttpRequest("http://stuff.com", "POST", "MULTIPART", "", null, parts, multipartAttributes);
+        //when
+        Struct struct = httpRequest.toStruct();
+        HttpRequest fromStruct = HttpRequest.Builder.anHttpRequest().withStruct(struct).build();
+        //then
+        assertThat(struct.getArray(HttpRequest.BODY_AS_MULTIPART)).containsExactly("cGFydDE=", "AQID");
+        assertThat(fromStruct.getBodyAsMultipart()).containsExactly("part1".getBytes(StandardCharsets.UTF_8), new byte[]{1, 2, 3});
+        assertThat(fromStruct.getPartContentType(0)).isEqualTo("text/plain");
+        assertThat(fromStruct).isEqualTo(httpRequest);
+        assertThat(fromStruct.hashCode()).isEqualTo(httpRequest.hashCode());
+    }
+
+    @Test
+    public void test_multipart_attributes_in_json(){
+        //given
+        ObjectMapper objectMapper = new ObjectMapper();
+        String json = "{\"url\":\"http://stuff.com\",\"method\":\"POST\",\"bodyType\":\"MULTIPART\",\"bodyAsString\":\"\"," +
+                "\"bodyAsMultipart\":[\"cGFydDE=\",\"AQID\"]," +
+                "\"multipartAttributes\":[{\"name\":\"metadata\",\"contentType\":\"application/json\"}]}";
+        //when
+        HttpRequest httpRequest;
+        try {
+            httpRequest = objectMapper.readValue(json, HttpRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        //then
+        assertThat(httpRequest.getPartName(0)).isEqualTo("metadata");
+        assertThat(httpRequest.getPartContentType(0)).isEqualTo("application/json");
+        assertThat(httpRequest.getPartFileName(0)).isNull();
+        assertThat(httpRequest.getPartName(1)).isEqualTo("part1");
+        assertThat(httpRequest.getPartContentType(1)).isEqualTo(HttpRequest.DEFAULT_PART_CONTENT_TYPE);
+        assertThat(httpRequest.getBodyAsMultipart().get(1)).containsExactly(1, 2, 3);
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.clescot.kafka.connect.http;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.header.Header;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KafkaRecordSerdeTest {
+
+    private final KafkaRecordSerde serde = new KafkaRecordSerde();
+
+    @Test
+    public void test_round_trip_with_string_key_and_headers() {
+        //given
+        ConnectHeaders headers = new ConnectHeaders();
+        headers.addString("X-Correlation-Id", "1234");
+        headers.addLong("X-Retries", 3L);
+        headers.add("X-Schemaless", Map.of("nested", List.of(1, 2)), null);
+        KafkaRecord kafkaRecord = new KafkaRecord(headers, Schema.STRING_SCHEMA, "myKey", getHttpExchange());
+        //when
+        KafkaRecord deserialized = serde.deserialize(serde.serialize(kafkaRecord));
+        //then
+        assertThat(deserialized.getSchemaKey()).isEqualTo(Schema.STRING_SCHEMA);
+        assertThat(deserialized.getKey()).isEqualTo("myKey");
+        List<Header> deserializedHeaders = Lists.newArrayList(deserialized.getHeaders());
+        assertThat(deserializedHeaders).isEqualTo(Lists.newArrayList(headers));
+        assertHttpExchangeEquals(deserialized.getHttpExchange(), kafkaRecord.getHttpExchange());
+    }
+
+    @Test
+    public void test_round_trip_with_struct_key_and_logical_types() {
+        //given
+        Schema keySchema = SchemaBuilder.struct()
+                .name("myKey")
+                .version(2)
+                .field("id", Schema.INT64_SCHEMA)
+                .field("amount", Decimal.schema(2))
+                .field("at", Timestamp.builder().optional().build())
+                .field("tags", SchemaBuilder.array(Schema.STRING_SCHEMA).build())
+                .field("bytes", Schema.OPTIONAL_BYTES_SCHEMA)
+                .build();
+        Struct key = new Struct(keySchema)
+                .put("id", 42L)
+                .put("amount", new BigDecimal("12.34"))
+                .put("at", new Date(1_000L))
+                .put("tags", List.of("a", "b"))
+                .put("bytes", null);
+        KafkaRecord kafkaRecord = new KafkaRecord(null, keySchema, key, getHttpExchange());
+        //when
+        KafkaRecord deserialized = serde.deserialize(serde.serialize(kafkaRecord));
+        //then
+        assertThat(deserialized.getHeaders()).isNull();
+        assertThat(deserialized.getSchemaKey()).isEqualTo(keySchema);
+        assertThat(deserialized.getKey()).isEqualTo(key);
+    }
+
+    @Test
+    public void test_round_trip_with_schemaless_byte_array_key() {
+        //given
+        KafkaRecord kafkaRecord = new KafkaRecord(null, null, new byte[]{1, 2, 3}, getHttpExchange());
+        //when
+        KafkaRecord deserialized = serde.deserialize(serde.serialize(kafkaRecord));
+        //then
+        assertThat(deserialized.getSchemaKey()).isNull();
+        assertThat((byte[]) deserialized.getKey()).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    public void test_round_trip_with_byte_array_body() {
+        //given
+        HttpRequest httpRequest = new HttpRequest("http://www.titi.com", "POST", "BYTE_ARRAY", null, new byte[]{4, 5, 6}, null);
+        HttpExchange httpExchange = new HttpExchange(httpRequest, new HttpResponse(500, "Internal Server Error", ""), 10L, null, new AtomicInteger(3), false);
+        KafkaRecord kafkaRecord = new KafkaRecord(null, null, null, httpExchange);
+        //when
+        KafkaRecord deserialized = serde.deserialize(serde.serialize(kafkaRecord));
+        //then
+        assertHttpExchangeEquals(deserialized.getHttpExchange(), httpExchange);
+        assertThat(deserialized.getHttpExchange().getHttpRequest().getBodyAsByteArray()).containsExactly(4, 5, 6);
+    }
+
+    @Test
+    public void test_round_trip_with_multipart_body_and_attributes() {
+        //given
+        List<Map<String, String>> multipartAttributes = Lists.newArrayList(Map.of(HttpRequest.PART_NAME, "document", HttpRequest.PART_CONTENT_TYPE, "application/pdf"));
+        HttpRequest httpRequest = new HttpRequest("http://www.titi.com", "POST", "MULTIPART", "", null,
+                Lists.newArrayList(new byte[]{1, 2}, new byte[]{3}), multipartAttributes);
+        HttpExchange httpExchange = new HttpExchange(httpRequest, new HttpResponse(200, "OK", ""), 10L, null, new AtomicInteger(1), true);
+        KafkaRecord kafkaRecord = new KafkaRecord(null, null, null, httpExchange);
+        //when
+        KafkaRecord deserialized = serde.deserialize(serde.serialize(kafkaRecord));
+        //then
+        assertHttpExchangeEquals(deserialized.getHttpExchange(), httpExchange);
+        HttpRequest deserializedRequest = deserialized.getHttpExchange().getHttpRequest();
+        assertThat(deserializedRequest.getPartName(0)).isEqualTo("document");
+        assertThat(deserializedRequest.getPartContentType(0)).isEqualTo("application/pdf");
+        assertThat(deserializedRequest.getPartName(1)).isEqualTo("part1");
+        assertThat(deserializedRequest.getPartContentType(1)).isEqualTo(HttpRequest.DEFAULT_PART_CONTENT_TYPE);
+    }
+
+    private void assertHttpExchangeEquals(HttpExchange actual, HttpExchange expected) {
+        assertThat(actual.getHttpRequest()).isEqualTo(expected.getHttpRequest());
+        assertThat(actual.getHttpRequest().getHeaders()).isEqualTo(expected.getHttpRequest().getHeaders());
+        assertThat(actual.getHttpResponse()).isEqualTo(expected.getHttpResponse());
+        assertThat(actual.getHttpResponse().getResponseHeaders()).isEqualTo(expected.getHttpResponse().getResponseHeaders());
+        assertThat(actual.getDurationInMillis()).isEqualTo(expected.getDurationInMillis());
+        assertThat(actual.getMoment()).isEqualTo(expected.getMoment());
+        assertThat(actual.getAttempts().get()).isEqualTo(expected.getAttempts().get());
+        assertThat(actual.isSuccess()).isEqualTo(expected.isSuccess());
+    }
+
+    private HttpExchange getHttpExchange() {
+        Map<String, List<String>> requestHeaders = Maps.newHashMap();
+        requestHeaders.put("X-dummy", Lists.newArrayList("blabla"));
+        HttpRequest httpRequest = new HttpRequest("http://www.titi.com", "GET", "STRING", "stuff", null, null);
+        httpRequest.setHeaders(requestHeaders);
+        HttpResponse httpResponse = new HttpResponse(200, "OK", "my response");
+        Map<String, List<String>> responseHeaders = Maps.newHashMap();
+        responseHeaders.put("Content-Type", Lists.newArrayList("application/json"));
+        httpResponse.setResponseHeaders(responseHeaders);
+        return new HttpExchange(
+                httpRequest,
+                httpResponse,
+                245L,
+                OffsetDateTime.of(2022, 11, 2, 10, 15, 30, 123_456_789, ZoneOffset.ofHours(2)),
+                new AtomicInteger(1),
+                true
+        );
+    }
+}
@@ -1,10 +1,21 @@
 package com.github.clescot.kafka.connect.http;
 
+import com.github.clescot.kafka.connect.http.queue.OverflowPolicy;
+import com.github.clescot.kafka.connect.http.queue.ShardedQueue;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static com.github.clescot.kafka.connect.http.QueueFactory.DEFAULT_QUEUE_NAME;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -93,6 +104,79 @@ class QueueFactoryTest {
         assertThat(hasAConsumer).isTrue();
     }
 
+    @Test
+    public void test_consumer_registrations_are_counted(){
+        //given
+        String queueName = "counted";
+        QueueFactory.registerConsumerForQueue(queueName);
+        QueueFactory.registerConsumerForQueue(queueName);
+        //when
+        QueueFactory.unregisterConsumerForQueue(queueName);
+        //then
+        assertThat(QueueFactory.hasAConsumer(queueName,200)).isTrue();
+        QueueFactory.unregisterConsumerForQueue(queueName);
+        assertThat(QueueFactory.hasAConsumer(queueName,200)).isFalse();
+    }
+
+    @Test
+    public void test_released_queue_is_removed_when_it_has_no_more_users_and_is_empty(){
+        //given
+        String queueName = "released";
+        ShardedQueue<KafkaRecord> queue = QueueFactory.acquireQueue(queueName, 1, 16, OverflowPolicy.BLOCK, null, null);
+        assertThat(QueueFactory.acquireQueue(queueName, 1, 16, OverflowPolicy.BLOCK, null, null)).isSameAs(queue);
+        //when
+        QueueFactory.releaseQueue(queueName);
+        //then
+        assertThat(QueueFactory.getQueue(queueName)).isSameAs(queue);
+        QueueFactory.releaseQueue(queueName);
+        ShardedQueue<KafkaRecord> newQueue = QueueFactory.acquireQueue(queueName, 1, 16, OverflowPolicy.BLOCK, null, null);
+        assertThat(newQueue).isNotSameAs(queue);
+        QueueFactory.releaseQueue(queueName);
+    }
+
+    @Test
+    public void test_released_queue_is_kept_when_it_holds_http_exchanges(){
+        //given
+        String queueName = "kept";
+        ShardedQueue<KafkaRecord> queue = QueueFactory.acquireQueue(queueName, 1, 16, OverflowPolicy.BLOCK, null, null);
+        queue.offer(new KafkaRecord(null, null, null, null));
+        //when
+        QueueFactory.releaseQueue(queueName);
+        //then
+        assertThat(QueueFactory.getQueue(queueName)).isSameAs(queue);
+        queue.clear();
+    }
+
+    @Test
+    public void test_concurrent_get_queue_creates_a_single_queue() throws Exception {
+        //given
+        String queueName = "concurrent";
+        int threads = 8;
+        ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<ShardedQueue<KafkaRecord>>> futures = Lists.newArrayList();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executorService.submit(() -> {
+                startLatch.await();
+                return QueueFactory.acquireQueue(queueName, 2, 16, OverflowPolicy.BLOCK, null, null);
+            }));
+        }
+        //when
+        startLatch.countDown();
+        Set<ShardedQueue<KafkaRecord>> queues = Sets.newIdentityHashSet();
+        for (Future<ShardedQueue<KafkaRecord>> future : futures) {
+            queues.add(future.get(5, TimeUnit.SECONDS));
+        }
+        executorService.shutdown();
+        //then
+        assertThat(queues).hasSize(1);
+        for (int i = 0; i < threads; i++) {
+            QueueFactory.releaseQueue(queueName);
+        }
+        assertThat(QueueFactory.acquireQueue(queueName, 2, 16, OverflowPolicy.BLOCK, null, null)).isNotSameAs(queues.iterator().next());
+        QueueFactory.releaseQueue(queueName);
+    }
+
     @AfterEach
     public void tearsDown(){
         QueueFactory.clearRegistrations();
@@ -0,0 +1,196 @@
+package com.github.clescot.kafka.connect.http.queue;
+
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.clescot.kafka.connect.http.queue.BoundedQueue.QUEUE_METRIC_GROUP;
+import static com.github.clescot.kafka.connect.http.queue.BoundedQueue.QUEUE_TAG;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class BoundedQueueTest {
+
+    private static final SpillSerde<Integer> INTEGER_SERDE = new SpillSerde<>() {
+        @Override
+        public byte[] serialize(Integer element) {
+            return ByteBuffer.allocate(Integer.BYTES).putInt(element).array();
+        }
+
+        @Override
+        public Integer deserialize(byte[] bytes) {
+            return ByteBuffer.wrap(bytes).getInt();
+        }
+    };
+
+    private Metrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        metrics = new Metrics();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        metrics.close();
+    }
+
+    @Test
+    public void test_drop_oldest_policy() {
+        //given
+        BoundedQueue<Integer> queue = new BoundedQueue<>("test", 2, OverflowPolicy.DROP_OLDEST, metrics);
+        //when
+        queue.offer(1);
+        queue.offer(2);
+        queue.offer(3);
+        //then
+        assertThat(queue).containsExactly(2, 3);
+        assertThat(metricValue("drop-total")).isEqualTo(1d);
+        assertThat(metricValue("enqueue-total")).isEqualTo(3d);
+        assertThat(metricValue("depth")).isEqualTo(2);
+    }
+
+    @Test
+    public void test_block_policy() {
+        //given
+        BoundedQueue<Integer> queue = new BoundedQueue<>("test", 2, OverflowPolicy.BLOCK, metrics);
+        queue.offer(1);
+        queue.offer(2);
+        //when
+        CompletableFuture<Boolean> blockedOffer = CompletableFuture.supplyAsync(() -> queue.offer(3));
+        //then
+        await().during(100, TimeUnit.MILLISECONDS).atMost(1, TimeUnit.SECONDS).until(() -> !blockedOffer.isDone());
+        assertThat(queue.poll()).isEqualTo(1);
+        await().atMost(5, TimeUnit.SECONDS).until(blockedOffer::isDone);
+        assertThat(blockedOffer.join()).isTrue();
+        assertThat(queue).containsExactly(2, 3);
+        assertThat(metricValue("dequeue-total")).isEqualTo(1d);
+        assertThat((double) metricValue("blocked-time-ns-total")).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(metricValue("drop-total")).isEqualTo(0d);
+    }
+
+    @Test
+    public void test_block_policy_when_interrupted() {
+        //given
+        BoundedQueue<Integer> queue = new BoundedQueue<>("test", 2, OverflowPolicy.BLOCK, metrics);
+        queue.offer(1);
+        queue.offer(2);
+        //when
+        Thread.currentThread().interrupt();
+        boolean offered = queue.offer(3);
+        //then
+        assertThat(Thread.interrupted()).isTrue();
+        assertThat(offered).isFalse();
+        assertThat(queue).containsExactly(1, 2);
+    }
+
+    @Test
+    public void test_drain_to_with_max_elements() throws InterruptedException {
+        //given
+        BoundedQueue<Integer> queue = new BoundedQueue<>("test", 8, OverflowPolicy.BLOCK, metrics);
+        for (int i = 0; i < 5; i++) {
+            queue.offer(i);
+        }
+        List<Integer> target = new ArrayList<>();
+        //when
+        int drained = queue.drainTo(target, 3, 1, TimeUnit.SECONDS);
+        //then
+        assertThat(drained).isEqualTo(3);
+        assertThat(target).containsExactly(0, 1, 2);
+        assertThat(queue).containsExactly(3, 4);
+    }
+
+    @Test
+    public void test_drain_to_waits_until_timeout_when_empty() throws InterruptedException {
+        //given
+        BoundedQueue<Integer> queue = new BoundedQueue<>("test", 8, OverflowPolicy.BLOCK, metrics);
+        List<Integer> target = new ArrayList<>();
+        long start = System.nanoTime();
+        //when
+        int drained = queue.drainTo(target, 3, 100, TimeUnit.MILLISECONDS);
+        //then
+        assertThat(drained).isZero();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void test_drain_to_wakes_up_when_an_element_is_offered() throws Exception {
+        //given
+        BoundedQueue<Integer> queue = new BoundedQueue<>("test", 8, OverflowPolicy.BLOCK, metrics);
+        List<Integer> target = new ArrayList<>();
+        CompletableFuture<Integer> drained = CompletableFuture.supplyAsync(() -> {
+            try {
+                return queue.drainTo(target, 3, 1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        await().during(100, TimeUnit.MILLISECONDS).atMost(1, TimeUnit.SECONDS).until(() -> !drained.isDone());
+        //when
+        queue.offer(42);
+        //then
+        assertThat(drained.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(target).containsExactly(42);
+    }
+
+    @Test
+    public void test_spill_policy_keeps_order(@TempDir Path directory) {
+        //given
+        BoundedQueue<Integer> queue = new BoundedQueue<>("test", 2, OverflowPolicy.SPILL, metrics,
+                new DiskSpill<>("test", new SpillSettings(directory.toString(), 64, 1024), INTEGER_SERDE));
+        //when
+        for (int i = 0; i < 6; i++) {
+            assertThat(queue.offer(i)).isTrue();
+        }
+        //then
+        assertThat(queue).hasSize(6);
+        assertThat(metricValue("spill-total")).isEqualTo(4d);
+        assertThat(metricValue("spill-depth")).isEqualTo(4L);
+        assertThat(metricValue("depth")).isEqualTo(6);
+        assertThat(queue.poll()).isEqualTo(0);
+        //the ring buffer has got a free slot, but spilled elements are read first
+        queue.offer(6);
+        List<Integer> polled = new ArrayList<>();
+        Integer element;
+        while ((element = queue.poll()) != null) {
+            polled.add(element);
+        }
+        assertThat(polled).containsExactly(1, 2, 3, 4, 5, 6);
+        assertThat(queue).isEmpty();
+        //once the spill is drained, the ring buffer is used again
+        queue.offer(7);
+        assertThat(metricValue("spill-total")).isEqualTo(5d);
+        assertThat(queue.poll()).isEqualTo(7);
+    }
+
+    @Test
+    public void test_drain_to_reads_spilled_elements(@TempDir Path directory) throws InterruptedException {
+        //given
+        BoundedQueue<Integer> queue = new BoundedQueue<>("test", 2, OverflowPolicy.SPILL, metrics,
+                new DiskSpill<>("test", new SpillSettings(directory.toString(), 64, 1024), INTEGER_SERDE));
+        for (int i = 0; i < 5; i++) {
+            queue.offer(i);
+        }
+        List<Integer> target = new ArrayList<>();
+        //when
+        int drained = queue.drainTo(target, 10, 100, TimeUnit.MILLISECONDS);
+        //then
+        assertThat(drained).isEqualTo(5);
+        assertThat(target).containsExactly(0, 1, 2, 3, 4);
+    }
+
+    private Object metricValue(String name) {
+        return metrics.metric(new MetricName(name, QUEUE_METRIC_GROUP, "", Map.of(QUEUE_TAG, "test"))).metricValue();
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.clescot.kafka.connect.http.queue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiskSpillTest {
+
+    private static final SpillSerde<String> STRING_SERDE = new SpillSerde<>() {
+        @Override
+        public byte[] serialize(String element) {
+            return element.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String deserialize(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void test_elements_are_read_in_order_across_segments() throws IOException {
+        //given
+        DiskSpill<String> spill = new DiskSpill<>("test", new SpillSettings(directory.toString(), 64, 1024), STRING_SERDE);
+        //when
+        for (int i = 0; i < 20; i++) {
+            assertThat(spill.append("element-" + i)).isTrue();
+        }
+        //then
+        assertThat(spill.size()).isEqualTo(20);
+        assertThat(segmentFiles()).isGreaterThan(1);
+        for (int i = 0; i < 20; i++) {
+            assertThat(spill.poll()).isEqualTo("element-" + i);
+        }
+        assertThat(spill.poll()).isNull();
+        assertThat(spill.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void test_append_is_refused_above_max_size() {
+        //given
+        DiskSpill<String> spill = new DiskSpill<>("test", new SpillSettings(directory.toString(), 64, 128), STRING_SERDE);
+        int appended = 0;
+        //when
+        while (spill.append("element-" + appended)) {
+            appended++;
+        }
+        //then
+        assertThat(spill.sizeInBytes()).isEqualTo(128);
+        assertThat(spill.size()).isEqualTo(appended);
+        //a drained segment frees space
+        for (int i = 0; i < appended; i++) {
+            assertThat(spill.poll()).isEqualTo("element-" + i);
+        }
+        assertThat(spill.append("next")).isTrue();
+        assertThat(spill.poll()).isEqualTo("next");
+    }
+
+    @Test
+    public void test_drained_segments_are_recycled() throws IOException {
+        //given
+        DiskSpill<String> spill = new DiskSpill<>("test", new SpillSettings(directory.toString(), 64, 64 * 10), STRING_SERDE);
+        //when
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 20; i++) {
+                spill.append("element-" + i);
+            }
+            for (int i = 0; i < 20; i++) {
+                assertThat(spill.poll()).isEqualTo("element-" + i);
+            }
+        }
+        //then segment files are reused instead of being created for each round
+        assertThat(segmentFiles()).isLessThanOrEqualTo(5);
+    }
+
+    @Test
+    public void test_element_bigger_than_a_segment() {
+        //given
+        DiskSpill<String> spill = new DiskSpill<>("test", new SpillSettings(directory.toString(), 64, 1024), STRING_SERDE);
+        String bigElement = "x".repeat(200);
+        //when
+        spill.append("small");
+        spill.append(bigElement);
+        //then
+        assertThat(spill.poll()).isEqualTo("small");
+        assertThat(spill.poll()).isEqualTo(bigElement);
+    }
+
+    @Test
+    public void test_segment_files_of_a_previous_spill_are_deleted() throws IOException {
+        //given
+        Files.createFile(directory.resolve("test.0.spill"));
+        Files.createFile(directory.resolve("other.0.spill"));
+        //when
+        new DiskSpill<>("test", new SpillSettings(directory.toString(), 64, 1024), STRING_SERDE);
+        //then
+        assertThat(directory.resolve("test.0.spill")).doesNotExist();
+        assertThat(directory.resolve("other.0.spill")).exists();
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}
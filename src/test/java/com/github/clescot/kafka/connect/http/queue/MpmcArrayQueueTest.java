@@ -0,0 +1,109 @@
+package com.github.clescot.kafka.connect.http.queue;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MpmcArrayQueueTest {
+
+    @Test
+    public void test_capacity_is_rounded_up_to_a_power_of_two() {
+        assertThat(new MpmcArrayQueue<>(1000).capacity()).isEqualTo(1024);
+        assertThat(new MpmcArrayQueue<>(1024).capacity()).isEqualTo(1024);
+        assertThatThrownBy(() -> new MpmcArrayQueue<>(1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void test_fifo_and_bounded() {
+        //given
+        MpmcArrayQueue<Integer> queue = new MpmcArrayQueue<>(4);
+        //when
+        for (int i = 0; i < 4; i++) {
+            assertThat(queue.offer(i)).isTrue();
+        }
+        //then
+        assertThat(queue.offer(4)).isFalse();
+        assertThat(queue.size()).isEqualTo(4);
+        assertThat(queue).containsExactly(0, 1, 2, 3);
+        assertThat(queue.peek()).isEqualTo(0);
+        assertThat(queue.poll()).isEqualTo(0);
+        assertThat(queue.offer(4)).isTrue();
+        assertThat(List.of(queue.poll(), queue.poll(), queue.poll(), queue.poll())).containsExactly(1, 2, 3, 4);
+        assertThat(queue.poll()).isNull();
+        assertThat(queue.peek()).isNull();
+        assertThat(queue).isEmpty();
+    }
+
+    @Test
+    public void test_null_element_is_rejected() {
+        assertThatThrownBy(() -> new MpmcArrayQueue<>(4).offer(null)).isInstanceOf(NullPointerException.class);
+    }
+
+    @Test
+    public void test_concurrent_producers_and_consumers() throws Exception {
+        //given
+        int producers = 4;
+        int consumers = 4;
+        int elementsPerProducer = 50_000;
+        MpmcArrayQueue<Integer> queue = new MpmcArrayQueue<>(64);
+        Set<Integer> consumed = ConcurrentHashMap.newKeySet();
+        AtomicInteger consumedCount = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executorService = Executors.newFixedThreadPool(producers + consumers);
+        try {
+            //when
+            for (int p = 0; p < producers; p++) {
+                int producer = p;
+                executorService.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < elementsPerProducer; i++) {
+                        Integer element = producer * elementsPerProducer + i;
+                        while (!queue.offer(element)) {
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                });
+            }
+            List<Future<?>> consumerFutures = new ArrayList<>();
+            for (int c = 0; c < consumers; c++) {
+                consumerFutures.add(executorService.submit(() -> {
+                    start.await();
+                    while (consumedCount.get() < producers * elementsPerProducer) {
+                        Integer element = queue.poll();
+                        if (element == null) {
+                            Thread.yield();
+                        } else {
+                            consumed.add(element);
+                            consumedCount.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> consumerFuture : consumerFutures) {
+                consumerFuture.get(60, TimeUnit.SECONDS);
+            }
+            //then
+            assertThat(consumedCount.get()).isEqualTo(producers * elementsPerProducer);
+            //each element is consumed exactly once
+            assertThat(consumed).hasSize(producers * elementsPerProducer);
+            assertThat(queue).isEmpty();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.clescot.kafka.connect.http.queue;
+
+import org.apache.kafka.common.metrics.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class ShardedQueueTest {
+
+    private Metrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        metrics = new Metrics();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        metrics.close();
+    }
+
+    @Test
+    public void test_offer_with_shard_key_keeps_order_in_the_same_shard() {
+        //given
+        ShardedQueue<Integer> queue = newShardedQueue(4);
+        //when
+        for (int i = 0; i < 8; i++) {
+            queue.offer(i, i % 2);
+        }
+        //then
+        assertThat(queue.subset(List.of(0))).containsExactly(0, 2, 4, 6);
+        assertThat(queue.subset(List.of(1))).containsExactly(1, 3, 5, 7);
+        assertThat(queue.subset(List.of(2, 3))).isEmpty();
+        assertThat(queue).hasSize(8);
+        assertThat(queue.capacity()).isEqualTo(4 * 16);
+    }
+
+    @Test
+    public void test_negative_shard_key() {
+        //given
+        ShardedQueue<Integer> queue = newShardedQueue(4);
+        //when
+        queue.offer(42, -1);
+        //then
+        assertThat(queue.subset(List.of(3))).containsExactly(42);
+    }
+
+    @Test
+    public void test_offer_without_shard_key_spreads_elements_over_shards() {
+        //given
+        ShardedQueue<Integer> queue = newShardedQueue(4);
+        //when
+        for (int i = 0; i < 8; i++) {
+            queue.offer(i);
+        }
+        //then
+        for (int shard = 0; shard < 4; shard++) {
+            assertThat(queue.subset(List.of(shard))).hasSize(2);
+        }
+    }
+
+    @Test
+    public void test_subset_only_drains_its_shards() throws InterruptedException {
+        //given
+        ShardedQueue<Integer> queue = newShardedQueue(4);
+        for (int i = 0; i < 8; i++) {
+            queue.offer(i, i);
+        }
+        ShardedQueue<Integer> subset = queue.subset(List.of(1, 3));
+        List<Integer> target = new ArrayList<>();
+        //when
+        int drained = subset.drainTo(target, 10, 100, TimeUnit.MILLISECONDS);
+        //then
+        assertThat(drained).isEqualTo(4);
+        assertThat(target).containsExactlyInAnyOrder(1, 3, 5, 7);
+        assertThat(queue).containsExactlyInAnyOrder(0, 2, 4, 6);
+    }
+
+    @Test
+    public void test_drain_to_with_max_elements() throws InterruptedException {
+        //given
+        ShardedQueue<Integer> queue = newShardedQueue(4);
+        for (int i = 0; i < 8; i++) {
+            queue.offer(i, i);
+        }
+        List<Integer> target = new ArrayList<>();
+        //when
+        int drained = queue.drainTo(target, 3, 100, TimeUnit.MILLISECONDS);
+        //then
+        assertThat(drained).isEqualTo(3);
+        assertThat(target).hasSize(3);
+        assertThat(queue).hasSize(5);
+    }
+
+    @Test
+    public void test_drain_to_waits_for_an_element_in_any_shard() throws Exception {
+        //given
+        ShardedQueue<Integer> queue = newShardedQueue(4);
+        List<Integer> target = new ArrayList<>();
+        CompletableFuture<Integer> drained = CompletableFuture.supplyAsync(() -> {
+            try {
+                return queue.drainTo(target, 3, 1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        await().during(100, TimeUnit.MILLISECONDS).atMost(1, TimeUnit.SECONDS).until(() -> !drained.isDone());
+        //when
+        queue.offer(42, 2);
+        //then
+        assertThat(drained.get(5, TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(target).containsExactly(42);
+    }
+
+    @Test
+    public void test_drain_to_waits_until_timeout_when_empty() throws InterruptedException {
+        //given
+        ShardedQueue<Integer> queue = newShardedQueue(4);
+        long start = System.nanoTime();
+        //when
+        int drained = queue.drainTo(new ArrayList<>(), 3, 100, TimeUnit.MILLISECONDS);
+        //then
+        assertThat(drained).isZero();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void test_subset_with_an_unknown_shard() {
+        ShardedQueue<Integer> queue = newShardedQueue(2);
+        assertThatThrownBy(() -> queue.subset(List.of(2))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private ShardedQueue<Integer> newShardedQueue(int shards) {
+        List<BoundedQueue<Integer>> boundedQueues = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            boundedQueues.add(new BoundedQueue<>("test-" + i, 16, OverflowPolicy.BLOCK, metrics));
+        }
+        return new ShardedQueue<>(boundedQueues);
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.github.clescot.kafka.connect.http.MetricsFactory;
+import dev.failsafe.BulkheadFullException;
+import org.apache.kafka.common.metrics.Metrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    public void test_overload_signals_decrease_the_limit_down_to_the_min_limit() throws InterruptedException {
+        //given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("partner", new AdaptiveConcurrencySettings(true, 2, 10, 0.5d, 2.0d), 100, 0);
+        //when
+        limiter.onResponse(limiter.acquire(), 100L, true);
+        int limitAfterOneOverload = limiter.getLimit();
+        for (int i = 0; i < 5; i++) {
+            limiter.onFailure(limiter.acquire());
+        }
+        //then
+        assertThat(limitAfterOneOverload).isEqualTo(5);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void test_overload_signals_of_concurrent_exchanges_decrease_the_limit_once() throws InterruptedException {
+        //given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("partner", new AdaptiveConcurrencySettings(true, 1, 10, 0.5d, 2.0d), 100, 0);
+        long[] slots = new long[4];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = limiter.acquire();
+        }
+        //when
+        //the HTTP exchanges started together see the same overload
+        for (long slot : slots) {
+            limiter.onResponse(slot, 100L, true);
+        }
+        int limitAfterOneCongestionWindow = limiter.getLimit();
+        //an HTTP exchange started after the decrease starts a new congestion window
+        limiter.onFailure(limiter.acquire());
+        //then
+        assertThat(limitAfterOneCongestionWindow).isEqualTo(5);
+        assertThat(limiter.getLimit()).isEqualTo(2);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    public void test_limit_and_in_flight_metrics() throws InterruptedException {
+        //given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("partner", new AdaptiveConcurrencySettings(true, 1, 10, 0.5d, 2.0d), 100, 0);
+        Map<String, String> tags = Map.of(MetricsFactory.CONNECTOR_TAG, "test", MetricsFactory.TASK_TAG, "0");
+        try (Metrics metrics = MetricsFactory.newMetrics()) {
+            limiter.registerMetrics(metrics, tags);
+            Map<String, String> destinationTags = Map.of(MetricsFactory.CONNECTOR_TAG, "test", MetricsFactory.TASK_TAG, "0", AdaptiveConcurrencyLimiter.DESTINATION_TAG, "partner");
+            //when
+            limiter.acquire();
+            //then
+            assertThat(metrics.metric(metrics.metricName("concurrency-limit", AdaptiveConcurrencyLimiter.ADAPTIVE_CONCURRENCY_METRIC_GROUP, destinationTags)).metricValue()).isEqualTo(10);
+            assertThat(metrics.metric(metrics.metricName("in-flight", AdaptiveConcurrencyLimiter.ADAPTIVE_CONCURRENCY_METRIC_GROUP, destinationTags)).metricValue()).isEqualTo(1);
+            limiter.unregisterMetrics(metrics, tags);
+            assertThat(metrics.metric(metrics.metricName("in-flight", AdaptiveConcurrencyLimiter.ADAPTIVE_CONCURRENCY_METRIC_GROUP, destinationTags))).isNull();
+        }
+    }
+
+    @Test
+    public void test_successful_exchanges_increase_a_used_limit_up_to_the_max_limit() throws InterruptedException {
+        //given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("partner", new AdaptiveConcurrencySettings(true, 1, 2, 0.9d, 2.0d), 6, 0);
+        //when
+        for (int round = 0; round < 50; round++) {
+            int limit = limiter.getLimit();
+            long[] slots = new long[limit];
+            for (int i = 0; i < limit; i++) {
+                slots[i] = limiter.acquire();
+            }
+            for (int i = 0; i < limit; i++) {
+                limiter.onResponse(slots[i], 100L, false);
+            }
+        }
+        //then
+        assertThat(limiter.getLimit()).isEqualTo(6);
+    }
+
+    @Test
+    public void test_unused_limit_is_not_increased() throws InterruptedException {
+        //given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("partner", new AdaptiveConcurrencySettings(true, 1, 10, 0.9d, 2.0d), 100, 0);
+        //when
+        for (int i = 0; i < 100; i++) {
+            limiter.onResponse(limiter.acquire(), 100L, false);
+        }
+        //then
+        assertThat(limiter.getLimit()).isEqualTo(10);
+    }
+
+    @Test
+    public void test_slow_exchange_decreases_the_limit() throws InterruptedException {
+        //given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("partner", new AdaptiveConcurrencySettings(true, 1, 10, 0.5d, 2.0d), 100, 0);
+        for (int i = 0; i < 10; i++) {
+            limiter.onResponse(limiter.acquire(), 100L, false);
+        }
+        //when
+        limiter.onResponse(limiter.acquire(), 500L, false);
+        //then
+        assertThat(limiter.getLimit()).isEqualTo(5);
+    }
+
+    @Test
+    public void test_no_slot_released_in_time() throws InterruptedException {
+        //given
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("partner", new AdaptiveConcurrencySettings(true, 1, 1, 0.9d, 2.0d), 100, 50);
+        limiter.acquire();
+        //when
+        //then
+        assertThatThrownBy(limiter::acquire).isInstanceOf(BulkheadFullException.class);
+        assertThat(limiter.getInFlight()).isEqualTo(1);
+    }
+
+    @Test
+    public void test_waiting_call_is_resumed_when_a_slot_is_released() throws InterruptedException {
+        //given
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("partner", new AdaptiveConcurrencySettings(true, 1, 1, 0.9d, 2.0d), 100, 10000);
+            long firstSlot = limiter.acquire();
+            //when
+            CompletableFuture<Long> slot = limiter.acquireAsync(scheduler);
+            assertThat(slot).isNotDone();
+            limiter.onResponse(firstSlot, 100L, false);
+            //then
+            await().atMost(5, TimeUnit.SECONDS).until(slot::isDone);
+            assertThat(slot).isCompletedWithValue(firstSlot + 1);
+            assertThat(limiter.getInFlight()).isEqualTo(1);
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+}
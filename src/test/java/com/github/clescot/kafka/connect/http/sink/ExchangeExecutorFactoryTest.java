@@ -0,0 +1,49 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExchangeExecutorFactoryTest {
+
+    @Test
+    public void test_invalid_max_platform_threads() {
+        assertThatThrownBy(() -> ExchangeExecutorFactory.newExchangeExecutor(ExchangeExecution.VIRTUAL_THREADS, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void test_non_blocking_execution_has_no_executor() {
+        assertThat(ExchangeExecutorFactory.newExchangeExecutor(ExchangeExecution.NON_BLOCKING, 3)).isNull();
+    }
+
+    @Test
+    public void test_platform_thread_executor_is_bounded() {
+        ExecutorService executorService = ExchangeExecutorFactory.newExchangeExecutor(ExchangeExecution.PLATFORM_THREADS, 3);
+        try {
+            assertThat(executorService).isInstanceOf(ThreadPoolExecutor.class);
+            assertThat(((ThreadPoolExecutor) executorService).getMaximumPoolSize()).isEqualTo(3);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_exchange_executor_runs_tasks() throws Exception {
+        ExecutorService executorService = ExchangeExecutorFactory.newExchangeExecutor(ExchangeExecution.VIRTUAL_THREADS, 2);
+        try {
+            Future<String> threadName = executorService.submit(() -> Thread.currentThread().toString());
+            if (ExchangeExecutorFactory.isVirtualThreadAvailable()) {
+                assertThat(threadName.get()).startsWith("VirtualThread");
+            } else {
+                assertThat(threadName.get()).contains("http-sink-exchange-");
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+}
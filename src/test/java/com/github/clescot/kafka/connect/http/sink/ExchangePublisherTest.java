@@ -0,0 +1,122 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.clescot.kafka.connect.http.HttpExchange;
+import com.github.clescot.kafka.connect.http.HttpRequest;
+import com.github.clescot.kafka.connect.http.HttpResponse;
+import org.apache.kafka.clients.producer.MockProducer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.json.JsonConverter;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.storage.SimpleHeaderConverter;
+import org.apache.kafka.connect.storage.StringConverter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExchangePublisherTest {
+
+    private MockProducer<byte[], byte[]> producer;
+    private ExchangePublisher exchangePublisher;
+
+    @BeforeEach
+    public void setUp() {
+        producer = new MockProducer<>(false, new ByteArraySerializer(), new ByteArraySerializer());
+        StringConverter keyConverter = new StringConverter();
+        keyConverter.configure(Map.of(), true);
+        JsonConverter valueConverter = new JsonConverter();
+        valueConverter.configure(Map.of("schemas.enable", "false"), false);
+        SimpleHeaderConverter headerConverter = new SimpleHeaderConverter();
+        headerConverter.configure(Map.of());
+        exchangePublisher = new ExchangePublisher(producer, keyConverter, valueConverter, headerConverter, "http-success", "http-error");
+    }
+
+    @Test
+    public void test_successful_http_exchange_is_published_into_the_success_topic() throws IOException {
+        //given
+        ConnectHeaders headers = new ConnectHeaders();
+        headers.addString("X-Correlation-ID", "1234");
+        SinkRecord sinkRecord = new SinkRecord("requests", 0, Schema.STRING_SCHEMA, "myKey", null, "stuff", 0, null, null, headers);
+        //when
+        exchangePublisher.publish(sinkRecord, getHttpExchange(true));
+        //then
+        assertThat(producer.history()).hasSize(1);
+        ProducerRecord<byte[], byte[]> producerRecord = producer.history().get(0);
+        assertThat(producerRecord.topic()).isEqualTo("http-success");
+        assertThat(new String(producerRecord.key(), StandardCharsets.UTF_8)).isEqualTo("myKey");
+        assertThat(new String(producerRecord.headers().lastHeader("X-Correlation-ID").value(), StandardCharsets.UTF_8)).isEqualTo("1234");
+        JsonNode value = new ObjectMapper().readTree(producerRecord.value());
+        assertThat(value.get(HttpExchange.DURATION_IN_MILLIS).asLong()).isEqualTo(245L);
+        assertThat(value.get(HttpExchange.RESPONSE).get("statusCode").asInt()).isEqualTo(200);
+    }
+
+    @Test
+    public void test_failed_http_exchange_is_published_into_the_error_topic() {
+        //given
+        SinkRecord sinkRecord = new SinkRecord("requests", 0, null, null, null, "stuff", 0);
+        //when
+        exchangePublisher.publish(sinkRecord, getHttpExchange(false));
+        //then
+        assertThat(producer.history()).extracting(ProducerRecord::topic).containsExactly("http-error");
+        assertThat(producer.history().get(0).key()).isNull();
+    }
+
+    @Test
+    public void test_flush_waits_for_the_acknowledgement_of_sent_http_exchanges() {
+        //given
+        SinkRecord sinkRecord = new SinkRecord("requests", 0, null, null, null, "stuff", 0);
+        exchangePublisher.publish(sinkRecord, getHttpExchange(true));
+        //when
+        exchangePublisher.flush();
+        //then
+        assertThat(producer.completeNext()).isFalse();
+    }
+
+    @Test
+    public void test_flush_fails_when_an_http_exchange_is_not_published() {
+        //given
+        SinkRecord sinkRecord = new SinkRecord("requests", 0, null, null, null, "stuff", 0);
+        exchangePublisher.publish(sinkRecord, getHttpExchange(true));
+        //when
+        producer.errorNext(new RuntimeException("broker not available"));
+        //then
+        assertThrows(ConnectException.class, () -> exchangePublisher.flush());
+    }
+
+    @Test
+    public void test_send_failure_is_reported_without_flush() {
+        //given
+        SinkRecord sinkRecord = new SinkRecord("requests", 0, null, null, null, "stuff", 0);
+        exchangePublisher.publish(sinkRecord, getHttpExchange(true));
+        exchangePublisher.throwSendFailureIfAny();
+        //when
+        producer.errorNext(new RuntimeException("broker not available"));
+        //then
+        assertThrows(ConnectException.class, () -> exchangePublisher.throwSendFailureIfAny());
+    }
+
+    private HttpExchange getHttpExchange(boolean success) {
+        return new HttpExchange(
+                new HttpRequest("http://www.titi.com", "GET", "STRING", "stuff", null, null),
+                new HttpResponse(success ? 200 : 500, success ? "OK" : "Internal Server Error", "my response"),
+                245L,
+                OffsetDateTime.of(2022, 11, 2, 10, 15, 30, 0, ZoneOffset.UTC),
+                new AtomicInteger(1),
+                success
+        );
+    }
+}
@@ -0,0 +1,151 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.github.clescot.kafka.connect.http.HttpExchange;
+import com.github.clescot.kafka.connect.http.MetricsFactory;
+import com.github.clescot.kafka.connect.http.sink.client.HttpException;
+import com.google.common.collect.Maps;
+import dev.failsafe.Bulkhead;
+import dev.failsafe.BulkheadFullException;
+import dev.failsafe.CircuitBreaker;
+import dev.failsafe.CircuitBreakerOpenException;
+import dev.failsafe.Failsafe;
+import org.apache.kafka.common.MetricName;
+import org.apache.kafka.common.metrics.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class HostCircuitBreakersTest {
+
+    private static final Map<String, String> TAGS = Map.of(MetricsFactory.CONNECTOR_TAG, "test", MetricsFactory.TASK_TAG, "0");
+    private Metrics metrics;
+
+    @BeforeEach
+    public void setUp() {
+        metrics = MetricsFactory.newMetrics();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        metrics.close();
+    }
+
+    @Test
+    public void test_requests_of_a_host_share_a_circuit_breaker() {
+        //given
+        HostCircuitBreakers circuitBreakers = new HostCircuitBreakers(5, 30000, 1, 10);
+        //when
+        CircuitBreaker<HttpExchange> first = circuitBreakers.get("http://api.example.com/first");
+        CircuitBreaker<HttpExchange> second = circuitBreakers.get("https://API.example.com/second?query=1");
+        CircuitBreaker<HttpExchange> other = circuitBreakers.get("http://other.example.com/first");
+        //then
+        assertThat(first).isSameAs(second);
+        assertThat(other).isNotSameAs(first);
+        assertThat(HostCircuitBreakers.host("example.com/path")).isEqualTo(HostCircuitBreakers.UNKNOWN_HOST);
+    }
+
+    @Test
+    public void test_consecutive_failures_open_the_circuit_breaker() {
+        //given
+        HostCircuitBreakers circuitBreakers = new HostCircuitBreakers(2, 30000, 1, 10);
+        CircuitBreaker<HttpExchange> circuitBreaker = circuitBreakers.get("http://api.example.com");
+        //when
+        for (int i = 0; i < 2; i++) {
+            assertThatThrownBy(() -> Failsafe.with(circuitBreaker).get(() -> {
+                throw new HttpException("retry needed");
+            })).isInstanceOf(HttpException.class);
+        }
+        //then
+        assertThat(circuitBreaker.isOpen()).isTrue();
+        assertThatThrownBy(() -> Failsafe.with(circuitBreaker).get(() -> (HttpExchange) null)).isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(circuitBreakers.get("http://other.example.com").isClosed()).isTrue();
+    }
+
+    @Test
+    public void test_successful_probe_request_closes_the_circuit_breaker() {
+        //given
+        HostCircuitBreakers circuitBreakers = new HostCircuitBreakers(1, 50, 1, 10);
+        CircuitBreaker<HttpExchange> circuitBreaker = circuitBreakers.get("http://api.example.com");
+        circuitBreaker.recordException(new HttpException("retry needed"));
+        assertThat(circuitBreaker.isOpen()).isTrue();
+        //when
+        await().atMost(Duration.ofSeconds(5)).until(() -> circuitBreaker.getRemainingDelay().isZero());
+        Failsafe.with(circuitBreaker).get(() -> (HttpExchange) null);
+        //then
+        assertThat(circuitBreaker.isClosed()).isTrue();
+    }
+
+    @Test
+    public void test_full_concurrency_limit_is_not_a_failure() {
+        //given
+        HostCircuitBreakers circuitBreakers = new HostCircuitBreakers(1, 30000, 1, 10);
+        CircuitBreaker<HttpExchange> circuitBreaker = circuitBreakers.get("http://api.example.com");
+        //when
+        circuitBreaker.recordException(new BulkheadFullException(Bulkhead.of(1)));
+        //then
+        assertThat(circuitBreaker.isClosed()).isTrue();
+    }
+
+    @Test
+    public void test_metrics_expose_the_state_and_the_rejected_calls_of_each_host() {
+        //given
+        HostCircuitBreakers circuitBreakers = new HostCircuitBreakers(1, 30000, 1, 10);
+        circuitBreakers.registerMetrics(metrics, TAGS);
+        CircuitBreaker<HttpExchange> circuitBreaker = circuitBreakers.get("http://api.example.com");
+        //when
+        circuitBreaker.recordException(new HttpException("retry needed"));
+        circuitBreakers.rejected("http://api.example.com/path");
+        //then
+        assertThat(metricValue("state", "api.example.com")).isEqualTo(2);
+        assertThat(metricValue("rejected-total", "api.example.com")).isEqualTo(1.0d);
+    }
+
+    @Test
+    public void test_metrics_of_an_evicted_circuit_breaker_are_removed() {
+        //given
+        HostCircuitBreakers circuitBreakers = new HostCircuitBreakers(1, 30000, 1, 1);
+        circuitBreakers.registerMetrics(metrics, TAGS);
+        circuitBreakers.get("http://first.example.com");
+        //when
+        circuitBreakers.get("http://second.example.com");
+        //then
+        assertThat(circuitBreakers.size()).isEqualTo(1);
+        assertThat(metrics.metric(metricName("state", "first.example.com"))).isNull();
+        assertThat(metrics.metric(metricName("state", "second.example.com"))).isNotNull();
+    }
+
+    @Test
+    public void test_open_circuit_breaker_is_not_replaced_when_evicted() {
+        //given
+        HostCircuitBreakers circuitBreakers = new HostCircuitBreakers(1, 30000, 1, 1);
+        circuitBreakers.registerMetrics(metrics, TAGS);
+        CircuitBreaker<HttpExchange> circuitBreaker = circuitBreakers.get("http://failing.example.com");
+        circuitBreaker.recordException(new HttpException("retry needed"));
+        //when
+        circuitBreakers.get("http://other.example.com");
+        //then
+        assertThat(circuitBreakers.notClosedEvictedSize()).isEqualTo(1);
+        assertThat(metricValue("state", "failing.example.com")).isEqualTo(2);
+        CircuitBreaker<HttpExchange> circuitBreakerAfterEviction = circuitBreakers.get("http://failing.example.com/path");
+        assertThat(circuitBreakerAfterEviction).isSameAs(circuitBreaker);
+        assertThat(circuitBreakerAfterEviction.isOpen()).isTrue();
+        assertThat(circuitBreakers.notClosedEvictedSize()).isZero();
+    }
+
+    private Object metricValue(String name, String host) {
+        return metrics.metric(metricName(name, host)).metricValue();
+    }
+
+    private MetricName metricName(String name, String host) {
+        Map<String, String> tags = Maps.newHashMap(TAGS);
+        tags.put(HostCircuitBreakers.HOST_TAG, host);
+        return metrics.metricName(name, HostCircuitBreakers.CIRCUIT_BREAKERS_METRIC_GROUP, tags);
+    }
+}
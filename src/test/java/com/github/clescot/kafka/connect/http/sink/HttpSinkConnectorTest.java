@@ -1,5 +1,6 @@
 package com.github.clescot.kafka.connect.http.sink;
 
+import com.github.clescot.kafka.connect.http.ConfigConstants;
 import com.google.common.collect.Maps;
 import org.apache.kafka.connect.connector.Task;
 import org.junit.Test;
@@ -55,7 +56,7 @@ public class HttpSinkConnectorTest {
             httpSinkConnector.start(settings);
             List<Map<String, String>> maps = httpSinkConnector.taskConfigs(1);
             assertThat(maps.size()).isEqualTo(1);
-            assertThat(maps.get(0)).isEqualTo(settings);
+            assertThat(maps.get(0)).containsAllEntriesOf(settings).containsEntry(ConfigConstants.TASK_ID, "0");
         }
 
 
@@ -77,8 +78,8 @@ public class HttpSinkConnectorTest {
             httpSinkConnector.start(settings);
             List<Map<String, String>> maps = httpSinkConnector.taskConfigs(2);
             assertThat(maps.size()).isEqualTo(2);
-            assertThat(maps.get(0)).isEqualTo(settings);
-            assertThat(maps.get(1)).isEqualTo(settings);
+            assertThat(maps.get(0)).containsAllEntriesOf(settings).containsEntry(ConfigConstants.TASK_ID, "0");
+            assertThat(maps.get(1)).containsAllEntriesOf(settings).containsEntry(ConfigConstants.TASK_ID, "1");
         }
     }
 
@@ -4,9 +4,12 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.github.clescot.kafka.connect.http.*;
+import com.github.clescot.kafka.connect.http.queue.ShardedQueue;
 import com.github.clescot.kafka.connect.http.sink.client.ahc.AHCHttpClient;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.apache.kafka.common.record.TimestampType;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.Struct;
@@ -15,6 +18,7 @@ import org.apache.kafka.connect.header.Header;
 import org.apache.kafka.connect.sink.ErrantRecordReporter;
 import org.apache.kafka.connect.sink.SinkRecord;
 import org.apache.kafka.connect.sink.SinkTaskContext;
+import org.awaitility.Awaitility;
 import org.json.JSONException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -28,14 +32,21 @@ import org.skyscreamer.jsonassert.JSONAssert;
 import org.skyscreamer.jsonassert.JSONCompareMode;
 import org.skyscreamer.jsonassert.comparator.CustomComparator;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.github.clescot.kafka.connect.http.sink.HttpSinkConfigDefinition.*;
+import static com.github.clescot.kafka.connect.http.sink.client.HttpClient.CIRCUIT_BREAKER_OPEN_STATUS_CODE;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -246,6 +257,124 @@ public class HttpSinkTaskTest {
         verify(queue, never()).offer(any(KafkaRecord.class));
     }
 
+    @Test
+    public void test_put_with_a_destination_policy() {
+        //given
+        Map<String, String> settings = Maps.newHashMap();
+        settings.put(DESTINATIONS, "dummy");
+        settings.put(DESTINATION_PREFIX + "dummy." + DestinationSettings.HOST, "www." + DUMMY_BODY + ".com");
+        settings.put(DESTINATION_PREFIX + "dummy." + DestinationPolicy.RETRY_RESPONSE_CODE_REGEX, "^503$");
+        settings.put(DESTINATION_PREFIX + "dummy." + DestinationPolicy.REQUEST_TIMEOUT_IN_MS, "3000");
+        httpSinkTask.start(settings);
+        AHCHttpClient httpClient = mock(AHCHttpClient.class);
+        when(httpClient.call(any(HttpRequest.class),any(AtomicInteger.class))).thenReturn(getDummyHttpExchange(500));
+        httpSinkTask.setHttpClient(httpClient);
+        SinkRecord sinkRecord = new SinkRecord("myTopic", 0, Schema.STRING_SCHEMA, "key", Schema.STRING_SCHEMA, getDummyHttpRequestAsString(), -1, System.currentTimeMillis(), TimestampType.CREATE_TIME, Lists.newArrayList());
+        //when
+        httpSinkTask.put(Lists.newArrayList(sinkRecord));
+        //then
+        //a 500 status code is retried by the default policy, not by the destination policy
+        ArgumentCaptor<HttpRequest> captor = ArgumentCaptor.forClass(HttpRequest.class);
+        verify(httpClient, times(1)).call(captor.capture(),any(AtomicInteger.class));
+        assertThat(captor.getValue().getHeaders().get(AHCHttpClient.WS_REQUEST_TIMEOUT_IN_MS)).containsExactly("3000");
+    }
+
+    @Test
+    public void test_put_with_an_open_circuit_breaker_fails_fast() {
+        //given
+        Map<String, String> settings = Maps.newHashMap();
+        settings.put(DEFAULT_RETRIES, "0");
+        settings.put(CIRCUIT_BREAKER_ENABLED, "true");
+        settings.put(CIRCUIT_BREAKER_FAILURE_THRESHOLD, "1");
+        httpSinkTask.start(settings);
+        AHCHttpClient httpClient = mock(AHCHttpClient.class);
+        when(httpClient.call(any(HttpRequest.class),any(AtomicInteger.class))).thenReturn(getDummyHttpExchange(500));
+        doCallRealMethod().when(httpClient).buildHttpExchange(any(), any(), any(), any(), any(), anyBoolean());
+        httpSinkTask.setHttpClient(httpClient);
+        ExchangePublisher exchangePublisher = mock(ExchangePublisher.class);
+        httpSinkTask.setExchangePublisher(exchangePublisher);
+        SinkRecord sinkRecord1 = new SinkRecord("myTopic", 0, Schema.STRING_SCHEMA, "key", Schema.STRING_SCHEMA, getDummyHttpRequestAsString(), 0, System.currentTimeMillis(), TimestampType.CREATE_TIME, Lists.newArrayList());
+        SinkRecord sinkRecord2 = new SinkRecord("myTopic", 0, Schema.STRING_SCHEMA, "key", Schema.STRING_SCHEMA, getDummyHttpRequestAsString(), 1, System.currentTimeMillis(), TimestampType.CREATE_TIME, Lists.newArrayList());
+        //when
+        httpSinkTask.put(Lists.newArrayList(sinkRecord1, sinkRecord2));
+        //then
+        //the first failure opens the circuit breaker : the second HTTP request is not sent
+        verify(httpClient, times(1)).call(any(HttpRequest.class),any(AtomicInteger.class));
+        ArgumentCaptor<HttpExchange> captor = ArgumentCaptor.forClass(HttpExchange.class);
+        verify(exchangePublisher, times(2)).publish(any(SinkRecord.class), captor.capture());
+        HttpExchange failedFastHttpExchange = captor.getAllValues().get(1);
+        assertThat(failedFastHttpExchange.isSuccess()).isFalse();
+        assertThat(failedFastHttpExchange.getHttpResponse().getStatusCode()).isEqualTo(CIRCUIT_BREAKER_OPEN_STATUS_CODE);
+        httpSinkTask.stop();
+    }
+
+    @Test
+    public void test_put_fails_after_a_failed_publication() {
+        //given
+        Map<String, String> settings = Maps.newHashMap();
+        httpSinkTask.start(settings);
+        AHCHttpClient httpClient = mock(AHCHttpClient.class);
+        when(httpClient.call(any(HttpRequest.class),any(AtomicInteger.class))).thenReturn(getDummyHttpExchange());
+        httpSinkTask.setHttpClient(httpClient);
+        ExchangePublisher exchangePublisher = mock(ExchangePublisher.class);
+        doThrow(new ConnectException("an HTTP exchange has not been published")).when(exchangePublisher).throwSendFailureIfAny();
+        httpSinkTask.setExchangePublisher(exchangePublisher);
+        SinkRecord sinkRecord = new SinkRecord("myTopic", 0, Schema.STRING_SCHEMA, "key", Schema.STRING_SCHEMA, getDummyHttpRequestAsString(), 0, System.currentTimeMillis(), TimestampType.CREATE_TIME, Lists.newArrayList());
+        //when
+        //then
+        Assertions.assertThrows(ConnectException.class, () -> httpSinkTask.put(Lists.newArrayList(sinkRecord)));
+        verify(httpClient, never()).call(any(HttpRequest.class),any(AtomicInteger.class));
+        httpSinkTask.stop();
+    }
+
+    @Test
+    public void test_put_fails_when_the_http_exchange_is_not_published_to_the_queue() {
+        //given
+        Map<String, String> settings = Maps.newHashMap();
+        settings.put(PUBLISH_TO_IN_MEMORY_QUEUE, "true");
+        QueueFactory.registerConsumerForQueue(QueueFactory.DEFAULT_QUEUE_NAME);
+        httpSinkTask.start(settings);
+        AHCHttpClient httpClient = mock(AHCHttpClient.class);
+        when(httpClient.call(any(HttpRequest.class),any(AtomicInteger.class))).thenReturn(getDummyHttpExchange());
+        httpSinkTask.setHttpClient(httpClient);
+        Queue<KafkaRecord> queue = mock(Queue.class);
+        when(queue.offer(any(KafkaRecord.class))).thenThrow(new UncheckedIOException("cannot send an HTTP exchange", new IOException("broken pipe")));
+        httpSinkTask.setQueue(queue);
+        SinkRecord sinkRecord = new SinkRecord("myTopic", 0, Schema.STRING_SCHEMA, "key", Schema.STRING_SCHEMA, getDummyHttpRequestAsString(), 0, System.currentTimeMillis(), TimestampType.CREATE_TIME, Lists.newArrayList());
+        //when
+        //then
+        //without any Dead Letter Queue, the record is not committed : the task fails
+        Assertions.assertThrows(ConnectException.class, () -> httpSinkTask.put(Lists.newArrayList(sinkRecord)));
+        verify(httpClient, times(1)).call(any(HttpRequest.class),any(AtomicInteger.class));
+        httpSinkTask.stop();
+    }
+
+    @Test
+    public void test_put_fails_when_interrupted_while_waiting_for_a_free_slot_in_the_queue() {
+        //given
+        Map<String, String> settings = Maps.newHashMap();
+        settings.put(PUBLISH_TO_IN_MEMORY_QUEUE, "true");
+        QueueFactory.registerConsumerForQueue(QueueFactory.DEFAULT_QUEUE_NAME);
+        httpSinkTask.start(settings);
+        AHCHttpClient httpClient = mock(AHCHttpClient.class);
+        when(httpClient.call(any(HttpRequest.class),any(AtomicInteger.class))).thenReturn(getDummyHttpExchange());
+        httpSinkTask.setHttpClient(httpClient);
+        Queue<KafkaRecord> queue = mock(Queue.class);
+        when(queue.offer(any(KafkaRecord.class))).thenReturn(false);
+        httpSinkTask.setQueue(queue);
+        SinkRecord sinkRecord = new SinkRecord("myTopic", 0, Schema.STRING_SCHEMA, "key", Schema.STRING_SCHEMA, getDummyHttpRequestAsString(), 0, System.currentTimeMillis(), TimestampType.CREATE_TIME, Lists.newArrayList());
+        //when
+        //then
+        try {
+            Assertions.assertThrows(ConnectException.class, () -> httpSinkTask.put(Lists.newArrayList(sinkRecord)));
+            assertThat(Thread.currentThread().isInterrupted()).isTrue();
+        } finally {
+            //clear the interrupt flag for the next tests
+            Thread.interrupted();
+        }
+        httpSinkTask.stop();
+    }
+
     @Test
     public void test_put_with_publish_to_in_memory_queue_set_to_true_with_a_consumer() {
 
@@ -259,6 +388,7 @@ public class HttpSinkTaskTest {
         when(httpClient.call(any(HttpRequest.class),any(AtomicInteger.class))).thenReturn(dummyHttpExchange);
         httpSinkTask.setHttpClient(httpClient);
         Queue<KafkaRecord> queue = mock(Queue.class);
+        when(queue.offer(any(KafkaRecord.class))).thenReturn(true);
         httpSinkTask.setQueue(queue);
         List<SinkRecord> records = Lists.newArrayList();
         List<Header> headers = Lists.newArrayList();
@@ -273,6 +403,314 @@ public class HttpSinkTaskTest {
     }
 
 
+    @Test
+    public void test_put_pauses_and_resumes_partitions_with_queue_water_marks() {
+        //given
+        Map<String, String> settings = Maps.newHashMap();
+        settings.put(PUBLISH_TO_IN_MEMORY_QUEUE, "true");
+        settings.put(ConfigConstants.QUEUE_NAME, "backpressure");
+        settings.put(ConfigConstants.QUEUE_CAPACITY, "4");
+        settings.put(QUEUE_HIGH_WATER_MARK, "0.75");
+        settings.put(QUEUE_LOW_WATER_MARK, "0.25");
+        QueueFactory.registerConsumerForQueue("backpressure");
+        httpSinkTask.start(settings);
+        Queue<KafkaRecord> queue = QueueFactory.getQueue("backpressure");
+        TopicPartition topicPartition = new TopicPartition("myTopic", 0);
+        when(sinkTaskContext.assignment()).thenReturn(Set.of(topicPartition));
+        KafkaRecord kafkaRecord = new KafkaRecord(null, null, null, getDummyHttpExchange());
+        for (int i = 0; i < 3; i++) {
+            queue.offer(kafkaRecord);
+        }
+        //when
+        httpSinkTask.put(Lists.newArrayList());
+        //then
+        verify(sinkTaskContext, times(1)).pause(topicPartition);
+        verify(sinkTaskContext, never()).resume(any(TopicPartition[].class));
+
+        //when the source consumes HTTP exchanges
+        queue.poll();
+        httpSinkTask.put(Lists.newArrayList());
+        //then partitions are still paused, above the low water mark
+        verify(sinkTaskContext, never()).resume(any(TopicPartition[].class));
+        queue.poll();
+        httpSinkTask.put(Lists.newArrayList());
+        verify(sinkTaskContext, times(1)).resume(topicPartition);
+        queue.clear();
+    }
+
+    @Test
+    public void test_put_publishes_http_exchanges_of_a_partition_into_the_same_shard() {
+        //given
+        Map<String, String> settings = Maps.newHashMap();
+        settings.put(PUBLISH_TO_IN_MEMORY_QUEUE, "true");
+        settings.put(ConfigConstants.QUEUE_NAME, "sharded");
+        settings.put(ConfigConstants.QUEUE_SHARDS, "4");
+        QueueFactory.registerConsumerForQueue("sharded");
+        httpSinkTask.start(settings);
+        AHCHttpClient httpClient = mock(AHCHttpClient.class);
+        when(httpClient.call(any(HttpRequest.class),any(AtomicInteger.class))).thenAnswer(invocation -> getDummyHttpExchange());
+        httpSinkTask.setHttpClient(httpClient);
+        List<SinkRecord> records = Lists.newArrayList();
+        for (int i = 0; i < 6; i++) {
+            records.add(getSinkRecord(i % 2, "key" + i, i));
+        }
+        //when
+        httpSinkTask.put(records);
+        //then
+        ShardedQueue<KafkaRecord> queue = QueueFactory.getQueue("sharded");
+        assertThat(queue).hasSize(6);
+        List<Integer> recordsPerShard = Lists.newArrayList();
+        for (int shard = 0; shard < 4; shard++) {
+            recordsPerShard.add(queue.subset(List.of(shard)).size());
+        }
+        assertThat(recordsPerShard).containsExactlyInAnyOrder(3, 3, 0, 0);
+        queue.clear();
+    }
+
+    @Test
+    public void test_put_with_async_mode() {
+        //given
+        Map<String, String> settings = getAsyncSettings();
+        settings.put(ASYNC_MAX_IN_FLIGHT_REQUESTS, "2");
+        httpSinkTask.start(settings);
+        AHCHttpClient httpClient = mock(AHCHttpClient.class);
+        HttpExchange dummyHttpExchange = getDummyHttpExchange();
+        when(httpClient.callAsync(any(HttpRequest.class),any(AtomicInteger.class))).thenReturn(CompletableFuture.completedFuture(dummyHttpExchange));
+        httpSinkTask.setHttpClient(httpClient);
+        List<SinkRecord> records = Lists.newArrayList();
+        for (int i = 0; i < 5; i++) {
+            records.add(getSinkRecord(0, "key", i));
+        }
+        TopicPartition topicPartition = new TopicPartition("myTopic", 0);
+        Map<TopicPartition, OffsetAndMetadata> currentOffsets = Map.of(topicPartition, new OffsetAndMetadata(5));
+
+        //when
+        httpSinkTask.put(records);
+
+        //then
+        Awaitility.await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(httpSinkTask.preCommit(currentOffsets)).containsEntry(topicPartition, new OffsetAndMetadata(5)));
+        verify(httpClient, times(5)).callAsync(any(HttpRequest.class),any(AtomicInteger.class));
+        verify(httpClient, never()).call(any(HttpRequest.class),any(AtomicInteger.class));
+        httpSinkTask.stop();
+    }
+
+    @Test
+    public void test_put_with_async_mode_does_not_commit_unfinished_exchanges() {
+        //given
+        httpSinkTask.start(getAsyncSettings());
+        AHCHttpClient httpClient = mock(AHCHttpClient.class);
+        CompletableFuture<HttpExchange> pendingHttpExchange = new CompletableFuture<>();
+        when(httpClient.callAsync(any(HttpRequest.class),any(AtomicInteger.class))).thenReturn(pendingHttpExchange);
+        httpSinkTask.setHttpClient(httpClient);
+        SinkRecord sinkRecord = getSinkRecord(0, "key", 3);
+        TopicPartition topicPartition = new TopicPartition("myTopic", 0);
+        Map<TopicPartition, OffsetAndMetadata> currentOffsets = Map.of(topicPartition, new OffsetAndMetadata(4));
+
+        //when
+        httpSinkTask.put(Lists.newArrayList(sinkRecord));
+
+        //then
+        assertThat(httpSinkTask.preCommit(currentOffsets)).containsEntry(topicPartition, new OffsetAndMetadata(3));
+        pendingHttpExchange.complete(getDummyHttpExchange());
+        Awaitility.await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(httpSinkTask.preCommit(currentOffsets)).containsEntry(topicPartition, new OffsetAndMetadata(4)));
+        httpSinkTask.stop();
+    }
+
+    @Test
+    public void test_put_with_async_mode_retries_without_blocking() {
+        //given
+        Map<String, String> settings = getAsyncSettings();
+        settings.put(DEFAULT_RETRIES, "2");
+        settings.put(DEFAULT_RETRY_DELAY_IN_MS, "100");
+        settings.put(DEFAULT_RETRY_JITTER_IN_MS, "10");
+        httpSinkTask.start(settings);
+        AHCHttpClient httpClient = mock(AHCHttpClient.class);
+        HttpExchange serverErrorHttpExchange = getDummyHttpExchange(500);
+        HttpExchange successfulHttpExchange = getDummyHttpExchange();
+        when(httpClient.callAsync(any(HttpRequest.class),any(AtomicInteger.class)))
+                .thenReturn(CompletableFuture.completedFuture(serverErrorHttpExchange))
+                .thenReturn(CompletableFuture.completedFuture(successfulHttpExchange));
+        httpSinkTask.setHttpClient(httpClient);
+        TopicPartition topicPartition = new TopicPartition("myTopic", 0);
+        Map<TopicPartition, OffsetAndMetadata> currentOffsets = Map.of(topicPartition, new OffsetAndMetadata(1));
+
+        //when
+        httpSinkTask.put(Lists.newArrayList(getSinkRecord(0, "key", 0)));
+
+        //then
+        Awaitility.await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(httpSinkTask.preCommit(currentOffsets)).containsEntry(topicPartition, new OffsetAndMetadata(1)));
+        verify(httpClient, times(2)).callAsync(any(HttpRequest.class),any(AtomicInteger.class));
+        httpSinkTask.stop();
+    }
+
+    @Test
+    public void test_put_with_async_mode_publishes_out_of_the_http_client_thread() {
+        //given
+        httpSinkTask.start(getAsyncSettings());
+        AHCHttpClient httpClient = mock(AHCHttpClient.class);
+        CompletableFuture<HttpExchange> pendingHttpExchange = new CompletableFuture<>();
+        when(httpClient.callAsync(any(HttpRequest.class),any(AtomicInteger.class))).thenReturn(pendingHttpExchange);
+        httpSinkTask.setHttpClient(httpClient);
+        ExchangePublisher exchangePublisher = mock(ExchangePublisher.class);
+        AtomicReference<String> publishingThreadName = new AtomicReference<>();
+        doAnswer(invocation -> {
+            publishingThreadName.set(Thread.currentThread().getName());
+            return null;
+        }).when(exchangePublisher).publish(any(SinkRecord.class), any(HttpExchange.class));
+        httpSinkTask.setExchangePublisher(exchangePublisher);
+
+        //when
+        httpSinkTask.put(Lists.newArrayList(getSinkRecord(0, "key", 0)));
+        pendingHttpExchange.complete(getDummyHttpExchange());
+
+        //then
+        Awaitility.await().atMost(Duration.ofSeconds(10)).until(() -> publishingThreadName.get() != null);
+        assertThat(publishingThreadName.get()).startsWith("http-sink-publisher-");
+        httpSinkTask.stop();
+    }
+
+    @Test
+    public void test_put_with_async_mode_publishes_failed_fast_exchanges_out_of_the_http_client_thread() {
+        //given
+        Map<String, String> settings = getAsyncSettings();
+        settings.put(DEFAULT_RETRIES, "0");
+        settings.put(CIRCUIT_BREAKER_ENABLED, "true");
+        settings.put(CIRCUIT_BREAKER_FAILURE_THRESHOLD, "1");
+        httpSinkTask.start(settings);
+        AHCHttpClient httpClient = mock(AHCHttpClient.class);
+        when(httpClient.callAsync(any(HttpRequest.class),any(AtomicInteger.class))).thenReturn(CompletableFuture.completedFuture(getDummyHttpExchange(500)));
+        doCallRealMethod().when(httpClient).buildHttpExchange(any(), any(), any(), any(), any(), anyBoolean());
+        httpSinkTask.setHttpClient(httpClient);
+        ExchangePublisher exchangePublisher = mock(ExchangePublisher.class);
+        AtomicReference<String> failedFastPublishingThreadName = new AtomicReference<>();
+        doAnswer(invocation -> {
+            HttpExchange httpExchange = invocation.getArgument(1);
+            if (httpExchange.getHttpResponse().getStatusCode() == CIRCUIT_BREAKER_OPEN_STATUS_CODE) {
+                failedFastPublishingThreadName.set(Thread.currentThread().getName());
+            }
+            return null;
+        }).when(exchangePublisher).publish(any(SinkRecord.class), any(HttpExchange.class));
+        httpSinkTask.setExchangePublisher(exchangePublisher);
+        TopicPartition topicPartition = new TopicPartition("myTopic", 0);
+        Map<TopicPartition, OffsetAndMetadata> currentOffsets = Map.of(topicPartition, new OffsetAndMetadata(2));
+
+        //when
+        //the first failure opens the circuit breaker
+        httpSinkTask.put(Lists.newArrayList(getSinkRecord(0, "key1", 0)));
+        Awaitility.await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(httpSinkTask.preCommit(currentOffsets)).containsEntry(topicPartition, new OffsetAndMetadata(1)));
+        httpSinkTask.put(Lists.newArrayList(getSinkRecord(0, "key2", 1)));
+
+        //then
+        Awaitility.await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(httpSinkTask.preCommit(currentOffsets)).containsEntry(topicPartition, new OffsetAndMetadata(2)));
+        verify(httpClient, times(1)).callAsync(any(HttpRequest.class),any(AtomicInteger.class));
+        assertThat(failedFastPublishingThreadName.get()).startsWith("http-sink-publisher-");
+        httpSinkTask.stop();
+    }
+
+    @Test
+    public void test_put_with_async_mode_reports_records_without_concurrent_request_slot() {
+        //given
+        when(sinkTaskContext.errantRecordReporter()).thenReturn(errantRecordReporter);
+        when(errantRecordReporter.report(any(SinkRecord.class), any(Throwable.class))).thenReturn(CompletableFuture.completedFuture(null));
+        Map<String, String> settings = getAsyncSettings();
+        settings.put(DEFAULT_MAX_CONCURRENT_REQUESTS, "1");
+        settings.put(DEFAULT_MAX_CONCURRENT_REQUESTS_WAIT_IN_MS, "50");
+        httpSinkTask.start(settings);
+        AHCHttpClient httpClient = mock(AHCHttpClient.class);
+        CompletableFuture<HttpExchange> pendingHttpExchange = new CompletableFuture<>();
+        when(httpClient.callAsync(any(HttpRequest.class),any(AtomicInteger.class))).thenReturn(pendingHttpExchange);
+        httpSinkTask.setHttpClient(httpClient);
+        SinkRecord sinkRecord1 = getSinkRecord(0, "key1", 0);
+        SinkRecord sinkRecord2 = getSinkRecord(0, "key2", 1);
+
+        //when
+        httpSinkTask.put(Lists.newArrayList(sinkRecord1, sinkRecord2));
+
+        //then
+        //the second HTTP request is not sent : its record is reported to the Dead Letter Queue
+        ArgumentCaptor<Throwable> captor = ArgumentCaptor.forClass(Throwable.class);
+        Awaitility.await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                verify(errantRecordReporter).report(eq(sinkRecord2), captor.capture()));
+        assertThat(captor.getValue()).isInstanceOf(ConnectException.class);
+        verify(httpClient, times(1)).callAsync(any(HttpRequest.class),any(AtomicInteger.class));
+        pendingHttpExchange.complete(getDummyHttpExchange());
+        httpSinkTask.stop();
+    }
+
+    @Test
+    public void test_put_with_async_mode_and_key_ordering() {
+        //given
+        Map<String, String> settings = getAsyncSettings();
+        settings.put(ASYNC_DELIVERY_ORDERING, DeliveryOrdering.KEY.name());
+        httpSinkTask.start(settings);
+        AHCHttpClient httpClient = mock(AHCHttpClient.class);
+        CompletableFuture<HttpExchange> firstHttpExchange = new CompletableFuture<>();
+        when(httpClient.callAsync(any(HttpRequest.class),any(AtomicInteger.class)))
+                .thenReturn(firstHttpExchange)
+                .thenReturn(CompletableFuture.completedFuture(getDummyHttpExchange()));
+        httpSinkTask.setHttpClient(httpClient);
+        List<SinkRecord> records = Lists.newArrayList(
+                getSinkRecord(0, "key1", 0),
+                getSinkRecord(0, "key1", 1),
+                getSinkRecord(0, "key2", 2));
+
+        //when
+        httpSinkTask.put(records);
+
+        //then
+        //the second record with 'key1' waits for the first one, the record with 'key2' is sent
+        Awaitility.await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                verify(httpClient, times(2)).callAsync(any(HttpRequest.class),any(AtomicInteger.class)));
+        firstHttpExchange.complete(getDummyHttpExchange());
+        Awaitility.await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                verify(httpClient, times(3)).callAsync(any(HttpRequest.class),any(AtomicInteger.class)));
+        httpSinkTask.stop();
+    }
+
+    @Test
+    public void test_put_with_async_mode_and_virtual_threads() {
+        //given
+        Map<String, String> settings = getAsyncSettings();
+        settings.put(ASYNC_EXCHANGE_EXECUTION, ExchangeExecution.VIRTUAL_THREADS.name());
+        httpSinkTask.start(settings);
+        AHCHttpClient httpClient = mock(AHCHttpClient.class);
+        when(httpClient.call(any(HttpRequest.class),any(AtomicInteger.class))).thenReturn(getDummyHttpExchange());
+        httpSinkTask.setHttpClient(httpClient);
+        List<SinkRecord> records = Lists.newArrayList();
+        for (int i = 0; i < 5; i++) {
+            records.add(getSinkRecord(0, "key", i));
+        }
+        TopicPartition topicPartition = new TopicPartition("myTopic", 0);
+        Map<TopicPartition, OffsetAndMetadata> currentOffsets = Map.of(topicPartition, new OffsetAndMetadata(5));
+
+        //when
+        httpSinkTask.put(records);
+
+        //then
+        //exchanges run with the blocking client, on the virtual threads (or platform threads) executor
+        Awaitility.await().atMost(Duration.ofSeconds(10)).untilAsserted(() ->
+                assertThat(httpSinkTask.preCommit(currentOffsets)).containsEntry(topicPartition, new OffsetAndMetadata(5)));
+        verify(httpClient, times(5)).call(any(HttpRequest.class),any(AtomicInteger.class));
+        verify(httpClient, never()).callAsync(any(HttpRequest.class),any(AtomicInteger.class));
+        httpSinkTask.stop();
+    }
+
+    private Map<String, String> getAsyncSettings() {
+        Map<String, String> settings = Maps.newHashMap();
+        settings.put(ASYNC_MODE, "true");
+        settings.put(DEFAULT_RATE_LIMITER_MAX_EXECUTIONS, "1000");
+        return settings;
+    }
+
+    private SinkRecord getSinkRecord(int partition, String key, long offset) {
+        return new SinkRecord("myTopic", partition, Schema.STRING_SCHEMA, key, Schema.STRING_SCHEMA, getDummyHttpRequestAsString(), offset, System.currentTimeMillis(), TimestampType.CREATE_TIME, Lists.newArrayList());
+    }
+
     @Test
     public void test_http_exchange_json_serialization() throws JsonProcessingException, JSONException {
         HttpExchange dummyHttpExchange = getDummyHttpExchange();
@@ -421,11 +859,15 @@ public class HttpSinkTaskTest {
 
 
     private HttpExchange getDummyHttpExchange() {
+        return getDummyHttpExchange(200);
+    }
+
+    private HttpExchange getDummyHttpExchange(int statusCode) {
         Map<String, List<String>> requestHeaders = Maps.newHashMap();
         requestHeaders.put("X-dummy", Lists.newArrayList("blabla"));
         HttpRequest httpRequest = new HttpRequest("http://www.titi.com", DUMMY_METHOD, DUMMY_BODY_TYPE, DUMMY_BODY, null, null);
         httpRequest.setHeaders(requestHeaders);
-        HttpResponse httpResponse = new HttpResponse(200, "OK", "my response");
+        HttpResponse httpResponse = new HttpResponse(statusCode, "OK", "my response");
         Map<String, List<String>> responseHeaders = Maps.newHashMap();
         responseHeaders.put("Content-Type", Lists.newArrayList("application/json"));
         httpResponse.setResponseHeaders(responseHeaders);
@@ -435,7 +877,7 @@ public class HttpSinkTaskTest {
                 245L,
                 OffsetDateTime.now(ZoneId.of("UTC")),
                 new AtomicInteger(1),
-                true
+                statusCode < 400
         );
     }
 
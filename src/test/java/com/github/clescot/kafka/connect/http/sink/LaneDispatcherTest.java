@@ -0,0 +1,123 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.github.clescot.kafka.connect.http.HttpExchange;
+import com.github.clescot.kafka.connect.http.MetricsFactory;
+import org.apache.kafka.common.metrics.KafkaMetric;
+import org.apache.kafka.common.metrics.Metrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class LaneDispatcherTest {
+
+    @Test
+    public void test_constructor_with_invalid_lane_count() {
+        assertThatThrownBy(() -> new LaneDispatcher(0, 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void test_same_key_is_sent_in_order() throws InterruptedException {
+        //given
+        LaneDispatcher laneDispatcher = new LaneDispatcher(4, 10);
+        List<Integer> started = new CopyOnWriteArrayList<>();
+        CompletableFuture<HttpExchange> firstExchange = new CompletableFuture<>();
+        //when
+        CompletableFuture<HttpExchange> first = laneDispatcher.dispatch("key1", () -> {
+            started.add(1);
+            return firstExchange;
+        });
+        CompletableFuture<HttpExchange> second = laneDispatcher.dispatch("key1", () -> {
+            started.add(2);
+            return CompletableFuture.completedFuture(null);
+        });
+        //then
+        assertThat(started).containsExactly(1);
+        assertThat(second).isNotDone();
+        firstExchange.complete(null);
+        assertThat(first).isDone();
+        assertThat(second).isDone();
+        assertThat(started).containsExactly(1, 2);
+    }
+
+    @Test
+    public void test_failed_exchange_does_not_block_the_lane() throws InterruptedException {
+        //given
+        LaneDispatcher laneDispatcher = new LaneDispatcher(1, 10);
+        //when
+        CompletableFuture<HttpExchange> first = laneDispatcher.dispatch("key1", () -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+        CompletableFuture<HttpExchange> second = laneDispatcher.dispatch("key1", () -> CompletableFuture.completedFuture(null));
+        //then
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).isCompleted();
+        assertThat(laneDispatcher.getOccupancy(0)).isZero();
+    }
+
+    @Test
+    public void test_different_lanes_run_concurrently() throws InterruptedException {
+        //given
+        LaneDispatcher laneDispatcher = new LaneDispatcher(2, 10);
+        Object keyInLane0 = 0;
+        Object keyInLane1 = 1;
+        assertThat(laneDispatcher.laneIndex(keyInLane0)).isNotEqualTo(laneDispatcher.laneIndex(keyInLane1));
+        //when
+        CompletableFuture<HttpExchange> blocked = laneDispatcher.dispatch(keyInLane0, CompletableFuture::new);
+        CompletableFuture<HttpExchange> other = laneDispatcher.dispatch(keyInLane1, () -> CompletableFuture.completedFuture(null));
+        //then
+        assertThat(blocked).isNotDone();
+        assertThat(other).isDone();
+        assertThat(laneDispatcher.getOccupancy(laneDispatcher.laneIndex(keyInLane0))).isEqualTo(1);
+        assertThat(laneDispatcher.getOccupancy(laneDispatcher.laneIndex(keyInLane1))).isZero();
+    }
+
+    @Test
+    public void test_dispatch_blocks_when_lane_is_full() throws Exception {
+        //given
+        LaneDispatcher laneDispatcher = new LaneDispatcher(1, 2);
+        CompletableFuture<HttpExchange> firstExchange = new CompletableFuture<>();
+        laneDispatcher.dispatch("key1", () -> firstExchange);
+        laneDispatcher.dispatch("key1", () -> CompletableFuture.completedFuture(null));
+        assertThat(laneDispatcher.getOccupancy(0)).isEqualTo(2);
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            //when
+            Future<CompletableFuture<HttpExchange>> third = executorService.submit(() -> laneDispatcher.dispatch("key1", () -> CompletableFuture.completedFuture(null)));
+            //then
+            TimeUnit.MILLISECONDS.sleep(200);
+            assertThat(third).isNotDone();
+            firstExchange.complete(null);
+            await().atMost(5, TimeUnit.SECONDS).until(third::isDone);
+            assertThat(third.get()).isCompleted();
+            assertThat(laneDispatcher.getOccupancy(0)).isZero();
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void test_register_metrics() throws InterruptedException {
+        //given
+        LaneDispatcher laneDispatcher = new LaneDispatcher(2, 10);
+        try (Metrics metrics = MetricsFactory.newMetrics()) {
+            Map<String, String> tags = Map.of(MetricsFactory.CONNECTOR_TAG, "test", MetricsFactory.TASK_TAG, "lanes");
+            laneDispatcher.registerMetrics(metrics, tags);
+            //when
+            laneDispatcher.dispatch(0, CompletableFuture::new);
+            //then
+            KafkaMetric busy = metrics.metric(metrics.metricName("lanes-busy", LaneDispatcher.LANES_METRIC_GROUP, tags));
+            KafkaMetric max = metrics.metric(metrics.metricName("lanes-occupancy-max", LaneDispatcher.LANES_METRIC_GROUP, tags));
+            assertThat(busy.metricValue()).isEqualTo(1L);
+            assertThat(max.metricValue()).isEqualTo(1);
+        }
+    }
+}
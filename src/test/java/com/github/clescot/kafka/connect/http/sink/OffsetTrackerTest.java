@@ -0,0 +1,91 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.google.common.collect.Lists;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffsetTrackerTest {
+
+    private static final TopicPartition TOPIC_PARTITION_0 = new TopicPartition("myTopic", 0);
+    private static final TopicPartition TOPIC_PARTITION_1 = new TopicPartition("myTopic", 1);
+
+    @Test
+    public void test_no_record_submitted() {
+        OffsetTracker offsetTracker = new OffsetTracker();
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.committableOffsets(Lists.newArrayList(TOPIC_PARTITION_0));
+        assertThat(offsets).isEmpty();
+    }
+
+    @Test
+    public void test_no_record_finished() {
+        OffsetTracker offsetTracker = new OffsetTracker();
+        offsetTracker.pending(getSinkRecord(0, 10));
+        offsetTracker.pending(getSinkRecord(0, 11));
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.committableOffsets(Lists.newArrayList(TOPIC_PARTITION_0));
+        //offset 10 needs to be consumed again after a restart
+        assertThat(offsets).containsEntry(TOPIC_PARTITION_0, new OffsetAndMetadata(10));
+        assertThat(offsetTracker.inFlightCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void test_all_records_finished() {
+        OffsetTracker offsetTracker = new OffsetTracker();
+        List<SinkRecord> sinkRecords = Lists.newArrayList(getSinkRecord(0, 10), getSinkRecord(0, 11), getSinkRecord(0, 12));
+        sinkRecords.forEach(offsetTracker::pending);
+        sinkRecords.forEach(offsetTracker::completed);
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.committableOffsets(Lists.newArrayList(TOPIC_PARTITION_0));
+        assertThat(offsets).containsEntry(TOPIC_PARTITION_0, new OffsetAndMetadata(13));
+        assertThat(offsetTracker.inFlightCount()).isZero();
+    }
+
+    @Test
+    public void test_records_finished_out_of_order() {
+        OffsetTracker offsetTracker = new OffsetTracker();
+        SinkRecord first = getSinkRecord(0, 10);
+        SinkRecord second = getSinkRecord(0, 11);
+        SinkRecord third = getSinkRecord(0, 12);
+        offsetTracker.pending(first);
+        offsetTracker.pending(second);
+        offsetTracker.pending(third);
+        offsetTracker.completed(third);
+        offsetTracker.completed(first);
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.committableOffsets(Lists.newArrayList(TOPIC_PARTITION_0));
+        //offset 11 is not finished, we cannot commit beyond it
+        assertThat(offsets).containsEntry(TOPIC_PARTITION_0, new OffsetAndMetadata(11));
+    }
+
+    @Test
+    public void test_only_assigned_partitions_are_returned() {
+        OffsetTracker offsetTracker = new OffsetTracker();
+        SinkRecord sinkRecordPartition0 = getSinkRecord(0, 10);
+        SinkRecord sinkRecordPartition1 = getSinkRecord(1, 20);
+        offsetTracker.pending(sinkRecordPartition0);
+        offsetTracker.pending(sinkRecordPartition1);
+        offsetTracker.completed(sinkRecordPartition0);
+        offsetTracker.completed(sinkRecordPartition1);
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.committableOffsets(Lists.newArrayList(TOPIC_PARTITION_1));
+        assertThat(offsets).hasSize(1);
+        assertThat(offsets).containsEntry(TOPIC_PARTITION_1, new OffsetAndMetadata(21));
+    }
+
+    @Test
+    public void test_remove_partition() {
+        OffsetTracker offsetTracker = new OffsetTracker();
+        offsetTracker.pending(getSinkRecord(0, 10));
+        offsetTracker.remove(Lists.newArrayList(TOPIC_PARTITION_0));
+        assertThat(offsetTracker.committableOffsets(Lists.newArrayList(TOPIC_PARTITION_0))).isEmpty();
+        assertThat(offsetTracker.inFlightCount()).isZero();
+    }
+
+    private SinkRecord getSinkRecord(int partition, long offset) {
+        return new SinkRecord("myTopic", partition, Schema.STRING_SCHEMA, "key", Schema.STRING_SCHEMA, "value", offset);
+    }
+}
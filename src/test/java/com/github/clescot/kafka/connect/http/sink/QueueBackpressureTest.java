@@ -0,0 +1,47 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+import static com.github.clescot.kafka.connect.http.sink.QueueBackpressure.Transition.NONE;
+import static com.github.clescot.kafka.connect.http.sink.QueueBackpressure.Transition.PAUSE;
+import static com.github.clescot.kafka.connect.http.sink.QueueBackpressure.Transition.RESUME;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class QueueBackpressureTest {
+
+    @Test
+    public void test_low_water_mark_must_be_lower_than_high_water_mark() {
+        assertThatThrownBy(() -> new QueueBackpressure(new ArrayDeque<>(), 5, 5)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void test_hysteresis() {
+        //given
+        Queue<Integer> queue = new ArrayDeque<>();
+        QueueBackpressure queueBackpressure = new QueueBackpressure(queue, 4, 2);
+        //when the queue fills up
+        queue.add(1);
+        queue.add(2);
+        queue.add(3);
+        //then
+        assertThat(queueBackpressure.check()).isEqualTo(NONE);
+        queue.add(4);
+        assertThat(queueBackpressure.check()).isEqualTo(PAUSE);
+        assertThat(queueBackpressure.isPaused()).isTrue();
+        queue.add(5);
+        assertThat(queueBackpressure.check()).isEqualTo(NONE);
+        //when the queue is drained
+        queue.poll();
+        queue.poll();
+        //then
+        assertThat(queueBackpressure.check()).isEqualTo(NONE);
+        queue.poll();
+        assertThat(queueBackpressure.check()).isEqualTo(RESUME);
+        assertThat(queueBackpressure.isPaused()).isFalse();
+        assertThat(queueBackpressure.check()).isEqualTo(NONE);
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import com.github.clescot.kafka.connect.http.HttpResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServerRateLimitTest {
+
+    private static final long NOW_IN_MS = 1_700_000_000_000L;
+    private static final long MAX_WAIT_IN_MS = 60_000L;
+
+    @Test
+    public void test_retry_after_in_seconds() {
+        //given
+        HttpResponse httpResponse = getHttpResponse(429, Map.of("retry-after", List.of("3")));
+        //when
+        Duration retryAfter = ServerRateLimit.retryAfter(httpResponse, NOW_IN_MS);
+        //then
+        assertThat(retryAfter).isEqualTo(Duration.ofSeconds(3));
+    }
+
+    @Test
+    public void test_retry_after_as_http_date() {
+        //given
+        String date = DateTimeFormatter.RFC_1123_DATE_TIME.format(Instant.ofEpochMilli(NOW_IN_MS + 10_000).atZone(ZoneOffset.UTC));
+        HttpResponse httpResponse = getHttpResponse(503, Map.of("Retry-After", List.of(date)));
+        //when
+        Duration retryAfter = ServerRateLimit.retryAfter(httpResponse, NOW_IN_MS);
+        //then
+        assertThat(retryAfter).isEqualTo(Duration.ofSeconds(10));
+    }
+
+    @Test
+    public void test_retry_after_is_ignored_on_other_status_codes_or_invalid_values() {
+        assertThat(ServerRateLimit.retryAfter(getHttpResponse(500, Map.of("Retry-After", List.of("3"))), NOW_IN_MS)).isNull();
+        assertThat(ServerRateLimit.retryAfter(getHttpResponse(429, Map.of("Retry-After", List.of("soon"))), NOW_IN_MS)).isNull();
+        assertThat(ServerRateLimit.retryAfter(getHttpResponse(429, Map.of()), NOW_IN_MS)).isNull();
+    }
+
+    @Test
+    public void test_calls_are_suspended_until_the_retry_after_moment() {
+        //given
+        ServerRateLimit serverRateLimit = new ServerRateLimit(MAX_WAIT_IN_MS);
+        //when
+        serverRateLimit.update(getHttpResponse(429, Map.of("Retry-After", List.of("2"))), NOW_IN_MS);
+        //then
+        assertThat(serverRateLimit.reserve(NOW_IN_MS)).isEqualTo(2000);
+        assertThat(serverRateLimit.reserve(NOW_IN_MS + 2500)).isZero();
+    }
+
+    @Test
+    public void test_calls_are_suspended_until_the_reset_when_no_call_remains() {
+        //given
+        ServerRateLimit serverRateLimit = new ServerRateLimit(MAX_WAIT_IN_MS);
+        long resetInSeconds = NOW_IN_MS / 1000 + 30;
+        //when
+        serverRateLimit.update(getHttpResponse(200, Map.of(
+                "X-RateLimit-Remaining", List.of("0"),
+                "X-RateLimit-Reset", List.of(String.valueOf(resetInSeconds)))), NOW_IN_MS);
+        //then
+        assertThat(serverRateLimit.reserve(NOW_IN_MS)).isEqualTo(30_000);
+    }
+
+    @Test
+    public void test_remaining_calls_are_spread_until_the_reset() {
+        //given
+        ServerRateLimit serverRateLimit = new ServerRateLimit(MAX_WAIT_IN_MS);
+        //when
+        serverRateLimit.update(getHttpResponse(200, Map.of(
+                "RateLimit-Remaining", List.of("10"),
+                "RateLimit-Reset", List.of("5"))), NOW_IN_MS);
+        //then
+        assertThat(serverRateLimit.reserve(NOW_IN_MS)).isZero();
+        assertThat(serverRateLimit.reserve(NOW_IN_MS)).isEqualTo(500);
+        assertThat(serverRateLimit.reserve(NOW_IN_MS)).isEqualTo(1000);
+        assertThat(serverRateLimit.reserve(NOW_IN_MS + 5000)).isZero();
+    }
+
+    @Test
+    public void test_reset_in_epoch_milliseconds() {
+        //given
+        ServerRateLimit serverRateLimit = new ServerRateLimit(MAX_WAIT_IN_MS);
+        //when
+        serverRateLimit.update(getHttpResponse(200, Map.of(
+                "X-RateLimit-Remaining", List.of("0"),
+                "X-RateLimit-Reset", List.of(String.valueOf(NOW_IN_MS + 30_000)))), NOW_IN_MS);
+        //then
+        assertThat(serverRateLimit.reserve(NOW_IN_MS)).isEqualTo(30_000);
+    }
+
+    @Test
+    public void test_wait_is_bounded_by_the_max_wait() {
+        //given
+        ServerRateLimit serverRateLimit = new ServerRateLimit(1000);
+        //when
+        serverRateLimit.update(getHttpResponse(429, Map.of(
+                "Retry-After", List.of("20"),
+                "X-RateLimit-Remaining", List.of("1"),
+                "X-RateLimit-Reset", List.of("3600"))), NOW_IN_MS);
+        //then
+        assertThat(serverRateLimit.reserve(NOW_IN_MS)).isEqualTo(1000);
+        assertThat(serverRateLimit.reserve(NOW_IN_MS)).isEqualTo(1000);
+    }
+
+    @Test
+    public void test_values_more_than_one_day_away_are_ignored() {
+        //given
+        ServerRateLimit serverRateLimit = new ServerRateLimit(MAX_WAIT_IN_MS);
+        HttpResponse httpResponse = getHttpResponse(429, Map.of(
+                "Retry-After", List.of(String.valueOf(Long.MAX_VALUE)),
+                "X-RateLimit-Remaining", List.of("0"),
+                //epoch microseconds
+                "X-RateLimit-Reset", List.of(String.valueOf(NOW_IN_MS * 1000))));
+        //when
+        serverRateLimit.update(httpResponse, NOW_IN_MS);
+        //then
+        assertThat(ServerRateLimit.retryAfter(httpResponse, NOW_IN_MS)).isNull();
+        assertThat(serverRateLimit.reserve(NOW_IN_MS)).isZero();
+    }
+
+    @Test
+    public void test_no_rate_limit_headers() {
+        //given
+        ServerRateLimit serverRateLimit = new ServerRateLimit(MAX_WAIT_IN_MS);
+        //when
+        serverRateLimit.update(getHttpResponse(200, Map.of("Content-Type", List.of("application/json"))), NOW_IN_MS);
+        //then
+        assertThat(serverRateLimit.reserve(NOW_IN_MS)).isZero();
+        assertThat(serverRateLimit.reserve(NOW_IN_MS)).isZero();
+    }
+
+    private HttpResponse getHttpResponse(int statusCode, Map<String, List<String>> headers) {
+        HttpResponse httpResponse = new HttpResponse(statusCode, "status", "");
+        httpResponse.setResponseHeaders(headers);
+        return httpResponse;
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.clescot.kafka.connect.http.sink;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class StatusCodeMatcherTest {
+
+    @Test
+    public void test_lookup_table_matches_like_the_regex() {
+        //given
+        String regex = "^(2[0-9][0-9]|404|42[0-9])$";
+        Pattern pattern = Pattern.compile(regex);
+        //when
+        StatusCodeMatcher statusCodeMatcher = StatusCodeMatcher.fromRegex(regex);
+        //then
+        for (int statusCode = 0; statusCode < StatusCodeMatcher.LOOKUP_TABLE_SIZE; statusCode++) {
+            assertThat(statusCodeMatcher.matches(statusCode)).as("status code %s", statusCode).isEqualTo(pattern.matcher("" + statusCode).matches());
+        }
+    }
+
+    @Test
+    public void test_status_code_outside_the_lookup_table_is_matched_against_the_regex() {
+        //given
+        StatusCodeMatcher statusCodeMatcher = StatusCodeMatcher.fromRegex("^[1-2][0-9][0-9]$|^999$");
+        //when
+        //then
+        assertThat(statusCodeMatcher.matches(999)).isTrue();
+        assertThat(statusCodeMatcher.matches(600)).isFalse();
+        assertThat(statusCodeMatcher.matches(-1)).isFalse();
+    }
+
+    @Test
+    public void test_invalid_regex_is_rejected() {
+        assertThrows(PatternSyntaxException.class, () -> StatusCodeMatcher.fromRegex("^[1-2"));
+    }
+}
@@ -8,6 +8,7 @@ import com.github.clescot.kafka.connect.http.sink.client.ahc.AHCHttpClient;
 import com.google.common.base.Stopwatch;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
 import org.asynchttpclient.AsyncHttpClient;
 import org.asynchttpclient.ListenableFuture;
 import org.asynchttpclient.Request;
@@ -18,11 +19,13 @@ import org.junit.Test;
 import org.junit.experimental.runners.Enclosed;
 import org.junit.runner.RunWith;
 
+import java.net.ConnectException;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -215,6 +218,74 @@ public class HttpClientTest {
             assertThat(httpExchange).isNotNull();
         }
 
+        @Test
+        public void test_call_async_nominal_case() throws ExecutionException, InterruptedException {
+
+            //given
+            AsyncHttpClient asyncHttpClient = mock(AsyncHttpClient.class);
+            ListenableFuture<Object> listenerObject = mock(ListenableFuture.class);
+            Response response = mock(Response.class);
+
+            when(response.getResponseBody()).thenReturn("body");
+            int statusCode = 200;
+            when(response.getStatusCode()).thenReturn(statusCode);
+            String statusMessage = "OK";
+            when(response.getStatusText()).thenReturn(statusMessage);
+
+            when(listenerObject.toCompletableFuture()).thenReturn(CompletableFuture.completedFuture(response));
+            when(asyncHttpClient.executeRequest(any(Request.class), any())).thenReturn(listenerObject);
+            AHCHttpClient httpClient = new AHCHttpClient(asyncHttpClient);
+
+            //when
+            HttpExchange httpExchange = httpClient.callAsync(getDummyHttpRequest(), new AtomicInteger(2)).toCompletableFuture().get();
+
+            //then
+            assertThat(httpExchange).isNotNull();
+            assertThat(httpExchange.getHttpRequest().getUrl()).isEqualTo("http://localhost:8089");
+            assertThat(httpExchange.getHttpResponse().getStatusCode()).isEqualTo(statusCode);
+            assertThat(httpExchange.getHttpResponse().getStatusMessage()).isEqualTo(statusMessage);
+            assertThat(httpExchange.isSuccess()).isTrue();
+        }
+
+        @Test
+        public void test_call_async_with_connection_failure() {
+
+            //given
+            AsyncHttpClient asyncHttpClient = mock(AsyncHttpClient.class);
+            ListenableFuture<Object> listenerObject = mock(ListenableFuture.class);
+            when(listenerObject.toCompletableFuture()).thenReturn(CompletableFuture.failedFuture(new ConnectException("Connection refused")));
+            when(asyncHttpClient.executeRequest(any(Request.class), any())).thenReturn(listenerObject);
+            AHCHttpClient httpClient = new AHCHttpClient(asyncHttpClient);
+
+            //when
+            CompletableFuture<HttpExchange> httpExchangeFuture = httpClient.callAsync(getDummyHttpRequest(), new AtomicInteger(2)).toCompletableFuture();
+
+            //then
+            assertThat(httpExchangeFuture).isCompletedExceptionally();
+        }
+
+        @Test
+        public void test_build_http_response_with_repeated_header(){
+            //given
+            AsyncHttpClient asyncHttpClient = mock(AsyncHttpClient.class);
+            AHCHttpClient httpClient = new AHCHttpClient(asyncHttpClient);
+            Response response = mock(Response.class);
+            when(response.getStatusCode()).thenReturn(200);
+            when(response.getStatusText()).thenReturn("OK");
+            when(response.getResponseBody()).thenReturn("body");
+            when(response.getHeaders()).thenReturn(new DefaultHttpHeaders()
+                    .add("Content-Type", "application/json")
+                    .add("Set-Cookie", "session=abc")
+                    .add("Set-Cookie", "lang=fr"));
+
+            //when
+            HttpResponse httpResponse = httpClient.buildResponse(response);
+
+            //then
+            assertThat(httpResponse.getResponseHeaders()).containsEntry("Content-Type", Lists.newArrayList("application/json"));
+            assertThat(httpResponse.getResponseHeaders()).containsEntry("Set-Cookie", Lists.newArrayList("session=abc", "lang=fr"));
+        }
+
         @Test
         public void test_build_http_request_nominal_case(){
             //given
@@ -0,0 +1,104 @@
+package com.github.clescot.kafka.connect.http.sink.client.ahc;
+
+import com.github.clescot.kafka.connect.http.HttpRequest;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import io.netty.buffer.Unpooled;
+import org.asynchttpclient.HttpResponseStatus;
+import org.asynchttpclient.Request;
+import org.asynchttpclient.netty.EagerResponseBodyPart;
+import org.asynchttpclient.request.body.multipart.ByteArrayPart;
+import org.asynchttpclient.request.body.multipart.Part;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AHCHttpClientTest {
+
+    private AHCHttpClient httpClient;
+
+    @BeforeEach
+    public void setUp() {
+        //the AsyncHttpClient instance is not used to build requests
+        httpClient = new AHCHttpClient(null);
+    }
+
+    @Test
+    public void test_build_request_with_a_string_body() {
+        //given
+        HttpRequest httpRequest = new HttpRequest("http://localhost:8080/path", "POST", "STRING", "stuff", null, null);
+        httpRequest.setHeaders(Maps.newHashMap());
+        //when
+        Request request = httpClient.buildRequest(httpRequest);
+        //then
+        assertThat(request.getStringData()).isEqualTo("stuff");
+        assertThat(request.getBodyParts()).isEmpty();
+    }
+
+    @Test
+    public void test_build_request_with_a_byte_array_body() {
+        //given
+        byte[] body = {0, -1, 2};
+        HttpRequest httpRequest = new HttpRequest("http://localhost:8080/path", "PUT", "BYTE_ARRAY", null, body, null);
+        httpRequest.setHeaders(Maps.newHashMap());
+        //when
+        Request request = httpClient.buildRequest(httpRequest);
+        //then
+        assertThat(request.getByteData()).isSameAs(body);
+        assertThat(request.getStringData()).isNull();
+    }
+
+    @Test
+    public void test_build_request_with_a_multipart_body() {
+        //given
+        List<byte[]> parts = Lists.newArrayList("{\"id\":1}".getBytes(StandardCharsets.UTF_8), new byte[]{1, 2, 3});
+        Map<String, String> documentAttributes = Map.of(
+                HttpRequest.PART_NAME, "document",
+                HttpRequest.PART_CONTENT_TYPE, "application/pdf",
+                HttpRequest.PART_FILE_NAME, "contract.pdf");
+        Map<String, String> metadataAttributes = Map.of(HttpRequest.PART_CONTENT_TYPE, "application/json");
+        HttpRequest httpRequest = new HttpRequest("http://localhost:8080/path", "POST", "MULTIPART", "", null,
+                parts, Lists.newArrayList(metadataAttributes, documentAttributes));
+        httpRequest.setHeaders(Maps.newHashMap());
+        //when
+        Request request = httpClient.buildRequest(httpRequest);
+        //then
+        List<Part> bodyParts = request.getBodyParts();
+        assertThat(bodyParts).hasSize(2);
+        ByteArrayPart metadata = (ByteArrayPart) bodyParts.get(0);
+        assertThat(metadata.getName()).isEqualTo("part0");
+        assertThat(metadata.getContentType()).isEqualTo("application/json");
+        assertThat(metadata.getFileName()).isNull();
+        assertThat(metadata.getBytes()).isSameAs(parts.get(0));
+        ByteArrayPart document = (ByteArrayPart) bodyParts.get(1);
+        assertThat(document.getName()).isEqualTo("document");
+        assertThat(document.getContentType()).isEqualTo("application/pdf");
+        assertThat(document.getFileName()).isEqualTo("contract.pdf");
+        assertThat(document.getBytes()).isSameAs(parts.get(1));
+    }
+
+    @Test
+    public void test_response_body_capture_is_overridden_by_request_headers() {
+        //given
+        HttpRequest httpRequest = new HttpRequest("http://localhost:8080/path", "GET", "STRING", "", null, null);
+        Map<String, List<String>> headers = Maps.newHashMap();
+        headers.put(AHCHttpClient.WS_RESPONSE_BODY_CAPTURE, Lists.newArrayList("truncated"));
+        headers.put(AHCHttpClient.WS_RESPONSE_BODY_MAX_BYTES, Lists.newArrayList("3"));
+        httpRequest.setHeaders(headers);
+        Request request = httpClient.buildRequest(httpRequest);
+        ResponseBodyCaptureHandler handler = httpClient.newResponseBodyCaptureHandler(request);
+        HttpResponseStatus status = Mockito.mock(HttpResponseStatus.class);
+        Mockito.when(status.getStatusCode()).thenReturn(200);
+        //when
+        handler.onStatusReceived(status);
+        handler.onBodyPartReceived(new EagerResponseBodyPart(Unpooled.copiedBuffer("stuff", StandardCharsets.UTF_8), true));
+        //then
+        assertThat(handler.onCompleted().getResponseBody()).isEqualTo("stu");
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.clescot.kafka.connect.http.sink.client.ahc;
+
+import com.github.clescot.kafka.connect.http.sink.client.ResponseBodyCapture;
+import com.google.common.hash.Hashing;
+import io.netty.buffer.Unpooled;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import org.asynchttpclient.HttpResponseStatus;
+import org.asynchttpclient.Response;
+import org.asynchttpclient.netty.EagerResponseBodyPart;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ResponseBodyCaptureHandlerTest {
+
+    private static final String BODY_PART_1 = "{\"id\":1,";
+    private static final String BODY_PART_2 = "\"name\":\"stuff\"}";
+
+    @Test
+    public void test_full_capture_keeps_the_whole_body() {
+        //given
+        ResponseBodyCaptureHandler handler = new ResponseBodyCaptureHandler(ResponseBodyCapture.FULL, 4);
+        //when
+        Response response = receive(handler);
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getHeader("Content-Type")).isEqualTo("application/json");
+        assertThat(response.getResponseBody()).isEqualTo(BODY_PART_1 + BODY_PART_2);
+    }
+
+    @Test
+    public void test_truncated_capture_keeps_the_first_bytes_of_the_body() {
+        //given
+        ResponseBodyCaptureHandler handler = new ResponseBodyCaptureHandler(ResponseBodyCapture.TRUNCATED, 12);
+        //when
+        Response response = receive(handler);
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getResponseBody()).isEqualTo((BODY_PART_1 + BODY_PART_2).substring(0, 12));
+    }
+
+    @Test
+    public void test_truncated_capture_keeps_a_body_shorter_than_max_bytes() {
+        //given
+        ResponseBodyCaptureHandler handler = new ResponseBodyCaptureHandler(ResponseBodyCapture.TRUNCATED, 1024);
+        //when
+        Response response = receive(handler);
+        //then
+        assertThat(response.getResponseBody()).isEqualTo(BODY_PART_1 + BODY_PART_2);
+    }
+
+    @Test
+    public void test_hash_capture_replaces_the_body_by_its_sha256_hash() {
+        //given
+        ResponseBodyCaptureHandler handler = new ResponseBodyCaptureHandler(ResponseBodyCapture.HASH, 0);
+        //when
+        Response response = receive(handler);
+        //then
+        String expectedHash = Hashing.sha256().hashString(BODY_PART_1 + BODY_PART_2, StandardCharsets.UTF_8).toString();
+        assertThat(response.getResponseBody()).isEqualTo(expectedHash);
+    }
+
+    @Test
+    public void test_discard_capture_keeps_status_and_headers_only() {
+        //given
+        ResponseBodyCaptureHandler handler = new ResponseBodyCaptureHandler(ResponseBodyCapture.DISCARD, 1024);
+        //when
+        Response response = receive(handler);
+        //then
+        assertThat(response.getStatusCode()).isEqualTo(200);
+        assertThat(response.getHeader("Content-Type")).isEqualTo("application/json");
+        assertThat(response.getResponseBody()).isEmpty();
+    }
+
+    @Test
+    public void test_negative_max_bytes_is_rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ResponseBodyCaptureHandler(ResponseBodyCapture.TRUNCATED, -1));
+    }
+
+    private Response receive(ResponseBodyCaptureHandler handler) {
+        HttpResponseStatus status = Mockito.mock(HttpResponseStatus.class);
+        Mockito.when(status.getStatusCode()).thenReturn(200);
+        Mockito.when(status.getStatusText()).thenReturn("OK");
+        handler.onStatusReceived(status);
+        handler.onHeadersReceived(new DefaultHttpHeaders().add("Content-Type", "application/json"));
+        handler.onBodyPartReceived(new EagerResponseBodyPart(Unpooled.copiedBuffer(BODY_PART_1, StandardCharsets.UTF_8), false));
+        handler.onBodyPartReceived(new EagerResponseBodyPart(Unpooled.copiedBuffer(BODY_PART_2, StandardCharsets.UTF_8), true));
+        return handler.onCompleted();
+    }
+}
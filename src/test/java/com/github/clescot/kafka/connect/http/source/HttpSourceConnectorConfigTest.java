@@ -1,5 +1,7 @@
 package com.github.clescot.kafka.connect.http.source;
 
+import com.github.clescot.kafka.connect.http.ConfigConstants;
+import com.github.clescot.kafka.connect.http.queue.OverflowPolicy;
 import com.google.common.collect.Maps;
 import org.apache.kafka.common.config.ConfigException;
 import org.junit.Test;
@@ -31,7 +33,15 @@ public class HttpSourceConnectorConfigTest {
         new HttpSourceConnectorConfig(config);
     }
 
-
+    @Test(expected = IllegalArgumentException.class)
+    public void test_journal_with_drop_oldest_overflow_policy(){
+        HashMap<Object, Object> config = Maps.newHashMap();
+        config.put(SUCCESS_TOPIC,"success.topic");
+        config.put(ERROR_TOPIC,"error.topic");
+        config.put(ConfigConstants.QUEUE_JOURNAL_ENABLED,"true");
+        config.put(ConfigConstants.QUEUE_OVERFLOW_POLICY, OverflowPolicy.DROP_OLDEST.name());
+        new HttpSourceConnectorConfig(config);
+    }
 
 
     @Test(expected = ConfigException.class)
@@ -12,8 +12,11 @@ import java.util.List;
 import java.util.Map;
 
 import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_NAME;
+import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_JOURNAL_ENABLED;
+import static com.github.clescot.kafka.connect.http.ConfigConstants.QUEUE_SHARDS;
 import static com.github.clescot.kafka.connect.http.QueueFactory.DEFAULT_QUEUE_NAME;
 import static com.github.clescot.kafka.connect.http.source.HttpSourceConfigDefinition.ERROR_TOPIC;
+import static com.github.clescot.kafka.connect.http.source.HttpSourceConfigDefinition.QUEUE_ASSIGNED_SHARDS;
 import static com.github.clescot.kafka.connect.http.source.HttpSourceConfigDefinition.SUCCESS_TOPIC;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
 
@@ -104,6 +107,47 @@ class HttpSourceConnectorTest {
         assertThat(maps).asList().hasSize(1);
 
     }
+    @Test
+    public void test_task_configs_with_more_shards_than_tasks(){
+        Map<String,String> settings = Maps.newHashMap();
+        settings.put(SUCCESS_TOPIC,"foo");
+        settings.put(ERROR_TOPIC,"foo");
+        settings.put(QUEUE_SHARDS,"4");
+        httpSourceConnector.start(settings);
+        List<Map<String, String>> maps = httpSourceConnector.taskConfigs(2);
+        assertThat(maps).asList().hasSize(2);
+        assertThat(maps.get(0).get(QUEUE_ASSIGNED_SHARDS)).isEqualTo("0,1");
+        assertThat(maps.get(1).get(QUEUE_ASSIGNED_SHARDS)).isEqualTo("2,3");
+    }
+
+    @Test
+    public void test_task_configs_with_more_tasks_than_shards(){
+        Map<String,String> settings = Maps.newHashMap();
+        settings.put(SUCCESS_TOPIC,"foo");
+        settings.put(ERROR_TOPIC,"foo");
+        settings.put(QUEUE_SHARDS,"2");
+        httpSourceConnector.start(settings);
+        List<Map<String, String>> maps = httpSourceConnector.taskConfigs(3);
+        assertThat(maps).asList().hasSize(3);
+        assertThat(maps.get(0).get(QUEUE_ASSIGNED_SHARDS)).isEqualTo("0");
+        assertThat(maps.get(1).get(QUEUE_ASSIGNED_SHARDS)).isEqualTo("1");
+        assertThat(maps.get(2).get(QUEUE_ASSIGNED_SHARDS)).isEqualTo("0");
+    }
+
+    @Test
+    public void test_task_configs_with_more_tasks_than_shards_of_a_journaled_queue(){
+        Map<String,String> settings = Maps.newHashMap();
+        settings.put(SUCCESS_TOPIC,"foo");
+        settings.put(ERROR_TOPIC,"foo");
+        settings.put(QUEUE_SHARDS,"2");
+        settings.put(QUEUE_JOURNAL_ENABLED,"true");
+        httpSourceConnector.start(settings);
+        List<Map<String, String>> maps = httpSourceConnector.taskConfigs(3);
+        assertThat(maps).asList().hasSize(2);
+        assertThat(maps.get(0).get(QUEUE_ASSIGNED_SHARDS)).isEqualTo("0");
+        assertThat(maps.get(1).get(QUEUE_ASSIGNED_SHARDS)).isEqualTo("1");
+    }
+
       @Test
     public void test_task_configs_10_tasks(){
         Map<String,String> settings = Maps.newHashMap();
@@ -1,17 +1,23 @@
 package com.github.clescot.kafka.connect.http.source;
 
 import com.github.clescot.kafka.connect.http.*;
+import com.github.clescot.kafka.connect.http.queue.JournalSettings;
 import com.google.common.collect.Maps;
 import org.apache.kafka.common.config.ConfigException;
 import org.apache.kafka.connect.source.SourceRecord;
+import org.apache.kafka.connect.source.SourceTaskContext;
+import org.apache.kafka.connect.storage.OffsetStorageReader;
 import org.jetbrains.annotations.NotNull;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
 import java.util.List;
@@ -20,9 +26,12 @@ import java.util.Queue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.github.clescot.kafka.connect.http.source.HttpSourceConfigDefinition.ERROR_TOPIC;
+import static com.github.clescot.kafka.connect.http.source.HttpSourceConfigDefinition.POLL_LINGER_TIME_IN_MS;
+import static com.github.clescot.kafka.connect.http.source.HttpSourceConfigDefinition.POLL_MAX_BATCH_SIZE;
 import static com.github.clescot.kafka.connect.http.source.HttpSourceConfigDefinition.SUCCESS_TOPIC;
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -86,6 +95,74 @@ class HttpSourceTaskTest {
         assertThat(queue).isEmpty();
     }
 
+    @Test
+    public void test_poll_returns_at_most_max_batch_size_records() {
+        Map<String, String> config = getNominalConfig();
+        config.put(POLL_MAX_BATCH_SIZE, "2");
+        wsSourceTask.start(config);
+        Queue<KafkaRecord> queue = QueueFactory.getQueue();
+        HttpExchange httpExchange = new HttpExchange(
+                new HttpRequest("http://www.dummy.com", "GET", "STRING", "stuff", null, null),
+                new HttpResponse(200, "OK", "dummy response"),
+                210,
+                OffsetDateTime.now(ZoneId.of("UTC")),
+                new AtomicInteger(1),
+                true);
+        for (int i = 0; i < 3; i++) {
+            queue.offer(QueueProducer.toKafkaRecord(httpExchange));
+        }
+        assertThat(wsSourceTask.poll()).hasSize(2);
+        assertThat(wsSourceTask.poll()).hasSize(1);
+        assertThat(queue).isEmpty();
+    }
+
+    @Test
+    public void test_poll_waits_for_the_linger_time_when_the_queue_is_empty() {
+        Map<String, String> config = getNominalConfig();
+        config.put(POLL_LINGER_TIME_IN_MS, "200");
+        wsSourceTask.start(config);
+        long start = System.nanoTime();
+        assertThat(wsSourceTask.poll()).isEmpty();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    public void test_start_replays_journaled_http_exchanges_after_the_committed_offset(@TempDir Path journalDirectory) {
+        //given
+        Map<String, String> config = getNominalConfig();
+        config.put(ConfigConstants.QUEUE_NAME, "journaled");
+        config.put(ConfigConstants.QUEUE_JOURNAL_ENABLED, "true");
+        config.put(ConfigConstants.QUEUE_JOURNAL_DIRECTORY, journalDirectory.toString());
+        Queue<KafkaRecord> queue = QueueFactory.getQueue("journaled", 1, QueueFactory.DEFAULT_QUEUE_CAPACITY, QueueFactory.DEFAULT_OVERFLOW_POLICY, null,
+                new JournalSettings(journalDirectory.toString(), QueueFactory.DEFAULT_JOURNAL_SEGMENT_SIZE_IN_BYTES));
+        HttpExchange httpExchange = new HttpExchange(
+                new HttpRequest("http://www.dummy.com", "GET", "STRING", "stuff", null, null),
+                new HttpResponse(200, "OK", "dummy response"),
+                210,
+                OffsetDateTime.now(ZoneId.of("UTC")),
+                new AtomicInteger(1),
+                true);
+        for (int i = 0; i < 4; i++) {
+            queue.offer(QueueProducer.toKafkaRecord(httpExchange));
+        }
+        OffsetStorageReader offsetStorageReader = Mockito.mock(OffsetStorageReader.class);
+        Mockito.when(offsetStorageReader.offset(Map.of(HttpSourceTask.SOURCE_PARTITION_JOURNAL, "journaled"))).thenReturn(Map.of(HttpSourceTask.SOURCE_OFFSET_POSITION, 1L));
+        SourceTaskContext sourceTaskContext = Mockito.mock(SourceTaskContext.class);
+        Mockito.when(sourceTaskContext.offsetStorageReader()).thenReturn(offsetStorageReader);
+        wsSourceTask.initialize(sourceTaskContext);
+        //when
+        wsSourceTask.start(config);
+        List<SourceRecord> replayedRecords = wsSourceTask.poll();
+        //then HTTP exchanges not acknowledged are replayed, and are skipped when they are read from the queue
+        assertThat(replayedRecords).extracting(SourceRecord::sourceOffset)
+                .containsExactly(Map.of(HttpSourceTask.SOURCE_OFFSET_POSITION, 2L), Map.of(HttpSourceTask.SOURCE_OFFSET_POSITION, 3L));
+        assertThat(replayedRecords.get(0).sourcePartition()).isEqualTo(Map.of(HttpSourceTask.SOURCE_PARTITION_JOURNAL, "journaled"));
+        assertThat(wsSourceTask.poll()).isEmpty();
+        queue.offer(QueueProducer.toKafkaRecord(httpExchange));
+        assertThat(wsSourceTask.poll()).extracting(SourceRecord::sourceOffset).containsExactly(Map.of(HttpSourceTask.SOURCE_OFFSET_POSITION, 4L));
+        wsSourceTask.stop();
+    }
+
     @Test
     public void test_success() {
         wsSourceTask.start(getNominalConfig());
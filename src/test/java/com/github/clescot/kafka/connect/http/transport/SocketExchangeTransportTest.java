@@ -0,0 +1,118 @@
+package com.github.clescot.kafka.connect.http.transport;
+
+import com.github.clescot.kafka.connect.http.HttpExchange;
+import com.github.clescot.kafka.connect.http.HttpRequest;
+import com.github.clescot.kafka.connect.http.HttpResponse;
+import com.github.clescot.kafka.connect.http.KafkaRecord;
+import com.github.clescot.kafka.connect.http.MetricsFactory;
+import com.github.clescot.kafka.connect.http.queue.BoundedQueue;
+import com.github.clescot.kafka.connect.http.queue.OverflowPolicy;
+import com.github.clescot.kafka.connect.http.queue.ShardedQueue;
+import com.google.common.collect.Lists;
+import org.apache.kafka.common.metrics.Metrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class SocketExchangeTransportTest {
+
+    private Metrics metrics;
+    private SocketExchangeTransport transport;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        metrics = MetricsFactory.newMetrics();
+        int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        transport = new SocketExchangeTransport("localhost:" + port);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        transport.close();
+        metrics.close();
+    }
+
+    @Test
+    public void test_has_a_consumer_only_when_the_source_listens() {
+        //given
+        ShardedQueue<KafkaRecord> localQueue = newLocalQueue("socket-consumer");
+        //when
+        boolean consumedBeforeListening = transport.hasAConsumer("socket-consumer", 200);
+        transport.consume("socket-consumer", localQueue);
+        //then
+        assertThat(consumedBeforeListening).isFalse();
+        assertThat(transport.hasAConsumer("socket-consumer", 1000)).isTrue();
+    }
+
+    @Test
+    public void test_published_http_exchanges_reach_the_local_queue_of_the_source() {
+        //given
+        ShardedQueue<KafkaRecord> localQueue = newLocalQueue("socket-publish");
+        transport.consume("socket-publish", localQueue);
+        Queue<KafkaRecord> publisher = transport.publisher("socket-publish", () -> {
+            throw new IllegalStateException("the local queue is not used by the sink");
+        });
+        //when
+        for (int i = 0; i < 10; i++) {
+            assertThat(publisher.offer(new KafkaRecord(null, null, "key-" + i, getHttpExchange()))).isTrue();
+        }
+        //then
+        await().atMost(Duration.ofSeconds(5)).until(() -> localQueue.size() == 10);
+        List<KafkaRecord> received = Lists.newArrayList();
+        localQueue.drainTo(received, 10);
+        assertThat(received).extracting(KafkaRecord::getKey).containsExactly("key-0", "key-1", "key-2", "key-3", "key-4", "key-5", "key-6", "key-7", "key-8", "key-9");
+        assertThat(received.get(0).getHttpExchange().getHttpResponse()).isEqualTo(getHttpExchange().getHttpResponse());
+        ((SocketExchangeQueue) publisher).close();
+    }
+
+    @Test
+    public void test_publisher_connects_again_after_a_source_restart() {
+        //given
+        ShardedQueue<KafkaRecord> localQueue = newLocalQueue("socket-restart");
+        transport.consume("socket-restart", localQueue);
+        Queue<KafkaRecord> publisher = transport.publisher("socket-restart", () -> null);
+        publisher.offer(new KafkaRecord(null, null, "before", getHttpExchange()));
+        await().atMost(Duration.ofSeconds(5)).until(() -> localQueue.size() == 1);
+        //when
+        transport.close();
+        transport.consume("socket-restart", localQueue);
+        await().atMost(Duration.ofSeconds(5)).until(() -> {
+            //the first write on the closed connection may succeed, until the peer reset is noticed
+            publisher.offer(new KafkaRecord(null, null, "after", getHttpExchange()));
+            return localQueue.stream().anyMatch(kafkaRecord -> "after".equals(kafkaRecord.getKey()));
+        });
+        //then
+        assertThat(localQueue.peek().getKey()).isEqualTo("before");
+        ((SocketExchangeQueue) publisher).close();
+    }
+
+    private ShardedQueue<KafkaRecord> newLocalQueue(String name) {
+        return new ShardedQueue<>(List.of(new BoundedQueue<>(name, 100, OverflowPolicy.BLOCK, metrics)));
+    }
+
+    private HttpExchange getHttpExchange() {
+        return new HttpExchange(
+                new HttpRequest("http://www.titi.com", "GET", "STRING", "stuff", null, null),
+                new HttpResponse(200, "OK", "my response"),
+                245L,
+                OffsetDateTime.of(2022, 11, 2, 10, 15, 30, 0, ZoneOffset.UTC),
+                new AtomicInteger(1),
+                true
+        );
+    }
+}